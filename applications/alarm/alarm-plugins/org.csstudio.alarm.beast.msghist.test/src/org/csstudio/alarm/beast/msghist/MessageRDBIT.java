@@ -10,7 +10,10 @@ package org.csstudio.alarm.beast.msghist;
 import static org.junit.Assert.assertTrue;
 
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.List;
 
 import org.csstudio.alarm.beast.msghist.model.Message;
 import org.csstudio.alarm.beast.msghist.model.MessagePropertyFilter;
@@ -86,4 +89,44 @@ public class MessageRDBIT
                 messages.length, messages.length / timer.getSeconds());
         assertTrue("Got some messages", messages.length > 0);
     }
+
+    /** Streaming read in pages, only reading some properties */
+    @Test
+    public void testStreaming() throws Exception
+    {
+        final MessageRDB log_rdb = new MessageRDB(URL, USER, PASSWORD, SCHEMA);
+
+        final Calendar end = Calendar.getInstance();
+        final Calendar start = (Calendar) end.clone();
+        start.add(Calendar.DATE, -DAYS_TO_READ);
+
+        final MessagePropertyFilter filters[] = new MessagePropertyFilter[]
+        {
+              new MessagePropertyFilter("TYPE", "log"),
+        };
+
+        final List<Message> messages = new ArrayList<>();
+        final BenchmarkTimer timer = new BenchmarkTimer();
+        final double[] first_page = new double[] { -1 };
+        final int count = log_rdb.streamMessages(
+              new NullProgressMonitor(), start, end, filters, new String[] { "TEXT" },
+              50000, 500, DateTimeFormatter.ISO_INSTANT,
+              page ->
+              {
+                  if (first_page[0] < 0)
+                  {
+                      timer.stop();
+                      first_page[0] = timer.getSeconds();
+                  }
+                  messages.addAll(Arrays.asList(page));
+              });
+        timer.stop();
+        log_rdb.close();
+
+        System.out.format("First page after %.2f seconds\n", first_page[0]);
+        System.out.format("Read %d messages; %.1f msg/second\n",
+                count, count / timer.getSeconds());
+        assertTrue("Got some messages", count > 0);
+        assertTrue("Got all messages", messages.size() >= count);
+    }
 }
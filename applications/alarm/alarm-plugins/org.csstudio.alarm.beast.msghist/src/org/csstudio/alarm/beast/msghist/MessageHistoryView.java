@@ -81,6 +81,7 @@ public class MessageHistoryView extends ViewPart {
 
     /**
      * Sets column properties and recreates GUI to show changes.
+     * Messages are read again when columns are added.
      *
      * @param columns
      *            column properties
@@ -140,6 +141,9 @@ public class MessageHistoryView extends ViewPart {
             createGUI();
             createToolbar();
 
+            // Trigger update
+            model.setTimerange(model.getStartSpec(), model.getEndSpec());
+
             getSite().setSelectionProvider(gui.getSelectionProvider());
         } catch (Exception e) {
             MessageDialog.openError(parent.getShell(), Messages.Error, e.getMessage());
@@ -154,9 +158,6 @@ public class MessageHistoryView extends ViewPart {
             gui.dispose();
         gui = new GUI(getSite(), parent, model, columns, Message.SEQ, true, true);
         parent.layout();
-
-        // Trigger update
-        model.setTimerange(model.getStartSpec(), model.getEndSpec());
     }
 
     private void createToolbar() {
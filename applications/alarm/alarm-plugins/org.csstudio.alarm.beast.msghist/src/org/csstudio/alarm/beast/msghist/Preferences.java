@@ -31,6 +31,7 @@ public class Preferences {
     public static final String START = "start";
     public static final String END = "end";
     public static final String MAX_MESSAGES = "max_messages";
+    public static final String PAGE_SIZE = "page_size";
     public static final String AUTO_REFRESH_PERIOD = "auto_refresh_period";
     public static final String TIME_FORMAT = "time_format";
 
@@ -139,6 +140,19 @@ public class Preferences {
         return max_messages;
     }
 
+    /**
+     * Gets the number of messages read per page.
+     *
+     * @return the page size
+     */
+    public static int getPageSize() {
+        final IPreferencesService service = Platform.getPreferencesService();
+        int page_size = 500;
+        if (service != null)
+            page_size = service.getInt(Activator.ID, Preferences.PAGE_SIZE, page_size, null);
+        return page_size;
+    }
+
     /**
      * Gets the default auto refresh timer.
      *
@@ -8,7 +8,10 @@
 package org.csstudio.alarm.beast.msghist.gui;
 
 import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -21,6 +24,7 @@ import org.csstudio.utility.singlesource.SingleSourcePlugin;
 import org.csstudio.utility.singlesource.UIHelper;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.jface.dialogs.ProgressMonitorDialog;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Shell;
@@ -87,6 +91,25 @@ public class ExportAction extends Action
             out.print("\n");
 
             final Message messages[] = model.getMessages();
+            // Read the properties that were skipped because their columns are not visible
+            final Map<Integer, Map<String, String>> content = new HashMap<>();
+            new ProgressMonitorDialog(shell).run(true, true, monitor ->
+            {
+                try
+                {
+                    content.putAll(model.readAllProperties(monitor, messages));
+                }
+                catch (Exception ex)
+                {
+                    throw new InvocationTargetException(ex, ex.getMessage());
+                }
+            });
+            for (Message message : messages)
+            {
+                final Map<String, String> props = content.get(message.getId());
+                if (props != null)
+                    message.addProperties(props);
+            }
             final String properties[] = getAllProperties(messages);
             out.print("# ID");
             for (String property : properties)
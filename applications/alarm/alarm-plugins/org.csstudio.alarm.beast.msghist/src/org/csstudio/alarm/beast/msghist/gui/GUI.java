@@ -9,6 +9,7 @@ package org.csstudio.alarm.beast.msghist.gui;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.TimeUnit;
@@ -26,6 +27,10 @@ import org.csstudio.apputil.ui.workbench.OpenViewAction;
 import org.csstudio.ui.util.MinSizeTableColumnLayout;
 import org.csstudio.utility.singlesource.SingleSourcePlugin;
 import org.csstudio.utility.singlesource.UIHelper.UI;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.jface.action.MenuManager;
 import org.eclipse.jface.action.Separator;
@@ -37,7 +42,9 @@ import org.eclipse.jface.util.PropertyChangeEvent;
 import org.eclipse.jface.viewers.CellLabelProvider;
 import org.eclipse.jface.viewers.ColumnViewerToolTipSupport;
 import org.eclipse.jface.viewers.ColumnWeightData;
+import org.eclipse.jface.viewers.ISelection;
 import org.eclipse.jface.viewers.ISelectionProvider;
+import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.jface.viewers.TableViewerColumn;
@@ -176,6 +183,18 @@ public class GUI extends Composite implements ModelListener {
 
         model.addListener(this);
 
+        // Only read the properties that are displayed.
+        // Detail and export read all properties when needed.
+        final List<String> visible = new ArrayList<>();
+        for (PropertyColumnPreference column : columns)
+            if (column.isVisible())
+                visible.add(column.getName());
+        try {
+            model.setProperties(visible.toArray(new String[visible.size()]));
+        } catch (Exception ex) {
+            MessageDialog.openError(parent.getShell(), "Error", "Error reading columns:\n" + ex.getMessage());
+        }
+
         connectGUIActions();
 
         connectContextMenu(site);
@@ -429,6 +448,9 @@ public class GUI extends Composite implements ModelListener {
             }
         });
 
+        // Detail shows all properties of the selected messages
+        table_viewer.addSelectionChangedListener(event -> readSelectedProperties());
+
         // Double-click on message opens detail
         table_viewer.getTable().addMouseListener(new MouseAdapter() {
             @Override
@@ -458,6 +480,47 @@ public class GUI extends Composite implements ModelListener {
         });
     }
 
+    /**
+     * Read all properties of selected messages that only hold those of the visible columns, then update the selection so
+     * that the detail view shows them.
+     */
+    private void readSelectedProperties() {
+        final List<Message> incomplete = new ArrayList<>();
+        for (Object item : ((IStructuredSelection) table_viewer.getSelection()).toList())
+            if (item instanceof Message && !((Message) item).isComplete())
+                incomplete.add((Message) item);
+        if (incomplete.isEmpty())
+            return;
+        final Message[] messages = incomplete.toArray(new Message[incomplete.size()]);
+        final Display display = getDisplay();
+        final Job job = new Job("Read Message Detail") {
+            @Override
+            protected IStatus run(final IProgressMonitor monitor) {
+                try {
+                    final Map<Integer, Map<String, String>> content = model.readAllProperties(monitor, messages);
+                    display.asyncExec(() -> {
+                        for (Message message : messages) {
+                            final Map<String, String> props = content.get(message.getId());
+                            if (props != null)
+                                message.addProperties(props);
+                        }
+                        if (table_viewer.getTable().isDisposed())
+                            return;
+                        // Detail view ignores the same selection, so clear and restore it
+                        final ISelection selection = table_viewer.getSelection();
+                        table_viewer.setSelection(StructuredSelection.EMPTY);
+                        table_viewer.setSelection(selection);
+                    });
+                } catch (Exception ex) {
+                    Activator.getLogger().log(Level.WARNING, "Cannot read message detail", ex);
+                }
+                return Status.OK_STATUS;
+            }
+        };
+        job.setSystem(true);
+        job.schedule();
+    }
+
     /**
      * Add context menu to table.
      *
@@ -8,7 +8,10 @@
 package org.csstudio.alarm.beast.msghist.model;
 
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.List;
 
 import org.csstudio.alarm.beast.msghist.rdb.MessageRDB;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -20,12 +23,18 @@ import org.eclipse.core.runtime.jobs.Job;
  * Background job for getting messages from RDB.
  * <p>
  * The job actually connects to the RDB each time and disconnects when done to avoid timeouts with a long running RDB connection.
+ * <p>
+ * Messages are read in pages. While reading, the messages received so far are reported about once per
+ * {@link #UPDATE_PERIOD_MS}, so the display can fill while the remaining messages are read.
  *
  * @author Kay Kasemir
  * @author Borut Terpinc
  */
 @SuppressWarnings("nls")
 abstract public class GetMessagesJob extends Job {
+    /** Period for reporting messages while still reading */
+    final private static long UPDATE_PERIOD_MS = 1000;
+
     final private String url;
     final private String user;
     final private String password;
@@ -34,8 +43,13 @@ abstract public class GetMessagesJob extends Job {
     final private Calendar end;
     final private MessagePropertyFilter[] filters;
     final private int max_messages;
+    final private String[] properties;
+    final private int page_size;
     final private DateTimeFormatter date_format;
 
+    /** Time for next report of messages */
+    private long next_update;
+
     /**
      * Initialize message job
      *
@@ -55,12 +69,16 @@ abstract public class GetMessagesJob extends Job {
      *            Message filters
      * @param max_messages
      *            Max. messages count
-     * @param shell
-     *            UI shell to display error dialog
+     * @param properties
+     *            Names of properties to read, <code>null</code> for all
+     * @param page_size
+     *            Number of messages per page
+     * @param date_format
+     *            Format for message time
      */
     public GetMessagesJob(final String url, final String user, final String password, final String schema,
             final Calendar start, final Calendar end, final MessagePropertyFilter filters[], final int max_messages,
-            final DateTimeFormatter date_format) {
+            final String[] properties, final int page_size, final DateTimeFormatter date_format) {
         super("Get Messages from RDB");
         this.url = url;
         this.user = user;
@@ -70,6 +88,8 @@ abstract public class GetMessagesJob extends Job {
         this.end = end;
         this.filters = filters;
         this.max_messages = max_messages;
+        this.properties = properties;
+        this.page_size = page_size;
         this.date_format = date_format;
     }
 
@@ -78,9 +98,19 @@ abstract public class GetMessagesJob extends Job {
         MessageRDB rdb = null;
         try {
             rdb = new MessageRDB(url, user, password, schema);
-            final Message[] messages = rdb.getMessages(monitor, start, end, filters, max_messages, date_format);
+            final List<Message> messages = new ArrayList<>();
+            rdb.streamMessages(monitor, start, end, filters, properties, max_messages, page_size, date_format, page -> {
+                messages.addAll(Arrays.asList(page));
+                // Report first page right away, then throttle
+                final long now = System.currentTimeMillis();
+                if (messages.size() == page.length || now >= next_update) {
+                    next_update = now + UPDATE_PERIOD_MS;
+                    if (!monitor.isCanceled())
+                        gotMessages(messages.toArray(new Message[messages.size()]));
+                }
+            });
             if (!monitor.isCanceled())
-                gotMessages(messages);
+                gotMessages(messages.toArray(new Message[messages.size()]));
         } catch (final Exception ex) {
             handleError("Message Database Error", ex);
         }
@@ -99,6 +129,9 @@ abstract public class GetMessagesJob extends Job {
      */
     abstract void handleError(final String message, final Exception ex);
 
-    /** Derived class must implement to handle received messages */
+    /** Derived class must implement to handle received messages.
+     *  Called with the messages read so far while still reading,
+     *  then with all messages.
+     */
     abstract void gotMessages(final Message[] messages);
 }
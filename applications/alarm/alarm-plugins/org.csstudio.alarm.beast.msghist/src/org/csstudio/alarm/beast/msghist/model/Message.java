@@ -54,6 +54,9 @@ public class Message implements IPropertySource
     /** Map of property names and values */
     final private Map<String, String> properties;
 
+    /** Does the message hold all its properties, or only some? */
+    private volatile boolean complete = true;
+
     /** Constructor
      *  @param sequence Sequence number
      *  @param id ID from RDB
@@ -81,6 +84,37 @@ public class Message implements IPropertySource
         properties.put(Message.DELTA, SecondsParser.formatSeconds(delta_secs));
     }
 
+    /** Mark message as holding only some of its properties.
+     *  Public, but really only meant to be called by code that
+     *  constructs the message.
+     *  @param complete Does the message hold all its properties?
+     */
+    public void setComplete(final boolean complete)
+    {
+        this.complete = complete;
+    }
+
+    /** @return <code>true</code> if message holds all its properties,
+     *          <code>false</code> if only some were read
+     *  @see #addProperties(Map)
+     */
+    public boolean isComplete()
+    {
+        return complete;
+    }
+
+    /** Add the properties that were not read initially,
+     *  which completes the message.
+     *  <p>
+     *  Call where the message is displayed, i.e. on the UI thread.
+     *  @param more Additional properties
+     */
+    public void addProperties(final Map<String, String> more)
+    {
+        properties.putAll(more);
+        complete = true;
+    }
+
     /** @return Sequential Message sequence number */
     public int getSequence()
     {
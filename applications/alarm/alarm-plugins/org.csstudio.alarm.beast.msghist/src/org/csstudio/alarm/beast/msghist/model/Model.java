@@ -8,19 +8,27 @@
 package org.csstudio.alarm.beast.msghist.model;
 
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 
 import org.csstudio.alarm.beast.msghist.Activator;
 import org.csstudio.alarm.beast.msghist.Preferences;
+import org.csstudio.alarm.beast.msghist.rdb.MessageRDB;
 import org.csstudio.apputil.time.StartEndTimeParser;
 import org.csstudio.ui.util.dialogs.ExceptionDetailsErrorDialog;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.swt.widgets.Shell;
 
 /**
  * Model of CSS log messages.
  * <p>
  * Handles async. database requests, notifies listeners on change.
+ * While a request is running, listeners are notified as messages arrive.
  *
  * @author Kay Kasemir
  * @author benhadj naceur @ sopra group - iter
@@ -37,6 +45,8 @@ public class Model {
     private String end_spec = Preferences.getDefaultEnd();
     private MessagePropertyFilter filters[] = new MessagePropertyFilter[0];
     private int max_messages;
+    private volatile String[] properties = null;
+    private final int page_size = Preferences.getPageSize();
     private DateTimeFormatter date_format;
     private GetMessagesJob message_job;
     private Shell shell;
@@ -154,6 +164,79 @@ public class Model {
         launchQuery();
     }
 
+    /**
+     * @return Names of properties to read, <code>null</code> for all
+     */
+    public String[] getProperties() {
+        return properties;
+    }
+
+    /**
+     * Limit the properties that model will read for each message,
+     * for example to those that are displayed.
+     * Properties kept in the MESSAGE table are always read.
+     * When properties are added, model will retrieve messages again,
+     * otherwise this takes effect with the next query.
+     *
+     * @param properties
+     *            Names of properties to read, <code>null</code> for all
+     * @throws Exception
+     *             on error
+     * @see #readAllProperties(IProgressMonitor, Message[])
+     */
+    public void setProperties(final String[] properties) throws Exception {
+        final boolean added = !includes(this.properties, properties);
+        this.properties = properties;
+        if (added)
+            launchQuery();
+    }
+
+    /**
+     * @param names
+     *            Property names, <code>null</code> for all
+     * @param other
+     *            Property names, <code>null</code> for all
+     * @return <code>true</code> if <code>names</code> include all the <code>other</code> names
+     */
+    private static boolean includes(final String[] names, final String[] other) {
+        if (names == null)
+            return true;
+        if (other == null)
+            return false;
+        return Arrays.asList(names).containsAll(Arrays.asList(other));
+    }
+
+    /**
+     * Read all properties of messages that were read with only some properties.
+     * <p>
+     * Connects to the RDB, so call from a background thread.
+     * The result is to be added to the messages via {@link Message#addProperties(Map)}
+     * where the messages are displayed.
+     *
+     * @param monitor
+     *            Checked for cancellation
+     * @param messages
+     *            Messages, those already complete are skipped
+     * @return Properties by message ID
+     * @throws Exception
+     *             on error
+     */
+    public Map<Integer, Map<String, String>> readAllProperties(final IProgressMonitor monitor,
+            final Message[] messages) throws Exception {
+        final List<Integer> ids = new ArrayList<>();
+        for (Message message : messages)
+            if (!message.isComplete())
+                ids.add(message.getId());
+        if (ids.isEmpty())
+            return Collections.emptyMap();
+        final MessageRDB rdb = new MessageRDB(url, user, password, schema);
+        try {
+            return rdb.readAllContent(monitor, ids);
+        } finally {
+            rdb.close();
+        }
+    }
+
     /**
      * Refresh.
      *
@@ -173,7 +256,7 @@ public class Model {
         // Start new job
         final StartEndTimeParser times = new StartEndTimeParser(start_spec, end_spec);
         message_job = new GetMessagesJob(url, user, password, schema, times.getStart(), times.getEnd(), filters,
-                max_messages, date_format) {
+                max_messages, properties, page_size, date_format) {
             @Override
             void gotMessages(final Message[] messages) {
                 if (messages == null)
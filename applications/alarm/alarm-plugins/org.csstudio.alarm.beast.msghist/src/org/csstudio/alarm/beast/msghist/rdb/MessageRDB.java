@@ -16,7 +16,9 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.csstudio.alarm.beast.msghist.Messages;
 import org.csstudio.alarm.beast.msghist.model.Message;
@@ -32,6 +34,9 @@ import org.eclipse.osgi.util.NLS;
 @SuppressWarnings("nls")
 public class MessageRDB
 {
+    /** Maximum page size, since Oracle limits "IN (...)" to 1000 items */
+    final private static int MAX_PAGE_SIZE = 1000;
+
     /** Util. for connection to RDB */
     final private RDBUtil rdb_util;
 
@@ -192,6 +197,223 @@ public class MessageRDB
         return messages.toArray(ret_val);
     }
 
+    /** Read messages from end to start time, newest first, maybe including filters.
+     *
+     *  <p>Messages are read in pages.
+     *  Each page is handed to the handler as soon as it has been read,
+     *  so the caller can display messages while more are being read.
+     *  The next page continues after the (datum, id) of the last message
+     *  on the previous page, so all pages are about equally fast.
+     *
+     *  <p>Properties in the MESSAGE table are always read.
+     *  Properties from MESSAGE_CONTENT can be limited to those that are displayed.
+     *
+     *  @param monitor Used to display progress, also checked for cancellation
+     *  @param start Start time
+     *  @param end End time
+     *  @param filters Filters to use (not <code>null</code>).
+     *  @param properties Names of properties to read, <code>null</code> to read all
+     *  @param max_messages Limit on the number of messages retrieved.
+     *  @param page_size Number of messages per page, at most 1000
+     *  @param date_format Format for message time
+     *  @param handler Will be called with each page of messages
+     *  @return Number of messages read
+     *  @throws Exception on error
+     */
+    public int streamMessages(
+            final IProgressMonitor monitor,
+            final Calendar start, final Calendar end,
+            final MessagePropertyFilter filters[],
+            final String[] properties,
+            final int max_messages, final int page_size,
+            final DateTimeFormatter date_format,
+            final Consumer<Message[]> handler) throws Exception
+    {
+        if (page_size <= 0  ||  page_size > MAX_PAGE_SIZE)
+            throw new IllegalArgumentException("Page size must be 1 .. " + MAX_PAGE_SIZE);
+        monitor.beginTask("Reading Messages", IProgressMonitor.UNKNOWN);
+        final int[] property_ids = sql.getContentPropertyIds(properties);
+        final Connection connection = rdb_util.getConnection();
+        connection.setReadOnly(true);
+        final PreparedStatement first_page =
+                connection.prepareStatement(sql.createPageSelect(rdb_util, filters, false));
+        final PreparedStatement next_page =
+                connection.prepareStatement(sql.createPageSelect(rdb_util, filters, true));
+        int count = 0;
+        try
+        {
+            // The 'delta' of a message is only known once the next message has been read,
+            // so the last message of each page is handed out with the next page
+            Message pending = null;
+            Date pending_datum = null;
+            // Key of last message on previous page
+            Timestamp last_datum = null;
+            int last_id = -1;
+            final List<Integer> ids = new ArrayList<Integer>(page_size);
+            final List<Date> datums = new ArrayList<Date>(page_size);
+            final List<Map<String, String>> props = new ArrayList<Map<String, String>>(page_size);
+            while (!monitor.isCanceled()  &&  count < max_messages)
+            {
+                // Read MESSAGE rows of next page
+                final int limit = Math.min(page_size, max_messages - count);
+                final PreparedStatement statement = last_datum == null ? first_page : next_page;
+                int parm = 1;
+                statement.setTimestamp(parm++, new Timestamp(start.getTimeInMillis()));
+                statement.setTimestamp(parm++, new Timestamp(end.getTimeInMillis()));
+                for (MessagePropertyFilter filter : filters)
+                    statement.setString(parm++, filter.getPattern());
+                if (last_datum != null)
+                {
+                    statement.setTimestamp(parm++, last_datum);
+                    statement.setTimestamp(parm++, last_datum);
+                    statement.setInt(parm++, last_id);
+                }
+                statement.setInt(parm++, limit);
+
+                ids.clear();
+                datums.clear();
+                props.clear();
+                final ResultSet result = statement.executeQuery();
+                try
+                {
+                    while (result.next())
+                    {
+                        last_id = result.getInt(1);
+                        last_datum = result.getTimestamp(2);
+                        final Map<String, String> message_props = new HashMap<String, String>();
+                        message_props.put(Message.DATUM, date_format.format(last_datum.toInstant()));
+                        for (int i=0; i<sql.messagePropertyCount(); ++i)
+                            message_props.put(sql.getMessageProperty(i), result.getString(3 + i));
+                        ids.add(last_id);
+                        datums.add(last_datum);
+                        props.add(message_props);
+                    }
+                }
+                finally
+                {
+                    result.close();
+                }
+                if (ids.isEmpty()  ||  monitor.isCanceled())
+                    break;
+
+                // Read MESSAGE_CONTENT for the messages on this page
+                if (property_ids == null  ||  property_ids.length > 0)
+                    readContent(connection, ids, props, property_ids);
+
+                // Hand out messages of this page
+                final List<Message> page = new ArrayList<Message>(ids.size() + 1);
+                if (pending != null)
+                    page.add(pending);
+                for (int i=0; i<ids.size(); ++i)
+                {
+                    final Message message = createMessage(++count, ids.get(i), props.get(i));
+                    if (property_ids != null)
+                        message.setComplete(false);
+                    final Date datum = datums.get(i);
+                    if (pending != null)
+                        pending.setDelta(pending_datum, datum);
+                    if (i < ids.size()-1)
+                        page.add(message);
+                    pending = message;
+                    pending_datum = datum;
+                }
+                handler.accept(page.toArray(new Message[page.size()]));
+                monitor.subTask(count + " messages...");
+
+                // Reached end of messages?
+                if (ids.size() < limit)
+                    break;
+            }
+            if (pending != null)
+                handler.accept(new Message[] { pending });
+
+            // Was readout stopped because we reached max. number of messages?
+            if (count >= max_messages)
+            {
+                final Map<String, String> info = new HashMap<String, String>();
+                info.put(Message.TYPE, "internal");
+                info.put(Message.SEVERITY, "FATAL");
+                info.put("TEXT", NLS.bind(Messages.ReachedMaxMessagesFmt, max_messages));
+                handler.accept(new Message[] { createMessage(count+1, -1, info) });
+            }
+        }
+        finally
+        {
+            next_page.close();
+            first_page.close();
+            monitor.done();
+        }
+        return count;
+    }
+
+    /** Read all MESSAGE_CONTENT properties of messages,
+     *  for example of those that {@link #streamMessages} read
+     *  with only some properties.
+     *
+     *  @param monitor Checked for cancellation
+     *  @param ids Message IDs
+     *  @return Properties by message ID.
+     *          When cancelled, only some of the messages are included.
+     *  @throws Exception on error
+     */
+    public Map<Integer, Map<String, String>> readAllContent(final IProgressMonitor monitor,
+                                                            final List<Integer> ids) throws Exception
+    {
+        final Map<Integer, Map<String, String>> content = new HashMap<Integer, Map<String, String>>();
+        final Connection connection = rdb_util.getConnection();
+        connection.setReadOnly(true);
+        // Read in pages, since Oracle limits "IN (...)"
+        for (int start=0;  start<ids.size()  &&  !monitor.isCanceled();  start += MAX_PAGE_SIZE)
+        {
+            final List<Integer> page = ids.subList(start, Math.min(ids.size(), start + MAX_PAGE_SIZE));
+            final List<Map<String, String>> props = new ArrayList<Map<String, String>>(page.size());
+            for (Integer id : page)
+            {
+                final Map<String, String> message_props = new HashMap<String, String>();
+                props.add(message_props);
+                content.put(id, message_props);
+            }
+            readContent(connection, page, props, null);
+        }
+        return content;
+    }
+
+    /** Read MESSAGE_CONTENT properties
+     *  @param connection RDB connection
+     *  @param ids Message IDs
+     *  @param props Properties for each message, will be updated
+     *  @param property_ids IDs of properties to read, <code>null</code> for all
+     *  @throws Exception on error
+     */
+    private void readContent(final Connection connection,
+                             final List<Integer> ids, final List<Map<String, String>> props,
+                             final int[] property_ids) throws Exception
+    {
+        final Map<Integer, Map<String, String>> props_by_id = new HashMap<Integer, Map<String, String>>();
+        for (int i=0; i<ids.size(); ++i)
+            props_by_id.put(ids.get(i), props.get(i));
+        final PreparedStatement statement =
+                connection.prepareStatement(sql.createContentSelect(ids.size(), property_ids));
+        try
+        {
+            for (int i=0; i<ids.size(); ++i)
+                statement.setInt(i+1, ids.get(i));
+            final ResultSet result = statement.executeQuery();
+            while (result.next())
+            {
+                final Map<String, String> message_props = props_by_id.get(result.getInt(1));
+                final String prop = sql.getPropertyNameById(result.getInt(2));
+                if (message_props != null  &&  prop != null)
+                    message_props.put(prop, result.getString(3));
+            }
+            result.close();
+        }
+        finally
+        {
+            statement.close();
+        }
+    }
+
     /** Create Message or PVMessage
      *  @param sequence Sequence number
      *  @param id RDB ID
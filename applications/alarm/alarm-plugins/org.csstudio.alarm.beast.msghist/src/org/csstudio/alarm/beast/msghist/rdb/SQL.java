@@ -216,6 +216,25 @@ public class SQL
         sel.append(" WHERE m.datum BETWEEN ? AND ?");
         // Join MESSAGE and ..CONTENT
         sel.append(" AND m.id=c.message_id");
+        appendFilters(sel, filters);
+        // Oracle limits result count via ROWNUM check within WHERE clause...
+        if (rdb_util.getDialect() == Dialect.Oracle)
+            sel.append(" AND ROWNUM < ?");
+        sel.append(" ORDER BY m.id DESC");
+        // MySQL uses designated LIMIT statement instead.
+        if (rdb_util.getDialect() == Dialect.MySQL || rdb_util.getDialect() == Dialect.PostgreSQL)
+            sel.append(" LIMIT ?");
+
+        return sel.toString();
+    }
+
+    /** Add filters to "WHERE ..."
+     *  @param sel "SELECT ... WHERE ..."
+     *  @param filters Filters to use (not <code>null</code>)
+     *  @throws Exception on error
+     */
+    private void appendFilters(final StringBuffer sel, final MessagePropertyFilter filters[]) throws Exception
+    {
         // Some filters may be MESSAGE columns, rest is MESSAGE_CONTENT
         for (MessagePropertyFilter filter : filters)
         {
@@ -233,21 +252,114 @@ public class SQL
                            + " AND value LIKE ?)");
             }
         }
-        // Oracle limits result count via ROWNUM check within WHERE clause...
+    }
+
+    /** Create "SELECT ... " for one page of messages,
+     *  newest first, which requires parameters
+     *  <ol>
+     *  <li>Start time
+     *  <li>End time
+     *  <li>Value pattern for property filter 1
+     *  <li>Value pattern for property filter 2
+     *  <li>...
+     *  <li value=97>For the next page: Datum of last message on previous page
+     *  <li>Same datum again
+     *  <li>ID of last message on previous page
+     *  <li>Page size
+     *  </ol>
+     *  and returns only the MESSAGE table
+     *  <ol>
+     *  <li>ID
+     *  <li>Datum
+     *  <li>First MESSAGE table property
+     *  <li>Second MESSAGE table property
+     *  <li>...
+     *  </ol>
+     *
+     *  <p>Pages continue after the (datum, id) of the previous page,
+     *  so each page is read via the (datum, id) index
+     *  instead of reading and skipping all the previous pages.
+     *
+     *  @param rdb_util RDBUtil
+     *  @param filters Filters to use (not <code>null</code>)
+     *  @param next_page Select page that follows a previous page?
+     *  @return SQL string
+     *  @throws Exception on error
+     */
+    String createPageSelect(final RDBUtil rdb_util,
+            final MessagePropertyFilter filters[], final boolean next_page) throws Exception
+    {
+        final StringBuffer sel = new StringBuffer();
+        sel.append("SELECT m.id, m.datum");
+        for (String msg_prop : message_properties)
+            sel.append(", m." + msg_prop);
+        sel.append(" FROM " + getSchemaPrefix() + "message m");
+        sel.append(" WHERE m.datum BETWEEN ? AND ?");
+        appendFilters(sel, filters);
+        if (next_page)
+            sel.append(" AND (m.datum < ? OR (m.datum = ? AND m.id < ?))");
+        sel.append(" ORDER BY m.datum DESC, m.id DESC");
+        // Oracle needs to limit the ordered result
         if (rdb_util.getDialect() == Dialect.Oracle)
-            sel.append(" AND ROWNUM < ?");
-        sel.append(" ORDER BY m.id DESC");
-        // MySQL uses designated LIMIT statement instead.
-        if (rdb_util.getDialect() == Dialect.MySQL || rdb_util.getDialect() == Dialect.PostgreSQL)
-            sel.append(" LIMIT ?");
+            return "SELECT * FROM (" + sel.toString() + ") WHERE ROWNUM <= ?";
+        sel.append(" LIMIT ?");
+        return sel.toString();
+    }
 
+    /** Create "SELECT ..." for the MESSAGE_CONTENT of messages,
+     *  which requires the message IDs as parameters
+     *  and returns
+     *  <ol>
+     *  <li>Message ID
+     *  <li>MESSAGE_CONTENT property ID
+     *  <li>MESSAGE_CONTENT property value
+     *  </ol>
+     *  @param message_count Number of message IDs
+     *  @param property_ids IDs of properties to read, <code>null</code> for all
+     *  @return SQL string
+     */
+    String createContentSelect(final int message_count, final int[] property_ids)
+    {
+        final StringBuffer sel = new StringBuffer();
+        sel.append("SELECT message_id, msg_property_type_id, value");
+        sel.append(" FROM " + getSchemaPrefix() + "message_content");
+        sel.append(" WHERE message_id IN (");
+        for (int i=0; i<message_count; ++i)
+            sel.append(i > 0 ? ",?" : "?");
+        sel.append(")");
+        if (property_ids != null)
+        {
+            sel.append(" AND msg_property_type_id IN (");
+            for (int i=0; i<property_ids.length; ++i)
+            {
+                if (i > 0)
+                    sel.append(",");
+                sel.append(property_ids[i]);
+            }
+            sel.append(")");
+        }
         return sel.toString();
     }
 
-    /** Idea: Use the above to ONLY select from MESSAGE table, then
-     *  use separate query to select remaining properties for a message
-     *  SELECT msg_property_type_id, value
-     *  FROM message_content
-     *  WHERE message_id=?
+    /** Determine the MESSAGE_CONTENT property IDs for property names.
+     *  Properties that are MESSAGE columns or unknown are skipped.
+     *  @param properties Names of properties, <code>null</code> for all
+     *  @return Property IDs, <code>null</code> for all
      */
+    int[] getContentPropertyIds(final String[] properties)
+    {
+        if (properties == null)
+            return null;
+        final ArrayList<Integer> ids = new ArrayList<Integer>();
+        for (String property : properties)
+        {
+            final Integer id = content_properties_by_name.get(property);
+            if (id != null  &&  !ids.contains(id))
+                ids.add(id);
+        }
+        final int[] result = new int[ids.size()];
+        for (int i=0; i<result.length; ++i)
+            result[i] = ids.get(i);
+        return result;
+    }
 }
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.server;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/** JUnit test of the {@link BatchUpdater}
+ *
+ *  <p>Updates are "PV:value" strings, keyed by the PV.
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class BatchUpdaterUnitTest
+{
+    final private static String[] EMPTY = new String[0];
+
+    private static String getPV(final String update)
+    {
+        return update.substring(0, update.indexOf(':'));
+    }
+
+    /** Handler that records what's published and persisted */
+    private static class TestHandler implements BatchUpdater.Handler<String>
+    {
+        final List<String> published = new ArrayList<>();
+        final List<String> persisted = new ArrayList<>();
+        final CountDownLatch persist_started = new CountDownLatch(1);
+        volatile long persist_delay_ms = 0;
+        volatile int persist_failures = 0;
+
+        @Override
+        public synchronized void publish(final String[] states, final String[] globals)
+        {
+            published.addAll(Arrays.asList(states));
+            published.addAll(Arrays.asList(globals));
+        }
+
+        @Override
+        public void persist(final String[] states, final String[] globals) throws Exception
+        {
+            persist_started.countDown();
+            Thread.sleep(persist_delay_ms);
+            if (persist_failures > 0)
+            {
+                --persist_failures;
+                throw new Exception("Test failure");
+            }
+            synchronized (this)
+            {
+                persisted.addAll(Arrays.asList(states));
+                persisted.addAll(Arrays.asList(globals));
+            }
+        }
+
+        synchronized List<String> getPublished()
+        {
+            return new ArrayList<>(published);
+        }
+
+        synchronized List<String> getPersisted()
+        {
+            return new ArrayList<>(persisted);
+        }
+    }
+
+    @Test
+    public void testBatching() throws Exception
+    {
+        final TestHandler handler = new TestHandler();
+        final BatchUpdater<String> updater = new BatchUpdater<>(BatchUpdaterUnitTest::getPV, handler, 200, EMPTY);
+
+        // All updates within the window are published
+        updater.addState("a:1");
+        updater.addState("b:1");
+        updater.addState("a:2");
+        updater.addGlobal("a:global");
+        assertThat(updater.getPublishQueueSize(), equalTo(4));
+
+        updater.shutdown(5000);
+        assertThat(handler.getPublished(), equalTo(Arrays.asList("a:1", "b:1", "a:2", "a:global")));
+        // For persistence, updates replace earlier ones for the same PV, keeping their order
+        assertThat(handler.getPersisted(), equalTo(Arrays.asList("a:2", "b:1", "a:global")));
+        System.out.println(updater.getStatistics());
+    }
+
+    @Test
+    public void testPersistenceError() throws Exception
+    {
+        final TestHandler handler = new TestHandler();
+        handler.persist_failures = 1;
+        final BatchUpdater<String> updater = new BatchUpdater<>(BatchUpdaterUnitTest::getPV, handler, 10, EMPTY);
+
+        updater.addState("a:1");
+        updater.addState("b:1");
+        assertTrue(handler.persist_started.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        // Failed updates are queued again
+        assertThat(updater.getPersistQueueSize(), equalTo(2));
+
+        // Newer update replaces the failed one
+        updater.addState("a:2");
+        Thread.sleep(100);
+        assertThat(updater.getPersistQueueSize(), equalTo(2));
+
+        // Retry persists them
+        updater.shutdown(10000);
+        assertThat(handler.getPersisted(), equalTo(Arrays.asList("a:2", "b:1")));
+        System.out.println(updater.getStatistics());
+    }
+
+    @Test
+    public void testSlowPersistence() throws Exception
+    {
+        final TestHandler handler = new TestHandler();
+        handler.persist_delay_ms = 2000;
+        final BatchUpdater<String> updater = new BatchUpdater<>(BatchUpdaterUnitTest::getPV, handler, 10, EMPTY);
+
+        updater.addState("a:1");
+        assertTrue(handler.persist_started.await(5, TimeUnit.SECONDS));
+
+        // While the RDB is busy, updates are still published
+        for (int i=2; i<=5; ++i)
+        {
+            updater.addState("a:" + i);
+            Thread.sleep(50);
+        }
+        assertThat(handler.getPublished(), equalTo(Arrays.asList("a:1", "a:2", "a:3", "a:4", "a:5")));
+
+        // .. and only the last one is then persisted
+        assertThat(updater.getPersistQueueSize(), equalTo(1));
+        updater.shutdown(10000);
+        assertThat(handler.getPersisted(), equalTo(Arrays.asList("a:1", "a:5")));
+        System.out.println(updater.getStatistics());
+    }
+}
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.server;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.csstudio.apputil.time.TimerWheel;
+import org.junit.Test;
+
+/** JUnit test of the {@link DelayTimer}
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class DelayTimerUnitTest
+{
+    final private List<String> expired = new ArrayList<>();
+
+    private TimerWheel.Timer<Runnable> check(final String name)
+    {
+        return new TimerWheel.Timer<>(() ->
+        {
+            synchronized (expired)
+            {
+                expired.add(name);
+                expired.notifyAll();
+            }
+        });
+    }
+
+    private List<String> waitForExpired(final int count) throws Exception
+    {
+        synchronized (expired)
+        {
+            for (int i=0; expired.size() < count  &&  i<50; ++i)
+                expired.wait(100);
+            return new ArrayList<>(expired);
+        }
+    }
+
+    @Test
+    public void testTimeouts() throws Exception
+    {
+        // Small wheel to test delays that take several revolutions
+        final DelayTimer timer = new DelayTimer("Test", 10, 8);
+        final TimerWheel.Timer<Runnable> a = check("a");
+        final TimerWheel.Timer<Runnable> b = check("b");
+        final TimerWheel.Timer<Runnable> d = check("d");
+
+        final long start = System.currentTimeMillis();
+        timer.schedule(check("c"), 500);
+        timer.schedule(a, 100);
+        timer.schedule(b, 300);
+        timer.schedule(d, 200);
+        assertThat(timer.getPending(), equalTo(4));
+
+        // Cancel is OK when not scheduled, and can be re-scheduled
+        assertTrue(timer.cancel(d));
+        assertThat(timer.cancel(d), equalTo(false));
+        assertThat(timer.cancel(null), equalTo(false));
+        timer.schedule(d, 400);
+        // Moving 'b' to an earlier time by scheduling it again
+        timer.schedule(b, 200);
+        assertThat(timer.getPending(), equalTo(4));
+
+        assertThat(waitForExpired(4), equalTo(Arrays.asList("a", "b", "d", "c")));
+        final long duration = System.currentTimeMillis() - start;
+        System.out.println("Timeouts expired after " + duration + " ms");
+        assertTrue(duration >= 500);
+        assertThat(timer.getPending(), equalTo(0));
+        assertThat(timer.isScheduled(a), equalTo(false));
+        assertThat(timer.isScheduled(d), equalTo(false));
+    }
+
+    /** Action that schedules its timer again */
+    private class Repeat implements Runnable
+    {
+        final private DelayTimer delay_timer;
+        final TimerWheel.Timer<Runnable> timer = new TimerWheel.Timer<>(this);
+        private int count = 0;
+
+        Repeat(final DelayTimer delay_timer)
+        {
+            this.delay_timer = delay_timer;
+        }
+
+        @Override
+        public void run()
+        {
+            // Actions may schedule their timer again
+            if (++count < 5)
+                delay_timer.schedule(timer, 10);
+            synchronized (expired)
+            {
+                expired.add("repeat " + count);
+                expired.notifyAll();
+            }
+        }
+    }
+
+    @Test
+    public void testReschedule() throws Exception
+    {
+        final DelayTimer timer = new DelayTimer("Test", 10, 64);
+        final Repeat repeat = new Repeat(timer);
+        timer.schedule(repeat.timer, 10);
+        assertThat(waitForExpired(5).size(), equalTo(5));
+        Thread.sleep(100);
+        assertThat(expired.size(), equalTo(5));
+    }
+}
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.server;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.time.Instant;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.csstudio.alarm.beast.SeverityLevel;
+import org.junit.Test;
+
+/** JUnit-based benchmark of the {@link DelayedAlarmUpdate}
+ *
+ *  <p>Drives 100000 PVs through delayed alarms.
+ *  Every PV enters an alarm with a delay, half of them chatter,
+ *  i.e. clear and re-enter the alarm several times within the delay,
+ *  and the remaining alarms then expire.
+ *  Compares the {@link DelayTimer} with the original
+ *  implementation that used a {@link TimerTask} per delay on a {@link Timer}.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class DelayedAlarmUpdateBenchmarkDemo
+{
+    final private static int PVS = 100000, CHATTER = 5, DELAY = 2;
+
+    /** Common API of the original and new delayed update */
+    private interface Delay
+    {
+        void schedule_update(AlarmState state, int seconds);
+        void cancel();
+    }
+
+    /** Original implementation with {@link TimerTask} per delay */
+    private static class TimerTaskDelay implements Delay
+    {
+        final private static Timer timer = new Timer("TimerTaskDelay", true);
+        final private DelayedAlarmListener listener;
+        private AlarmState state;
+        private TimerTask scheduled_task = null;
+
+        TimerTaskDelay(final DelayedAlarmListener listener)
+        {
+            this.listener = listener;
+        }
+
+        @Override
+        public void schedule_update(final AlarmState new_state, final int seconds)
+        {
+            final TimerTask new_task;
+            synchronized (this)
+            {
+                this.state = new_state;
+                if (scheduled_task != null)
+                    return;
+                new_task = new TimerTask()
+                {
+                    @Override
+                    public void run()
+                    {
+                        final AlarmState the_state;
+                        synchronized (TimerTaskDelay.this)
+                        {
+                            the_state = state;
+                            scheduled_task = null;
+                            state = null;
+                        }
+                        if (the_state != null)
+                            listener.delayedStateUpdate(the_state);
+                    }
+                };
+                scheduled_task = new_task;
+            }
+            timer.schedule(new_task, seconds * 1000L);
+        }
+
+        @Override
+        public void cancel()
+        {
+            final TimerTask task;
+            synchronized (this)
+            {
+                state = null;
+                task = scheduled_task;
+                scheduled_task = null;
+            }
+            if (task != null)
+                task.cancel();
+        }
+    }
+
+    /** {@link DelayedAlarmUpdate} with the {@link DelayTimer} */
+    private static class WheelDelay extends DelayedAlarmUpdate implements Delay
+    {
+        WheelDelay(final DelayedAlarmListener listener)
+        {
+            super(listener);
+        }
+
+        @Override
+        public void schedule_update(final AlarmState new_state, final int seconds)
+        {
+            super.schedule_update(new_state, seconds);
+        }
+    }
+
+    private static void run(final String title, final boolean wheel) throws Exception
+    {
+        final AtomicInteger expired = new AtomicInteger();
+        final DelayedAlarmListener listener = state -> expired.incrementAndGet();
+        final Delay[] delays = new Delay[PVS];
+        for (int i=0; i<PVS; ++i)
+            delays[i] = wheel ? new WheelDelay(listener) : new TimerTaskDelay(listener);
+        final AlarmState state = new AlarmState(SeverityLevel.MAJOR, "Test", "1", Instant.now());
+
+        final long start = System.nanoTime();
+        int operations = 0;
+        for (int i=0; i<PVS; ++i)
+        {
+            delays[i].schedule_update(state, DELAY);
+            ++operations;
+        }
+        for (int c=0; c<CHATTER; ++c)
+            for (int i=0; i<PVS; i+=2)
+            {
+                delays[i].cancel();
+                delays[i].schedule_update(state, DELAY);
+                operations += 2;
+            }
+        final double ms = (System.nanoTime() - start) / 1e6;
+
+        // Wait for all delays to expire
+        final long end = System.currentTimeMillis() + (DELAY + 5) * 1000L;
+        while (expired.get() < PVS  &&  System.currentTimeMillis() < end)
+            Thread.sleep(100);
+        final double total = (System.nanoTime() - start) / 1e6;
+        System.out.format("%-15s: %d schedule/cancel in %8.1f ms = %10.0f ops/sec, all %d expired after %6.0f ms\n",
+                          title, operations, ms, operations / ms * 1000.0, expired.get(), total);
+        assertThat(expired.get(), equalTo(PVS));
+    }
+
+    @Test
+    public void benchmark() throws Exception
+    {
+        for (int run=0; run<3; ++run)
+        {
+            run("Timer/TimerTask", false);
+            run("DelayTimer", true);
+        }
+    }
+}
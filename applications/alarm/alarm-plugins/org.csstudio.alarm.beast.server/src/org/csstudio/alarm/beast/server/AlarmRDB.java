@@ -14,11 +14,13 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Timestamp;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 
+import org.csstudio.alarm.beast.AlarmTreeRecord;
 import org.csstudio.alarm.beast.SQL;
 import org.csstudio.alarm.beast.SeverityLevel;
 import org.csstudio.alarm.beast.TimestampHelper;
@@ -26,6 +28,10 @@ import org.csstudio.alarm.beast.server.AlarmServer.Update;
 import org.csstudio.platform.utility.rdb.RDBUtil;
 
 /** Alarm RDB Handler
+ *
+ *  <p>State updates are persisted on a separate thread,
+ *  so all access to the RDB connection synchronizes on this.
+ *
  *  @author Kay Kasemir
  *  @author Lana Abadie - Disable autocommit as needed.
  *  @author Jaka Bobnar - RDB batching
@@ -88,7 +94,7 @@ public class AlarmRDB
      *  @return Root element of the alarm tree hierarchy
      *  @throws Exception on error
      */
-    public ServerTreeItem readConfiguration() throws Exception
+    public synchronized ServerTreeItem readConfiguration() throws Exception
     {
         final Connection conn = rdb.getConnection();
         // Disabling the auto-reconnect is about 15% faster, and we don't
@@ -115,17 +121,10 @@ public class AlarmRDB
             statement.close();
         }
 
-        // Fetch children
-        final PreparedStatement sel_items_by_parent =
-            conn.prepareStatement(sql.sel_items_by_parent);
-        try
-        {
-            readChildren(root, sel_items_by_parent);
-        }
-        finally
-        {
-            sel_items_by_parent.close();
-        }
+        // Fetch all items and severity PVs below the root, then assemble the tree in memory
+        final Map<Integer, List<AlarmTreeRecord>> records = AlarmTreeRecord.readTree(conn, sql, root.getID());
+        final Map<Integer, String> severity_pvs = readSeverityPVs(conn, root.getID());
+        addChildren(root, records, severity_pvs);
 
         // In transactional mode (Connection.setAutoCommit(false)),
         // even SELECTs needed a commit() to end the transaction.
@@ -147,139 +146,116 @@ public class AlarmRDB
         return root;
     }
 
-    /** Read alarm tree hierarchy
-     *  @param parent Parent entry
-     *  @param sel_items_by_parent Prepared statement for fetching child elements
+    /** Read severity PVs from the automated actions of all items below the root
+     *  @param conn RDB connection
+     *  @param root_id ID of the root
+     *  @return Severity PV names by item ID
      *  @throws Exception on error
      */
-    private void readChildren(final ServerTreeItem parent, final PreparedStatement sel_items_by_parent) throws Exception
+    private Map<Integer, String> readSeverityPVs(final Connection conn, final int root_id) throws Exception
     {
-        final PreparedStatement sel_actions = connection.prepareStatement(sql.sel_auto_actions_by_id);
-        final List<ServerTreeItem> recurse_items = new ArrayList<>();
-
-        sel_items_by_parent.setInt(1, parent.getID());
-        final ResultSet result = sel_items_by_parent.executeQuery();
+        final Map<Integer, String> severity_pvs = new HashMap<>();
         try
+        (
+            final PreparedStatement statement = conn.prepareStatement(sql.sel_auto_actions_by_root);
+        )
         {
+            statement.setFetchSize(AlarmTreeRecord.FETCH_SIZE);
+            statement.setInt(1, root_id);
+            final ResultSet result = statement.executeQuery();
             while (result.next())
             {
-                final int id = result.getInt(1);
-                if (result.wasNull())
-                    throw new Exception("NULL component ID");
-                final String name = result.getString(17);
-                if (result.wasNull())
-                    throw new Exception("NULL component Name");
-                // Ignoring config. time from result.getTimestamp(2)
-
-                // Check PV's ID. If null, this is a component, not PV
-                final int pv_id = result.getInt(3);
-                if (result.wasNull())
-                {
-                    // Check automated action 'sevrpv:' ...
-                    String severity_pv = null;
-                    sel_actions.setInt(1, id);
-                    try
-                    (
-                        final ResultSet act_res = sel_actions.executeQuery();
-                    )
-                    {
-                        while (act_res.next())
-                        {
-                            final String action = act_res.getString(2);
-                            if (action.startsWith(SEVRPV))
-                            {
-                                final String pv_name = action.substring(SEVRPV.length());
-                                if (severity_pv != null)
-                                    logger.log(Level.WARNING, "Multiple severity PVs for '" + name + "', '" +
-                                               severity_pv + "' as well as '" + pv_name + "'");
-                                severity_pv = pv_name;
-                            }
-                        }
-                    }
-
-                    final ServerTreeItem child = new ServerTreeItem(parent, name, id, severity_pv);
-                    recurse_items.add(child);
-                }
-                else
-                {   // Handle PV
-                    if (id != pv_id)
-                        throw new Exception("Internal RDB error: Item '" + name + "' as ID " + id + " but also PV ID " + pv_id);
-                    // Easy results
-                    String description = result.getString(4);
-                    // Description should not be empty
-                    if (result.wasNull() || description == null || description.length() <= 0)
-                        description = name;
-                    // Default to most features turned 'on'
-                    boolean enabled = result.getBoolean(5);
-                    if (result.wasNull())
-                        enabled = true;
-                    boolean annunciate = result.getBoolean(6);
-                    if (result.wasNull())
-                        annunciate = true;
-                    boolean latch = result.getBoolean(7);
-                    if (result.wasNull())
-                        latch = true;
-                    // 0/null/empty disables these features
-                    final int min_alarm_delay = result.getInt(8);
-                    final int count = result.getInt(9);
-                    final String filter = result.getString(10);
-
-                    // Decode current severity/status IDs, handling NULL as "Ok"
-                    int severity_id = result.getInt(11);
-                    final SeverityLevel current_severity = result.wasNull()
-                        ? SeverityLevel.OK
-                        : severity_mapping.getSeverityLevel(severity_id);
-
-                    int status_id = result.getInt(12);
-                    final String current_status = result.wasNull()
-                        ? ""
-                        : message_mapping.findMessageById(status_id);
-
-                    // Alarm severity/status
-                    severity_id = result.getInt(13);
-                    final SeverityLevel severity = result.wasNull()
-                        ? SeverityLevel.OK
-                        : severity_mapping.getSeverityLevel(severity_id);
-
-                    status_id = result.getInt(14);
-                    final String status = result.wasNull()
-                        ? ""
-                        : message_mapping.findMessageById(status_id);
-
-                    // Alarm value, time
-                    final String value = result.getString(15);
-
-                    final Timestamp time = result.getTimestamp(16);
-                    final Instant timestamp = result.wasNull()
-                        ? Instant.now()
-                        : TimestampHelper.toEPICSTime(time);
-
-                    final int global_delay = AlarmServerPreferences.getGlobalAlarmDelay();
-
-                    new AlarmPV(server, parent, id, name, description,
-                            enabled, latch, annunciate, min_alarm_delay, count, global_delay, filter,
-                            current_severity, current_status, severity, status, value, timestamp);
-                }
+                final String action = result.getString(2);
+                if (action == null  ||  !action.startsWith(SEVRPV))
+                    continue;
+                final int id = result.getInt(4);
+                final String pv_name = action.substring(SEVRPV.length());
+                final String previous = severity_pvs.put(id, pv_name);
+                if (previous != null)
+                    logger.log(Level.WARNING, "Multiple severity PVs for item " + id + ", '" +
+                               previous + "' as well as '" + pv_name + "'");
             }
-        }
-        finally
-        {
             result.close();
-            sel_actions.close();
         }
+        return severity_pvs;
+    }
 
-        // Recurse to children
-        // Cannot do that inside the above while() because that would reuse
-        // the statement of the current ResultSet
-        for (ServerTreeItem child : recurse_items)
-            readChildren(child, sel_items_by_parent);
+    /** Add alarm tree hierarchy
+     *  @param parent Parent entry
+     *  @param records Records of all items by parent ID
+     *  @param severity_pvs Severity PV names by item ID
+     *  @throws Exception on error
+     */
+    private void addChildren(final ServerTreeItem parent, final Map<Integer, List<AlarmTreeRecord>> records,
+                             final Map<Integer, String> severity_pvs) throws Exception
+    {
+        final List<AlarmTreeRecord> children = records.get(parent.getID());
+        if (children == null)
+            return;
+        for (AlarmTreeRecord record : children)
+        {
+            final int id = record.id;
+            final String name = record.name;
+            if (! record.is_pv)
+            {
+                final ServerTreeItem child = new ServerTreeItem(parent, name, id, severity_pvs.get(id));
+                addChildren(child, records, severity_pvs);
+                continue;
+            }
+            // Handle PV
+            if (id != record.pv_id)
+                throw new Exception("Internal RDB error: Item '" + name + "' as ID " + id + " but also PV ID " + record.pv_id);
+            String description = record.description;
+            // Description should not be empty
+            if (description == null || description.length() <= 0)
+                description = name;
+            // Default to most features turned 'on'
+            final boolean enabled = record.enabled == null ? true : record.enabled;
+            final boolean annunciate = record.annunciate == null ? true : record.annunciate;
+            final boolean latch = record.latch == null ? true : record.latch;
+            // 0/null/empty disables these features
+            final int min_alarm_delay = record.delay;
+            final int count = record.count;
+            final String filter = record.filter;
+
+            // Decode current severity/status IDs, handling NULL as "Ok"
+            final SeverityLevel current_severity = record.current_severity_id == null
+                ? SeverityLevel.OK
+                : severity_mapping.getSeverityLevel(record.current_severity_id);
+
+            final String current_status = record.current_status_id == null
+                ? ""
+                : message_mapping.findMessageById(record.current_status_id);
+
+            // Alarm severity/status
+            final SeverityLevel severity = record.severity_id == null
+                ? SeverityLevel.OK
+                : severity_mapping.getSeverityLevel(record.severity_id);
+
+            final String status = record.status_id == null
+                ? ""
+                : message_mapping.findMessageById(record.status_id);
+
+            // Alarm value, time
+            final String value = record.value;
+
+            final Instant timestamp = record.alarm_time == null
+                ? Instant.now()
+                : TimestampHelper.toEPICSTime(record.alarm_time);
+
+            final int global_delay = AlarmServerPreferences.getGlobalAlarmDelay();
+
+            new AlarmPV(server, parent, id, name, description,
+                    enabled, latch, annunciate, min_alarm_delay, count, global_delay, filter,
+                    current_severity, current_status, severity, status, value, timestamp);
+        }
     }
 
     /** Read configuration for PV, update it from RDB
      *  @param pv AlarmPV to update
      *  @throws Exception on error
      */
-    public void readConfigurationUpdate(final AlarmPV pv) throws Exception
+    public synchronized void readConfigurationUpdate(final AlarmPV pv) throws Exception
     {
         final PreparedStatement statement =
             rdb.getConnection().prepareStatement(sql.sel_pv_by_id);
@@ -395,7 +371,7 @@ public class AlarmRDB
      *
      *  @throws Exception
      */
-    public void persistAllStates(final Update[] updates, final int batchSize) throws Exception
+    public synchronized void persistAllStates(final Update[] updates, final int batchSize) throws Exception
     {
         final Connection actual_connection = rdb.getConnection();
         actual_connection.setAutoCommit(false);
@@ -459,7 +435,7 @@ public class AlarmRDB
      *
      *  @throws Exception
      */
-    public void persistGlobalUpdates(final Update[] updates, final int batchSize) throws Exception
+    public synchronized void persistGlobalUpdates(final Update[] updates, final int batchSize) throws Exception
     {
         final Connection actual_connection = rdb.getConnection();
         actual_connection.setAutoCommit(false);
@@ -522,7 +498,7 @@ public class AlarmRDB
      *  @param enabled Enabled or not?
      *  @throws Exception on error
      */
-    public void writeEnablementUpdate(final AlarmPV pv, final boolean enabled) throws Exception
+    public synchronized void writeEnablementUpdate(final AlarmPV pv, final boolean enabled) throws Exception
     {
         final Connection actual_connection = rdb.getConnection();
 
@@ -563,7 +539,7 @@ public class AlarmRDB
     }
 
     /** Must be called to release resources */
-    public void close()
+    public synchronized void close()
     {
         // Does not specifically close all prepared statements,
         // leaves that to overall rdb.close()
@@ -41,46 +41,8 @@ import org.eclipse.osgi.util.NLS;
  *  @author Jaka Bobnar - RDB batching
  */
 @SuppressWarnings("nls")
-public class AlarmServer implements Runnable
+public class AlarmServer
 {
-    /** BatchUpdater takes care of periodic updates of alarm states into the RDB and
-     *  to the JMS. This allows for the updates to queue up to sizable number.
-     *  Then they are sent in batches, which allows for better performance.
-     */
-    private class BatchUpdater extends Thread
-    {
-        boolean run = true;
-
-        public BatchUpdater()
-        {
-            setDaemon(true);
-            setPriority(MIN_PRIORITY);
-        }
-
-        @Override
-        public void run()
-        {
-            try
-            {
-                while (run)
-                {
-                    work_queue.executeIfNotPending(AlarmServer.this);
-                    Thread.sleep(updatePeriod);
-                }
-            }
-            catch (InterruptedException e)
-            {
-                // Ignore: Server has been terminated, there is no need for further updates
-            }
-        }
-
-        public void terminate()
-        {
-            run = false;
-            this.interrupt();
-        }
-    }
-
     /** Update is a wrapper about a single PV update received by the server.
      *  It is used to queue data for later processing.*
      */
@@ -109,22 +71,6 @@ public class AlarmServer implements Runnable
         }
     }
 
-    /** A list holding all the updates, which have not yet been send to the JMS queue */
-    private List<Update> queuedUpdates = new ArrayList<Update>();
-
-    /** A list holding all the global updates, which have not yet been send to the JMS queue */
-    private List<Update> queuedGlobalUpdates = new ArrayList<Update>();
-
-    /** Updates to be persisted in the RDB, mapping the 'latest' by PV.
-     *  While queuedUpdates contains all recent updates, the map only
-     *  retains the most recent update for each PV
-     *  because we only need to store the latest updates of the same PV.
-     */
-    private Map<String,Update> queuedRDBUpdates = new HashMap<String,Update>();
-
-    /** Global updates to be persisted in the RDB, mapping the 'latest' by PV */
-    private Map<String,Update> queuedRDBGlobalUpdates = new HashMap<String,Update>();
-
     /** Name of alarm tree root element */
     final String root_name;
 
@@ -158,12 +104,14 @@ public class AlarmServer implements Runnable
     /** Indicator for communication errors */
     private volatile boolean had_RDB_error = false;
 
-    /** Updater thread */
-    private BatchUpdater batchExecutor;
-    /** The period of the updater thread - how frequently it executes message persisting */
+    /** Publishes updates to JMS and persists them in the RDB */
+    final private BatchUpdater<Update> updater;
+    /** The batching window of the updater */
     private final long updatePeriod;
     /** The maximum size of batches when persisting messages */
     private final int batchSize;
+    /** The maximum number of updates per JMS message */
+    private final int jmsBatchSize;
 
     /** Initialize
      *  @param talker Talker that'll be used to annunciate
@@ -177,6 +125,23 @@ public class AlarmServer implements Runnable
         this.work_queue = work_queue;
         this.updatePeriod = (long)(Preferences.getBatchUpdatePeriod()*1000);
         this.batchSize = Preferences.getBatchSize();
+        this.jmsBatchSize = Preferences.getJMSBatchSize();
+        updater = new BatchUpdater<>(u -> u.pv.getName(), new BatchUpdater.Handler<Update>()
+        {
+            @Override
+            public void publish(final Update[] states, final Update[] globals)
+            {
+                messenger.sendStateUpdates(states, jmsBatchSize);
+                for (Update u : globals)
+                    messenger.sendGlobalUpdate(u.pv, u.alarmSeverity, u.alarmMessage, u.value, u.timestamp);
+            }
+
+            @Override
+            public void persist(final Update[] states, final Update[] globals) throws Exception
+            {
+                persistUpdates(states, globals);
+            }
+        }, updatePeriod, new Update[0]);
         rdb = new AlarmRDB(this, Preferences.getRDB_Url(),
                 Preferences.getRDB_User(),
                 Preferences.getRDB_Password(),
@@ -230,6 +195,7 @@ public class AlarmServer implements Runnable
         }
 
         out.println("Work queue size: " + work_queue.size());
+        out.println(updater.getStatistics());
 
         // Log memory usage in MB
         final double free = Runtime.getRuntime().freeMemory() / (1024.0*1024.0);
@@ -266,6 +232,12 @@ public class AlarmServer implements Runnable
         }
     }
 
+    /** @return Statistics of the update queues */
+    public String getUpdateStatistics()
+    {
+        return updater.getStatistics();
+    }
+
     /** Release all resources */
     public void close()
     {
@@ -323,11 +295,6 @@ public class AlarmServer implements Runnable
             });
             nag_timer.start();
         }
-
-        if (batchExecutor != null)
-            batchExecutor.terminate();
-        batchExecutor = new BatchUpdater();
-        batchExecutor.start();
     }
 
     /** Start PVs */
@@ -390,19 +357,9 @@ public class AlarmServer implements Runnable
         }
         messenger.sendAnnunciation("Alarm server exiting");
         stopPVs();
+        // Send pending updates
+        updater.shutdown(10000);
         messenger.stop();
-        if (batchExecutor != null)
-            batchExecutor.terminate();
-        try
-        {
-            //send pending updates
-            sendQueuedUpdates();
-        }
-        catch (Exception e)
-        {
-            Activator.getLogger().log(Level.SEVERE, "Error committing state update batches.",e);
-            had_RDB_error = true;
-        }
     }
 
     /** Stop PVs */
@@ -561,15 +518,8 @@ public class AlarmServer implements Runnable
             final String message,
             final String value, final Instant timestamp)
     {
-        synchronized(queuedRDBUpdates)
-        {
-            final Update u = new Update(pv, current_severity,
-                    current_message, severity, message, value, timestamp);
-            // We are only interested in the latest update of a particular PV
-            // the rest don't need to be persisted
-            queuedRDBUpdates.put(pv.getName(), u);
-            queuedUpdates.add(u);
-        }
+        updater.addState(new Update(pv, current_severity,
+                current_message, severity, message, value, timestamp));
     }
 
     /** Update 'global' JMS clients and RDB
@@ -584,15 +534,8 @@ public class AlarmServer implements Runnable
             final String message,
             final String value, final Instant timestamp)
     {
-        synchronized (queuedRDBGlobalUpdates)
-        {
-            final Update u = new Update(pv, severity,
-                    message, severity, message, value, timestamp);
-            // We are only interested in the latest update of a particular PV
-            // the rest don't need to be persisted
-            queuedRDBGlobalUpdates.put(pv.getName(), u);
-            queuedGlobalUpdates.add(u);
-        }
+        updater.addGlobal(new Update(pv, severity,
+                message, severity, message, value, timestamp));
     }
 
     /** Update JMS clients and RDB about 'enabled' state of PV
@@ -653,74 +596,61 @@ public class AlarmServer implements Runnable
         messenger.sendReloadMessage();
     }
 
-    /** Send all queue updates to RDB as well as JMS */
-    private void sendQueuedUpdates()
+    /** Persist updates in RDB
+     *
+     *  <p>Called on the RDB thread of the {@link BatchUpdater}.
+     *  @param states State updates
+     *  @param globals Global updates
+     *  @throws Exception when updates could not be persisted, so they will be retried
+     */
+    private void persistUpdates(final Update[] states, final Update[] globals) throws Exception
     {
-        // Create thread-save copy
-        Update[] updates = null;
-        Update[] rdbUpdates = null;
-        synchronized (queuedRDBUpdates)
-        {
-            rdbUpdates = queuedRDBUpdates.values().toArray(new Update[queuedRDBUpdates.size()]);
-            queuedRDBUpdates.clear();
-            updates = queuedUpdates.toArray(new Update[queuedUpdates.size()]);
-            queuedUpdates.clear();
-        }
-
-        if (rdbUpdates.length > 0)
+        boolean ok = true;
+        if (states.length > 0)
         {
             try
             {
-                rdb.persistAllStates(rdbUpdates, batchSize);
-                recoverFromRDBErrors();
+                rdb.persistAllStates(states, batchSize);
             }
             catch (Exception e)
             {
                 Activator.getLogger().log(Level.SEVERE, "Error committing state update batches.", e);
                 had_RDB_error = true;
+                ok = false;
             }
         }
-
-        for (Update u : updates)
-        {
-            messenger.sendStateUpdate(u.pv, u.currentSeverity, u.currentMessage,
-                u.alarmSeverity, u.alarmMessage, u.value, u.timestamp);
-        }
-
-        Update[] rdbGlobals = null;
-        Update[] globals = null;
-        synchronized(queuedRDBGlobalUpdates)
-        {
-            rdbGlobals = queuedRDBGlobalUpdates.values().toArray(new Update[queuedRDBGlobalUpdates.size()]);
-            queuedRDBGlobalUpdates.clear();
-            globals = queuedGlobalUpdates.toArray(new Update[queuedGlobalUpdates.size()]);
-            queuedGlobalUpdates.clear();
-        }
-
-        if (rdbGlobals.length > 0)
+        if (globals.length > 0)
         {
             try
             {
-                rdb.persistGlobalUpdates(rdbGlobals,batchSize);
-                recoverFromRDBErrors();
+                rdb.persistGlobalUpdates(globals, batchSize);
             }
             catch (Exception e)
             {
-                Activator.getLogger().log(Level.SEVERE,"Error committing global update batches.",e);
+                Activator.getLogger().log(Level.SEVERE, "Error committing global update batches.", e);
                 had_RDB_error = true;
+                ok = false;
             }
         }
-
-        for (Update u : globals)
-        {
-            messenger.sendGlobalUpdate(u.pv, u.alarmSeverity, u.alarmMessage, u.value, u.timestamp);
-        }
-    }
-
-    /** Runnable entry point used by BatchUpdater */
-    @Override
-    public void run()
-    {
-        sendQueuedUpdates();
+        if (! ok)
+            throw new Exception("Cannot persist " + states.length + " state and " + globals.length + " global updates");
+        // Recover on the work queue thread
+        if (had_RDB_error)
+            work_queue.execute(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        recoverFromRDBErrors();
+                    }
+                    catch (Exception ex)
+                    {
+                        had_RDB_error = true;
+                        Activator.getLogger().log(Level.SEVERE, "Cannot recover from RDB errors", ex);
+                    }
+                }
+            });
     }
 }
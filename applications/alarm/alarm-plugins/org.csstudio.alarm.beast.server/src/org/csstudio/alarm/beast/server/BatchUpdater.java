@@ -0,0 +1,329 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.server;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.logging.Level;
+
+/** Batching publisher of alarm state updates
+ *
+ *  <p>The first update that arrives while nothing is queued
+ *  opens a window. All updates within the window are queued in order.
+ *  When the window closes, the queued updates are handed to the
+ *  {@link Handler} for publication, i.e. to be sent to JMS.
+ *  Every transition is published, since the JMS-to-RDB logger,
+ *  notifier and annunciator need to see each of them.
+ *
+ *  <p>The updates are also queued for persistence, which runs on a separate thread
+ *  so that a slow RDB does not delay the notification of clients.
+ *  The RDB only holds the latest state of each PV, so while the RDB is busy,
+ *  updates for the same PV replace each other in the persistence queue.
+ *  Updates that could not be persisted are queued again
+ *  unless newer updates for the same PV have arrived, and retried after a delay.
+ *
+ *  @param <T> Update type
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+class BatchUpdater<T>
+{
+    /** Handler for the updates */
+    interface Handler<T>
+    {
+        /** Publish updates. Called on the publisher thread.
+         *  @param states State updates
+         *  @param globals Global updates
+         */
+        void publish(T[] states, T[] globals);
+
+        /** Persist updates. Called on the persistence thread.
+         *  @param states State updates
+         *  @param globals Global updates
+         *  @throws Exception on error
+         */
+        void persist(T[] states, T[] globals) throws Exception;
+    }
+
+    /** Delay before retrying to persist updates after an error */
+    final private static long RETRY_DELAY_MS = 5000;
+
+    /** Updates to publish, in order of arrival */
+    private static class PublishQueue<T>
+    {
+        List<T> states = new ArrayList<>();
+        List<T> globals = new ArrayList<>();
+
+        boolean isEmpty()
+        {
+            return states.isEmpty()  &&  globals.isEmpty();
+        }
+
+        int size()
+        {
+            return states.size() + globals.size();
+        }
+    }
+
+    /** Queue of updates to persist, keyed by PV */
+    private static class Queue<T>
+    {
+        Map<String, T> states = new LinkedHashMap<>();
+        Map<String, T> globals = new LinkedHashMap<>();
+
+        boolean isEmpty()
+        {
+            return states.isEmpty()  &&  globals.isEmpty();
+        }
+
+        int size()
+        {
+            return states.size() + globals.size();
+        }
+    }
+
+    final private Function<T, String> key;
+    final private Handler<T> handler;
+    final private long window_ms;
+    final private T[] empty;
+
+    final private ScheduledExecutorService publisher =
+        Executors.newSingleThreadScheduledExecutor(runnable -> createThread(runnable, "AlarmServerPublisher"));
+    final private ScheduledExecutorService persister =
+        Executors.newSingleThreadScheduledExecutor(runnable -> createThread(runnable, "AlarmServerRDB"));
+
+    /** Updates to publish, start of their window. SYNC on this */
+    private PublishQueue<T> publish_queue = new PublishQueue<>();
+    private long window_start = 0;
+
+    /** Updates to persist. SYNC on this */
+    private Queue<T> persist_queue = new Queue<>();
+    private boolean persist_pending = false;
+
+    // Statistics
+    final private AtomicLong received = new AtomicLong(),
+                             published = new AtomicLong(), windows = new AtomicLong(),
+                             persisted = new AtomicLong(), persist_coalesced = new AtomicLong(),
+                             persist_batches = new AtomicLong(), persist_errors = new AtomicLong();
+    private volatile long max_publish_latency_ns = 0, total_publish_latency_ns = 0,
+                          max_persist_ns = 0, total_persist_ns = 0;
+
+    /** Initialize
+     *  @param key Obtains key (PV name) of an update
+     *  @param handler Handler for publishing and persisting updates
+     *  @param window_ms Batching window in milliseconds
+     *  @param empty Empty array of updates
+     */
+    BatchUpdater(final Function<T, String> key, final Handler<T> handler, final long window_ms, final T[] empty)
+    {
+        this.key = key;
+        this.handler = handler;
+        this.window_ms = window_ms;
+        this.empty = empty;
+    }
+
+    private static Thread createThread(final Runnable runnable, final String name)
+    {
+        final Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /** @param update State update to queue */
+    void addState(final T update)
+    {
+        add(update, false);
+    }
+
+    /** @param update Global update to queue */
+    void addGlobal(final T update)
+    {
+        add(update, true);
+    }
+
+    private void add(final T update, final boolean global)
+    {
+        received.incrementAndGet();
+        final boolean schedule;
+        synchronized (this)
+        {
+            schedule = publish_queue.isEmpty();
+            if (schedule)
+                window_start = System.nanoTime();
+            if (global)
+                publish_queue.globals.add(update);
+            else
+                publish_queue.states.add(update);
+        }
+        if (schedule)
+        {
+            try
+            {
+                publisher.schedule(this::publish, window_ms, TimeUnit.MILLISECONDS);
+            }
+            catch (RejectedExecutionException ex)
+            {
+                // Ignore late updates after shutdown
+            }
+        }
+    }
+
+    /** Publish the queued updates, then queue them for persistence */
+    private void publish()
+    {
+        final PublishQueue<T> queue;
+        final long start;
+        synchronized (this)
+        {
+            queue = publish_queue;
+            start = window_start;
+            publish_queue = new PublishQueue<>();
+        }
+        if (queue.isEmpty())
+            return;
+        final T[] states = queue.states.toArray(empty);
+        final T[] globals = queue.globals.toArray(empty);
+        try
+        {
+            handler.publish(states, globals);
+        }
+        catch (Throwable ex)
+        {
+            Activator.getLogger().log(Level.SEVERE, "Error publishing updates", ex);
+        }
+        final long latency = System.nanoTime() - start;
+        max_publish_latency_ns = Math.max(max_publish_latency_ns, latency);
+        total_publish_latency_ns += latency;
+        published.addAndGet(states.length + globals.length);
+        windows.incrementAndGet();
+
+        final boolean submit;
+        synchronized (this)
+        {
+            for (T update : states)
+                if (persist_queue.states.put(key.apply(update), update) != null)
+                    persist_coalesced.incrementAndGet();
+            for (T update : globals)
+                if (persist_queue.globals.put(key.apply(update), update) != null)
+                    persist_coalesced.incrementAndGet();
+            submit = ! persist_pending;
+            persist_pending = true;
+        }
+        if (submit)
+            persister.execute(this::persist);
+    }
+
+    /** Persist the queued updates */
+    private void persist()
+    {
+        final Queue<T> queue;
+        synchronized (this)
+        {
+            queue = persist_queue;
+            persist_queue = new Queue<>();
+            persist_pending = false;
+        }
+        if (queue.isEmpty())
+            return;
+        final long start = System.nanoTime();
+        try
+        {
+            handler.persist(queue.states.values().toArray(empty), queue.globals.values().toArray(empty));
+            persisted.addAndGet(queue.size());
+        }
+        catch (Throwable ex)
+        {
+            persist_errors.incrementAndGet();
+            Activator.getLogger().log(Level.SEVERE, "Error persisting updates, will retry", ex);
+            retry(queue);
+        }
+        final long duration = System.nanoTime() - start;
+        max_persist_ns = Math.max(max_persist_ns, duration);
+        total_persist_ns += duration;
+        persist_batches.incrementAndGet();
+    }
+
+    /** Queue updates that failed to persist, then retry after a delay
+     *  @param failed Updates that failed to persist
+     */
+    private void retry(final Queue<T> failed)
+    {
+        synchronized (this)
+        {
+            // Updates that arrived since then are newer, replacing the failed ones
+            failed.states.putAll(persist_queue.states);
+            failed.globals.putAll(persist_queue.globals);
+            persist_queue = failed;
+            // Suppress submissions by publish() until the retry
+            persist_pending = true;
+        }
+        try
+        {
+            persister.schedule(this::persist, RETRY_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+        catch (RejectedExecutionException ex)
+        {
+            Activator.getLogger().log(Level.WARNING, "Shutting down, cannot persist {0} updates", failed.size());
+        }
+    }
+
+    /** Publish and persist what's queued, then stop
+     *  @param timeout_ms Time to wait for the persistence to complete
+     */
+    void shutdown(final long timeout_ms)
+    {
+        try
+        {
+            publisher.submit(this::publish);
+            publisher.shutdown();
+            publisher.awaitTermination(timeout_ms, TimeUnit.MILLISECONDS);
+            persister.shutdown();
+            if (! persister.awaitTermination(timeout_ms, TimeUnit.MILLISECONDS))
+                Activator.getLogger().log(Level.WARNING, "Timeout persisting updates");
+        }
+        catch (InterruptedException ex)
+        {
+            // Ignore, shutting down anyway
+        }
+    }
+
+    /** @return Number of updates waiting to be published */
+    synchronized int getPublishQueueSize()
+    {
+        return publish_queue.size();
+    }
+
+    /** @return Number of updates waiting to be persisted */
+    synchronized int getPersistQueueSize()
+    {
+        return persist_queue.size();
+    }
+
+    /** @return Summary of queue sizes and latencies */
+    String getStatistics()
+    {
+        final long n = Math.max(1, windows.get());
+        final long b = Math.max(1, persist_batches.get());
+        return String.format(
+            "Updates received: %d, published: %d in %d windows of %d ms\n" +
+            "Publish queue: %d, latency avg %.1f ms, max %.1f ms\n" +
+            "Persist queue: %d, persisted: %d in %d batches, coalesced: %d, errors: %d, duration avg %.1f ms, max %.1f ms",
+            received.get(), published.get(), windows.get(), window_ms,
+            getPublishQueueSize(), total_publish_latency_ns / n / 1e6, max_publish_latency_ns / 1e6,
+            getPersistQueueSize(), persisted.get(), persist_batches.get(), persist_coalesced.get(), persist_errors.get(),
+            total_persist_ns / b / 1e6, max_persist_ns / 1e6);
+    }
+}
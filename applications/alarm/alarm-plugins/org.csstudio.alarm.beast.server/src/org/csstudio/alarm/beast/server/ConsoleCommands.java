@@ -66,6 +66,7 @@ public class ConsoleCommands implements CommandProvider
         buf.append("\tpwd                 - Print working 'directory'\n");
         buf.append("\tcd '/path'          - Change working 'directory'\n");
         buf.append("\tprefs               - List all preferences\n");
+        buf.append("\tupdates             - Show update queue sizes and latencies\n");
         return buf.toString();
     }
 
@@ -169,6 +170,13 @@ public class ConsoleCommands implements CommandProvider
         return null;
     }
 
+    /** 'updates' command */
+    public Object _updates(final CommandInterpreter intp)
+    {
+        intp.println(server.getUpdateStatistics());
+        return null;
+    }
+
     /** 'prefs' command */
     public Object _prefs(final CommandInterpreter intp)
     {
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+import org.csstudio.apputil.time.TimerWheel;
+
+/** Timer thread for the alarm delays
+ *
+ *  <p>A {@link java.util.Timer} keeps its tasks in a binary heap,
+ *  and each schedule requires a new {@link java.util.TimerTask}.
+ *  During an alarm storm, thousands of delayed alarm checks are scheduled
+ *  and cancelled per second.
+ *  This timer keeps the actions on a {@link TimerWheel},
+ *  where schedule and cancel are O(1).
+ *  Each user allocates the timer for its action once
+ *  and re-schedules it, so scheduling does not allocate.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+class DelayTimer
+{
+    /** Time of the timer's origin */
+    final private long start = System.nanoTime();
+
+    /** Scheduled actions. SYNC on this */
+    final private TimerWheel<Runnable> wheel;
+
+    /** Time until which the timer thread waits. SYNC on this */
+    private long wakeup = Long.MAX_VALUE;
+
+    /** Initialize and start the timer thread
+     *  @param name Name of timer thread
+     *  @param tick_ms Duration of one tick of the wheel in milliseconds
+     *  @param size Number of slots in the wheel
+     */
+    DelayTimer(final String name, final long tick_ms, final int size)
+    {
+        wheel = new TimerWheel<>(tick_ms, size, 0);
+        final Thread thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** @return Milliseconds since start of timer */
+    private long now()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /** Schedule an action.
+     *  If the timer is already scheduled, it is moved to the new delay.
+     *  @param timer Timer of action to invoke on the timer thread. Action must not block.
+     *  @param delay_ms Delay in milliseconds
+     */
+    synchronized void schedule(final TimerWheel.Timer<Runnable> timer, final long delay_ms)
+    {
+        wheel.schedule(timer, now() + delay_ms);
+        // Wake timer thread if this is due before it would wake up
+        if (timer.getDueTime() < wakeup)
+        {
+            wakeup = timer.getDueTime();
+            notifyAll();
+        }
+    }
+
+    /** Cancel an action.
+     *  OK to call when not scheduled.
+     *  @param timer Timer of the action, may be <code>null</code>
+     *  @return <code>true</code> if action was scheduled
+     */
+    synchronized boolean cancel(final TimerWheel.Timer<Runnable> timer)
+    {
+        return timer != null  &&  wheel.cancel(timer);
+    }
+
+    /** @param timer Timer of an action, may be <code>null</code>
+     *  @return <code>true</code> if action is scheduled
+     */
+    synchronized boolean isScheduled(final TimerWheel.Timer<Runnable> timer)
+    {
+        return timer != null  &&  timer.isScheduled();
+    }
+
+    /** @return Number of scheduled actions */
+    synchronized int getPending()
+    {
+        return wheel.size();
+    }
+
+    /** Timer thread: Wait for due actions, invoke them */
+    private void run()
+    {
+        // Due actions, re-used for each expiration
+        final List<Runnable> due = new ArrayList<>();
+        while (true)
+        {
+            try
+            {
+                synchronized (this)
+                {
+                    long now = now();
+                    wakeup = wheel.getNextDueTime();
+                    while (wakeup > now)
+                    {
+                        wait(Math.min(wakeup - now, TimeUnit.MINUTES.toMillis(1)));
+                        now = now();
+                        wakeup = wheel.getNextDueTime();
+                    }
+                    wheel.expire(now, due);
+                    wakeup = Long.MAX_VALUE;
+                }
+                // Invoke due actions outside of lock,
+                // so they may schedule again
+                for (Runnable action : due)
+                {
+                    try
+                    {
+                        action.run();
+                    }
+                    catch (Throwable ex)
+                    {
+                        Activator.getLogger().log(Level.SEVERE, "Error in delayed action", ex);
+                    }
+                }
+                due.clear();
+            }
+            catch (InterruptedException ex)
+            {
+                // Daemon thread, keep running
+            }
+        }
+    }
+}
@@ -7,10 +7,10 @@
  ******************************************************************************/
 package org.csstudio.alarm.beast.server;
 
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.logging.Level;
 
+import org.csstudio.apputil.time.TimerWheel;
+
 /** Helper for checking alarms after a delay.
  *  It will trigger a transition to a new state only after a delay.
  *
@@ -25,7 +25,8 @@ import java.util.logging.Level;
 @SuppressWarnings("nls")
 public class DelayedAlarmUpdate
 {
-    final private static Timer timer = new Timer("DelayedAlarmUpdate", true);
+    /** Timer shared by all alarm delays, wheel of 100ms ticks, one revolution per ~50 seconds */
+    final static DelayTimer timer = new DelayTimer("DelayedAlarmUpdate", 100, 512);
 
     /** Listener to notify when delay expires */
     final private DelayedAlarmListener listener;
@@ -33,8 +34,42 @@ public class DelayedAlarmUpdate
     /** Alarm state to which we would update after the delay, unless it clears in time */
     private AlarmState state;
 
-    /** Timer task used to perform the delay */
-    private TimerTask scheduled_task = null;
+    /** Action that performs the delay, re-used for each delay */
+    final private Runnable expire = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            final AlarmState the_state;
+            synchronized (DelayedAlarmUpdate.this)
+            {
+                // Ignore if re-scheduled since the timer expired it
+                if (timer.isScheduled(delay))
+                    return;
+                // Save state for call to listener, reset everything
+                the_state = state;
+                state = null;
+            }
+            if (the_state == null)
+            {
+                // Don't run because update was cancelled
+                return;
+            }
+            //  Re-evaluate alarm logic with the delayed state,
+            //  not allowing any further delays.
+            try
+            {
+                listener.delayedStateUpdate(the_state);
+            }
+            catch (Throwable ex)
+            {
+                Activator.getLogger().log(Level.SEVERE, "Error in delayed alarm update", ex);
+            }
+        }
+    };
+
+    /** Timer of the delay, re-used for each delay */
+    final private TimerWheel.Timer<Runnable> delay = new TimerWheel.Timer<>(expire);
 
     /** Initialize
      *  @param listener Listener to notify when delay expires
@@ -59,47 +94,14 @@ public class DelayedAlarmUpdate
             new NullPointerException("DelayedAlarmUpdate with null").printStackTrace();
             return;
         }
-        final TimerTask new_task;
         synchronized (this)
         {
-            this.state = new_state;
             // Already scheduled?
-            if (scheduled_task != null)
-                return;
-            // Schedule in timer
-            new_task = new TimerTask()
-            {
-                @Override
-                public void run()
-                {
-                    final AlarmState the_state;
-                    synchronized (DelayedAlarmUpdate.this)
-                    {
-                        // Save state for call to listener, reset everything
-                        the_state = state;
-                        scheduled_task = null;
-                        state = null;
-                    }
-                    if (the_state == null)
-                    {
-                        // Don't run because update was cancelled
-                        return;
-                    }
-                    //  Re-evaluate alarm logic with the delayed state,
-                    //  not allowing any further delays.
-                    try
-                    {
-                        listener.delayedStateUpdate(the_state);
-                    }
-                    catch (Throwable ex)
-                    {
-                        Activator.getLogger().log(Level.SEVERE, "Error in delayed alarm update", ex);
-                    }
-                }
-            };
-            scheduled_task = new_task;
+            final boolean scheduled = state != null;
+            this.state = new_state;
+            if (! scheduled)
+                timer.schedule(delay, seconds * 1000L);
         }
-        timer.schedule(new_task, seconds * 1000L);
     }
 
     /** @return Alarm state to which we'll go after the delay expires */
@@ -111,16 +113,9 @@ public class DelayedAlarmUpdate
     /** Cancel delayed alarm check because control system PV cleared.
      *  OK to call multiple times, even when nothing was scheduled.
      */
-    public void cancel()
+    public synchronized void cancel()
     {
-        final TimerTask task;
-        synchronized (this)
-        {
-            state = null;
-            task = scheduled_task;
-            scheduled_task = null;
-        }
-        if (task != null)
-            task.cancel();
+        state = null;
+        timer.cancel(delay);
     }
 }
@@ -9,8 +9,8 @@ package org.csstudio.alarm.beast.server;
 
 import java.util.logging.Level;
 
+import org.csstudio.apputil.formula.CompiledFormula;
 import org.csstudio.apputil.formula.Formula;
-import org.csstudio.apputil.formula.VariableNode;
 import org.csstudio.vtype.pv.PV;
 import org.csstudio.vtype.pv.PVListener;
 import org.csstudio.vtype.pv.PVListenerAdapter;
@@ -25,6 +25,8 @@ import org.diirt.vtype.VType;
  *  Filter will subscribe to PVs "PV1" and "PV2".
  *  For each value change in the input PVs, the formula is
  *  evaluated and the listener is notified of the result.
+ *  The formula is compiled, with the value of each PV in a slot
+ *  that the listener for that PV updates.
  *  <p>
  *  When subscribing to PVs, note that the filter uses the same
  *  mechanism as the alarm server, i.e. when the EPICS plug-in
@@ -34,24 +36,49 @@ import org.diirt.vtype.VType;
  *  @author Kay Kasemir
  */
 @SuppressWarnings("nls")
-public class Filter extends PVListenerAdapter
+public class Filter
 {
     /** Listener to notify when the filter computes a new value */
     final private FilterListener listener;
 
-    /** Formula to evaluate */
-    final private Formula formula;
+    /** Formula to evaluate, with a slot for each PV. SYNC on this */
+    final private CompiledFormula formula;
 
-    /** Variables used in the formula. May be [0], but never null */
-    final private VariableNode[] variables;
-
-    /** This array is linked to <code>variables</code>:
-     *  Same size, and there's a PV for each VariableNode.
-     */
+    /** PV for each slot of the formula */
     final private PV pvs[];
 
+    /** Listener for each PV, knows the slot of the PV */
+    final private PVListener[] pv_listeners;
+
     private double previous_value = Double.NaN;
 
+    /** Listener to one PV of the formula */
+    private class InputListener extends PVListenerAdapter
+    {
+        final private int index;
+
+        InputListener(final int index)
+        {
+            this.index = index;
+        }
+
+        @Override
+        public void valueChanged(final PV pv, final VType value)
+        {
+            final double number = VTypeHelper.toDouble(value);
+            Activator.getLogger().log(Level.FINER, "Filter {0}: {1} = {2}",
+                    new Object[] { formula.getFormula(), pv.getName(), number });
+            update(index, number);
+        }
+
+        @Override
+        public void disconnected(final PV pv)
+        {
+            Activator.getLogger().log(Level.WARNING, "PV " + pv.getName() + " (var. " + formula.getVariableName(index) + ") disconnected");
+            update(index, Double.NaN);
+        }
+    }
+
     /** Initialize
      *  @param filter_expression Formula that might contain PV names
      *  @throws Exception on error
@@ -60,14 +87,12 @@ public class Filter extends PVListenerAdapter
             final FilterListener listener) throws Exception
     {
         this.listener = listener;
-        formula = new Formula(filter_expression, true);
-        final VariableNode vars[] = formula.getVariables();
-        if (vars == null)
-            variables = new VariableNode[0];
-        else
-            variables = vars;
-
-        pvs = new PV[variables.length];
+        formula = new Formula(filter_expression, true).compile();
+        final int count = formula.getVariableCount();
+        pvs = new PV[count];
+        pv_listeners = new PVListener[count];
+        for (int i=0; i<count; ++i)
+            pv_listeners[i] = new InputListener(i);
     }
 
     /** Start control system subscriptions */
@@ -75,8 +100,8 @@ public class Filter extends PVListenerAdapter
     {
         for (int i=0; i<pvs.length; ++i)
         {
-            pvs[i] = PVPool.getPV(variables[i].getName());
-            pvs[i].addListener(this);
+            pvs[i] = PVPool.getPV(formula.getVariableName(i));
+            pvs[i].addListener(pv_listeners[i]);
         }
     }
 
@@ -85,57 +110,28 @@ public class Filter extends PVListenerAdapter
     {
         for (int i=0; i<pvs.length; ++i)
         {
-            pvs[i].removeListener(this);
+            pvs[i].removeListener(pv_listeners[i]);
             PVPool.releasePV(pvs[i]);
             pvs[i] = null;
         }
     }
 
-    /** @param pv PV used by the formula
-     *  @return Associated variable node
+    /** Update input value, evaluate filter formula if it changed
+     *  @param index Slot of the input
+     *  @param number New value of the input
      */
-    private VariableNode findVariableForPV(final PV pv)
+    private void update(final int index, final double number)
     {
-        for (int i=0; i<pvs.length; ++i) // Linear, assuming there are just a few PVs in one formula
-            if (pvs[i] == pv)
-                return variables[i];
-        Activator.getLogger().log(Level.WARNING, "Got update for PV {0} that is not assigned to variable", pv.getName());
-        return null;
-    }
-
-    /** @see PVListener */
-    @Override
-    public void valueChanged(final PV pv, final VType value)
-    {
-        final VariableNode variable = findVariableForPV(pv);
-        if (variable == null)
-            return;
-        final double number = VTypeHelper.toDouble(value);
-        Activator.getLogger().log(Level.FINER, "Filter {0}: {1} = {2}",
-                new Object[] { formula.getFormula(), pv.getName(), number });
-        variable.setValue(number);
-        evaluate();
-    }
-
-    /** @see PVListener */
-    @Override
-    public void disconnected(final PV pv)
-    {
-        final VariableNode variable = findVariableForPV(pv);
-        if (variable == null)
-            return;
-        Activator.getLogger().log(Level.WARNING, "PV " + pv.getName() + " (var. " + variable.getName() + ") disconnected");
-        variable.setValue(Double.NaN);
-        evaluate();
-    }
-
-    /** Evaluate filter formula with current input values */
-    private void evaluate()
-    {
-        final double value = formula.eval();
-        // Only update on _change_, not whenever inputs send an update
+        final double value;
         synchronized (this)
         {
+            // Skip evaluation when input repeats the same value
+            // (NaN always evaluates, as did the original implementation)
+            if (formula.getValue(index) == number)
+                return;
+            formula.setValue(index, number);
+            value = formula.eval();
+            // Only update on _change_, not whenever inputs send an update
             if (previous_value == value)
                 return;
             previous_value  = value;
@@ -7,8 +7,7 @@
  ******************************************************************************/
 package org.csstudio.alarm.beast.server;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import org.csstudio.apputil.time.TimerWheel;
 
 /** Helper for sending global alarm updates after a delay.
  *
@@ -18,13 +17,33 @@ import java.util.TimerTask;
  */
 public class GlobalAlarmUpdate
 {
-    final private static Timer timer = new Timer("GlobalAlarmUpdate", true); //$NON-NLS-1$
-
     /** Listener to notify when delay expires */
     final private GlobalAlarmListener listener;
 
-    /** Timer task used to perform the delay */
-    private TimerTask scheduled_task = null;
+    /** Is an update scheduled? */
+    private boolean scheduled = false;
+
+    /** Action that performs the update, re-used for each delay */
+    final private Runnable expire = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            synchronized (GlobalAlarmUpdate.this)
+            {
+                // Ignore if cancelled, or re-scheduled since the timer expired it
+                if (! scheduled  ||  DelayedAlarmUpdate.timer.isScheduled(timer))
+                    return;
+                scheduled = false;
+            }
+            //  Re-evaluate alarm logic with the delayed state,
+            //  not allowing any further delays.
+            listener.updateGlobalState();
+        }
+    };
+
+    /** Timer of the update, re-used for each delay */
+    final private TimerWheel.Timer<Runnable> timer = new TimerWheel.Timer<>(expire);
 
     /** Initialize
      *  @param listener Listener to notify when delay expires
@@ -40,46 +59,21 @@ public class GlobalAlarmUpdate
      *
      *  @param seconds Delay to use
      */
-    void schedule_update(final int seconds)
+    synchronized void schedule_update(final int seconds)
     {
-        final TimerTask new_task;
-        synchronized (this)
-        {
-            // Already scheduled?
-            if (scheduled_task != null)
-                return;
-            // Schedule in timer
-            new_task = new TimerTask()
-            {
-                @Override
-                public void run()
-                {
-                    synchronized (GlobalAlarmUpdate.this)
-                    {
-                        scheduled_task = null;
-                    }
-                    //  Re-evaluate alarm logic with the delayed state,
-                    //  not allowing any further delays.
-                    listener.updateGlobalState();
-                }
-            };
-            scheduled_task = new_task;
-        }
-        timer.schedule(new_task, seconds * 1000L);
+        // Already scheduled?
+        if (scheduled)
+            return;
+        scheduled = true;
+        DelayedAlarmUpdate.timer.schedule(timer, seconds * 1000L);
     }
 
     /** Cancel delayed alarm check because control system PV cleared.
      *  OK to call multiple times, even when nothing was scheduled.
      */
-    public void cancel()
+    public synchronized void cancel()
     {
-        final TimerTask task;
-        synchronized (this)
-        {
-            task = scheduled_task;
-            scheduled_task = null;
-        }
-        if (task != null)
-            task.cancel();
+        DelayedAlarmUpdate.timer.cancel(timer);
+        scheduled = false;
     }
 }
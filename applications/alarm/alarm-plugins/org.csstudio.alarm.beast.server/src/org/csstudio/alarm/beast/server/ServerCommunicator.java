@@ -300,6 +300,59 @@ public class ServerCommunicator extends JMSCommunicationWorkQueueThread
         idle_timer.reset();
     }
 
+    /** Notify clients of new alarm states, several updates per message.
+     *  @param updates State updates
+     *  @param batch_size Maximum number of updates per message
+     */
+    protected void sendStateUpdates(final AlarmServer.Update[] updates, final int batch_size)
+    {
+        if (batch_size <= 1)
+        {
+            for (AlarmServer.Update u : updates)
+                sendStateUpdate(u.pv, u.currentSeverity, u.currentMessage,
+                                u.alarmSeverity, u.alarmMessage, u.value, u.timestamp);
+            return;
+        }
+        execute(new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    final String text = AlarmLogic.getMaintenanceMode()
+                            ? JMSAlarmMessage.TEXT_STATES_MAINTENANCE
+                            : JMSAlarmMessage.TEXT_STATES;
+                    for (int start=0; start<updates.length; start += batch_size)
+                    {
+                        final int count = Math.min(batch_size, updates.length - start);
+                        final MapMessage map = createAlarmMessage(text);
+                        map.setInt(JMSAlarmMessage.COUNT, count);
+                        for (int i=0; i<count; ++i)
+                        {
+                            final AlarmServer.Update u = updates[start + i];
+                            map.setString(JMSAlarmMessage.batchKey(JMSLogMessage.NAME, i), u.pv.getName());
+                            map.setString(JMSAlarmMessage.batchKey(JMSAlarmMessage.CONFIG, i), u.pv.getPathName());
+                            map.setString(JMSAlarmMessage.batchKey(JMSLogMessage.SEVERITY, i), u.alarmSeverity.name());
+                            map.setString(JMSAlarmMessage.batchKey(JMSAlarmMessage.STATUS, i), u.alarmMessage);
+                            if (u.value != null)
+                                map.setString(JMSAlarmMessage.batchKey(JMSAlarmMessage.VALUE, i), u.value);
+                            map.setString(JMSAlarmMessage.batchKey(JMSAlarmMessage.EVENTTIME, i), JMSAlarmMessage.formatTime(u.timestamp));
+                            map.setString(JMSAlarmMessage.batchKey(JMSAlarmMessage.CURRENT_SEVERITY, i), u.currentSeverity.name());
+                            map.setString(JMSAlarmMessage.batchKey(JMSAlarmMessage.CURRENT_STATUS, i), u.currentMessage);
+                        }
+                        server_producer.send(map);
+                    }
+                }
+                catch (Exception ex)
+                {
+                    Activator.getLogger().log(Level.WARNING, "Cannot send state update messages", ex);
+                }
+            }
+        });
+        idle_timer.reset();
+    }
+
     /** Notify 'global' clients of new alarm state.
      *  @param pv PV that changes alarm state
      *  @param alarm_severity Alarm severity
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.client;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+/** JUnit test of the {@link AlarmConfigurationSnapshot}
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class AlarmConfigurationSnapshotUnitTest
+{
+    final private static String URL = "jdbc:mysql://localhost/ALARM";
+
+    @Test
+    public void testSnapshot() throws Exception
+    {
+        final AlarmTreeRoot root = new AlarmTreeRoot("Test", 1);
+        final AlarmTreeItem area = new AlarmTreeItem(root, "Area", 2);
+        area.setGuidance(new GDCDataStructure[] { new GDCDataStructure("Help", "Call someone") });
+        area.setDisplays(new GDCDataStructure[] { new GDCDataStructure("Overview", "/path/overview.opi") });
+        final AlarmTreePV pv = new AlarmTreePV(area, "PV", 3);
+        pv.setCommands(new GDCDataStructure[] { new GDCDataStructure("Reset", null) });
+        pv.setAutomatedActions(new AADataStructure[] { new AADataStructure("Mail", "mailto:ops", 30) });
+
+        final AlarmConfigurationSnapshot snapshot = new AlarmConfigurationSnapshot(URL, "Test");
+        snapshot.put(area, 1000);
+        snapshot.put(pv, 2000);
+
+        final File file = File.createTempFile("alarm", ".snapshot");
+        file.deleteOnExit();
+        snapshot.write(file);
+
+        // Read into new snapshot as after restart
+        AlarmConfigurationSnapshot copy = new AlarmConfigurationSnapshot(URL, "Test");
+        assertTrue(copy.read(file));
+        assertThat(copy.size(), equalTo(2));
+
+        // Entries are only used while the config time matches
+        assertThat(copy.get(2, 1000), notNullValue());
+        assertThat(copy.get(2, 1001), nullValue());
+        assertThat(copy.get(4, 1000), nullValue());
+
+        final AlarmTreePV restored = new AlarmTreePV(new AlarmTreeItem(new AlarmTreeRoot("Test", 1), "Area", 2), "PV", 3);
+        copy.get(3, 2000).apply(restored);
+        assertThat(restored.getCommands()[0].getTitle(), equalTo("Reset"));
+        assertThat(restored.getCommands()[0].getDetails(), nullValue());
+        assertThat(restored.getAutomatedActions()[0].getDetails(), equalTo("mailto:ops"));
+        assertThat(restored.getAutomatedActions()[0].getDelay(), equalTo(30));
+        assertThat(restored.getGuidance().length, equalTo(0));
+
+        copy.retain(new HashSet<>(Arrays.asList(3)));
+        assertThat(copy.size(), equalTo(1));
+
+        // Snapshot of a different configuration is ignored
+        copy = new AlarmConfigurationSnapshot(URL, "Other");
+        assertThat(copy.read(file), equalTo(false));
+        assertThat(copy.size(), equalTo(0));
+        assertThat(copy.read(new File(file.getPath() + ".missing")), equalTo(false));
+    }
+
+    @Test
+    public void testUnchangedConfiguration() throws Exception
+    {
+        final AlarmTreeRoot root = new AlarmTreeRoot("Test", 1);
+        final AlarmTreeItem area = new AlarmTreeItem(root, "Area", 2);
+        area.setConfigTime(Instant.ofEpochMilli(1000));
+        area.setGuidance(new GDCDataStructure[] { new GDCDataStructure("Help", "Call someone") });
+        final AlarmConfigurationSnapshot snapshot = new AlarmConfigurationSnapshot(URL, "Test");
+        snapshot.put(area, 1000);
+
+        // When the snapshot is current, nothing is read from the RDB
+        final AlarmTreeItem reloaded = new AlarmTreeItem(new AlarmTreeRoot("Test", 1), "Area", 2);
+        reloaded.setConfigTime(Instant.ofEpochMilli(1000));
+        final AlarmConfigurationReader reader = new AlarmConfigurationReader(null, null);
+        reader.readGuidanceDisplaysCommands(Arrays.asList(reloaded), snapshot);
+        assertThat(reloaded.getGuidance()[0].getDetails(), equalTo("Call someone"));
+    }
+}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.client;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.csstudio.alarm.beast.SeverityLevel;
+import org.junit.Test;
+
+/** JUnit-based benchmark of the alarm tree severity aggregation
+ *
+ *  <p>Replays an alarm storm on a tree of 60000 PVs:
+ *  A third of the PVs enter alarm in random order,
+ *  then the alarms are acknowledged, and finally they clear.
+ *  Compares the incremental aggregation with the
+ *  original full scan of all children along the parent chain
+ *  for each update.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class AlarmTreeItemBenchmarkDemo
+{
+    final private static int AREAS = 6, SYSTEMS = 10, PVS = 1000;
+
+    /** One update of the recorded storm */
+    private static class Update
+    {
+        final AlarmTreePV pv;
+        final SeverityLevel current, severity;
+        final String message;
+
+        Update(final AlarmTreePV pv, final SeverityLevel current, final SeverityLevel severity, final String message)
+        {
+            this.pv = pv;
+            this.current = current;
+            this.severity = severity;
+            this.message = message;
+        }
+    }
+
+    private static List<AlarmTreePV> createTree()
+    {
+        final AlarmTreeRoot tree = new AlarmTreeRoot("Root", 0);
+        final List<AlarmTreePV> pvs = new ArrayList<>();
+        for (int a=0; a<AREAS; ++a)
+        {
+            final AlarmTreeItem area = new AlarmTreeItem(tree, "Area" + a, 0);
+            for (int s=0; s<SYSTEMS; ++s)
+            {
+                final AlarmTreeItem system = new AlarmTreeItem(area, "System" + s, 0);
+                for (int p=0; p<PVS; ++p)
+                    pvs.add(new AlarmTreePV(system, "PV" + a + "_" + s + "_" + p, 0));
+            }
+        }
+        return pvs;
+    }
+
+    private static List<Update> createStorm(final List<AlarmTreePV> pvs)
+    {
+        final Random random = new Random(1);
+        final List<AlarmTreePV> affected = new ArrayList<>();
+        for (AlarmTreePV pv : pvs)
+            if (random.nextInt(3) == 0)
+                affected.add(pv);
+        final List<Update> storm = new ArrayList<>();
+        // Alarms with chattering severity
+        for (int i=0; i<3*affected.size(); ++i)
+        {
+            final AlarmTreePV pv = affected.get(random.nextInt(affected.size()));
+            final SeverityLevel severity = random.nextBoolean() ? SeverityLevel.MAJOR : SeverityLevel.MINOR;
+            storm.add(new Update(pv, severity, severity, "Alarm " + i));
+        }
+        // Acknowledge
+        for (AlarmTreePV pv : affected)
+            storm.add(new Update(pv, SeverityLevel.MAJOR, SeverityLevel.MAJOR_ACK, "Acknowledged"));
+        // Clear
+        for (AlarmTreePV pv : affected)
+            storm.add(new Update(pv, SeverityLevel.OK, SeverityLevel.OK, SeverityLevel.OK.getDisplayName()));
+        return storm;
+    }
+
+    /** Work of the original aggregation: Scan all children up to the root */
+    private static int fullScan(AlarmTreeItem item)
+    {
+        int alarms = 0;
+        while (item != null)
+        {
+            SeverityLevel current = SeverityLevel.OK, severity = SeverityLevel.OK;
+            String message = severity.getDisplayName();
+            final List<AlarmTreeItem> alarm_children = new ArrayList<>();
+            final int n = item.getChildCount();
+            for (int i=0; i<n; ++i)
+            {
+                final AlarmTreeItem child = item.getChild(i);
+                if (child.getCurrentSeverity().ordinal() > current.ordinal())
+                    current = child.getCurrentSeverity();
+                if (child.getSeverity().ordinal() > 0)
+                    alarm_children.add(child);
+                if (child.getSeverity().ordinal() > severity.ordinal())
+                {
+                    severity = child.getSeverity();
+                    message = child.getMessage();
+                }
+            }
+            alarms += alarm_children.size() + message.length();
+            item = item.getParent();
+        }
+        return alarms;
+    }
+
+    private static double replay(final List<Update> storm, final boolean full_scan)
+    {
+        int check = 0;
+        final long start = System.nanoTime();
+        for (Update update : storm)
+        {
+            update.pv.setAlarmState(update.current, update.message, update.severity, update.message, "Value", Instant.now());
+            if (full_scan)
+                check += fullScan(update.pv.getParent());
+        }
+        final double ms = (System.nanoTime() - start) / 1e6;
+        if (check < 0)
+            System.out.println("Never happens");
+        return ms;
+    }
+
+    @Test
+    public void benchmark() throws Exception
+    {
+        final List<AlarmTreePV> pvs = createTree();
+        final List<Update> storm = createStorm(pvs);
+        System.out.println(pvs.size() + " PVs, alarm storm of " + storm.size() + " updates");
+        for (int run=0; run<3; ++run)
+        {
+            final double full = replay(storm, true);
+            final double incremental = replay(storm, false);
+            System.out.format("Full scan per update: %8.1f ms (%6.2f us/update), incremental: %8.1f ms (%6.2f us/update), %6.1fx\n",
+                              full, 1000.0 * full / storm.size(),
+                              incremental, 1000.0 * incremental / storm.size(),
+                              full / incremental);
+        }
+    }
+}
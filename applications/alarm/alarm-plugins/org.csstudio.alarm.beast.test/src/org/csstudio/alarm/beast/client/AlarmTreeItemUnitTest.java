@@ -12,6 +12,7 @@ import static org.junit.Assert.assertEquals;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import org.csstudio.alarm.beast.SeverityLevel;
 import org.junit.Test;
@@ -117,4 +118,76 @@ public class AlarmTreeItemUnitTest
         System.out.println("Total tree element count: " + tree.getElementCount());
         assertEquals(11, tree.getElementCount());
     }
+
+    /** Check item's severities against a scan of its children, recursing down */
+    private void checkSeverities(final AlarmTreeItem item)
+    {
+        final int n = item.getChildCount();
+        if (n <= 0)
+            return;
+        SeverityLevel current = SeverityLevel.OK, severity = SeverityLevel.OK;
+        int alarms = 0;
+        for (int i=0; i<n; ++i)
+        {
+            final AlarmTreeItem child = item.getChild(i);
+            checkSeverities(child);
+            if (child.getCurrentSeverity().ordinal() > current.ordinal())
+                current = child.getCurrentSeverity();
+            if (child.getSeverity().ordinal() > severity.ordinal())
+                severity = child.getSeverity();
+            if (child.getSeverity().ordinal() > 0)
+                ++alarms;
+        }
+        assertEquals(item.getPathName(), current, item.getCurrentSeverity());
+        assertEquals(item.getPathName(), severity, item.getSeverity());
+        assertEquals(item.getPathName(), alarms, item.getAlarmChildCount());
+    }
+
+    @Test
+    public void testIncrementalSeverity() throws Exception
+    {
+        final AlarmTreeRoot tree = new AlarmTreeRoot("Root", 0);
+        final List<AlarmTreePV> pvs = new ArrayList<>();
+        for (int a=0; a<3; ++a)
+        {
+            final AlarmTreeItem area = new AlarmTreeItem(tree, "Area" + a, 0);
+            for (int s=0; s<5; ++s)
+            {
+                final AlarmTreeItem system = new AlarmTreeItem(area, "System" + s, 0);
+                for (int p=0; p<10; ++p)
+                    pvs.add(new AlarmTreePV(system, "PV" + a + "_" + s + "_" + p, 0));
+            }
+        }
+
+        final SeverityLevel[] levels = SeverityLevel.values();
+        final Random random = new Random(42);
+        for (int i=0; i<5000; ++i)
+        {
+            final AlarmTreePV pv = pvs.get(random.nextInt(pvs.size()));
+            final SeverityLevel current = levels[random.nextInt(levels.length)];
+            final SeverityLevel severity = random.nextBoolean() ? SeverityLevel.OK : levels[random.nextInt(levels.length)];
+            pv.setAlarmState(current, "Current " + i, severity, "Alarm " + i, "Value", Instant.now());
+            if (i % 100 == 0)
+                checkSeverities(tree);
+        }
+        checkSeverities(tree);
+
+        // Message of PV in alarm that sets the severity of the parent
+        final AlarmTreePV pv = pvs.get(0);
+        final AlarmTreeItem system = pv.getParent();
+        for (int i=0; i<system.getChildCount(); ++i)
+            ((AlarmTreePV) system.getChild(i)).setAlarmState(SeverityLevel.OK, "OK", SeverityLevel.OK, "OK", "Value", Instant.now());
+        pv.setAlarmState(SeverityLevel.MAJOR, "High", SeverityLevel.MAJOR, "High", "Value", Instant.now());
+        assertEquals("High", system.getMessage());
+        pv.setAlarmState(SeverityLevel.MAJOR, "Higher", SeverityLevel.MAJOR, "Higher", "Value", Instant.now());
+        assertEquals("Higher", system.getMessage());
+        assertEquals(1, system.getAlarmChildCount());
+        assertEquals(pv, system.getAlarmChild(0));
+
+        // Removing the PV in alarm updates the parent
+        pv.detachFromParent();
+        assertEquals(SeverityLevel.OK, system.getSeverity());
+        assertEquals(0, system.getAlarmChildCount());
+        checkSeverities(tree);
+    }
 }
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** One row of the ALARM_TREE, joined with the PV table for PVs
+ *
+ *  <p>Allows reading all components and PVs in one query,
+ *  then assembling the alarm tree in memory.
+ *
+ *  <p>Columns that may be NULL in the RDB are kept as objects,
+ *  using <code>null</code> for NULL.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class AlarmTreeRecord
+{
+    /** Parent ID used for 'root' elements */
+    final public static int NO_PARENT = -1;
+
+    /** Fetch size for bulk reads, since some drivers default to only 10 rows */
+    final public static int FETCH_SIZE = 1000;
+
+    final public int id;
+    final public int parent;
+    final public String name;
+    final public Timestamp config_time;
+
+    /** <code>true</code> for PV, <code>false</code> for component. Remaining fields are only used by PVs */
+    final public boolean is_pv;
+    /** ID in the PV table, should match the item ID */
+    final public int pv_id;
+    final public String description;
+    final public Boolean enabled, annunciate, latch;
+    final public int delay, count;
+    final public String filter;
+    final public Integer current_severity_id, current_status_id, severity_id, status_id;
+    final public String value;
+    final public Timestamp alarm_time;
+
+    /** Initialize from current row of sel_items_by_parent or sel_item_by_parent_and_name
+     *  @param result {@link ResultSet} with columns 1..16 of the item
+     *  @param parent Parent ID
+     *  @param name Item name
+     *  @throws Exception on error
+     */
+    public AlarmTreeRecord(final ResultSet result, final int parent, final String name) throws Exception
+    {
+        this.parent = parent;
+        this.name = name;
+        id = result.getInt(1);
+        if (result.wasNull())
+            throw new Exception("NULL component ID");
+        config_time = result.getTimestamp(2);
+        // Check PV's ID. If null, this is a component, not PV
+        pv_id = result.getInt(3);
+        is_pv = !result.wasNull();
+        description = result.getString(4);
+        enabled = getBoolean(result, 5);
+        annunciate = getBoolean(result, 6);
+        latch = getBoolean(result, 7);
+        delay = result.getInt(8);
+        count = result.getInt(9);
+        filter = result.getString(10);
+        current_severity_id = getInteger(result, 11);
+        current_status_id = getInteger(result, 12);
+        severity_id = getInteger(result, 13);
+        status_id = getInteger(result, 14);
+        value = result.getString(15);
+        alarm_time = result.getTimestamp(16);
+    }
+
+    private static Boolean getBoolean(final ResultSet result, final int column) throws Exception
+    {
+        final boolean value = result.getBoolean(column);
+        return result.wasNull() ? null : value;
+    }
+
+    private static Integer getInteger(final ResultSet result, final int column) throws Exception
+    {
+        final int value = result.getInt(column);
+        return result.wasNull() ? null : value;
+    }
+
+    /** Read all items of one configuration in one pass over the ALARM_TREE
+     *
+     *  @param connection RDB connection
+     *  @param sql SQL statements
+     *  @param root_id ID of the configuration's root
+     *  @return Items by parent ID, ordered by item ID within each parent.
+     *          The root itself is listed under {@link #NO_PARENT}
+     *  @throws Exception on error
+     */
+    public static Map<Integer, List<AlarmTreeRecord>> readTree(final Connection connection, final SQL sql,
+                                                              final int root_id) throws Exception
+    {
+        final Map<Integer, List<AlarmTreeRecord>> children = new HashMap<>();
+        try
+        (
+            final PreparedStatement statement = connection.prepareStatement(sql.sel_items_by_root);
+        )
+        {
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setInt(1, root_id);
+            final ResultSet result = statement.executeQuery();
+            while (result.next())
+            {
+                final String name = result.getString(17);
+                if (name == null)
+                    throw new Exception("NULL component Name");
+                int parent = result.getInt(18);
+                if (result.wasNull())
+                    parent = NO_PARENT;
+                final AlarmTreeRecord record = new AlarmTreeRecord(result, parent, name);
+                List<AlarmTreeRecord> siblings = children.get(parent);
+                if (siblings == null)
+                {
+                    siblings = new ArrayList<>();
+                    children.put(parent, siblings);
+                }
+                siblings.add(record);
+            }
+            result.close();
+        }
+        return children;
+    }
+
+    /** @return Debug representation */
+    @Override
+    public String toString()
+    {
+        return (is_pv ? "PV " : "Component ") + name + " (" + id + ", parent " + parent + ")";
+    }
+}
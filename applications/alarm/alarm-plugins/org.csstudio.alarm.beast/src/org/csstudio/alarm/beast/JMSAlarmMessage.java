@@ -65,6 +65,22 @@ public class JMSAlarmMessage
      */
     final public static String TEXT_STATE_MAINTENANCE = "STATE_MAINTENANCE";
 
+    /** Value for TEXT that indicates a batch of state changes.
+     *  COUNT will contain the number of updates,
+     *  and each update is provided by the properties of a TEXT_STATE
+     *  message with a suffix for the index of the update.
+     *  @see #batchKey(String, int)
+     */
+    final public static String TEXT_STATES = "STATES";
+
+    /** Value for TEXT that indicates a batch of state changes while in maintenance mode
+     *  @see #TEXT_STATES
+     */
+    final public static String TEXT_STATES_MAINTENANCE = "STATES_MAINTENANCE";
+
+    /** Message property that holds the number of updates in a batch */
+    final public static String COUNT = "COUNT";
+
     /** Value for TEXT that indicates a configuration change.
      *  NAME will contain path to item that was added, removed,
      *  reconfigured, or null for an overall change.
@@ -107,6 +123,15 @@ public class JMSAlarmMessage
     final public static String VALUE = "VALUE";
 
 
+    /** @param key Property of a single update, for example STATUS
+     *  @param index Index of the update within a batch
+     *  @return Property for that update in a batch message
+     */
+    public static String batchKey(final String key, final int index)
+    {
+        return key + "." + index;
+    }
+
     /** @param timestamp Time of alarm event
      *  @return Time stamp formatted as used in JMS alarm messages
      */
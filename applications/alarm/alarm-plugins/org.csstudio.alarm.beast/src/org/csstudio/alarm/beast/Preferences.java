@@ -58,6 +58,8 @@ public class Preferences
     final public static String GUI_UPDATE_INITIAL_MILLIS = "gui_update_initial_millis";
     final public static String BATCH_UPDATE_PERIOD = "batch_update_period";
     final public static String BATCH_SIZE = "batch_size";
+    final public static String JMS_BATCH_SIZE = "jms_batch_size";
+    final public static String CONFIG_SNAPSHOT_DIRECTORY = "config_snapshot_directory";
 
     final private static String SERVER_SUFFIX = "_SERVER";
     final private static String CLIENT_SUFFIX = "_CLIENT";
@@ -315,8 +317,8 @@ public class Preferences
         return service.getInt(Activator.ID, MAX_CONTEXT_MENU_ENTRIES, 10, null);
     }
 
-    /** @return the batch update period for rdb updates (the interval how often
-     *             the alarm state updates are inserted into the database in seconds)
+    /** @return the batch update period for JMS and rdb updates (the interval in seconds
+     *             during which alarm state updates are collected)
      */
     public static double getBatchUpdatePeriod()
     {
@@ -332,4 +334,30 @@ public class Preferences
         final IPreferencesService service = Platform.getPreferencesService();
         return service.getInt(Activator.ID, BATCH_SIZE, 3000, null);
     }
+
+    /** @return Maximum number of state updates that the server packs into one JMS message */
+    public static int getJMSBatchSize()
+    {
+        final IPreferencesService service = Platform.getPreferencesService();
+        if (service == null)
+            return 1;
+        return Math.max(1, service.getInt(Activator.ID, JMS_BATCH_SIZE, 1, null));
+    }
+
+    /** @return Directory for local snapshots of the alarm configuration, or <code>null</code> if disabled */
+    public static String getConfigSnapshotDirectory()
+    {
+        final String directory = getString(CONFIG_SNAPSHOT_DIRECTORY, "");
+        if (directory == null  ||  directory.trim().isEmpty())
+            return null;
+        try
+        {
+            return replaceProperties(directory.trim());
+        }
+        catch (Exception ex)
+        {
+            Activator.getLogger().log(Level.WARNING, "Error in config_snapshot_directory preference setting", ex);
+            return null;
+        }
+    }
 }
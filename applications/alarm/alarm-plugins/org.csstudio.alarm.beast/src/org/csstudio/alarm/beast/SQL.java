@@ -28,7 +28,12 @@ public class SQL
     final public String sel_displays_by_id;
     final public String sel_commands_by_id;
     final public String sel_auto_actions_by_id;
+    final public String sel_guidance_by_root;
+    final public String sel_displays_by_root;
+    final public String sel_commands_by_root;
+    final public String sel_auto_actions_by_root;
     final public String sel_items_by_parent;
+    final public String sel_items_by_root;
     final public String sel_item_by_parent_and_name;
     final public String sel_last_item_id;
     final public String insert_item;
@@ -97,6 +102,42 @@ public class SQL
             "select TITLE, DETAIL FROM " + schema_prefix + "COMMAND WHERE COMPONENT_ID=? ORDER BY COMMAND_ORDER";
         sel_auto_actions_by_id =
                 "select TITLE, DETAIL, DELAY FROM " + schema_prefix + "AUTOMATED_ACTION WHERE COMPONENT_ID=? ORDER BY AUTO_ACTION_ORDER";
+
+        // Bulk versions of the above for reading the complete configuration
+        // below a root in one pass over each table.
+        // 'tree' lists the COMPONENT_ID of the root (parameter) and all its descendants.
+        // Oracle supports the recursive WITH, but without the RECURSIVE keyword.
+        // MySQL only supports it since 8.0. For older versions, 'tree' lists
+        // the root and the items of all configurations, i.e. everything but the other roots.
+        // Readers then get rows of other configurations, which they never reach from the root.
+        final String with, tree;
+        if (supportsRecursiveWith(rdb))
+        {
+            with = (rdb.getDialect() == Dialect.Oracle ? "WITH" : "WITH RECURSIVE") +
+                " tree (COMPONENT_ID) AS (SELECT COMPONENT_ID FROM " + schema_prefix + "ALARM_TREE WHERE COMPONENT_ID=?" +
+                " UNION ALL SELECT child.COMPONENT_ID FROM " + schema_prefix + "ALARM_TREE child" +
+                " JOIN tree ON child.PARENT_CMPNT_ID = tree.COMPONENT_ID) ";
+            tree = "tree";
+        }
+        else
+        {
+            with = "";
+            tree = "(SELECT COMPONENT_ID FROM " + schema_prefix + "ALARM_TREE" +
+                   " WHERE COMPONENT_ID=? OR PARENT_CMPNT_ID IS NOT NULL) tree";
+        }
+        // Columns are those of the ..by_id statements, plus the COMPONENT_ID at the end.
+        sel_guidance_by_root = with +
+            "SELECT g.TITLE, g.DETAIL, g.COMPONENT_ID FROM " + tree + " JOIN " + schema_prefix + "GUIDANCE g ON g.COMPONENT_ID = tree.COMPONENT_ID" +
+            " ORDER BY g.COMPONENT_ID, g.GUIDANCE_ORDER";
+        sel_displays_by_root = with +
+            "SELECT d.TITLE, d.DETAIL, d.COMPONENT_ID FROM " + tree + " JOIN " + schema_prefix + "DISPLAY d ON d.COMPONENT_ID = tree.COMPONENT_ID" +
+            " ORDER BY d.COMPONENT_ID, d.DISPLAY_ORDER";
+        sel_commands_by_root = with +
+            "SELECT c.TITLE, c.DETAIL, c.COMPONENT_ID FROM " + tree + " JOIN " + schema_prefix + "COMMAND c ON c.COMPONENT_ID = tree.COMPONENT_ID" +
+            " ORDER BY c.COMPONENT_ID, c.COMMAND_ORDER";
+        sel_auto_actions_by_root = with +
+            "SELECT a.TITLE, a.DETAIL, a.DELAY, a.COMPONENT_ID FROM " + tree + " JOIN " + schema_prefix + "AUTOMATED_ACTION a ON a.COMPONENT_ID = tree.COMPONENT_ID" +
+            " ORDER BY a.COMPONENT_ID, a.AUTO_ACTION_ORDER";
         // Selects components or PVs by parent ID. For PVs, all the p.* columns are null.
         //
         // Components are ordered by ID, assuming they are originally
@@ -119,6 +160,23 @@ public class SQL
             " LEFT JOIN " + schema_prefix + "PV p ON p.COMPONENT_ID = t.COMPONENT_ID" +
             " WHERE t.PARENT_CMPNT_ID=? ORDER BY t.COMPONENT_ID";
 
+        // Selects the root (parameter) and all components and PVs below it.
+        // Columns must match sel_items_by_parent, plus the parent ID.
+        sel_items_by_root = with +
+            //        1               2
+            "SELECT t.COMPONENT_ID, t.CONFIG_TIME," +
+            //  3               4        5              6
+            " p.COMPONENT_ID, p.DESCR, p.ENABLED_IND, p.ANNUNCIATE_IND," +
+            //  7            8        9              10        11
+            " p.LATCH_IND, p.DELAY, p.DELAY_COUNT, p.FILTER, p.CUR_SEVERITY_ID," +
+            //  12               13             14           15          16
+            " p.CUR_STATUS_ID, p.SEVERITY_ID, p.STATUS_ID, p.PV_VALUE, p.ALARM_TIME," +
+            //  17      18
+            " t.NAME, t.PARENT_CMPNT_ID" +
+            " FROM " + tree + " JOIN " + schema_prefix + "ALARM_TREE t ON t.COMPONENT_ID = tree.COMPONENT_ID" +
+            " LEFT JOIN " + schema_prefix + "PV p ON p.COMPONENT_ID = t.COMPONENT_ID" +
+            " ORDER BY t.COMPONENT_ID";
+
         // Selects component or PV by parent ID and name. For PV, all the p.* columns are null.
         // Columns must match sel_items_by_parent except for the t.NAME that's not in here!
         sel_item_by_parent_and_name =
@@ -210,4 +268,16 @@ public class SQL
         insert_severity =
             "INSERT INTO " + schema_prefix + "SEVERITY(SEVERITY_ID, NAME) VALUES (?,?)";
     }
+
+    /** @param rdb RDBUtil
+     *  @return <code>true</code> if the database supports a recursive WITH
+     *  @throws Exception on error
+     */
+    private static boolean supportsRecursiveWith(final RDBUtil rdb) throws Exception
+    {
+        if (rdb.getDialect() != Dialect.MySQL)
+            return true;
+        // MySQL added WITH RECURSIVE in 8.0
+        return rdb.getConnection().getMetaData().getDatabaseMajorVersion() >= 8;
+    }
 }
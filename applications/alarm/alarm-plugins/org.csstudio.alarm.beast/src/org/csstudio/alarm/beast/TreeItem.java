@@ -188,6 +188,16 @@ public class TreeItem implements Serializable
     {
         if (! children.remove(child))
             throw new Error("Corrupted tree item: " + toString());
+        childRemoved(child);
+    }
+
+    /** Called after a child item was removed.
+     *  Derived classes can update state that depends on the children.
+     *  @param child Child that was removed
+     */
+    protected void childRemoved(final TreeItem child)
+    {
+        // NOP
     }
 
     /** Locate alarm tree item by path, starting at this element
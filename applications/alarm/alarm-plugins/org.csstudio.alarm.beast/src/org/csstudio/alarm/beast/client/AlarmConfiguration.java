@@ -7,6 +7,7 @@
  ******************************************************************************/
 package org.csstudio.alarm.beast.client;
 
+import java.io.File;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -15,14 +16,17 @@ import java.sql.Statement;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 import org.csstudio.alarm.beast.Activator;
 import org.csstudio.alarm.beast.AlarmTreePath;
+import org.csstudio.alarm.beast.AlarmTreeRecord;
 import org.csstudio.alarm.beast.Messages;
 import org.csstudio.alarm.beast.SQL;
 import org.csstudio.alarm.beast.TimestampHelper;
@@ -72,8 +76,14 @@ public class AlarmConfiguration
     /** Hash of all PVs in config_tree that maps PV name to PV */
     private HashMap<String, AlarmTreePV> pvs = new HashMap<String, AlarmTreePV>();
 
+    /** RDB URL, used to identify the snapshot */
+    final private String rdb_url;
+
+    /** Directory for configuration snapshots or <code>null</code> */
+    private volatile File snapshot_directory = null;
+
     /** Re-used statements */
-    private PreparedStatement sel_items_by_parent_statement, sel_pv_by_id_statement;
+    private PreparedStatement sel_pv_by_id_statement;
 
 
     /** Initialize
@@ -89,6 +99,7 @@ public class AlarmConfiguration
     {
         // Allow auto-reconnect?
         this.auto_reconnect = auto_reconnect;
+        rdb_url = url;
         try
         {
             rdb = RDBUtil.connect(url, user, password, auto_reconnect);
@@ -151,6 +162,37 @@ public class AlarmConfiguration
     }
 
 
+    /** Enable local snapshot of the configuration
+     *
+     *  <p>When reading the configuration, guidance, displays, commands
+     *  and automated actions of items that did not change since the
+     *  last time are then taken from the snapshot.
+     *
+     *  @param directory Directory for snapshot files, <code>null</code> to disable
+     */
+    public void setSnapshotDirectory(final File directory)
+    {
+        snapshot_directory = directory;
+    }
+
+    /** @param root_name Name of root element
+     *  @return Snapshot file or <code>null</code>
+     */
+    @SuppressWarnings("nls")
+    private File getSnapshotFile(final String root_name)
+    {
+        final File directory = snapshot_directory;
+        if (directory == null)
+            return null;
+        if (! directory.isDirectory()  &&  ! directory.mkdirs())
+        {
+            Activator.getLogger().log(Level.WARNING, "Cannot create snapshot directory {0}", directory);
+            return null;
+        }
+        // Name must be usable as a file name
+        return new File(directory, root_name.replaceAll("[^A-Za-z0-9_.-]", "_") + ".snapshot");
+    }
+
     /** Read configuration.
      *  @param root_name Name of root element.
      *  @param create Set <code>true</code> to create new tree if nothing found
@@ -246,8 +288,39 @@ public class AlarmConfiguration
             }
             final int id = result.getInt(1);
             final AlarmTreeRoot root = createAlarmTreeRoot(id, root_name);
-            config_reader.readGuidanceDisplaysCommands(root);
-            readChildren(root, monitor, monitor_update_delay);
+
+            // Read all items below the root, then assemble the tree in memory
+            final Map<Integer, List<AlarmTreeRecord>> records = AlarmTreeRecord.readTree(connection, sql, id);
+            final List<AlarmTreeItem> items = new ArrayList<>();
+            items.add(root);
+            for (AlarmTreeRecord record : records.getOrDefault(AlarmTreeRecord.NO_PARENT, Collections.emptyList()))
+                if (record.id == id  &&  record.config_time != null)
+                    root.setConfigTime(TimestampHelper.toEPICSTime(record.config_time));
+            addChildren(root, records, items, monitor, monitor_update_delay);
+
+            // Guidance etc. from snapshot or RDB
+            final AlarmConfigurationSnapshot snapshot;
+            final File snapshot_file = getSnapshotFile(root_name);
+            if (snapshot_file != null)
+            {
+                snapshot = new AlarmConfigurationSnapshot(rdb_url, root_name);
+                if (snapshot.read(snapshot_file))
+                    Activator.getLogger().log(Level.FINE, "Read {0}", snapshot);
+            }
+            else
+                snapshot = null;
+            config_reader.readGuidanceDisplaysCommands(items, snapshot);
+            if (snapshot != null  &&  !monitor.isCanceled())
+            {
+                try
+                {
+                    snapshot.write(snapshot_file);
+                }
+                catch (Exception ex)
+                {
+                    Activator.getLogger().log(Level.WARNING, "Cannot write alarm configuration snapshot " + snapshot_file, ex);
+                }
+            }
             return root;
         }
         finally
@@ -257,60 +330,50 @@ public class AlarmConfiguration
         }
     }
 
-    /** Read configuration for child elements
+    /** Add child elements
      *  @param parent Parent node. Children get added to it.
+     *  @param records Records of all items by parent ID
+     *  @param items Collects all items that are added
      *  @param monitor Progress monitor
      *  @param monitor_update_delay Delay for updates to monitor
      *  @throws Exception on error
      */
-    private void readChildren(final AlarmTreeItem parent,
+    private void addChildren(final AlarmTreeItem parent,
+            final Map<Integer, List<AlarmTreeRecord>> records,
+            final List<AlarmTreeItem> items,
             final IProgressMonitor monitor, final DelayCheck monitor_update_delay) throws Exception
     {
-        if (sel_items_by_parent_statement == null)
-            sel_items_by_parent_statement =
-                rdb.getConnection().prepareStatement(sql.sel_items_by_parent);
-        sel_items_by_parent_statement.setInt(1, parent.getID());
-        final ResultSet result = sel_items_by_parent_statement.executeQuery();
-
-        final List<AlarmTreeItem> recurse_items = new ArrayList<AlarmTreeItem>();
-        while (result.next()  &&  !monitor.isCanceled())
+        final List<AlarmTreeRecord> children = records.get(parent.getID());
+        if (children == null)
+            return;
+        for (AlarmTreeRecord record : children)
         {
-            final int id = result.getInt(1);
-            final String name = result.getString(17);
-            final Timestamp config_time = result.getTimestamp(2);
+            if (monitor.isCanceled())
+                return;
             final AlarmTreeItem item;
-            // Check PV's ID. If null, this is a component, not PV
-            result.getInt(3);
-            if (result.wasNull())
-            {   // Component (area, system), not a PV
-                item = new AlarmTreeItem(parent, name, id);
-                recurse_items.add(item);
-            }
-            else
+            if (record.is_pv)
             {
-                final AlarmTreePV pv = new AlarmTreePV(parent, name, id);
-                pvs.put(name, pv);
+                final AlarmTreePV pv = new AlarmTreePV(parent, record.name, record.id);
+                pvs.put(record.name, pv);
                 // Periodically update progress monitor
                 if (monitor_update_delay.expired())
                 {
                     final int count = pvs.size();
                     monitor.subTask(NLS.bind(Messages.ReadConfigProgressFmt, count));
                 }
-                config_reader.configurePVfromResult(pv, result, severity_mapping, message_mapping);
+                config_reader.configurePVfromRecord(pv, record, severity_mapping, message_mapping);
                 item = pv;
             }
-            if (config_time != null)
-                item.setConfigTime(TimestampHelper.toEPICSTime(config_time));
-            config_reader.readGuidanceDisplaysCommands(item);
+            else
+            {   // Component (area, system), not a PV
+                item = new AlarmTreeItem(parent, record.name, record.id);
+            }
+            if (record.config_time != null)
+                item.setConfigTime(TimestampHelper.toEPICSTime(record.config_time));
+            items.add(item);
+            if (! record.is_pv)
+                addChildren(item, records, items, monitor, monitor_update_delay);
         }
-        result.close();
-
-        // Recurse to children
-        // Cannot do that inside the above while() because that would reuse
-        // the statement of the current ResultSet
-        for (AlarmTreeItem item : recurse_items)
-            readChildren(item, monitor, monitor_update_delay);
-        recurse_items.clear();
     }
 
     /** Add a component to the model and RDB
@@ -954,11 +1017,6 @@ public class AlarmConfiguration
     {
         try
         {
-            if (sel_items_by_parent_statement != null)
-            {
-                sel_items_by_parent_statement.close();
-                sel_items_by_parent_statement = null;
-            }
             if (sel_pv_by_id_statement != null)
             {
                 sel_pv_by_id_statement.close();
@@ -13,11 +13,17 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 
 import org.csstudio.alarm.beast.Activator;
 import org.csstudio.alarm.beast.AlarmTreePath;
+import org.csstudio.alarm.beast.AlarmTreeRecord;
 import org.csstudio.alarm.beast.SQL;
 import org.csstudio.alarm.beast.SeverityLevel;
 import org.csstudio.alarm.beast.TimestampHelper;
@@ -29,6 +35,12 @@ import org.csstudio.platform.utility.rdb.RDBUtil;
 @SuppressWarnings("nls")
 public class AlarmConfigurationReader
 {
+    /** Up to this number of items, read guidance etc. item by item instead of reading complete tables */
+    final private static int BULK_THRESHOLD = 25;
+
+    final private static GDCDataStructure[] NO_GDC = new GDCDataStructure[0];
+    final private static AADataStructure[] NO_AA = new AADataStructure[0];
+
     /** RDB Connection */
     final private RDBUtil rdb;
 
@@ -217,6 +229,154 @@ public class AlarmConfigurationReader
         item.setAutomatedActions(readAutomatedActions(id));
     }
 
+    /** Read GUI info (guidance, displays, commands, automated actions) for many items
+     *
+     *  <p>Items that are found in the snapshot with unchanged configuration time
+     *  are taken from the snapshot.
+     *  For a few remaining items, their info is read item by item,
+     *  otherwise each table is read in one pass.
+     *  The snapshot is then updated to the current configuration.
+     *
+     *  @param items Items of one alarm tree to update with GUI info
+     *  @param snapshot Snapshot to use and update, may be <code>null</code>
+     *  @throws Exception on error
+     */
+    public void readGuidanceDisplaysCommands(final Collection<AlarmTreeItem> items,
+            final AlarmConfigurationSnapshot snapshot) throws Exception
+    {
+        final Map<Integer, AlarmTreeItem> changed = new HashMap<>();
+        for (AlarmTreeItem item : items)
+        {
+            final Instant config_time = item.getConfigTimestamp();
+            final AlarmConfigurationSnapshot.ItemInfo info = (snapshot == null  ||  config_time == null)
+                ? null
+                : snapshot.get(item.getID(), config_time.toEpochMilli());
+            if (info == null)
+                changed.put(item.getID(), item);
+            else
+                info.apply(item);
+        }
+        Activator.getLogger().log(Level.FINE,
+                "Reading GUI info for {0} of {1} items", new Object[] { changed.size(), items.size() });
+
+        if (changed.size() <= BULK_THRESHOLD)
+            for (AlarmTreeItem item : changed.values())
+                readGuidanceDisplaysCommands(item);
+        else
+        {
+            final Set<Integer> ids = changed.keySet();
+            final int root_id = changed.values().iterator().next().getRoot().getID();
+            final Map<Integer, GDCDataStructure[]> guidance = readAllGDC(sql.sel_guidance_by_root, root_id, ids);
+            final Map<Integer, GDCDataStructure[]> displays = readAllGDC(sql.sel_displays_by_root, root_id, ids);
+            final Map<Integer, GDCDataStructure[]> commands = readAllGDC(sql.sel_commands_by_root, root_id, ids);
+            final Map<Integer, AADataStructure[]> actions = readAllAutomatedActions(root_id, ids);
+            for (AlarmTreeItem item : changed.values())
+            {
+                final Integer id = item.getID();
+                item.setGuidance(guidance.getOrDefault(id, NO_GDC));
+                item.setDisplays(displays.getOrDefault(id, NO_GDC));
+                item.setCommands(commands.getOrDefault(id, NO_GDC));
+                item.setAutomatedActions(actions.getOrDefault(id, NO_AA));
+            }
+        }
+
+        if (snapshot == null)
+            return;
+        final Set<Integer> current = new HashSet<>(items.size());
+        for (AlarmTreeItem item : items)
+            current.add(item.getID());
+        snapshot.retain(current);
+        for (AlarmTreeItem item : changed.values())
+        {
+            final Instant config_time = item.getConfigTimestamp();
+            if (config_time != null)
+                snapshot.put(item, config_time.toEpochMilli());
+        }
+    }
+
+    /** Read guidance, displays or commands of many items in one pass over the table
+     *  @param statement_sql One of the sel_guidance_by_root, sel_displays_.., sel_commands_.. statements
+     *  @param root_id ID of the root of the alarm tree
+     *  @param ids IDs of items to read, <code>null</code> for all items in the tree
+     *  @return Entries by item ID. Items without entries are not in the map
+     *  @throws Exception on error
+     */
+    private Map<Integer, GDCDataStructure[]> readAllGDC(final String statement_sql, final int root_id,
+                                                        final Set<Integer> ids) throws Exception
+    {
+        final Map<Integer, GDCDataStructure[]> gdc = new HashMap<>();
+        final List<GDCDataStructure> gdcList = new ArrayList<>();
+        try
+        (
+            final PreparedStatement statement = rdb.getConnection().prepareStatement(statement_sql);
+        )
+        {
+            statement.setFetchSize(AlarmTreeRecord.FETCH_SIZE);
+            statement.setInt(1, root_id);
+            final ResultSet result = statement.executeQuery();
+            // Rows are ordered by item ID, collect entries until ID changes
+            int last_id = -1;
+            while (result.next())
+            {
+                final int id = result.getInt(3);
+                if (ids != null  &&  !ids.contains(id))
+                    continue;
+                if (id != last_id)
+                {
+                    if (gdcList.size() > 0)
+                        gdc.put(last_id, gdcList.toArray(new GDCDataStructure[gdcList.size()]));
+                    gdcList.clear();
+                    last_id = id;
+                }
+                gdcList.add(new GDCDataStructure(result.getString(1), result.getString(2)));
+            }
+            if (gdcList.size() > 0)
+                gdc.put(last_id, gdcList.toArray(new GDCDataStructure[gdcList.size()]));
+            result.close();
+        }
+        return gdc;
+    }
+
+    /** Read automated actions of many items in one pass over the table
+     *  @param root_id ID of the root of the alarm tree
+     *  @param ids IDs of items to read, <code>null</code> for all items in the tree
+     *  @return Automated actions by item ID. Items without actions are not in the map
+     *  @throws Exception on error
+     */
+    public Map<Integer, AADataStructure[]> readAllAutomatedActions(final int root_id, final Set<Integer> ids) throws Exception
+    {
+        final Map<Integer, AADataStructure[]> actions = new HashMap<>();
+        final List<AADataStructure> aaList = new ArrayList<>();
+        try
+        (
+            final PreparedStatement statement = rdb.getConnection().prepareStatement(sql.sel_auto_actions_by_root);
+        )
+        {
+            statement.setFetchSize(AlarmTreeRecord.FETCH_SIZE);
+            statement.setInt(1, root_id);
+            final ResultSet result = statement.executeQuery();
+            int last_id = -1;
+            while (result.next())
+            {
+                final int id = result.getInt(4);
+                if (ids != null  &&  !ids.contains(id))
+                    continue;
+                if (id != last_id)
+                {
+                    if (aaList.size() > 0)
+                        actions.put(last_id, aaList.toArray(new AADataStructure[aaList.size()]));
+                    aaList.clear();
+                    last_id = id;
+                }
+                aaList.add(new AADataStructure(result.getString(1), result.getString(2), result.getInt(3)));
+            }
+            if (aaList.size() > 0)
+                actions.put(last_id, aaList.toArray(new AADataStructure[aaList.size()]));
+            result.close();
+        }
+        return actions;
+    }
+
     /** Read alarm tree component or PV.
      *  Does <u>not</u> initialize the GUI info nor alarm state
      *  @param name Name of item
@@ -340,43 +500,53 @@ public class AlarmConfigurationReader
             final ResultSet result, final SeverityReader severity_mapping,
             final MessageReader message_mapping) throws Exception
     {
-        pv.setDescription(result.getString(4));
-        pv.setEnabled(result.getBoolean(5));
-        pv.setAnnunciating(result.getBoolean(6));
-        pv.setLatching(result.getBoolean(7));
-        pv.setDelay(result.getInt(8));
-        pv.setCount(result.getInt(9));
-        pv.setFilter(result.getString(10));
+        configurePVfromRecord(pv, new AlarmTreeRecord(result, pv.getParent().getID(), pv.getName()),
+                              severity_mapping, message_mapping);
+    }
+
+    /** Configure a PV from RDB record
+     *  @param pv PV to configure
+     *  @param record {@link AlarmTreeRecord} with PV info
+     *  @param severity_mapping
+     *  @param message_mapping
+     *  @throws Exception on error
+     */
+    public void configurePVfromRecord(final AlarmTreePV pv,
+            final AlarmTreeRecord record, final SeverityReader severity_mapping,
+            final MessageReader message_mapping) throws Exception
+    {
+        pv.setDescription(record.description);
+        pv.setEnabled(Boolean.TRUE.equals(record.enabled));
+        pv.setAnnunciating(Boolean.TRUE.equals(record.annunciate));
+        pv.setLatching(Boolean.TRUE.equals(record.latch));
+        pv.setDelay(record.delay);
+        pv.setCount(record.count);
+        pv.setFilter(record.filter);
 
         // If there is severity/status info, use it.
         // Otherwise leave PV "OK" as it was initialized.
-        int severity_id = result.getInt(11);
-        final SeverityLevel current_severity = result.wasNull()
+        final SeverityLevel current_severity = record.current_severity_id == null
             ? SeverityLevel.OK
-            : severity_mapping.getSeverity(severity_id);
+            : severity_mapping.getSeverity(record.current_severity_id);
 
         // Current message was added later, so assume "" if not set
-        int status_id = result.getInt(12);
-        final String current_message = result.wasNull()
+        final String current_message = record.current_status_id == null
             ? ""
-            : message_mapping.getMessage(status_id);
+            : message_mapping.getMessage(record.current_status_id);
 
-        severity_id = result.getInt(13);
-        final SeverityLevel severity = result.wasNull()
+        final SeverityLevel severity = record.severity_id == null
             ? SeverityLevel.OK
-            : severity_mapping.getSeverity(severity_id);
+            : severity_mapping.getSeverity(record.severity_id);
 
-        status_id = result.getInt(14);
-        final String message =  result.wasNull()
+        final String message = record.status_id == null
             ? ""
-            : message_mapping.getMessage(status_id);
+            : message_mapping.getMessage(record.status_id);
 
-        final String value = result.getString(15); // OK to have null value
-        final Timestamp sql_time = result.getTimestamp(16);
-        if (!result.wasNull())
+        // OK to have null value
+        if (record.alarm_time != null)
         {
-            final Instant timestamp = TimestampHelper.toEPICSTime(sql_time);
-            pv.setAlarmState(current_severity, current_message, severity, message, value, timestamp);
+            final Instant timestamp = TimestampHelper.toEPICSTime(record.alarm_time);
+            pv.setAlarmState(current_severity, current_message, severity, message, record.value, timestamp);
         }
     }
 }
@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.alarm.beast.client;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+
+import org.csstudio.alarm.beast.Activator;
+
+/** Local snapshot of the guidance, displays, commands and automated actions
+ *  of a configuration
+ *
+ *  <p>Reading these for a large configuration is the bulk of the RDB traffic
+ *  when starting up, yet they seldom change.
+ *  Each entry is stamped with the CONFIG_TIME of the item,
+ *  which the RDB updates whenever the item is configured.
+ *  When the configuration is read again, entries whose time still
+ *  matches are used as is, and only the changed items are read from the RDB.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class AlarmConfigurationSnapshot
+{
+    /** File format ID, change when the format changes */
+    final private static int FORMAT = 0xBEA51001;
+
+    /** GUI info of one item */
+    public static class ItemInfo
+    {
+        final private long config_time;
+        final private GDCDataStructure[] guidance, displays, commands;
+        final private AADataStructure[] automated_actions;
+
+        ItemInfo(final long config_time, final GDCDataStructure[] guidance,
+                 final GDCDataStructure[] displays, final GDCDataStructure[] commands,
+                 final AADataStructure[] automated_actions)
+        {
+            this.config_time = config_time;
+            this.guidance = guidance;
+            this.displays = displays;
+            this.commands = commands;
+            this.automated_actions = automated_actions;
+        }
+
+        /** @param item Item to update with guidance etc. */
+        void apply(final AlarmTreeItem item)
+        {
+            item.setGuidance(guidance);
+            item.setDisplays(displays);
+            item.setCommands(commands);
+            item.setAutomatedActions(automated_actions);
+        }
+    }
+
+    /** RDB URL and configuration name, used to check that a file matches */
+    final private String source;
+
+    /** Info by item ID */
+    final private Map<Integer, ItemInfo> items = new HashMap<>();
+
+    /** Initialize empty snapshot
+     *  @param rdb_url RDB URL
+     *  @param root_name Name of the configuration
+     */
+    public AlarmConfigurationSnapshot(final String rdb_url, final String root_name)
+    {
+        source = rdb_url + "/" + root_name;
+    }
+
+    /** @return Number of items in snapshot */
+    public int size()
+    {
+        return items.size();
+    }
+
+    /** Get info for an item if it is still current
+     *  @param id Item ID
+     *  @param config_time Configuration time of the item as read from the RDB, milliseconds since epoch
+     *  @return {@link ItemInfo} or <code>null</code> if not known or outdated
+     */
+    public ItemInfo get(final int id, final long config_time)
+    {
+        final ItemInfo info = items.get(id);
+        if (info == null  ||  info.config_time != config_time)
+            return null;
+        return info;
+    }
+
+    /** Remember info of an item
+     *  @param item Item with guidance etc.
+     *  @param config_time Configuration time of the item, milliseconds since epoch
+     */
+    public void put(final AlarmTreeItem item, final long config_time)
+    {
+        items.put(item.getID(), new ItemInfo(config_time, item.getGuidance(),
+                  item.getDisplays(), item.getCommands(), item.getAutomatedActions()));
+    }
+
+    /** Remove items that are no longer in the configuration
+     *  @param ids IDs of current items
+     */
+    public void retain(final Set<Integer> ids)
+    {
+        items.keySet().retainAll(ids);
+    }
+
+    /** @param file File from which to read
+     *  @return <code>true</code> if snapshot was read,
+     *          <code>false</code> if file is missing, doesn't match or can't be read
+     */
+    public boolean read(final File file)
+    {
+        items.clear();
+        if (! file.canRead())
+            return false;
+        try
+        (
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        )
+        {
+            if (in.readInt() != FORMAT  ||  ! source.equals(in.readUTF()))
+                return false;
+            final int count = in.readInt();
+            for (int i=0; i<count; ++i)
+            {
+                final int id = in.readInt();
+                final long config_time = in.readLong();
+                items.put(id, new ItemInfo(config_time, readGDC(in), readGDC(in), readGDC(in), readAA(in)));
+            }
+            return true;
+        }
+        catch (Exception ex)
+        {
+            Activator.getLogger().log(Level.WARNING, "Cannot read alarm configuration snapshot " + file, ex);
+            items.clear();
+            return false;
+        }
+    }
+
+    /** @param file File to which to write
+     *  @throws Exception on error
+     */
+    public void write(final File file) throws Exception
+    {
+        // Write to temporary file, then rename so that readers never see a partial file
+        final File tmp = new File(file.getPath() + ".tmp");
+        try
+        (
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+        )
+        {
+            out.writeInt(FORMAT);
+            out.writeUTF(source);
+            out.writeInt(items.size());
+            for (Map.Entry<Integer, ItemInfo> entry : items.entrySet())
+            {
+                final ItemInfo info = entry.getValue();
+                out.writeInt(entry.getKey());
+                out.writeLong(info.config_time);
+                writeGDC(out, info.guidance);
+                writeGDC(out, info.displays);
+                writeGDC(out, info.commands);
+                out.writeInt(info.automated_actions.length);
+                for (AADataStructure action : info.automated_actions)
+                {
+                    writeString(out, action.getTitle());
+                    writeString(out, action.getDetails());
+                    out.writeInt(action.getDelay());
+                }
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static GDCDataStructure[] readGDC(final DataInputStream in) throws Exception
+    {
+        final GDCDataStructure[] gdc = new GDCDataStructure[in.readInt()];
+        for (int i=0; i<gdc.length; ++i)
+            gdc[i] = new GDCDataStructure(readString(in), readString(in));
+        return gdc;
+    }
+
+    private static AADataStructure[] readAA(final DataInputStream in) throws Exception
+    {
+        final AADataStructure[] actions = new AADataStructure[in.readInt()];
+        for (int i=0; i<actions.length; ++i)
+            actions[i] = new AADataStructure(readString(in), readString(in), in.readInt());
+        return actions;
+    }
+
+    private static void writeGDC(final DataOutputStream out, final GDCDataStructure[] gdc) throws Exception
+    {
+        out.writeInt(gdc.length);
+        for (GDCDataStructure entry : gdc)
+        {
+            writeString(out, entry.getTitle());
+            writeString(out, entry.getDetails());
+        }
+    }
+
+    /** Write string that may be <code>null</code> and exceed the 64k limit of writeUTF */
+    private static void writeString(final DataOutputStream out, final String text) throws Exception
+    {
+        if (text == null)
+        {
+            out.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = text.getBytes("UTF-8");
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final DataInputStream in) throws Exception
+    {
+        final int length = in.readInt();
+        if (length < 0)
+            return null;
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, "UTF-8");
+    }
+
+    /** @return Debug representation */
+    @Override
+    public String toString()
+    {
+        return "Alarm configuration snapshot for " + source + ", " + items.size() + " items";
+    }
+}
@@ -10,10 +10,11 @@ package org.csstudio.alarm.beast.client;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.csstudio.alarm.beast.Messages;
 import org.csstudio.alarm.beast.SeverityLevel;
@@ -31,6 +32,13 @@ import org.eclipse.osgi.util.NLS;
  *  <li>Many {@link AlarmTreeItem} entries to build the hierarchy
  *  <li>Finally {@link AlarmTreePV} entries as leaves
  *  </ul>
+ *  <p>
+ *  Each item keeps counters of its children by current severity
+ *  and the set of children in alarm by latched severity,
+ *  so an alarm update of a PV adjusts the counters of its parent chain
+ *  without scanning the siblings.
+ *  Severities and messages are read without locking.
+ *
  *  @see AlarmTreeRoot
  *  @see AlarmTreeComponent
  *  @see AlarmTreePV
@@ -41,10 +49,36 @@ public class AlarmTreeItem extends TreeItem
 {
     private static final long serialVersionUID = -8597126519675742036L;
 
+    final private static SeverityLevel[] LEVELS = SeverityLevel.values();
+
+    /** Snapshot of the children in alarm */
+    private static class AlarmChildren
+    {
+        final int version;
+        final AlarmTreeItem[] items;
+
+        AlarmChildren(final int version, final AlarmTreeItem[] items)
+        {
+            this.version = version;
+            this.items = items;
+        }
+    }
+
     private volatile int disabled_children = 0;
 
-    /** Sub-tree elements of this item which are currently in alarm */
-    final private transient List<AlarmTreeItem> alarm_children = new CopyOnWriteArrayList<>();
+    /** Number of children by current severity ordinal, allocated when needed. SYNC on this */
+    private transient int[] current_counts = null;
+
+    /** Children in alarm by latched severity ordinal, allocated when needed. SYNC on this */
+    private transient List<LinkedHashSet<AlarmTreeItem>> alarm_sets = null;
+
+    /** Incremented whenever the children in alarm change */
+    private volatile transient int alarm_version = 0;
+
+    /** Sub-tree elements of this item which are currently in alarm,
+     *  computed when requested after a change
+     */
+    private volatile transient AlarmChildren alarm_children = null;
 
     // Using arrays for guidance, ..., commands to be thread-safe
 
@@ -226,6 +260,12 @@ public class AlarmTreeItem extends TreeItem
         return TimestampHelper.format(save_copy);
     }
 
+    /** @return Time of last configuration change or <code>null</code> */
+    Instant getConfigTimestamp()
+    {
+        return config_time;
+    }
+
     /** @param config_time Time of last configuration change */
     void setConfigTime(final Instant config_time)
     {
@@ -237,7 +277,7 @@ public class AlarmTreeItem extends TreeItem
      */
     public int getAlarmChildCount()
     {
-        return alarm_children.size();
+        return getAlarmChildren().length;
     }
 
     /** Get one of the child elements which are currently in alarm.
@@ -246,7 +286,28 @@ public class AlarmTreeItem extends TreeItem
      */
     public AlarmTreeItem getAlarmChild(final int index)
     {
-        return alarm_children.get(index);
+        return getAlarmChildren()[index];
+    }
+
+    /** @return Children in alarm, in the order of all children */
+    private AlarmTreeItem[] getAlarmChildren()
+    {
+        AlarmChildren snapshot = alarm_children;
+        final int version = alarm_version;
+        if (snapshot == null  ||  snapshot.version != version)
+        {
+            final List<AlarmTreeItem> items = new ArrayList<>();
+            final int n = getChildCount();
+            for (int i=0; i<n; ++i)
+            {
+                final AlarmTreeItem child = getChild(i);
+                if (child.getSeverity().ordinal() > 0)
+                    items.add(child);
+            }
+            snapshot = new AlarmChildren(version, items.toArray(new AlarmTreeItem[items.size()]));
+            alarm_children = snapshot;
+        }
+        return snapshot.items;
     }
 
     /** @return Current severity */
@@ -287,15 +348,127 @@ public class AlarmTreeItem extends TreeItem
             getSeverity() == severity  &&
             getMessage().equals(message))
             return ChangeLevel.NONE;
+        final SeverityLevel old_current_severity = this.current_severity;
+        final SeverityLevel old_severity = this.severity;
         this.current_severity = current_severity;
         this.severity = severity;
         this.message = message;
         final AlarmTreeItem parent = getParent();
         if (parent != null)
-            return parent.maximizeSeverity() ? ChangeLevel.PV_AND_PARENT : ChangeLevel.PV;
+            return parent.updateChild(this, old_current_severity, old_severity)
+                   ? ChangeLevel.PV_AND_PARENT : ChangeLevel.PV;
         return ChangeLevel.PV;
     }
 
+    /** Update counters for a child's severities
+     *  @param child Child item
+     *  @param current_severity Current severity of the child
+     *  @param severity Latched severity of the child
+     *  @param add Add or remove the child from the counters?
+     */
+    private void count(final AlarmTreeItem child, final SeverityLevel current_severity,
+                       final SeverityLevel severity, final boolean add)
+    {
+        final int current_level = current_severity.ordinal();
+        if (current_level > 0)
+        {
+            if (current_counts == null)
+                current_counts = new int[LEVELS.length];
+            current_counts[current_level] += add ? 1 : -1;
+        }
+        final int level = severity.ordinal();
+        if (level > 0)
+        {
+            if (alarm_sets == null)
+            {
+                alarm_sets = new ArrayList<>(LEVELS.length);
+                for (int i=0; i<LEVELS.length; ++i)
+                    alarm_sets.add(null);
+            }
+            LinkedHashSet<AlarmTreeItem> set = alarm_sets.get(level);
+            if (set == null)
+            {
+                set = new LinkedHashSet<>();
+                alarm_sets.set(level, set);
+            }
+            if (add)
+                set.add(child);
+            else
+                set.remove(child);
+            ++alarm_version;
+        }
+    }
+
+    /** Set severity/status of this item from the counters
+     *  @return <code>true</code> if the severity or message of this item changed
+     */
+    private boolean updateFromCounters()
+    {
+        SeverityLevel new_current_severity = SeverityLevel.OK;
+        if (current_counts != null)
+            for (int level=LEVELS.length-1; level>0; --level)
+                if (current_counts[level] > 0)
+                {
+                    new_current_severity = LEVELS[level];
+                    break;
+                }
+        // Message of the first child that reached the highest latched severity
+        SeverityLevel new_severity = SeverityLevel.OK;
+        String new_message = SeverityLevel.OK.getDisplayName();
+        if (alarm_sets != null)
+            for (int level=LEVELS.length-1; level>0; --level)
+            {
+                final LinkedHashSet<AlarmTreeItem> set = alarm_sets.get(level);
+                if (set != null  &&  !set.isEmpty())
+                {
+                    new_severity = LEVELS[level];
+                    new_message = set.iterator().next().getMessage();
+                    break;
+                }
+            }
+
+        if (new_current_severity == current_severity  &&
+            new_severity == severity  &&
+            new_message.equals(message))
+            return false;
+        current_severity = new_current_severity;
+        severity = new_severity;
+        message = new_message;
+        return true;
+    }
+
+    /** Update severity/status of this item after a child changed.
+     *  Updates parent items as long as they change, so caller must have locked the root.
+     *
+     *  @param child Child item that already has its new severities and message
+     *  @param old_current_severity Previous current severity of the child
+     *  @param old_severity Previous latched severity of the child
+     *  @return <code>true</code> if the severity of this item or any of its parents changed
+     */
+    protected synchronized boolean updateChild(final AlarmTreeItem child,
+            final SeverityLevel old_current_severity, final SeverityLevel old_severity)
+    {
+        // Keep the child's position in its latched severity set when only the message changed
+        if (old_current_severity != child.getCurrentSeverity())
+        {
+            count(child, old_current_severity, SeverityLevel.OK, false);
+            count(child, child.getCurrentSeverity(), SeverityLevel.OK, true);
+        }
+        if (old_severity != child.getSeverity())
+        {
+            count(child, SeverityLevel.OK, old_severity, false);
+            count(child, SeverityLevel.OK, child.getSeverity(), true);
+        }
+        final SeverityLevel my_current_severity = current_severity;
+        final SeverityLevel my_severity = severity;
+        if (! updateFromCounters())
+            return false;
+        final AlarmTreeItem parent = getParent();
+        if (parent != null)
+            parent.updateChild(this, my_current_severity, my_severity);
+        return true;
+    }
+
     /** Acknowledge or un-acknowledge current alarms.
      *  <p>
      *  For PV entries, it actually acknowledges the alarm.
@@ -324,6 +497,8 @@ public class AlarmTreeItem extends TreeItem
 
     /** Set severity/status of this item by maximizing over its child
      *  severities.
+     *  Recomputes the counters of this item from all children,
+     *  for example after a child was enabled or disabled.
      *  Recursively updates parent items, so caller must have locked the root.
      *
      *  @return <code>true</code> if the severity of this item or any of its parents changed after
@@ -331,48 +506,25 @@ public class AlarmTreeItem extends TreeItem
      */
     public synchronized boolean maximizeSeverity()
     {
-        boolean changed = false;
-        // Get maximum child severity and its status
-        SeverityLevel new_current_severity = SeverityLevel.OK;
-        SeverityLevel new_severity = SeverityLevel.OK;
-        String new_message = SeverityLevel.OK.getDisplayName();
-        alarm_children.clear();
-        disabled_children = 0;
+        current_counts = null;
+        alarm_sets = null;
+        ++alarm_version;
+        int disabled = 0;
         final int n = getChildCount();
         for (int i=0; i<n; ++i)
         {
             final AlarmTreeItem child = getChild(i);
-            // Maximize 'current' severity
-            if (child.getCurrentSeverity().ordinal() > new_current_severity.ordinal())
-                new_current_severity = child.getCurrentSeverity();
-            // Maximize latched severity/status
-            final SeverityLevel child_sevr = child.getSeverity();
-            final int level = child_sevr.ordinal();
-            if (level > 0)
-                alarm_children.add(child);
-            if (level > new_severity.ordinal())
-            {
-                new_severity = child_sevr;
-                new_message = child.getMessage();
-            }
+            count(child, child.getCurrentSeverity(), child.getSeverity(), true);
             if (child instanceof AlarmTreePV)
             {
                 if ( ((AlarmTreePV) child).isEnabled() == false)
-                    ++disabled_children;
+                    ++disabled;
             }
             else
-                disabled_children += child.getDisabledChildCount();
-        }
-
-        if (new_current_severity != current_severity  ||
-            new_severity != severity  ||
-            !new_message.equals(message))
-        {
-            current_severity = new_current_severity;
-            severity = new_severity;
-            message = new_message;
-            changed = true;
+                disabled += child.getDisabledChildCount();
         }
+        disabled_children = disabled;
+        final boolean changed = updateFromCounters();
 
         // Percolate changes towards root
         final AlarmTreeItem parent = getParent();
@@ -381,6 +533,13 @@ public class AlarmTreeItem extends TreeItem
         return changed;
     }
 
+    /** Update counters when child is removed */
+    @Override
+    protected void childRemoved(final TreeItem child)
+    {
+        maximizeSeverity();
+    }
+
     /** {@inheritDoc} */
     @Override
     @SuppressWarnings("nls")
@@ -77,6 +77,30 @@ class AlarmClientCommunicator extends JMSCommunicationWorkQueueThread
         }
     }
 
+    /** Action to update the state of several PVs */
+    private class BatchUpdateAction implements Runnable
+    {
+        final private AlarmUpdateInfo[] infos;
+
+        public BatchUpdateAction(final AlarmUpdateInfo[] infos)
+        {
+            this.infos = infos;
+        }
+
+        @Override
+        public void run()
+        {
+            for (AlarmUpdateInfo info : infos)
+                model.updatePV(info);
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Batch of " + infos.length + " updates";
+        }
+    }
+
     /** Action to enable/disable a PV */
     private class EnableAction implements Runnable
     {
@@ -380,6 +404,19 @@ class AlarmClientCommunicator extends JMSCommunicationWorkQueueThread
                 action = new UpdateAction(AlarmUpdateInfo.fromMapMessage(message,date_format));
                 model.updateServerState(true);
             }
+            // Batch of alarm state changes?
+            else if (JMSAlarmMessage.TEXT_STATES.equals(text))
+            {
+                timeout_timer.reset();
+                action = new BatchUpdateAction(AlarmUpdateInfo.fromBatchMapMessage(message, date_format));
+                model.updateServerState(false);
+            }
+            else if (JMSAlarmMessage.TEXT_STATES_MAINTENANCE.equals(text))
+            {
+                timeout_timer.reset();
+                action = new BatchUpdateAction(AlarmUpdateInfo.fromBatchMapMessage(message, date_format));
+                model.updateServerState(true);
+            }
             // Idle messages in absence of 'real' traffic?
             else if (JMSAlarmMessage.TEXT_IDLE.equals(text))
             {
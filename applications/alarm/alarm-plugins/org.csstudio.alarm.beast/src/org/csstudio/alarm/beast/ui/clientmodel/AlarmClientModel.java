@@ -7,6 +7,7 @@
  ******************************************************************************/
 package org.csstudio.alarm.beast.ui.clientmodel;
 
+import java.io.File;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
@@ -408,6 +409,9 @@ public class AlarmClientModel
                                                     AlarmClientModel.this);
                 }
             };
+            final String snapshot_directory = Preferences.getConfigSnapshotDirectory();
+            if (snapshot_directory != null)
+                new_config.setSnapshotDirectory(new File(snapshot_directory));
 
             // Read names of available configurations
             final String new_root_names[] = new_config.listConfigurations();
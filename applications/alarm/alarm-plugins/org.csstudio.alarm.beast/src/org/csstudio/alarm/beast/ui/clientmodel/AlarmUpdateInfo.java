@@ -51,15 +51,43 @@ public class AlarmUpdateInfo
     public static AlarmUpdateInfo fromMapMessage(final MapMessage message, DateFormat date_format)
             throws Exception
     {
-        final String name = message.getString(JMSLogMessage.NAME);
+        return decode(message, -1, date_format);
+    }
+
+    /** Initialize from JMS MapMessage that contains a batch of updates
+     *  @param message Message that must contain alarm info
+     *  @param date_format the date format used for parsing the received time stamp
+     *  @return {@link AlarmUpdateInfo} for each update in the batch
+     *  @throws Exception on error in JMS access or parsing of received data
+     *  @see JMSAlarmMessage#TEXT_STATES
+     */
+    public static AlarmUpdateInfo[] fromBatchMapMessage(final MapMessage message, DateFormat date_format)
+            throws Exception
+    {
+        final AlarmUpdateInfo[] infos = new AlarmUpdateInfo[message.getInt(JMSAlarmMessage.COUNT)];
+        for (int i=0; i<infos.length; ++i)
+            infos[i] = decode(message, i, date_format);
+        return infos;
+    }
+
+    /** @param message Message that must contain alarm info
+     *  @param index Index of update within batch, or -1 for message with single update
+     *  @param date_format the date format used for parsing the received time stamp
+     *  @return {@link AlarmUpdateInfo}
+     *  @throws Exception on error in JMS access or parsing of received data
+     */
+    private static AlarmUpdateInfo decode(final MapMessage message, final int index, final DateFormat date_format)
+            throws Exception
+    {
+        final String name = message.getString(key(JMSLogMessage.NAME, index));
         final SeverityLevel severity = SeverityLevel.parse(
-                message.getString(JMSLogMessage.SEVERITY));
-        final String status = message.getString(JMSAlarmMessage.STATUS);
+                message.getString(key(JMSLogMessage.SEVERITY, index)));
+        final String status = message.getString(key(JMSAlarmMessage.STATUS, index));
         final SeverityLevel current_severity = SeverityLevel.parse(
-                message.getString(JMSAlarmMessage.CURRENT_SEVERITY));
-        final String current_message = message.getString(JMSAlarmMessage.CURRENT_STATUS);
-        final String value = message.getString(JMSAlarmMessage.VALUE);
-        final String timetext = message.getString(JMSAlarmMessage.EVENTTIME);
+                message.getString(key(JMSAlarmMessage.CURRENT_SEVERITY, index)));
+        final String current_message = message.getString(key(JMSAlarmMessage.CURRENT_STATUS, index));
+        final String value = message.getString(key(JMSAlarmMessage.VALUE, index));
+        final String timetext = message.getString(key(JMSAlarmMessage.EVENTTIME, index));
         Instant timestamp;
         try
         {
@@ -74,6 +102,11 @@ public class AlarmUpdateInfo
                 severity, status, value, timestamp);
     }
 
+    private static String key(final String key, final int index)
+    {
+        return index < 0 ? key : JMSAlarmMessage.batchKey(key, index);
+    }
+
     /** Initialize from pieces
      *  @param name_or_path
      *  @param current_severity
@@ -60,6 +60,9 @@ CREATE TABLE IF NOT EXISTS message
    severity VARCHAR(20) NULL  
 );
 
+-- Message history reads pages of messages by (datum, id)
+CREATE INDEX message_datum_id_idx ON message (datum, id);
+
 -- Elements of a Message
 -- ID column isn't really used...
 DROP TABLE IF EXISTS message_content;
@@ -50,6 +50,13 @@ CREATE INDEX message_content_msgid_indx ON message_content
     message_id                      ASC
   );
 
+-- Message history reads pages of messages by (datum, id)
+CREATE INDEX message_datum_id_indx ON message
+  (
+    datum                           DESC,
+    id                              DESC
+  );
+
 ALTER TABLE message_content
 ADD CONSTRAINT message_content_msg_prope_fk1 FOREIGN KEY (msg_property_type_id)
 REFERENCES msg_property_type (id);
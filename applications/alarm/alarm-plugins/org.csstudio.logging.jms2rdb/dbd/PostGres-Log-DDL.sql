@@ -98,6 +98,8 @@ alter table message_content add constraint msg_pptype_id_fk foreign key (msg_pro
 
 create index msg_id_idx on message_content (message_id);
 create index msg_pp_type_id_idx on message_content (msg_property_type_id);
+-- Message history reads pages of messages by (datum, id)
+create index msg_datum_id_idx on message (datum, id);
 
 -- Example Message with some elements
 -- NOTE:
@@ -65,6 +65,15 @@ public class Application implements IApplication
     /** RDB Schema */
     private String rdb_schema = "";
 
+    /** Maximum number of queued messages */
+    private int queue_capacity = 10000;
+
+    /** Maximum number of messages written in one transaction */
+    private int batch_size = 500;
+
+    /** Time to wait for more messages to fill a batch */
+    private int batch_ms = 500;
+
     /** Thread that handles the JMS messages */
     private LogClientThread log_client_thread;
 
@@ -146,6 +155,12 @@ public class Application implements IApplication
                 SecurePreferences.get(Activator.ID, "rdb_password", null);
         rdb_schema =
             service.getString(Activator.ID, "rdb_schema", rdb_schema, null);
+        queue_capacity =
+            service.getInt(Activator.ID, "queue_capacity", queue_capacity, null);
+        batch_size =
+            service.getInt(Activator.ID, "batch_size", batch_size, null);
+        batch_ms =
+            service.getInt(Activator.ID, "batch_ms", batch_ms, null);
 
         LogConfigurator.configureFromPreferences();
 
@@ -154,7 +169,7 @@ public class Application implements IApplication
         // Start log handler and web interface
         log_client_thread =
             new LogClientThread(jms_url, jms_topic, rdb_url, rdb_user, rdb_password, rdb_schema,
-                                Filter.parse(jms_filters));
+                                Filter.parse(jms_filters), queue_capacity, batch_size, batch_ms);
         startHttpd();
         log_client_thread.start();
         // .. Wait while thread is running ..
@@ -7,6 +7,9 @@
  ******************************************************************************/
 package org.csstudio.logging.jms2rdb;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 import javax.jms.Connection;
@@ -19,19 +22,21 @@ import javax.jms.MessageListener;
 import javax.jms.Session;
 import javax.jms.Topic;
 
+import org.csstudio.logging.jms2rdb.rdb.RDBMessage;
 import org.csstudio.logging.jms2rdb.rdb.RDBWriter;
 import org.csstudio.platform.utility.jms.JMSConnectionFactory;
 
 /** Thread that receives log messages and sends them to the RDB.
  *  <p>
- *  There is no further queuing in here.
- *  All messages are directly written to the RDB.
+ *  Received messages are placed in a bounded {@link MessageQueue}.
+ *  The thread writes them to the RDB in batches,
+ *  one transaction per batch.
  *  <p>
  *  If messages arrive quicker than they can be written to RDB,
- *  simple test showed that ActiveMQ JMS server will queue them up
+ *  or while the RDB is re-connected after an error,
+ *  the queue fills up and the JMS message listener blocks.
+ *  Simple test showed that ActiveMQ JMS server will then queue them up
  *  for this "consumer" as long as the consumer stays connected.
- *  TODO: Limits and config. of JMS server queue unclear.
- *        Queue in here?
  *
  *  @author Kay Kasemir
  *  reviewed by Katia Danilova 08/20/08
@@ -66,12 +71,26 @@ public class LogClientThread extends Thread
     /** Message filters */
     final private Filter filters[];
 
+    /** Maximum number of messages written in one transaction */
+    final private int batch_size;
+
+    /** Time to wait for more messages to fill a batch */
+    final private long batch_ms;
+
+    /** Queue of received messages */
+    final private MessageQueue<RDBMessage> queue;
+
+    /** Batch that's being written. Only accessed by this thread.
+     *  After a write error, it is written again once re-connected.
+     */
+    final private List<RDBMessage> batch = new ArrayList<>();
+
+    /** Has the current batch already failed to write? */
+    private boolean batch_failed = false;
+
     /** Flag that tells thread to run or stop. */
     private volatile boolean run = true;
 
-    /** Flag that tells thread main loop to wait. */
-    private boolean do_wait;
-
     /** RDB Writer for log messages */
     private RDBWriter rdb_writer;
 
@@ -84,6 +103,9 @@ public class LogClientThread extends Thread
     /** Last error message or <code>null</code> */
     private String last_error = "";
 
+    /** Batch statistics */
+    private long batch_count = 0, written_count = 0, dropped_count = 0, write_ns = 0;
+
     /** Constructor
      *  @param jms_url JMS server URL
      *  @param jms_topic JMS topic (or list of topics, separated by ',')
@@ -91,11 +113,16 @@ public class LogClientThread extends Thread
      *  @param rdb_user User (or null)
      *  @param rdb_password Password (or null)
      *  @param rdb_schema RDB schema or ""
+     *  @param filters Message filters
+     *  @param queue_capacity Maximum number of queued messages
+     *  @param batch_size Maximum number of messages written in one transaction
+     *  @param batch_ms Time to wait for more messages to fill a batch
      */
     public LogClientThread(final String jms_url, final String jms_topic,
             final String rdb_url, final String rdb_user, final String rdb_password,
             final String rdb_schema,
-            final Filter filters[])
+            final Filter filters[],
+            final int queue_capacity, final int batch_size, final long batch_ms)
     {
         super("LogClientThread");
         this.jms_url = jms_url;
@@ -105,6 +132,9 @@ public class LogClientThread extends Thread
         this.rdb_password = rdb_password;
         this.rdb_schema = rdb_schema;
         this.filters = filters;
+        this.queue = new MessageQueue<>(queue_capacity);
+        this.batch_size = batch_size;
+        this.batch_ms = batch_ms;
 
         for (Filter filter : filters)
             Activator.getLogger().config(filter.toString());
@@ -128,81 +158,165 @@ public class LogClientThread extends Thread
         return last_error;
     }
 
+    /** @return Queue of received messages */
+    public MessageQueue<?> getQueue()
+    {
+        return queue;
+    }
+
+    /** @return Maximum number of messages written in one transaction */
+    public int getBatchSize()
+    {
+        return batch_size;
+    }
+
+    /** @return Number of batches written */
+    public synchronized long getBatchCount()
+    {
+        return batch_count;
+    }
+
+    /** @return Number of messages written */
+    public synchronized long getWrittenCount()
+    {
+        return written_count;
+    }
+
+    /** @return Number of messages dropped because they could not be written */
+    public synchronized long getDroppedCount()
+    {
+        return dropped_count;
+    }
+
+    /** @return Average time for writing a batch in milliseconds */
+    public synchronized double getAverageBatchMillis()
+    {
+        if (batch_count <= 0)
+            return 0.0;
+        return TimeUnit.NANOSECONDS.toMicros(write_ns) / 1000.0 / batch_count;
+    }
+
     /** Connect to JMS, handle messages */
     @Override
     public void run()
     {
-        while (run)
+        // JMS remains connected while the RDB re-connects.
+        // Closing JMS waits for onMessage, which may be blocked
+        // because the queue is full.
+        Connection jms_connection = null;
+        try
         {
-            Connection jms_connection = null;
-            rdb_writer = null;
-            try
+            while (run)
             {
-                // First open RDB, then the JMS client that writes to RDB
-                rdb_writer = new RDBWriter(rdb_url, rdb_user, rdb_password, rdb_schema);
-                Activator.getLogger().log(Level.INFO, "Connected to RDB {0}", rdb_url);
+                rdb_writer = null;
+                try
+                {
+                    // First open RDB, then the JMS client that writes to RDB
+                    rdb_writer = new RDBWriter(rdb_url, rdb_user, rdb_password, rdb_schema);
+                    Activator.getLogger().log(Level.INFO, "Connected to RDB {0}", rdb_url);
 
-                // Add start message
-                rdb_writer.write("JMS Log Tool started");
+                    // Add start message
+                    rdb_writer.write("JMS Log Tool started");
 
-                jms_connection = connectJMS();
+                    if (jms_connection == null)
+                        jms_connection = connectJMS();
 
-                // Incoming JMS messages are handled in onMessage,
-                // so nothing to do here but wait...
-                synchronized (this)
-                {
-                    do_wait = true;
-                    // Check some condition to please FindBugs
-                    while (do_wait)
-                        wait();
+                    // Incoming JMS messages are queued in onMessage,
+                    // write them until cancelled or error
+                    writeBatches();
                 }
-            }
-            catch (Exception ex)
-            {
-                synchronized (this)
+                catch (Exception ex)
                 {
-                    last_error = ex.getMessage();
+                    synchronized (this)
+                    {
+                        last_error = ex.getMessage();
+                    }
+                    Activator.getLogger().log(Level.WARNING, "Log thread error", ex);
                 }
-                Activator.getLogger().log(Level.WARNING, "Log thread error", ex);
-            }
-            finally
-            {
-                // Stop JMS...
-                if (jms_connection != null)
+                finally
                 {
+                    if (rdb_writer != null)
+                    {
+                        rdb_writer.close();
+                        rdb_writer = null;
+                    }
+                }
+                // Did we wake up & close connections because of error
+                // or because of requested shutdown?
+                if (run)
+                {   // Error. Wait a little before trying again
                     try
                     {
-                        jms_connection.close();
+                        synchronized (this)
+                        {
+                            wait(RETRY_DELAY_MS);
+                        }
                     }
-                    catch (JMSException e)
+                    catch (InterruptedException ex)
                     {
-                        Activator.getLogger().log(Level.WARNING, "JMS disconnect error", e);
+                        // Ignore
+                        ex = null;
                     }
                 }
-                // .. then the RDB used by the JMS client.
-                if (rdb_writer != null)
-                {
-                    rdb_writer.close();
-                    rdb_writer = null;
-                }
             }
-            // Did we wake up & close connections because of error
-            // or because of requested shutdown?
-            if (run)
-            {   // Error. Wait a little before trying again
+        }
+        finally
+        {
+            // Queue has been cancelled, so onMessage no longer blocks
+            if (jms_connection != null)
+            {
                 try
                 {
+                    jms_connection.close();
+                }
+                catch (JMSException e)
+                {
+                    Activator.getLogger().log(Level.WARNING, "JMS disconnect error", e);
+                }
+            }
+        }
+    }
+
+    /** Write queued messages in batches
+     *  @throws Exception on error
+     */
+    private void writeBatches() throws Exception
+    {
+        while (true)
+        {
+            if (batch.isEmpty()  &&  !queue.take(batch, batch_size, batch_ms))
+                return;
+            final long start = System.nanoTime();
+            try
+            {
+                rdb_writer.write(batch);
+            }
+            catch (Exception ex)
+            {
+                if (batch_failed)
+                {   // Batch already failed before re-connect, drop it
+                    for (RDBMessage message : batch)
+                        Activator.getLogger().log(Level.WARNING, "Dropping message {0}", message);
                     synchronized (this)
                     {
-                        wait(RETRY_DELAY_MS);
+                        dropped_count += batch.size();
                     }
+                    batch.clear();
+                    batch_failed = false;
                 }
-                catch (InterruptedException ex)
-                {
-                    // Ignore
-                    ex = null;
-                }
+                else
+                    batch_failed = true;
+                throw ex;
             }
+            final long ns = System.nanoTime() - start;
+            synchronized (this)
+            {
+                ++batch_count;
+                written_count += batch.size();
+                write_ns += ns;
+            }
+            batch.clear();
+            batch_failed = false;
         }
     }
 
@@ -213,32 +327,42 @@ public class LogClientThread extends Thread
     private Connection connectJMS() throws JMSException
     {
         final Connection connection = JMSConnectionFactory.connect(jms_url);
-        connection.setExceptionListener(this);
-        connection.start();
-        final Session session = connection.createSession(/* transacted */false,
-                                           Session.AUTO_ACKNOWLEDGE);
-        // Subscribe to list of topics
-        final String[] topic_names = jms_topic.split(", *");
-        for (String topic_name : topic_names)
+        try
         {
-            final Topic topic = session.createTopic(topic_name);
-            final MessageConsumer consumer = session.createConsumer(topic);
-            consumer.setMessageListener(this);
+            connection.setExceptionListener(this);
+            connection.start();
+            final Session session = connection.createSession(/* transacted */false,
+                                               Session.AUTO_ACKNOWLEDGE);
+            // Subscribe to list of topics
+            final String[] topic_names = jms_topic.split(", *");
+            for (String topic_name : topic_names)
+            {
+                final Topic topic = session.createTopic(topic_name);
+                final MessageConsumer consumer = session.createConsumer(topic);
+                consumer.setMessageListener(this);
 
-            Activator.getLogger().log(Level.CONFIG,
-                    "Accepting messages for {0} at {1}",
-                    new Object[] { topic_name, jms_url });
+                Activator.getLogger().log(Level.CONFIG,
+                        "Accepting messages for {0} at {1}",
+                        new Object[] { topic_name, jms_url });
+            }
+        }
+        catch (JMSException ex)
+        {   // Don't leave partially subscribed connection behind, will try again
+            connection.close();
+            throw ex;
         }
         return connection;
     }
 
-    /** Ask thread to stop. Does not block for thread to actually exit */
+    /** Ask thread to stop. Does not block for thread to actually exit.
+     *  Messages that are already queued will still be written.
+     */
     public void cancel()
     {
         run = false;
+        queue.cancel();
         synchronized (this)
         {
-            do_wait = false;
             notifyAll();
         }
     }
@@ -267,7 +391,9 @@ public class LogClientThread extends Thread
                     ++message_count;
                     last_message  = map;
                 }
-                rdb_writer.write(map);
+                // Blocks while queue is full
+                if (! queue.add(RDBMessage.fromMapMessage(map)))
+                    Activator.getLogger().log(Level.WARNING, "Cannot queue message after shutdown: {0}", message);
             }
             else
                 Activator.getLogger().log(Level.WARNING, "Received unhandled message {0}", message);
@@ -279,13 +405,6 @@ public class LogClientThread extends Thread
                 last_error = ex.getMessage();
             }
             Activator.getLogger().log(Level.WARNING, "Message handling error for " + message, ex);
-            // Leave run == true, toggle a restart
-            run = true;
-            synchronized (this)
-            {
-                do_wait = false;
-                notifyAll();
-            }
         }
     }
 }
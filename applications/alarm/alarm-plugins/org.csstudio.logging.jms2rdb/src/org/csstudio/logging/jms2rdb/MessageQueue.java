@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.logging.jms2rdb;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Bounded queue of messages, taken in batches
+ *
+ *  <p>Messages are added by the JMS thread and
+ *  taken by the RDB writer.
+ *  When the queue is full, {@link #add(Object)} blocks
+ *  and thus pushes back onto the JMS server,
+ *  which then queues messages for this consumer.
+ *
+ *  @param <T> Message type
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class MessageQueue<T>
+{
+    final private int capacity;
+
+    /** Queued messages. SYNC on this */
+    final private ArrayDeque<T> queue;
+
+    /** Has queue been cancelled? SYNC on this */
+    private boolean cancelled = false;
+
+    /** Statistics. SYNC on this */
+    private long added = 0, max_size = 0, blocked = 0, blocked_ns = 0;
+
+    /** @param capacity Maximum number of queued messages */
+    public MessageQueue(final int capacity)
+    {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be positive");
+        this.capacity = capacity;
+        queue = new ArrayDeque<>(capacity);
+    }
+
+    /** Add message, waiting while the queue is full
+     *  @param message Message to add
+     *  @return <code>false</code> if queue was cancelled and message was not added
+     *  @throws InterruptedException when interrupted while waiting
+     */
+    public synchronized boolean add(final T message) throws InterruptedException
+    {
+        if (queue.size() >= capacity  &&  !cancelled)
+        {
+            ++blocked;
+            final long start = System.nanoTime();
+            try
+            {
+                while (queue.size() >= capacity  &&  !cancelled)
+                    wait();
+            }
+            finally
+            {
+                blocked_ns += System.nanoTime() - start;
+            }
+        }
+        if (cancelled)
+            return false;
+        queue.add(message);
+        ++added;
+        if (queue.size() > max_size)
+            max_size = queue.size();
+        // Wake taker
+        notifyAll();
+        return true;
+    }
+
+    /** Take a batch of messages
+     *
+     *  <p>Waits for the first message, then continues
+     *  to wait until there are enough messages to fill a batch,
+     *  or the window since the first message has passed.
+     *  Once cancelled, remaining messages are returned without waiting.
+     *
+     *  @param batch List to which messages are added
+     *  @param batch_size Maximum number of messages to take
+     *  @param window_ms Time to wait for a batch to fill up
+     *  @return <code>false</code> if queue was cancelled and is empty
+     *  @throws InterruptedException when interrupted while waiting
+     */
+    public synchronized boolean take(final List<T> batch, final int batch_size, final long window_ms) throws InterruptedException
+    {
+        while (queue.isEmpty()  &&  !cancelled)
+            wait();
+        final long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(window_ms);
+        final int fill = Math.min(batch_size, capacity);
+        long wait_ns;
+        while (queue.size() < fill  &&  !cancelled  &&
+               (wait_ns = end - System.nanoTime()) > 0)
+            TimeUnit.NANOSECONDS.timedWait(this, wait_ns);
+        if (queue.isEmpty())
+            return false;
+        for (int i=0; i<batch_size  &&  !queue.isEmpty(); ++i)
+            batch.add(queue.poll());
+        // Wake blocked producers
+        notifyAll();
+        return true;
+    }
+
+    /** Cancel the queue, waking all that are waiting */
+    public synchronized void cancel()
+    {
+        cancelled = true;
+        notifyAll();
+    }
+
+    /** @return Maximum number of queued messages */
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /** @return Number of queued messages */
+    public synchronized int size()
+    {
+        return queue.size();
+    }
+
+    /** @return Highest number of queued messages */
+    public synchronized long getMaxSize()
+    {
+        return max_size;
+    }
+
+    /** @return Number of messages that were added */
+    public synchronized long getAddedCount()
+    {
+        return added;
+    }
+
+    /** @return How often adding a message had to wait for room in the queue */
+    public synchronized long getBlockedCount()
+    {
+        return blocked;
+    }
+
+    /** @return Total time that adding messages waited for room in the queue */
+    public synchronized long getBlockedMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(blocked_ns);
+    }
+}
@@ -14,6 +14,7 @@ import javax.jms.MapMessage;
 
 import org.csstudio.logging.jms2rdb.Activator;
 import org.csstudio.logging.jms2rdb.LogClientThread;
+import org.csstudio.logging.jms2rdb.MessageQueue;
 import org.osgi.framework.Constants;
 
 /** Servlet to display overall status of JMS Log Tool.
@@ -49,6 +50,23 @@ public class MainServlet extends AbstractServlet
 
         html.h2("Message Count: " + log_client_thread.getMessageCount());
 
+        final MessageQueue<?> queue = log_client_thread.getQueue();
+        html.openTable(2, new String [] { "RDB Writer" });
+        html.tableLine(new String [] { "Queued", queue.size() + " of " + queue.getCapacity() });
+        html.tableLine(new String [] { "Max. Queued", Long.toString(queue.getMaxSize()) });
+        html.tableLine(new String [] { "Blocked Receiver", queue.getBlockedCount() + " times, " +
+                                                          queue.getBlockedMillis() + " ms" });
+        final long batches = log_client_thread.getBatchCount();
+        final long written = log_client_thread.getWrittenCount();
+        html.tableLine(new String [] { "Written", written + " messages in " + batches + " batches" });
+        html.tableLine(new String [] { "Avg. Batch",
+            String.format("%.1f of max. %d messages, %.1f ms",
+                          batches > 0 ? (double) written / batches : 0.0,
+                          log_client_thread.getBatchSize(),
+                          log_client_thread.getAverageBatchMillis()) });
+        html.tableLine(new String [] { "Dropped", Long.toString(log_client_thread.getDroppedCount()) });
+        html.closeTable();
+
         final String last_error = log_client_thread.getLastError();
         if (last_error.length() > 0)
         {
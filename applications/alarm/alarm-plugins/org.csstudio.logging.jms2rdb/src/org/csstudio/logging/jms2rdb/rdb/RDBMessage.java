@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.logging.jms2rdb.rdb;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.jms.JMSException;
+import javax.jms.MapMessage;
+
+import org.csstudio.logging.JMSLogMessage;
+
+/** Message to write to the RDB
+ *
+ *  <p>Snapshot of a received JMS message,
+ *  held in a queue until written as part of a batch.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class RDBMessage
+{
+    final private Date date;
+    final private String type;
+    final private String name;
+    final private String severity;
+    final private Map<String, String> properties;
+
+    /** @param type Message type
+     *  @param name Primary name (PV name, ...) to which the msg refers. May be <code>null</code>
+     *  @param severity Message severity
+     *  @param properties Additional message properties
+     */
+    public RDBMessage(final String type, final String name, final String severity,
+                      final Map<String, String> properties)
+    {
+        this.date = new Date();
+        this.type = type;
+        this.name = name;
+        this.severity = severity;
+        this.properties = properties;
+    }
+
+    /** @param map JMS message
+     *  @return {@link RDBMessage} for the content of the JMS message
+     *  @throws JMSException on error
+     */
+    @SuppressWarnings("unchecked")
+    public static RDBMessage fromMapMessage(final MapMessage map) throws JMSException
+    {
+        final Map<String, String> properties = new LinkedHashMap<>();
+        final Enumeration<String> props = map.getMapNames();
+        while (props.hasMoreElements())
+        {
+            final String prop = props.nextElement();
+            // Skip properties which are already in message table columns
+            if (JMSLogMessage.TYPE.equals(prop) ||
+                JMSLogMessage.NAME.equals(prop) ||
+                JMSLogMessage.SEVERITY.equals(prop))
+                continue;
+            // Don't bother to keep empty properties
+            final String value = map.getString(prop);
+            if (value != null  &&  !value.isEmpty())
+                properties.put(prop, value);
+        }
+        return new RDBMessage(map.getString(JMSLogMessage.TYPE),
+                              map.getString(JMSLogMessage.NAME),
+                              map.getString(JMSLogMessage.SEVERITY),
+                              properties);
+    }
+
+    /** @return Time when message was received */
+    public Date getDate()
+    {
+        return date;
+    }
+
+    /** @return Message type */
+    public String getType()
+    {
+        return type;
+    }
+
+    /** @return Primary name or <code>null</code> */
+    public String getName()
+    {
+        return name;
+    }
+
+    /** @return Message severity */
+    public String getSeverity()
+    {
+        return severity;
+    }
+
+    /** @return Additional message properties */
+    public Map<String, String> getProperties()
+    {
+        return Collections.unmodifiableMap(properties);
+    }
+
+    @Override
+    public String toString()
+    {
+        return type + " " + name + " " + severity + " " + properties;
+    }
+}
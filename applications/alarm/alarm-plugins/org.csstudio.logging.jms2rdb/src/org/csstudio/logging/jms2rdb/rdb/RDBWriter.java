@@ -12,9 +12,10 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
 import java.sql.Timestamp;
-import java.util.Date;
-import java.util.Enumeration;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -26,6 +27,12 @@ import org.csstudio.platform.utility.rdb.RDBUtil;
 import org.csstudio.platform.utility.rdb.RDBUtil.Dialect;
 
 /** Class that writes JMSLogMessages to the RDB
+ *
+ *  <p>Messages are written in batches,
+ *  with one transaction for all messages in the batch.
+ *  Where the RDB uses a sequence for the message IDs,
+ *  the IDs for the batch are fetched in one query.
+ *
  *  @author Kay Kasemir
  *  @author Lana Abadie - PostgreSQL additions. Disable autocommit as needed.
  *  reviewed by Katia Danilova 08/20/08
@@ -40,9 +47,12 @@ public class RDBWriter
     /** Enable Oracle statistics? */
     private static final boolean enable_trace = false;
 
-    /** RDB Utility */
+    /** RDB Utility, <code>null</code> when using a connection provided by caller */
     final private RDBUtil rdb_util;
 
+    /** RDB connection */
+    final private Connection connection;
+
     /** SQL statements */
     final private SQL sql;
 
@@ -50,8 +60,8 @@ public class RDBWriter
     final private HashMap<String, Integer> properties =
         new HashMap<String, Integer>();
 
-    /** Lazily initialized statement */
-    private PreparedStatement next_message_id_statement;
+    /** Statement for range of message IDs, <code>null</code> if RDB assigns IDs on insert */
+    private PreparedStatement next_message_ids_statement;
 
     /** Lazily initialized statement */
     private PreparedStatement insert_message_statement;
@@ -68,16 +78,30 @@ public class RDBWriter
      */
     public RDBWriter(final String url, final String user, final String password, final String schema) throws Exception
     {
-        try
-        {
-            rdb_util = RDBUtil.connect(url, user, password, false);
-        }
-        catch (Exception ex)
-        {
-            throw new Exception("Error connecting to '" + url + "': " + ex.getMessage());
-        }
+        this(connect(url, user, password), schema);
+    }
+
+    private RDBWriter(final RDBUtil rdb_util, final String schema) throws Exception
+    {
+        this(rdb_util, rdb_util.getConnection(), rdb_util.getDialect(), schema);
+    }
 
-        final Connection connection = rdb_util.getConnection();
+    /** Constructor for an existing connection
+     *  @param connection RDB connection, will be closed by {@link #close()}
+     *  @param dialect RDB dialect
+     *  @param schema Schema name or ""
+     *  @throws Exception on error
+     */
+    RDBWriter(final Connection connection, final Dialect dialect, final String schema) throws Exception
+    {
+        this(null, connection, dialect, schema);
+    }
+
+    private RDBWriter(final RDBUtil rdb_util, final Connection connection,
+                      final Dialect dialect, final String schema) throws Exception
+    {
+        this.rdb_util = rdb_util;
+        this.connection = connection;
         if (enable_trace)
         {
             final Statement statement = connection.createStatement();
@@ -86,15 +110,15 @@ public class RDBWriter
                     "'10046 trace name context forever, level 12'");
         }
 
-        sql = new SQL(rdb_util, schema);
-
-        if (sql.select_next_message_id != null)
-            next_message_id_statement =
-                connection.prepareStatement(sql.select_next_message_id);
+        sql = new SQL(dialect, schema);
 
-        if (rdb_util.getDialect() == Dialect.PostgreSQL)
+        if (sql.select_next_message_ids != null)
+        {   // Oracle, PostgreSQL: ID from sequence
+            next_message_ids_statement =
+                connection.prepareStatement(sql.select_next_message_ids);
             insert_message_statement =
-                        connection.prepareStatement(sql.insert_message_id_datum_type_name_severity);
+                connection.prepareStatement(sql.insert_message_id_datum_type_name_severity);
+        }
         else // MySQL, other RDB that supports RETURN_GENERATED_KEYS
             insert_message_statement =
                     connection.prepareStatement(sql.insert_message_id_datum_type_name_severity,
@@ -103,6 +127,24 @@ public class RDBWriter
             connection.prepareStatement(sql.insert_message_property_value);
     }
 
+    /** @param url RDB URL
+     *  @param user RDB user
+     *  @param password RDB password
+     *  @return {@link RDBUtil}
+     *  @throws Exception on error
+     */
+    private static RDBUtil connect(final String url, final String user, final String password) throws Exception
+    {
+        try
+        {
+            return RDBUtil.connect(url, user, password, false);
+        }
+        catch (Exception ex)
+        {
+            throw new Exception("Error connecting to '" + url + "': " + ex.getMessage());
+        }
+    }
+
     /** Get numeric ID of a property, using either the local cache
      *  or querying the RDB.
      *  @param property_name
@@ -116,7 +158,6 @@ public class RDBWriter
         if (int_id != null)
             return int_id.intValue();
         // Perform RDB query
-        final Connection connection = rdb_util.getConnection();
         PreparedStatement statement =
             connection.prepareStatement(sql.select_property_id_by_name);
         statement.setString(1, property_name);
@@ -139,8 +180,8 @@ public class RDBWriter
         // Fundamentally, there is a small chance that multiple instances
         // of this program will try to create duplicate property entries.
         // In reality, it probably doesn't matter.
-        // Since we wrap the whole one-message-write into a transaction,
-        // the worst case would be one lost message because of a property ID clash.
+        // Since we wrap the write of a batch into a transaction,
+        // the worst case would be one lost batch because of a property ID clash.
         statement = connection.prepareStatement(sql.select_next_property_id);
         int next_id;
         try
@@ -192,11 +233,11 @@ public class RDBWriter
     /** Close the RDB connection */
     public void close()
     {
-        if (next_message_id_statement != null)
+        if (next_message_ids_statement != null)
         {
             try
             {
-                next_message_id_statement.close();
+                next_message_ids_statement.close();
             }
             catch (Exception ex)
             { /* Ignore */ }
@@ -224,7 +265,7 @@ public class RDBWriter
         {
             try
             {
-                final Statement statement = rdb_util.getConnection().createStatement();
+                final Statement statement = connection.createStatement();
                 statement.execute("ALTER SESSION SET events '10046 trace name context off'");
             }
             catch (Exception ex)
@@ -233,7 +274,17 @@ public class RDBWriter
             }
         }
 
-        rdb_util.close();
+        if (rdb_util != null)
+            rdb_util.close();
+        else
+        {
+            try
+            {
+                connection.close();
+            }
+            catch (Exception ex)
+            { /* Ignore */ }
+        }
     }
 
     /** Write log message to RDB
@@ -242,60 +293,51 @@ public class RDBWriter
      */
     public void write(final String message) throws Exception
     {
-        final Connection connection = rdb_util.getConnection();
-        connection.setAutoCommit(false);
-        try
-        {
-            final long message_id = insertMessage(JMSLogMessage.TYPE, null, "INFO");
-            batchProperty(message_id, JMSLogMessage.TEXT, message);
-            insert_property_statement.executeBatch();
-            connection.commit();
-        }
-        catch (Exception ex)
-        {
-            connection.rollback();
-            throw ex;
-        }
-        finally
-        {
-            connection.setAutoCommit(true);
-        }
+        write(Collections.singletonList(
+            new RDBMessage(JMSLogMessage.TYPE, null, "INFO",
+                           Collections.singletonMap(JMSLogMessage.TEXT, message))));
     }
 
     /** Write log message to RDB
      *  @param message MapMessage to write
      *  @throws Exception on error
      */
-    @SuppressWarnings("unchecked")
     public void write(final MapMessage map) throws Exception
     {
-        final String type = map.getString(JMSLogMessage.TYPE);
-        final String name = map.getString(JMSLogMessage.NAME);
-        final String severity = map.getString(JMSLogMessage.SEVERITY);
+        write(Collections.singletonList(RDBMessage.fromMapMessage(map)));
+    }
+
+    /** Write log messages to RDB, all in one transaction
+     *  @param messages Messages to write
+     *  @throws Exception on error
+     */
+    public void write(final List<RDBMessage> messages) throws Exception
+    {
+        if (messages.isEmpty())
+            return;
+
+        // Adding a new property type commits,
+        // so do that before starting the transaction for the messages
+        for (RDBMessage message : messages)
+            for (String prop : message.getProperties().keySet())
+                getPropertyType(prop);
 
-        final Connection connection = rdb_util.getConnection();
         connection.setAutoCommit(false);
         try
         {
-            final long message_id = insertMessage(type, name, severity);
-
-            final Enumeration<String> props = map.getMapNames();
-            while (props.hasMoreElements())
-            {
-                final String prop = props.nextElement();
-                // Skip properties which are already in message table columns
-                if (JMSLogMessage.TYPE.equals(prop) ||
-                    JMSLogMessage.NAME.equals(prop) ||
-                    JMSLogMessage.SEVERITY.equals(prop))
-                    continue;
-                batchProperty(message_id, prop, map.getString(prop));
-            }
+            final long[] message_ids = insertMessages(messages);
+            for (int i=0; i<message_ids.length; ++i)
+                for (Map.Entry<String, String> prop : messages.get(i).getProperties().entrySet())
+                    batchProperty(message_ids[i], prop.getKey(), prop.getValue());
             insert_property_statement.executeBatch();
             connection.commit();
         }
         catch (Exception ex)
         {
             connection.rollback();
+            // Drivers may keep the failed batch, don't add it to the next one
+            insert_message_statement.clearBatch();
+            insert_property_statement.clearBatch();
             throw ex;
         }
         finally
@@ -304,99 +346,109 @@ public class RDBWriter
         }
     }
 
-    /** Insert a new message
-     *  @param type  Message type
-     *  @param name Primary name (PV name, ...) to which the msg refers. May be <code>null</code>
-     *  @param severity Message severity
-     *  @return ID of the new message row
+    /** Fetch a range of new message IDs from the sequence
+     *  @param count Number of IDs
+     *  @return Message IDs
      *  @throws Exception on error
      */
-    private long insertMessage(
-            final String type, String name,
-            final String severity) throws Exception
+    private long[] allocateMessageIDs(final int count) throws Exception
     {
-        long message_id = -1;
-        if (rdb_util.getDialect() == Dialect.Oracle)
+        final long[] ids = new long[count];
+        next_message_ids_statement.setInt(1, count);
+        final ResultSet result = next_message_ids_statement.executeQuery();
+        try
         {
-           // Read next unique message ID from sequence
-            final ResultSet result = next_message_id_statement.executeQuery();
-            if (result.next())
-                message_id = result.getInt(1);
-            else
-            {
-                result.close();
-                throw new Exception("Cannot obtain next message ID");
-            }
-            result.close();
-            insert_message_statement.setLong(5, message_id);
+            int i = 0;
+            while (i < count  &&  result.next())
+                ids[i++] = result.getLong(1);
+            if (i < count)
+                throw new Exception("Obtained only " + i + " of " + count + " message IDs");
         }
-        // else: Depend on AUTO_INCREMENT resp. SERIAL for new ID, then read it after insert
-
-        // Insert the main message
-        final Date now = new Date();
-        insert_message_statement.setTimestamp(1, new Timestamp(now.getTime()));
-        insert_message_statement.setString(2, type);
-        // Overcome RDB limitations
-        if (name == null)
-            name = "";
-        else if (name.length() > MAX_NAME_LENGTH)
+        finally
         {
-            Activator.getLogger().log(Level.WARNING,
-                "Limiting NAME = {0} to {1} characters",
-                new Object[] { name, MAX_NAME_LENGTH });
-            name = name.substring(0, MAX_NAME_LENGTH);
+            result.close();
         }
-        insert_message_statement.setString(3, name);
-        insert_message_statement.setString(4, severity);
+        return ids;
+    }
 
-        // PostgreSQL, MySQL: Read auto-assigned unique message ID
-        if (rdb_util.getDialect() == Dialect.PostgreSQL)
+    /** Insert new messages
+     *  @param messages Messages
+     *  @return IDs of the new message rows
+     *  @throws Exception on error
+     */
+    private long[] insertMessages(final List<RDBMessage> messages) throws Exception
+    {
+        final int count = messages.size();
+        // Oracle, PostgreSQL: Get IDs from sequence.
+        // Otherwise depend on AUTO_INCREMENT for new ID, then read it after insert
+        final long[] message_ids = next_message_ids_statement != null
+                                 ? allocateMessageIDs(count)
+                                 : null;
+        for (int i=0; i<count; ++i)
         {
-            final ResultSet result = insert_message_statement.executeQuery();
-            if (result.next())
-            {
-                  message_id = result.getInt(1);
-                  result.close();
-            }
-            else
+            final RDBMessage message = messages.get(i);
+            insert_message_statement.setTimestamp(1, new Timestamp(message.getDate().getTime()));
+            insert_message_statement.setString(2, message.getType());
+            // Overcome RDB limitations
+            String name = message.getName();
+            if (name == null)
+                name = "";
+            else if (name.length() > MAX_NAME_LENGTH)
             {
-                 result.close();
-                throw new Exception("Cannot obtain next message ID");
+                Activator.getLogger().log(Level.WARNING,
+                    "Limiting NAME = {0} to {1} characters",
+                    new Object[] { name, MAX_NAME_LENGTH });
+                name = name.substring(0, MAX_NAME_LENGTH);
             }
+            insert_message_statement.setString(3, name);
+            insert_message_statement.setString(4, message.getSeverity());
+            if (message_ids != null)
+                insert_message_statement.setLong(5, message_ids[i]);
+            insert_message_statement.addBatch();
         }
-        else if (rdb_util.getDialect() == Dialect.MySQL)
-        {
-            final int rows = insert_message_statement.executeUpdate();
-            if (rows != 1)
-                throw new Exception("Inserted " + rows + " instead of 1 Message");
-
+        final int[] rows = insert_message_statement.executeBatch();
+        if (rows.length != count)
+            throw new Exception("Inserted " + rows.length + " instead of " + count + " Messages");
+        for (int row : rows)
+            if (row != 1  &&  row != Statement.SUCCESS_NO_INFO)
+                throw new Exception("Inserted " + row + " instead of 1 Message");
+
+        final long[] ids;
+        if (message_ids != null)
+            ids = message_ids;
+        else
+        {   // MySQL: Read auto-assigned unique message IDs
+            ids = new long[count];
             final ResultSet result = insert_message_statement.getGeneratedKeys();
-            if (result.next())
-                message_id = result.getInt(1);
-            else
+            try
+            {
+                for (int i=0; i<count; ++i)
+                {
+                    if (! result.next())
+                        throw new Exception("Cannot obtain ID of message " + (i+1) + " of " + count);
+                    ids[i] = result.getLong(1);
+                }
+            }
+            finally
             {
                 result.close();
-                throw new Exception("Cannot obtain next message ID");
             }
-            result.close();
-        }
-        else // Oracle
-        {
-            final int rows = insert_message_statement.executeUpdate();
-            if (rows != 1)
-                throw new Exception("Inserted " + rows + " instead of 1 Message");
         }
 
         final Logger logger = Activator.getLogger();
         if (logger.isLoggable(Level.FINE))
         {
-            logger.fine("Message " + message_id + ":");
-            logger.fine("  TYPE          : " + type);
-            logger.fine("  DATUM         : " + now);
-            logger.fine("  NAME          : " + name);
-            logger.fine("  SEVERITY      : " + severity);
+            for (int i=0; i<count; ++i)
+            {
+                final RDBMessage message = messages.get(i);
+                logger.fine("Message " + ids[i] + ":");
+                logger.fine("  TYPE          : " + message.getType());
+                logger.fine("  DATUM         : " + message.getDate());
+                logger.fine("  NAME          : " + message.getName());
+                logger.fine("  SEVERITY      : " + message.getSeverity());
+            }
         }
-        return message_id;
+        return ids;
     }
 
     /** Insert a property, add content to a message
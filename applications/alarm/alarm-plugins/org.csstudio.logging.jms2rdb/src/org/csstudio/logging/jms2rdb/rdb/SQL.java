@@ -24,7 +24,10 @@ public class SQL
 
     final public String insert_property_id;
 
-    final public String select_next_message_id;
+    /** Query for a range of new message IDs, parameter is the number of IDs.
+     *  <code>null</code> if the RDB assigns the IDs on insert.
+     */
+    final public String select_next_message_ids;
 
     final public String insert_message_id_datum_type_name_severity;
 
@@ -35,6 +38,15 @@ public class SQL
      *  @param schema Schema name or ""
      */
     public SQL(final RDBUtil rdb_util, final String schema)
+    {
+        this(rdb_util.getDialect(), schema);
+    }
+
+    /** Construct SQL Statements for RDB
+     *  @param dialect RDB dialect to use
+     *  @param schema Schema name or ""
+     */
+    public SQL(final Dialect dialect, final String schema)
     {
         final String prefix = (schema != null  &&  schema.length() > 0) ? schema + "."  :  "";
 
@@ -47,21 +59,22 @@ public class SQL
         insert_property_id = "INSERT INTO " + prefix + "msg_property_type " +
                 "(id, name) VALUES (?,?)";
 
-        if (rdb_util.getDialect() == Dialect.Oracle)
-        {   // Oracle uses sequence to get message.id.
-            select_next_message_id = "SELECT " + prefix + "message_id_seq.NEXTVAL FROM DUAL";
+        if (dialect == Dialect.Oracle)
+        {   // Oracle uses sequence to get message.id,
+            // fetching a range of IDs in one query
+            select_next_message_ids = "SELECT " + prefix + "message_id_seq.NEXTVAL FROM DUAL CONNECT BY LEVEL <= ?";
             insert_message_id_datum_type_name_severity =
                 "INSERT INTO " + prefix + "message (datum, type, name, severity, id) VALUES (?,?,?,?,?)";
         }
-        else if (rdb_util.getDialect() == Dialect.PostgreSQL)
-        {    // PostgreSQL 'returns' the auto-generated ID
-            select_next_message_id = null;
+        else if (dialect == Dialect.PostgreSQL)
+        {   // PostgreSQL: Fetch range of IDs from the sequence of the SERIAL column
+            select_next_message_ids = "SELECT nextval('" + prefix + "message_id_seq') FROM generate_series(1, ?)";
             insert_message_id_datum_type_name_severity =
-                "INSERT INTO " + prefix + "message (datum, type, name, severity) VALUES (?,?,?,?) returning id";
+                "INSERT INTO " + prefix + "message (datum, type, name, severity, id) VALUES (?,?,?,?,?)";
         }
         else
         {   // Other dialects (MySQL) use auto-increment ID column.
-            select_next_message_id = null;
+            select_next_message_ids = null;
             insert_message_id_datum_type_name_severity =
                 "INSERT INTO " + prefix + "message (datum, type, name, severity) VALUES (?,?,?,?)";
         }
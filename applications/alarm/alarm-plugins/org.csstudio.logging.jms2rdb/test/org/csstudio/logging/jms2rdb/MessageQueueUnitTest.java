@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.logging.jms2rdb;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/** JUnit test of the {@link MessageQueue}
+ *
+ *  <p>Uses a stand-in for the RDB where each
+ *  transaction takes a fixed time, independent of
+ *  the number of messages in the transaction.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class MessageQueueUnitTest
+{
+    /** Time for one RDB transaction */
+    private static final long COMMIT_MS = 10;
+
+    /** RDB stand-in */
+    private static class StandInRDB
+    {
+        final List<Integer> messages = new ArrayList<>();
+        int transactions = 0;
+        int max_batch = 0;
+
+        void write(final List<Integer> batch) throws Exception
+        {
+            Thread.sleep(COMMIT_MS);
+            messages.addAll(batch);
+            ++transactions;
+            max_batch = Math.max(max_batch, batch.size());
+        }
+    }
+
+    @Test(timeout=10000)
+    public void testBatchWindow() throws Exception
+    {
+        final MessageQueue<Integer> queue = new MessageQueue<>(100);
+        final List<Integer> batch = new ArrayList<>();
+
+        // Batch is returned when full, without waiting for the window
+        for (int i=0; i<10; ++i)
+            queue.add(i);
+        long start = System.currentTimeMillis();
+        assertTrue(queue.take(batch, 5, 5000));
+        assertThat(batch.size(), equalTo(5));
+        assertTrue(System.currentTimeMillis() - start < 1000);
+
+        // Remaining messages are returned at end of window
+        batch.clear();
+        start = System.currentTimeMillis();
+        assertTrue(queue.take(batch, 100, 500));
+        assertThat(batch.size(), equalTo(5));
+        assertTrue(System.currentTimeMillis() - start >= 500);
+
+        // After cancel, remaining messages can still be taken, but no more added
+        queue.add(42);
+        queue.cancel();
+        assertFalse(queue.add(43));
+        batch.clear();
+        assertTrue(queue.take(batch, 100, 5000));
+        assertThat(batch.get(0), equalTo(42));
+        assertFalse(queue.take(batch, 100, 5000));
+    }
+
+    @Test(timeout=60000)
+    public void testBackPressure() throws Exception
+    {
+        final int total = 10000;
+        final MessageQueue<Integer> queue = new MessageQueue<>(1000);
+        final StandInRDB rdb = new StandInRDB();
+
+        final Thread writer = new Thread(() ->
+        {
+            final List<Integer> batch = new ArrayList<>();
+            try
+            {
+                while (queue.take(batch, 200, 100))
+                {
+                    rdb.write(batch);
+                    batch.clear();
+                }
+            }
+            catch (Exception ex)
+            {
+                ex.printStackTrace();
+            }
+        });
+        writer.start();
+
+        // Messages arrive faster than one transaction per message could handle
+        final long start = System.currentTimeMillis();
+        for (int i=0; i<total; ++i)
+            queue.add(i);
+        queue.cancel();
+        writer.join();
+        final long ms = System.currentTimeMillis() - start;
+
+        System.out.format("Wrote %d messages in %d transactions, %.1f msg/sec\n",
+                          rdb.messages.size(), rdb.transactions, total * 1000.0 / ms);
+        System.out.format("Max. queued: %d, receiver blocked %d times for %d ms\n",
+                          queue.getMaxSize(), queue.getBlockedCount(), queue.getBlockedMillis());
+
+        // All messages written, in order, in batches
+        assertThat(rdb.messages.size(), equalTo(total));
+        for (int i=0; i<total; ++i)
+            assertThat(rdb.messages.get(i), equalTo(i));
+        assertTrue(rdb.max_batch <= 200);
+        assertTrue(rdb.transactions < total / 10);
+        // Queue stayed bounded, receiver had to wait
+        assertTrue(queue.getMaxSize() <= 1000);
+        assertTrue(queue.getBlockedCount() > 0);
+        assertThat(queue.getAddedCount(), equalTo((long) total));
+    }
+}
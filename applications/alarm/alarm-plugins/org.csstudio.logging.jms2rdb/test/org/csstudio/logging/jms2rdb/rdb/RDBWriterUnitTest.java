@@ -0,0 +1,307 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.logging.jms2rdb.rdb;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.csstudio.platform.utility.rdb.RDBUtil.Dialect;
+import org.junit.Test;
+
+/** JUnit test of the {@link RDBWriter}
+ *
+ *  <p>Uses a stand-in for the RDB {@link Connection}
+ *  that records the rows written in each transaction.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class RDBWriterUnitTest
+{
+    /** Property value that makes the stand-in fail the transaction */
+    private static final String FAIL = "fail";
+
+    /** RDB stand-in */
+    private static class StandInRDB
+    {
+        final Map<String, Integer> property_types = new HashMap<>();
+        /** Rows of the message table: id, type, name */
+        final List<List<Object>> messages = new ArrayList<>();
+        /** Rows of the message_content table: message id, property id, value */
+        final List<List<Object>> contents = new ArrayList<>();
+        final List<List<Object>> pending_messages = new ArrayList<>();
+        final List<List<Object>> pending_contents = new ArrayList<>();
+        /** Number of IDs requested from the sequence, for each query */
+        final List<Integer> id_queries = new ArrayList<>();
+        long sequence = 100, auto_id = 500;
+        boolean auto_commit = true;
+        int commits = 0, rollbacks = 0;
+
+        StandInRDB()
+        {
+            property_types.put("TEXT", 1);
+            property_types.put("HOST", 2);
+        }
+
+        final Connection connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] { Connection.class },
+            (proxy, method, args) ->
+            {
+                switch (method.getName())
+                {
+                case "prepareStatement":
+                    return prepare((String) args[0]);
+                case "getAutoCommit":
+                    return auto_commit;
+                case "setAutoCommit":
+                    auto_commit = (Boolean) args[0];
+                    return null;
+                case "commit":
+                    ++commits;
+                    messages.addAll(pending_messages);
+                    contents.addAll(pending_contents);
+                    pending_messages.clear();
+                    pending_contents.clear();
+                    return null;
+                case "rollback":
+                    ++rollbacks;
+                    pending_messages.clear();
+                    pending_contents.clear();
+                    return null;
+                case "close":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            });
+
+        private PreparedStatement prepare(final String sql)
+        {
+            final Map<Integer, Object> params = new HashMap<>();
+            final List<Map<Integer, Object>> batch = new ArrayList<>();
+            final List<Long> generated = new ArrayList<>();
+            return (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { PreparedStatement.class },
+                (proxy, method, args) ->
+                {
+                    final String name = method.getName();
+                    if (name.startsWith("set"))
+                    {
+                        params.put((Integer) args[0], args[1]);
+                        return null;
+                    }
+                    switch (name)
+                    {
+                    case "addBatch":
+                        batch.add(new HashMap<>(params));
+                        return null;
+                    case "executeBatch":
+                        return executeBatch(sql, batch, generated);
+                    case "clearBatch":
+                        batch.clear();
+                        return null;
+                    case "executeQuery":
+                        return executeQuery(sql, params);
+                    case "executeUpdate":
+                        if (! sql.startsWith("INSERT INTO msg_property_type"))
+                            throw new UnsupportedOperationException(sql);
+                        property_types.put((String) params.get(2), (Integer) params.get(1));
+                        return 1;
+                    case "getGeneratedKeys":
+                        return result(generated);
+                    case "close":
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(name);
+                    }
+                });
+        }
+
+        private int[] executeBatch(final String sql, final List<Map<Integer, Object>> batch,
+                                   final List<Long> generated) throws SQLException
+        {   // Like some drivers, keep the batch on error
+            final int[] rows = new int[batch.size()];
+            Arrays.fill(rows, 1);
+            generated.clear();
+            for (Map<Integer, Object> row : batch)
+            {
+                if (sql.startsWith("INSERT INTO message "))
+                {
+                    final long id;
+                    if (row.containsKey(5))
+                        id = (Long) row.get(5);
+                    else
+                    {
+                        id = ++auto_id;
+                        generated.add(id);
+                    }
+                    pending_messages.add(Arrays.asList(id, row.get(2), row.get(3)));
+                }
+                else if (sql.startsWith("INSERT INTO message_content"))
+                {
+                    if (FAIL.equals(row.get(3)))
+                        throw new SQLException("Failing as requested");
+                    pending_contents.add(Arrays.asList(row.get(1), row.get(2), row.get(3)));
+                }
+                else
+                    throw new UnsupportedOperationException(sql);
+            }
+            batch.clear();
+            return rows;
+        }
+
+        private ResultSet executeQuery(final String sql, final Map<Integer, Object> params)
+        {
+            final List<Long> values = new ArrayList<>();
+            if (sql.startsWith("SELECT id FROM msg_property_type"))
+            {
+                final Integer id = property_types.get(params.get(1));
+                if (id != null)
+                    values.add(id.longValue());
+            }
+            else if (sql.startsWith("SELECT MAX(id)+1"))
+                values.add(property_types.values().stream().mapToLong(id -> id).max().orElse(0) + 1);
+            else if (sql.contains("message_id_seq"))
+            {
+                final int count = (Integer) params.get(1);
+                id_queries.add(count);
+                for (int i=0; i<count; ++i)
+                    values.add(++sequence);
+            }
+            else
+                throw new UnsupportedOperationException(sql);
+            return result(values);
+        }
+
+        private ResultSet result(final List<Long> values)
+        {
+            final Iterator<Long> iter = new ArrayList<>(values).iterator();
+            final Long[] current = new Long[1];
+            return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { ResultSet.class },
+                (proxy, method, args) ->
+                {
+                    switch (method.getName())
+                    {
+                    case "next":
+                        current[0] = iter.hasNext() ? iter.next() : null;
+                        return current[0] != null;
+                    case "getLong":
+                        return current[0];
+                    case "getInt":
+                        return current[0].intValue();
+                    case "close":
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        }
+    }
+
+    /** @param name Message name
+     *  @param text Message text
+     *  @param more Additional property names and values
+     *  @return {@link RDBMessage}
+     */
+    private static RDBMessage message(final String name, final String text, final String... more)
+    {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put("TEXT", text);
+        properties.put("HOST", "test");
+        for (int i=0; i<more.length; i+=2)
+            properties.put(more[i], more[i+1]);
+        return new RDBMessage("log", name, "INFO", properties);
+    }
+
+    @Test
+    public void testSequenceIDs() throws Exception
+    {
+        final StandInRDB rdb = new StandInRDB();
+        final RDBWriter writer = new RDBWriter(rdb.connection, Dialect.PostgreSQL, "");
+        writer.write(Arrays.asList(message("a", "One"), message("b", "Two"), message("c", "Three")));
+
+        // One query for the range of IDs, one transaction
+        assertThat(rdb.id_queries, equalTo(Arrays.asList(3)));
+        assertThat(rdb.commits, equalTo(1));
+        assertThat(rdb.auto_commit, equalTo(true));
+        assertThat(rdb.messages, equalTo(Arrays.asList(Arrays.asList(101L, "log", "a"),
+                                                       Arrays.asList(102L, "log", "b"),
+                                                       Arrays.asList(103L, "log", "c"))));
+        // Content refers to the message IDs
+        assertThat(rdb.contents.size(), equalTo(6));
+        assertThat(rdb.contents.contains(Arrays.asList(102L, 1, "Two")), equalTo(true));
+
+        // New property type is committed before the transaction for the batch
+        writer.write(Arrays.asList(message("d", "Four", "USER", "fred")));
+        assertThat(rdb.id_queries, equalTo(Arrays.asList(3, 1)));
+        assertThat(rdb.commits, equalTo(3));
+        assertThat(rdb.property_types.get("USER"), equalTo(3));
+        assertThat(rdb.messages.get(3), equalTo(Arrays.asList(104L, "log", "d")));
+        assertThat(rdb.contents.contains(Arrays.asList(104L, 3, "fred")), equalTo(true));
+        writer.close();
+    }
+
+    @Test
+    public void testGeneratedKeys() throws Exception
+    {
+        final StandInRDB rdb = new StandInRDB();
+        final RDBWriter writer = new RDBWriter(rdb.connection, Dialect.MySQL, "");
+        writer.write(Arrays.asList(message("a", "One"), message("b", "Two")));
+
+        assertThat(rdb.id_queries.size(), equalTo(0));
+        assertThat(rdb.commits, equalTo(1));
+        assertThat(rdb.messages, equalTo(Arrays.asList(Arrays.asList(501L, "log", "a"),
+                                                       Arrays.asList(502L, "log", "b"))));
+        assertThat(rdb.contents.contains(Arrays.asList(501L, 1, "One")), equalTo(true));
+        assertThat(rdb.contents.contains(Arrays.asList(502L, 1, "Two")), equalTo(true));
+        writer.close();
+    }
+
+    @Test
+    public void testRollback() throws Exception
+    {
+        final StandInRDB rdb = new StandInRDB();
+        final RDBWriter writer = new RDBWriter(rdb.connection, Dialect.PostgreSQL, "");
+        try
+        {
+            writer.write(Arrays.asList(message("a", "One"), message("b", FAIL)));
+            fail("Batch should fail");
+        }
+        catch (SQLException ex)
+        {
+            // Expected
+        }
+        // Nothing of the batch was committed
+        assertThat(rdb.rollbacks, equalTo(1));
+        assertThat(rdb.commits, equalTo(0));
+        assertThat(rdb.auto_commit, equalTo(true));
+        assertThat(rdb.messages.size(), equalTo(0));
+        assertThat(rdb.contents.size(), equalTo(0));
+
+        // Next batch is written
+        writer.write(Arrays.asList(message("c", "Three")));
+        assertThat(rdb.commits, equalTo(1));
+        assertThat(rdb.messages, equalTo(Arrays.asList(Arrays.asList(103L, "log", "c"))));
+        assertThat(rdb.contents.size(), equalTo(2));
+        writer.close();
+    }
+}
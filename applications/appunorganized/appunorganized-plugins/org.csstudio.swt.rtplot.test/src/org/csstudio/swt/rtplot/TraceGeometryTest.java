@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.swt.rtplot;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.csstudio.swt.rtplot.data.ArrayPlotDataProvider;
+import org.csstudio.swt.rtplot.data.SimpleDataItem;
+import org.csstudio.swt.rtplot.internal.TraceGeometry;
+import org.csstudio.swt.rtplot.internal.util.LinearScreenTransform;
+import org.junit.Test;
+
+/** JUnit test of {@link TraceGeometry}
+ *  @author agent
+ */
+public class TraceGeometryTest
+{
+    private static LinearScreenTransform transform(final double x1, final double x2, final double y1, final double y2)
+    {
+        final LinearScreenTransform transform = new LinearScreenTransform();
+        transform.config(x1, x2, y1, y2);
+        return transform;
+    }
+
+    private static int countPoints(final List<int[]> lines)
+    {
+        int count = 0;
+        for (int[] line : lines)
+            count += line.length / 2;
+        return count;
+    }
+
+    @Test
+    public void testStaircase()
+    {
+        final ArrayPlotDataProvider<Double> data = new ArrayPlotDataProvider<>();
+        data.add(new SimpleDataItem<Double>(0.0, 1.0));
+        data.add(new SimpleDataItem<Double>(1.0, 2.0));
+        data.add(new SimpleDataItem<Double>(2.0, Double.NaN));
+        data.add(new SimpleDataItem<Double>(3.0, 3.0));
+
+        final TraceGeometry<Double> geometry = new TraceGeometry<>();
+        // 10 pixels per x unit, value 0..10 maps to pixel 100..0
+        geometry.compute(data, TraceType.SINGLE_LINE, PointType.NONE, 0, 0, 30, 100,
+                         transform(0.0, 3.0, 0, 30), transform(0.0, 10.0, 100, 0));
+        final List<int[]> lines = geometry.getValueLines();
+        // NaN splits the line
+        assertThat(lines.size(), equalTo(2));
+        assertThat(lines.get(0), equalTo(new int[] { 0, 90, 10, 90, 10, 80 }));
+        assertThat(lines.get(1), equalTo(new int[] { 30, 70 }));
+        assertThat(geometry.getPoints().size(), equalTo(0));
+    }
+
+    @Test
+    public void testVisibleRange()
+    {
+        final ArrayPlotDataProvider<Double> data = new ArrayPlotDataProvider<>();
+        for (int i=0; i<100000; ++i)
+            data.add(new SimpleDataItem<Double>((double) i, Math.sin(i / 10.0), 0.1, -2.0, 2.0, null));
+
+        final TraceGeometry<Double> geometry = new TraceGeometry<>();
+        // Only 50000 .. 51000 visible, 2 samples per pixel
+        geometry.compute(data, TraceType.AREA_DIRECT, PointType.CIRCLES, 0, 0, 500, 100,
+                         transform(50000.0, 51000.0, 0, 500), transform(-2.0, 2.0, 100, 0));
+        // Samples just before and after the visible range are included
+        assertThat(geometry.getSampleCount(), equalTo(1001));
+        // At most first, min, max, last value per pixel column
+        final int values = countPoints(geometry.getValueLines());
+        assertTrue(values <= 4*501);
+        assertTrue(geometry.getPoints().size()/2 <= 4*501);
+        // One point per column for std.dev. and min/max envelope
+        assertThat(countPoints(geometry.getLowerStdDevLines()), equalTo(501));
+        assertThat(geometry.getAreas().size(), equalTo(1));
+        assertThat(geometry.getAreas().get(0).length, equalTo(4*501));
+        assertThat(geometry.getMinLines().size(), equalTo(0));
+
+        // Complete data visible: Still limited by pixel columns
+        geometry.compute(data, TraceType.LINES, PointType.NONE, 0, 0, 500, 100,
+                         transform(0.0, 100000.0, 0, 500), transform(-2.0, 2.0, 100, 0));
+        assertThat(geometry.getSampleCount(), equalTo(100000));
+        assertTrue(countPoints(geometry.getValueLines()) <= 5*501);
+        assertThat(countPoints(geometry.getMinLines()), equalTo(501));
+        assertThat(countPoints(geometry.getMaxLines()), equalTo(501));
+        assertThat(geometry.getAreas().size(), equalTo(0));
+    }
+}
@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.swt.rtplot;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.csstudio.swt.rtplot.data.PlotDataItem;
+import org.csstudio.swt.rtplot.data.PlotDataProvider;
+import org.csstudio.swt.rtplot.data.SimpleDataItem;
+import org.csstudio.swt.rtplot.internal.TraceGeometry;
+import org.csstudio.swt.rtplot.internal.util.IntList;
+import org.csstudio.swt.rtplot.internal.util.LinearScreenTransform;
+import org.csstudio.swt.rtplot.internal.util.ScreenTransform;
+import org.junit.Test;
+
+/** JUnit-based benchmark of the trace painting
+ *
+ *  <p>Compares the screen coordinate computation of the
+ *  original painter, which transformed every sample in
+ *  separate passes for area, std. deviation and value,
+ *  with the single pass over the visible samples
+ *  of the {@link TraceGeometry}.
+ *  Only the coordinates are computed, the actual drawing
+ *  needs a display.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class TracePainterBenchmarkDemo
+{
+    final private static int WIDTH = 800, HEIGHT = 400;
+    final private static int RUNS = 10;
+
+    /** Data provider that computes samples on demand */
+    private static class DemoData implements PlotDataProvider<Double>
+    {
+        final private Lock lock = new ReentrantLock();
+        final private int size;
+
+        DemoData(final int size)
+        {
+            this.size = size;
+        }
+
+        @Override
+        public Lock getLock()
+        {
+            return lock;
+        }
+
+        @Override
+        public int size()
+        {
+            return size;
+        }
+
+        @Override
+        public PlotDataItem<Double> get(final int index)
+        {
+            final double value = Math.sin(index / 1000.0);
+            return new SimpleDataItem<Double>((double) index, value, 0.1, value-0.5, value+0.5, null);
+        }
+    }
+
+    private static int clip(final double v, final int min, final int max)
+    {
+        if (v < min)
+            return min;
+        if (v > max)
+            return max;
+        return (int) v;
+    }
+
+    /** Coordinates as computed by the original painter for an 'AREA' trace
+     *  @return Number of points
+     */
+    private static int computeOriginal(final PlotDataProvider<Double> data,
+                                       final ScreenTransform<Double> x_transform, final ScreenTransform<Double> y_transform)
+    {
+        final int x_min = -1000, x_max = WIDTH + 1000, y_min = -1000, y_max = HEIGHT + 1000;
+        final IntList pos = new IntList(2048), min = new IntList(2048), max = new IntList(2048);
+        final IntList lower = new IntList(2048), upper = new IntList(2048), value_poly = new IntList(2048);
+        final int N = data.size();
+        // Min/max area
+        for (int i=0; i<N; ++i)
+        {
+            final PlotDataItem<Double> item = data.get(i);
+            pos.add(clip(x_transform.transform(item.getPosition()), x_min, x_max));
+            min.add(clip(Math.round(y_transform.transform(item.getMin())), y_min, y_max));
+            max.add(clip(Math.round(y_transform.transform(item.getMax())), y_min, y_max));
+        }
+        // Std. deviation
+        for (int i=0; i<N; ++i)
+        {
+            final PlotDataItem<Double> item = data.get(i);
+            final int x = clip(x_transform.transform(item.getPosition()), x_min, x_max);
+            lower.add(x);
+            lower.add(clip(Math.round(y_transform.transform(item.getValue() - item.getStdDev())), y_min, y_max));
+            upper.add(x);
+            upper.add(clip(Math.round(y_transform.transform(item.getValue() + item.getStdDev())), y_min, y_max));
+        }
+        // Value staircase
+        int last_x = -1, last_y = -1;
+        for (int i=0; i<N; ++i)
+        {
+            final PlotDataItem<Double> item = data.get(i);
+            final int x = clip(Math.round(x_transform.transform(item.getPosition())), x_min, x_max);
+            if (value_poly.size() > 0  && x != last_x)
+            {
+                value_poly.add(x);
+                value_poly.add(last_y);
+                last_x = x;
+            }
+            final int y = clip(Math.round(y_transform.transform(item.getValue())), y_min, y_max);
+            if (last_x == x  &&  last_y == y)
+                continue;
+            value_poly.add(x);
+            value_poly.add(y);
+            last_y = y;
+        }
+        return pos.size() + (lower.size() + upper.size() + value_poly.size())/2;
+    }
+
+    /** @return Number of points */
+    private static int computeGeometry(final TraceGeometry<Double> geometry, final PlotDataProvider<Double> data,
+                                       final ScreenTransform<Double> x_transform, final ScreenTransform<Double> y_transform)
+    {
+        geometry.compute(data, TraceType.AREA, PointType.NONE, 0, 0, WIDTH, HEIGHT, x_transform, y_transform);
+        int points = 0;
+        for (int[] area : geometry.getAreas())
+            points += area.length / 4;
+        for (int[] line : geometry.getLowerStdDevLines())
+            points += line.length / 2;
+        for (int[] line : geometry.getUpperStdDevLines())
+            points += line.length / 2;
+        for (int[] line : geometry.getValueLines())
+            points += line.length / 2;
+        return points;
+    }
+
+    private void run(final int samples, final int visible)
+    {
+        final DemoData data = new DemoData(samples);
+        final LinearScreenTransform x_transform = new LinearScreenTransform();
+        x_transform.config((double) (samples - visible), (double) samples, 0, WIDTH);
+        final LinearScreenTransform y_transform = new LinearScreenTransform();
+        y_transform.config(-2.0, 2.0, HEIGHT, 0);
+        final TraceGeometry<Double> geometry = new TraceGeometry<>();
+
+        // Warm up
+        computeOriginal(data, x_transform, y_transform);
+        computeGeometry(geometry, data, x_transform, y_transform);
+
+        long start = System.nanoTime();
+        int original_points = 0;
+        for (int i=0; i<RUNS; ++i)
+            original_points = computeOriginal(data, x_transform, y_transform);
+        final double original_ms = (System.nanoTime() - start) / 1e6 / RUNS;
+
+        start = System.nanoTime();
+        int points = 0;
+        for (int i=0; i<RUNS; ++i)
+            points = computeGeometry(geometry, data, x_transform, y_transform);
+        final double ms = (System.nanoTime() - start) / 1e6 / RUNS;
+
+        System.out.format("%10d samples, %10d visible: Original %10.3f ms (%8d points), single pass %8.3f ms (%5d points), %6.1fx\n",
+                          samples, visible, original_ms, original_points, ms, points, original_ms / ms);
+    }
+
+    @Test
+    public void benchmark() throws Exception
+    {
+        for (int samples : new int[] { 10000, 1000000, 10000000 })
+        {
+            // Recent 10000 samples visible, as when scrolling
+            run(samples, Math.min(samples, 10000));
+            // Complete data visible
+            run(samples, samples);
+        }
+    }
+}
@@ -0,0 +1,452 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.swt.rtplot.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.csstudio.swt.rtplot.PointType;
+import org.csstudio.swt.rtplot.TraceType;
+import org.csstudio.swt.rtplot.data.PlotDataItem;
+import org.csstudio.swt.rtplot.data.PlotDataProvider;
+import org.csstudio.swt.rtplot.data.PlotDataSearch;
+import org.csstudio.swt.rtplot.internal.util.IntList;
+import org.csstudio.swt.rtplot.internal.util.ScreenTransform;
+
+/** Screen coordinates of a trace
+ *
+ *  <p>Computes the poly lines, areas and points for a trace
+ *  in one pass over the samples.
+ *  Only the visible samples are considered, located via binary search,
+ *  so the samples need to be ordered by position.
+ *  The samples are decimated per pixel column:
+ *  Each column holds at most the first, minimum, maximum and last value,
+ *  the min/max envelope and the std. deviation envelope.
+ *
+ *  <p>The result can then be drawn without holding the data lock.
+ *  Not thread-safe, re-used for one trace after the other.
+ *
+ *  @param <XTYPE> Data type of horizontal {@link org.csstudio.swt.rtplot.Axis}
+ *  @author agent
+ */
+public class TraceGeometry<XTYPE extends Comparable<XTYPE>>
+{
+    /** Initial {@link IntList} size */
+    private static final int INITIAL_ARRAY_SIZE = 2048;
+
+    /** Fudge to avoid clip errors
+     *
+     *  <p>When coordinates are way outside the clip region,
+     *  clipping fails and graphics are 'aliases' into the visible range.
+     *  By moving clipped coordinates just 'OUTSIDE' the allowed region,
+     *  rounding errors inside the clipping implementation are avoided.
+     *  Strictly speaking, we'd have to compute the intersection of
+     *  lines with the clip region, but this is much easier to implement.
+     */
+    final private static int OUTSIDE = 1000;
+    private int x_min, x_max, y_min, y_max;
+
+    final private PlotDataSearch<XTYPE> search = new PlotDataSearch<>();
+
+    // What to compute
+    private boolean do_value, staircase, do_range, do_area, do_dev, do_points;
+
+    // Poly lines under construction
+    final private IntList value_poly = new IntList(INITIAL_ARRAY_SIZE);
+    final private IntList range_pos = new IntList(INITIAL_ARRAY_SIZE);
+    final private IntList range_min = new IntList(INITIAL_ARRAY_SIZE);
+    final private IntList range_max = new IntList(INITIAL_ARRAY_SIZE);
+    final private IntList lower_poly = new IntList(INITIAL_ARRAY_SIZE);
+    final private IntList upper_poly = new IntList(INITIAL_ARRAY_SIZE);
+
+    // Results
+    final private List<int[]> value_lines = new ArrayList<>();
+    final private List<int[]> min_lines = new ArrayList<>();
+    final private List<int[]> max_lines = new ArrayList<>();
+    final private List<int[]> areas = new ArrayList<>();
+    final private List<int[]> lower_lines = new ArrayList<>();
+    final private List<int[]> upper_lines = new ArrayList<>();
+    final private IntList points = new IntList(INITIAL_ARRAY_SIZE);
+
+    /** Transformation of values, set while computing */
+    private ScreenTransform<Double> y_transform;
+
+    /** Pixel column that's currently accumulated */
+    private int column;
+
+    // Value in current column
+    private int value_count;
+    private double value_first, value_low, value_high, value_last;
+
+    // Min/max range in current column
+    private int range_count;
+    private double range_low, range_high;
+
+    // Std. deviation envelope in current column
+    private int dev_count;
+    private double dev_low, dev_high;
+
+    /** Number of samples in the last computation */
+    private int sample_count;
+
+    /** Compute screen coordinates
+     *
+     *  @param data Data, must already be locked
+     *  @param type How to draw lines and areas
+     *  @param point_type How to draw points
+     *  @param x Left edge of plot area
+     *  @param y Top edge of plot area
+     *  @param width Width of plot area
+     *  @param height Height of plot area
+     *  @param x_transform Coordinate transform used by the x axis
+     *  @param y_transform Coordinate transform used by the value axis
+     */
+    final public void compute(final PlotDataProvider<XTYPE> data, final TraceType type, final PointType point_type,
+                              final int x, final int y, final int width, final int height,
+                              final ScreenTransform<XTYPE> x_transform, final ScreenTransform<Double> y_transform)
+    {
+        clear();
+        x_min = x - OUTSIDE;
+        x_max = x + width + OUTSIDE;
+        y_min = y - OUTSIDE;
+        y_max = y + height + OUTSIDE;
+        this.y_transform = y_transform;
+
+        do_value = type != TraceType.NONE;
+        staircase = type == TraceType.AREA  ||  type == TraceType.LINES  ||  type == TraceType.SINGLE_LINE;
+        do_area = type == TraceType.AREA  ||  type == TraceType.AREA_DIRECT;
+        do_range = do_area  ||  type == TraceType.LINES  ||  type == TraceType.LINES_DIRECT;
+        do_dev = do_range;
+        do_points = point_type != PointType.NONE;
+        if (! (do_value  ||  do_points))
+            return;
+
+        final int N = data.size();
+        if (N <= 0)
+            return;
+
+        // Visible range, allowing for axis that runs 'backwards'
+        XTYPE low = x_transform.inverse(x);
+        XTYPE high = x_transform.inverse(x + width);
+        if (low.compareTo(high) > 0)
+        {
+            final XTYPE tmp = low;
+            low = high;
+            high = tmp;
+        }
+        // Start with sample at-or-before the left edge,
+        // end with sample at-or-beyond the right edge
+        // so that lines extend to the edges
+        int first = search.findSampleLessOrEqual(data, low);
+        if (first < 0)
+            first = 0;
+        int last = search.findSampleGreaterOrEqual(data, high);
+        if (last < 0)
+            last = N-1;
+
+        column = Integer.MIN_VALUE;
+        for (int i=first; i<=last; ++i)
+        {
+            final PlotDataItem<XTYPE> item = data.get(i);
+            final int x_pos = clipX(Math.round(x_transform.transform(item.getPosition())));
+            if (x_pos != column)
+            {
+                flushColumn();
+                column = x_pos;
+            }
+
+            final double value = item.getValue();
+            if (Double.isNaN(value))
+            {
+                flushValue();
+                flushPolyLine(value_poly, value_lines);
+            }
+            else
+            {
+                if (value_count++ == 0)
+                    value_first = value_low = value_high = value;
+                else if (value < value_low)
+                    value_low = value;
+                else if (value > value_high)
+                    value_high = value;
+                value_last = value;
+            }
+
+            if (do_range)
+            {
+                final double min = item.getMin();
+                final double max = item.getMax();
+                if (Double.isNaN(min)  ||  Double.isNaN(max))
+                {
+                    flushRange();
+                    flushRangeLines();
+                }
+                else if (range_count++ == 0)
+                {
+                    range_low = min;
+                    range_high = max;
+                }
+                else
+                {
+                    range_low = Math.min(range_low, min);
+                    range_high = Math.max(range_high, max);
+                }
+            }
+
+            if (do_dev)
+            {
+                final double dev = item.getStdDev();
+                if (Double.isNaN(value)  ||  ! (dev > 0))
+                {
+                    flushDev();
+                    flushPolyLine(lower_poly, lower_lines);
+                    flushPolyLine(upper_poly, upper_lines);
+                }
+                else if (dev_count++ == 0)
+                {
+                    dev_low = value - dev;
+                    dev_high = value + dev;
+                }
+                else
+                {
+                    dev_low = Math.min(dev_low, value - dev);
+                    dev_high = Math.max(dev_high, value + dev);
+                }
+            }
+        }
+        sample_count = last - first + 1;
+        flushColumn();
+        flushPolyLine(value_poly, value_lines);
+        flushRangeLines();
+        flushPolyLine(lower_poly, lower_lines);
+        flushPolyLine(upper_poly, upper_lines);
+        this.y_transform = null;
+    }
+
+    /** Remove previous results */
+    private void clear()
+    {
+        value_lines.clear();
+        min_lines.clear();
+        max_lines.clear();
+        areas.clear();
+        lower_lines.clear();
+        upper_lines.clear();
+        points.clear();
+        value_count = range_count = dev_count = 0;
+        sample_count = 0;
+    }
+
+    final private int clipX(final double x)
+    {
+        if (x < x_min)
+            return x_min;
+        if (x > x_max)
+            return x_max;
+        return (int)x;
+    }
+
+    final private int getY(final double value)
+    {
+        final int y = (int)Math.round(y_transform.transform(value));
+        if (y < y_min)
+            return y_min;
+        if (y > y_max)
+            return y_max;
+        return y;
+    }
+
+    /** Add accumulated data of current column to poly lines */
+    private void flushColumn()
+    {
+        flushValue();
+        flushRange();
+        flushDev();
+    }
+
+    /** Add accumulated values of current column */
+    private void flushValue()
+    {
+        if (value_count <= 0)
+            return;
+        final int first = getY(value_first);
+        final int low = getY(value_low);
+        final int high = getY(value_high);
+        final int last = getY(value_last);
+
+        if (do_value)
+        {
+            final int N = value_poly.size();
+            // Staircase from last 'y' of previous column
+            if (staircase  &&  N > 0)
+                addPoint(value_poly, column, value_poly.get(N-1));
+            addPoint(value_poly, column, first);
+            addPoint(value_poly, column, low);
+            addPoint(value_poly, column, high);
+            addPoint(value_poly, column, last);
+        }
+
+        if (do_points)
+        {
+            points.add(column);
+            points.add(first);
+            if (low != first)
+            {
+                points.add(column);
+                points.add(low);
+            }
+            if (high != first  &&  high != low)
+            {
+                points.add(column);
+                points.add(high);
+            }
+            if (last != first  &&  last != low  &&  last != high)
+            {
+                points.add(column);
+                points.add(last);
+            }
+        }
+        value_count = 0;
+    }
+
+    /** Add accumulated min/max range of current column */
+    private void flushRange()
+    {
+        if (range_count <= 0)
+            return;
+        final int low = getY(range_low);
+        final int high = getY(range_high);
+        range_pos.add(column);
+        range_min.add(low);
+        range_max.add(high);
+        range_count = 0;
+    }
+
+    /** Add accumulated std. deviation envelope of current column */
+    private void flushDev()
+    {
+        if (dev_count <= 0)
+            return;
+        addPoint(lower_poly, column, getY(dev_low));
+        addPoint(upper_poly, column, getY(dev_high));
+        dev_count = 0;
+    }
+
+    /** Add point unless it's the same as the last point
+     *  @param poly Poly line
+     *  @param x Coordinate
+     *  @param y .. of point on screen
+     */
+    private static void addPoint(final IntList poly, final int x, final int y)
+    {
+        final int N = poly.size();
+        if (N > 0  &&  poly.get(N-2) == x  &&  poly.get(N-1) == y)
+            return;
+        poly.add(x);
+        poly.add(y);
+    }
+
+    /** @param poly Points of poly line, will be cleared
+     *  @param lines Lines to which non-empty poly line is added
+     */
+    private static void flushPolyLine(final IntList poly, final List<int[]> lines)
+    {
+        if (poly.size() > 0)
+            lines.add(poly.toArray());
+        poly.clear();
+    }
+
+    /** Turn min/max range into area or lines */
+    private void flushRangeLines()
+    {
+        final int N = range_pos.size();
+        if (N <= 0)
+            return;
+        if (do_area)
+        {
+            // 'direct' outline, point-to-point
+            // Turn pos/min/max into array required by fillPolygon:
+            // pos[0], min[0], pos[1], min[1], ..., pos[N-1], max[N-1], pos[N], max[N]
+            final int N4 = N * 4;
+            final int area[] = new int[N4];
+            int head = 0, tail = N4;
+            for (int i=0; i<N; ++i)
+            {
+                area[head++] = range_pos.get(i);
+                area[head++] = range_min.get(i);
+                area[--tail] = range_max.get(i);
+                area[--tail] = range_pos.get(i);
+            }
+            areas.add(area);
+        }
+        else
+        {
+            final int[] min = new int[2*N];
+            final int[] max = new int[2*N];
+            for (int i=0; i<N; ++i)
+            {
+                min[2*i] = max[2*i] = range_pos.get(i);
+                min[2*i+1] = range_min.get(i);
+                max[2*i+1] = range_max.get(i);
+            }
+            min_lines.add(min);
+            max_lines.add(max);
+        }
+        range_pos.clear();
+        range_min.clear();
+        range_max.clear();
+    }
+
+    /** @return Number of samples that were considered by the last computation */
+    public int getSampleCount()
+    {
+        return sample_count;
+    }
+
+    /** @return Poly lines for the value, each as x0, y0, x1, y1, ... */
+    public List<int[]> getValueLines()
+    {
+        return value_lines;
+    }
+
+    /** @return Poly lines for the minimum */
+    public List<int[]> getMinLines()
+    {
+        return min_lines;
+    }
+
+    /** @return Poly lines for the maximum */
+    public List<int[]> getMaxLines()
+    {
+        return max_lines;
+    }
+
+    /** @return Polygons for the min/max area */
+    public List<int[]> getAreas()
+    {
+        return areas;
+    }
+
+    /** @return Poly lines for value - std. deviation */
+    public List<int[]> getLowerStdDevLines()
+    {
+        return lower_lines;
+    }
+
+    /** @return Poly lines for value + std. deviation */
+    public List<int[]> getUpperStdDevLines()
+    {
+        return upper_lines;
+    }
+
+    /** @return Points, x0, y0, x1, y1, ... */
+    public IntList getPoints()
+    {
+        return points;
+    }
+}
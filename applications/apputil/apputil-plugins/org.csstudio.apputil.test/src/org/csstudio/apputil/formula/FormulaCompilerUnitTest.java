@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.csstudio.apputil.formula.node.ConstantNode;
+import org.csstudio.apputil.formula.node.MathFuncNode;
+import org.junit.Test;
+
+/** JUnit test of the {@link FormulaCompiler} with nodes
+ *  that the {@link Formula} parser does not create
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class FormulaCompilerUnitTest
+{
+    private final static double epsilon = 0.0001;
+
+    private CompiledFormula compile(final Node node, final List<VariableNode> variables) throws Exception
+    {
+        final FormulaCompiler compiler = new FormulaCompiler(new Formula("0"), variables);
+        node.compile(compiler);
+        return compiler.compile();
+    }
+
+    @Test
+    public void testMathFunctions() throws Exception
+    {
+        assertTrue(FormulaCompiler.FUNCTIONS.containsAll(Arrays.asList(
+                   "cbrt", "log1p", "signum", "rint", "ulp", "IEEEremainder", "copySign", "round")));
+        assertTrue(new FormulaCompiler(new Formula("0"), null).hasFunction("IEEEremainder", 2));
+        assertFalse(new FormulaCompiler(new Formula("0"), null).hasFunction("IEEEremainder", 1));
+
+        final VariableNode x = new VariableNode("x", 27.0);
+        final VariableNode y = new VariableNode("y", 5.0);
+        final List<VariableNode> variables = Arrays.asList(x, y);
+        final String[] one = { "cbrt", "log1p", "signum", "rint", "ulp", "round", "sqrt" };
+        for (String function : one)
+        {
+            final MathFuncNode node = new MathFuncNode(function, new Node[] { x });
+            final CompiledFormula compiled = compile(node, variables);
+            assertTrue(compiled.isGenerated());
+            // Compiled formula uses its own slots, not the variable nodes
+            compiled.setValue(0, 8.5);
+            x.setValue(8.5);
+            final double expected = node.eval();
+            x.setValue(-1.0);
+            assertEquals(function, expected, compiled.eval(), epsilon);
+            assertEquals(function, expected, compiled.interpret(), epsilon);
+        }
+
+        final String[] two = { "IEEEremainder", "copySign", "hypot", "atan2" };
+        for (String function : two)
+        {
+            final MathFuncNode node = new MathFuncNode(function, new Node[] { x, y });
+            final CompiledFormula compiled = compile(node, variables);
+            compiled.setValue(0, -7.0);
+            compiled.setValue(1, 3.0);
+            x.setValue(-7.0);
+            y.setValue(3.0);
+            final double expected = node.eval();
+            x.setValue(0.0);
+            assertEquals(function, expected, compiled.eval(), epsilon);
+            assertEquals(function, expected, compiled.interpret(), epsilon);
+        }
+    }
+
+    @Test
+    public void testUncompiledNodes() throws Exception
+    {
+        final VariableNode x = new VariableNode("x", 4.0);
+        final List<VariableNode> variables = Arrays.asList(x);
+
+        // getExponent returns int, evaluated via the node when only using constants
+        final MathFuncNode constant = new MathFuncNode("getExponent", new Node[] { new ConstantNode(8.0) });
+        final CompiledFormula compiled = compile(constant, variables);
+        assertEquals(3.0, compiled.eval(), epsilon);
+        assertEquals(3.0, compiled.interpret(), epsilon);
+
+        // .. but cannot be compiled when it would read the variable node
+        try
+        {
+            compile(new MathFuncNode("getExponent", new Node[] { x }), variables);
+            fail("Compiled node that reads variable");
+        }
+        catch (IllegalArgumentException ex)
+        {
+            System.out.println(ex.getMessage());
+        }
+    }
+}
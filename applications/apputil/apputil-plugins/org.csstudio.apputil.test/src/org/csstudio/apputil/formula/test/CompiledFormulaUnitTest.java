@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.csstudio.apputil.formula.CompiledFormula;
+import org.csstudio.apputil.formula.Formula;
+import org.csstudio.apputil.formula.VariableNode;
+import org.junit.Test;
+
+/** Compiled formula tests.
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class CompiledFormulaUnitTest
+{
+    private final static double epsilon = 0.001;
+
+    /** Expressions from the {@link FormulaUnitTest} */
+    final static String[] EXPRESSIONS = new String[]
+    {
+        "0", "-3.14", "-2.123e4", "-3.14 + 2 - 1.10", "-12/-3",
+        "1 + 2 * 3 - 4", "(1 + 2) * (3 - 4)", "-(-3.14)",
+        "2 & 3", "2 == 3", "2 != 3", "!0", "2 & 0", "0 | 3", "0 | 0",
+        "sqrt(2) ^ 2", "exp(log(2))", "2 ? 3 : 4", "0 ? 3 : 4",
+        "10<20 ? 1 : 10>20 ? 2 : 3", "10>20 ? 1 : 10<20 ? 2 : 3", "10>20 ? 1 : 10>20 ? 2 : 3",
+        "!(2>1 ? 0 : 1)", "(2<=2) ? 3 : 4", "min(5, 4, 3, 2, 1)", "max(5, 4, 3, 2, 1)",
+        "sin(toRadians(30))", "cos(30)", "atan2(10.0, 0.0)", "round(2.6)", "2*PI",
+        "1/0", "sqrt(-1)"
+    };
+
+    @Test
+    public void testExpressions() throws Exception
+    {
+        for (String expression : EXPRESSIONS)
+        {
+            final Formula formula = new Formula(expression);
+            final CompiledFormula compiled = formula.compile();
+            final double expected = formula.eval();
+            System.out.println(expression + " = " + expected);
+            assertTrue(compiled.isGenerated());
+            assertEquals(expression, expected, compiled.eval(), epsilon);
+            assertEquals(expression, expected, compiled.interpret(), epsilon);
+        }
+        assertEquals(3.0, new Formula("round(2.6)").compile().eval(), epsilon);
+    }
+
+    @Test
+    public void testVariables() throws Exception
+    {
+        final VariableNode v[] = new VariableNode[] { new VariableNode("volt", 2.0), new VariableNode("curr", 3.0) };
+        final Formula formula = new Formula("curr > 10 ? -1 : max(0.5 * volt * curr, curr, -2)", v);
+        final CompiledFormula compiled = formula.compile();
+        assertEquals(2, compiled.getVariableCount());
+        assertEquals("curr", compiled.getVariableName(1));
+        assertEquals(1, compiled.getVariableIndex("curr"));
+        assertEquals(-1, compiled.getVariableIndex("PI"));
+
+        // Starts with current values of the variables
+        assertEquals(3.0, compiled.eval(), epsilon);
+
+        // Values are then set via slots, independent from the formula's variables
+        compiled.setValue(0, 20.0);
+        assertEquals(30.0, compiled.eval(), epsilon);
+        assertEquals(3.0, formula.eval(), epsilon);
+        compiled.setValue(1, 30.0);
+        assertEquals(-1.0, compiled.eval(), epsilon);
+        assertEquals(-1.0, compiled.interpret(), epsilon);
+        compiled.setValue(1, Double.NaN);
+        assertTrue(Double.isNaN(compiled.eval()));
+
+        // User variable named like a constant
+        final Formula pi = new Formula("PI", new VariableNode[] { new VariableNode("PI", 10.0) });
+        assertEquals(10.0, pi.compile().eval(), epsilon);
+    }
+
+    @Test
+    public void testVariableDetermination() throws Exception
+    {
+        final Formula formula = new Formula("'IOC2049-102:BMIT:enabled' >= 10  &  'RFQ_Vac:Pump2:Pressure' < 10", true);
+        final CompiledFormula compiled = formula.compile();
+        final int enabled = compiled.getVariableIndex("IOC2049-102:BMIT:enabled");
+        final int pressure = compiled.getVariableIndex("RFQ_Vac:Pump2:Pressure");
+        assertEquals(0, enabled);
+        assertEquals(1, pressure);
+        compiled.setValue(enabled, 10);
+        compiled.setValue(pressure, 5);
+        assertEquals(1.0, compiled.eval(), epsilon);
+        compiled.setValue(pressure, 10);
+        assertEquals(0.0, compiled.eval(), epsilon);
+    }
+}
@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula.test;
+
+import org.csstudio.apputil.formula.CompiledFormula;
+import org.csstudio.apputil.formula.Formula;
+import org.csstudio.apputil.formula.VariableNode;
+import org.junit.Test;
+
+/** JUnit-based benchmark of the tree interpreter vs. the compiled formula
+ *
+ *  <p>Evaluates the expressions of the {@link FormulaUnitTest},
+ *  then a typical alarm filter with variables that are updated for each evaluation.
+ *  Each variant runs repeatedly to allow for JIT warm-up.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class FormulaBenchmarkDemo
+{
+    final private static int RUNS = 5, EVALUATIONS = 200000;
+
+    private static double sink = 0.0;
+
+    private static void report(final String title, final double tree_ns, final double compiled_ns)
+    {
+        System.out.format("%-45s: tree %8.1f ns, compiled %8.1f ns per evaluation, %5.1fx\n",
+                          title, tree_ns, compiled_ns, tree_ns / compiled_ns);
+    }
+
+    @Test
+    public void benchmarkExpressions() throws Exception
+    {
+        for (int run=0; run<RUNS; ++run)
+        {
+            for (String expression : CompiledFormulaUnitTest.EXPRESSIONS)
+            {
+                final Formula formula = new Formula(expression);
+                final CompiledFormula compiled = formula.compile();
+                long start = System.nanoTime();
+                for (int i=0; i<EVALUATIONS; ++i)
+                    sink += formula.eval();
+                final double tree = (System.nanoTime() - start) / (double) EVALUATIONS;
+                start = System.nanoTime();
+                for (int i=0; i<EVALUATIONS; ++i)
+                    sink += compiled.eval();
+                final double comp = (System.nanoTime() - start) / (double) EVALUATIONS;
+                if (run == RUNS-1)
+                    report(expression, tree, comp);
+            }
+        }
+    }
+
+    @Test
+    public void benchmarkFilter() throws Exception
+    {
+        final String expression = "'a' > 5 & 'b' < 10 & 'c' != 0 ? max('d', 'e', 'f') : abs('g' - 'h')";
+        final Formula formula = new Formula(expression, true);
+        final VariableNode[] vars = formula.getVariables();
+        final CompiledFormula compiled = formula.compile();
+        for (int run=0; run<RUNS; ++run)
+        {
+            long start = System.nanoTime();
+            for (int i=0; i<EVALUATIONS; ++i)
+            {
+                vars[i % vars.length].setValue(i % 13);
+                sink += formula.eval();
+            }
+            final double tree = (System.nanoTime() - start) / (double) EVALUATIONS;
+            start = System.nanoTime();
+            for (int i=0; i<EVALUATIONS; ++i)
+            {
+                compiled.setValue(i % vars.length, i % 13);
+                sink += compiled.eval();
+            }
+            final double comp = (System.nanoTime() - start) / (double) EVALUATIONS;
+            report(expression, tree, comp);
+        }
+        System.out.println("(Sum: " + sink + ")");
+    }
+}
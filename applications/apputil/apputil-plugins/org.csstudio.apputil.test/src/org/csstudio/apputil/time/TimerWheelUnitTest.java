@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.time;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/** JUnit test of the {@link TimerWheel}
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class TimerWheelUnitTest
+{
+    @Test
+    public void testExpire()
+    {
+        final TimerWheel<String> wheel = new TimerWheel<>(10, 8, 1000);
+        wheel.schedule("b", 1050);
+        wheel.schedule("a", 1020);
+        // Beyond one revolution of 8 slots * 10 ms
+        wheel.schedule("c", 1500);
+        assertThat(wheel.size(), equalTo(3));
+        assertThat(wheel.getNextDueTime(), equalTo(1020L));
+
+        final List<String> due = new ArrayList<>();
+        assertThat(wheel.expire(1010, due), equalTo(0));
+        assertThat(wheel.expire(1025, due), equalTo(1));
+        assertThat(due, equalTo(Arrays.asList("a")));
+        assertThat(wheel.getNextDueTime(), equalTo(1050L));
+
+        due.clear();
+        wheel.expire(1100, due);
+        assertThat(due, equalTo(Arrays.asList("b")));
+        // "c" shares a slot with earlier ticks, but is not due
+        assertThat(wheel.getNextDueTime(), equalTo(1500L));
+
+        due.clear();
+        wheel.expire(1499, due);
+        assertThat(due.size(), equalTo(0));
+        wheel.expire(1500, due);
+        assertThat(due, equalTo(Arrays.asList("c")));
+        assertThat(wheel.size(), equalTo(0));
+        assertThat(wheel.getNextDueTime(), equalTo(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testCancel()
+    {
+        final TimerWheel<String> wheel = new TimerWheel<>(10, 8, 1000);
+        final TimerWheel.Timer<String> a = wheel.schedule("a", 1020);
+        wheel.schedule("b", 1030);
+        assertThat(wheel.getNextDueTime(), equalTo(1020L));
+
+        assertThat(wheel.cancel(a), equalTo(true));
+        assertThat(wheel.cancel(a), equalTo(false));
+        assertThat(wheel.size(), equalTo(1));
+        assertThat(wheel.getNextDueTime(), equalTo(1030L));
+
+        final List<String> due = new ArrayList<>();
+        wheel.expire(2000, due);
+        assertThat(due, equalTo(Arrays.asList("b")));
+    }
+
+    @Test
+    public void testReschedule()
+    {
+        final TimerWheel<String> wheel = new TimerWheel<>(10, 8, 1000);
+        final TimerWheel.Timer<String> a = new TimerWheel.Timer<>("a");
+        assertThat(a.isScheduled(), equalTo(false));
+
+        // Same timer is moved when scheduled again, also to a later revolution
+        assertThat(wheel.schedule(a, 1020), sameInstance(a));
+        wheel.schedule(a, 1500);
+        assertThat(wheel.size(), equalTo(1));
+        assertThat(wheel.getNextDueTime(), equalTo(1500L));
+        wheel.schedule(a, 1030);
+        assertThat(wheel.size(), equalTo(1));
+        assertThat(wheel.getNextDueTime(), equalTo(1030L));
+
+        final List<String> due = new ArrayList<>();
+        wheel.expire(1030, due);
+        assertThat(due, equalTo(Arrays.asList("a")));
+        assertThat(a.isScheduled(), equalTo(false));
+
+        // .. and re-used after it expired or was cancelled
+        wheel.schedule(a, 1050);
+        assertThat(wheel.cancel(a), equalTo(true));
+        wheel.schedule(a, 1060);
+        due.clear();
+        wheel.expire(1100, due);
+        assertThat(due, equalTo(Arrays.asList("a")));
+        assertThat(a.getDueTime(), equalTo(1060L));
+        assertThat(wheel.size(), equalTo(0));
+    }
+
+    @Test
+    public void testOverdue()
+    {
+        final TimerWheel<String> wheel = new TimerWheel<>(10, 8, 1000);
+        // Already due when scheduled
+        wheel.schedule("late", 900);
+        final List<String> due = new ArrayList<>();
+        wheel.expire(1000, due);
+        assertThat(due, equalTo(Arrays.asList("late")));
+    }
+
+    @Test
+    public void testLaterRevolutions()
+    {
+        final TimerWheel<String> wheel = new TimerWheel<>(10, 8, 1000);
+        // Several revolutions out, then nothing scheduled in between
+        wheel.schedule("far", 5000);
+        wheel.schedule("farther", 9000);
+        assertThat(wheel.getNextDueTime(), equalTo(5000L));
+
+        final List<String> due = new ArrayList<>();
+        assertThat(wheel.expire(4999, due), equalTo(0));
+        assertThat(wheel.getNextDueTime(), equalTo(5000L));
+        assertThat(wheel.expire(7000, due), equalTo(1));
+        assertThat(due, equalTo(Arrays.asList("far")));
+        assertThat(wheel.getNextDueTime(), equalTo(9000L));
+
+        // Cancelling the earliest later timer updates the next due time
+        final TimerWheel.Timer<String> early = wheel.schedule("early", 8000);
+        assertThat(wheel.getNextDueTime(), equalTo(8000L));
+        wheel.cancel(early);
+        assertThat(wheel.getNextDueTime(), equalTo(9000L));
+
+        wheel.clear();
+        assertThat(wheel.size(), equalTo(0));
+        assertThat(wheel.getNextDueTime(), equalTo(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testRandom()
+    {
+        final Random random = new Random(42);
+        final TimerWheel<Long> wheel = new TimerWheel<>(10, 64, 0);
+        final List<TimerWheel.Timer<Long>> timers = new ArrayList<>();
+        final List<Long> expected = new ArrayList<>();
+        for (int i=0; i<1000; ++i)
+        {
+            final long time = random.nextInt(20000);
+            timers.add(wheel.schedule(time, time));
+        }
+        // Cancel every third timer
+        for (int i=0; i<timers.size(); ++i)
+            if (i % 3 == 0)
+                wheel.cancel(timers.get(i));
+            else
+                expected.add(timers.get(i).getItem());
+        expected.sort(null);
+
+        // Step through time in random increments
+        final List<Long> due = new ArrayList<>();
+        long now = 0;
+        while (wheel.size() > 0)
+        {
+            final long next = wheel.getNextDueTime();
+            assertThat(next, equalTo(expected.get(due.size())));
+            now += random.nextInt(500);
+            final int start = due.size();
+            wheel.expire(now, due);
+            for (int i=start; i<due.size(); ++i)
+                assertThat(due.get(i) <= now, equalTo(true));
+        }
+        due.sort(null);
+        assertThat(due, equalTo(expected));
+    }
+}
@@ -0,0 +1,256 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula;
+
+/** Compiled {@link Formula}
+ *
+ *  <p>The tree of the formula is turned into a flat program
+ *  for a stack machine, which is then translated into Java byte code.
+ *  Should the code generation fail, the program is interpreted.
+ *  Input variables are held in slots, addressed by index,
+ *  instead of the {@link VariableNode}s of the formula.
+ *  Evaluation does not allocate any memory.
+ *
+ *  <p>Not thread-safe. Callers that set values and evaluate
+ *  from several threads need to synchronize.
+ *
+ *  @see Formula#compile()
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class CompiledFormula
+{
+    /** Evaluates the formula, implemented by generated code */
+    public static interface Evaluator
+    {
+        /** @param slots Values of the variables
+         *  @param nodes Nodes that the generated code calls
+         *  @return Value of the formula
+         */
+        public double eval(double[] slots, Node[] nodes);
+    }
+
+    final private String formula;
+    final private int[] code;
+    final private double[] constants;
+    final private Node[] nodes;
+    final private String[] names;
+    final private double[] slots;
+    final private double[] stack;
+    final private Evaluator evaluator;
+
+    CompiledFormula(final String formula, final int[] code, final double[] constants, final Node[] nodes,
+                    final String[] names, final double[] slots, final int stack_size, final Evaluator evaluator)
+    {
+        this.evaluator = evaluator;
+        this.formula = formula;
+        this.code = code;
+        this.constants = constants;
+        this.nodes = nodes;
+        this.names = names;
+        this.slots = slots;
+        this.stack = new double[stack_size];
+    }
+
+    /** @return Original formula that got compiled. */
+    public String getFormula()
+    {
+        return formula;
+    }
+
+    /** @return Number of variable slots */
+    public int getVariableCount()
+    {
+        return slots.length;
+    }
+
+    /** @param index Slot index
+     *  @return Name of the variable in that slot
+     */
+    public String getVariableName(final int index)
+    {
+        return names[index];
+    }
+
+    /** @param name Variable name
+     *  @return Slot index of the variable, -1 if not used by the formula
+     */
+    public int getVariableIndex(final String name)
+    {
+        for (int i=0; i<names.length; ++i)
+            if (names[i].equals(name))
+                return i;
+        return -1;
+    }
+
+    /** @param index Slot index
+     *  @param value New value of the variable
+     */
+    public void setValue(final int index, final double value)
+    {
+        slots[index] = value;
+    }
+
+    /** @param index Slot index
+     *  @return Value of the variable
+     */
+    public double getValue(final int index)
+    {
+        return slots[index];
+    }
+
+    /** @return <code>true</code> if formula uses generated code, <code>false</code> if interpreted */
+    public boolean isGenerated()
+    {
+        return evaluator != null;
+    }
+
+    /** @return Value of the formula for the current variable values */
+    public double eval()
+    {
+        if (evaluator != null)
+            return evaluator.eval(slots, nodes);
+        return interpret();
+    }
+
+    /** Evaluate by interpreting the program instead of using generated code.
+     *  Slower than {@link #eval()}, mostly for tests.
+     *  @return Value of the formula, computed by interpreting the program
+     */
+    public double interpret()
+    {
+        final int[] code = this.code;
+        final double[] stack = this.stack;
+        int sp = 0, pc = 0;
+        while (pc < code.length)
+        {
+            final int op = code[pc++];
+            switch (op)
+            {
+            case FormulaCompiler.OP_CONSTANT:
+                stack[sp++] = constants[code[pc++]];
+                break;
+            case FormulaCompiler.OP_VARIABLE:
+                stack[sp++] = slots[code[pc++]];
+                break;
+            case FormulaCompiler.OP_JUMP:
+                pc = code[pc];
+                break;
+            case FormulaCompiler.OP_JUMP_IF_ZERO:
+                if (stack[--sp] == 0)
+                    pc = code[pc];
+                else
+                    ++pc;
+                break;
+            case FormulaCompiler.OP_MIN:
+            {
+                final int n = code[pc++];
+                sp -= n;
+                double result = stack[sp];
+                for (int i=1; i<n; ++i)
+                    if (stack[sp+i] < result)
+                        result = stack[sp+i];
+                stack[sp++] = result;
+                break;
+            }
+            case FormulaCompiler.OP_MAX:
+            {
+                final int n = code[pc++];
+                sp -= n;
+                double result = stack[sp];
+                for (int i=1; i<n; ++i)
+                    if (stack[sp+i] > result)
+                        result = stack[sp+i];
+                stack[sp++] = result;
+                break;
+            }
+            case FormulaCompiler.OP_FUNCTION:
+            {
+                final int function = code[pc++];
+                if (function >= FormulaCompiler.TWO_ARG_FUNCTIONS)
+                {
+                    --sp;
+                    stack[sp-1] = function2(function, stack[sp-1], stack[sp]);
+                }
+                else
+                    stack[sp-1] = function1(function, stack[sp-1]);
+                break;
+            }
+            case FormulaCompiler.OP_NODE:
+                stack[sp++] = nodes[code[pc++]].eval();
+                break;
+            case FormulaCompiler.OP_NOT:
+                stack[sp-1] = (stack[sp-1] != 0) ? 0.0 : 1.0;
+                break;
+            case FormulaCompiler.OP_RND:
+                stack[sp-1] = stack[sp-1] * Math.random();
+                break;
+            default:
+            {   // Binary operation
+                final double b = stack[--sp];
+                final double a = stack[sp-1];
+                stack[sp-1] = operate(op, a, b);
+            }
+            }
+        }
+        return stack[0];
+    }
+
+    private static double operate(final int op, final double a, final double b)
+    {
+        switch (op)
+        {
+        case FormulaCompiler.OP_ADD:           return a + b;
+        case FormulaCompiler.OP_SUB:           return a - b;
+        case FormulaCompiler.OP_MUL:           return a * b;
+        case FormulaCompiler.OP_DIV:           return a / b;
+        case FormulaCompiler.OP_PWR:           return Math.pow(a, b);
+        case FormulaCompiler.OP_AND:           return (a != 0.0  &&  b != 0.0) ? 1.0 : 0.0;
+        case FormulaCompiler.OP_OR:            return (a != 0.0  ||  b != 0.0) ? 1.0 : 0.0;
+        case FormulaCompiler.OP_EQUAL:         return (a == b) ? 1.0 : 0.0;
+        case FormulaCompiler.OP_NOT_EQUAL:     return (a != b) ? 1.0 : 0.0;
+        case FormulaCompiler.OP_LESS_THAN:     return (a < b) ? 1.0 : 0.0;
+        case FormulaCompiler.OP_LESS_EQUAL:    return (a <= b) ? 1.0 : 0.0;
+        case FormulaCompiler.OP_GREATER_THAN:  return (a > b) ? 1.0 : 0.0;
+        case FormulaCompiler.OP_GREATER_EQUAL: return (a >= b) ? 1.0 : 0.0;
+        default:                               throw new IllegalStateException("Unknown op code " + op);
+        }
+    }
+
+    /** @param function Index into {@link FormulaCompiler#FUNCTIONS} */
+    private static double function1(final int function, final double x)
+    {
+        try
+        {
+            return (double) FormulaCompiler.HANDLES[function].invokeExact(x);
+        }
+        catch (Throwable ex)
+        {
+            throw new IllegalStateException("Cannot evaluate " + FormulaCompiler.FUNCTIONS.get(function), ex);
+        }
+    }
+
+    /** @param function Index into {@link FormulaCompiler#FUNCTIONS} */
+    private static double function2(final int function, final double x, final double y)
+    {
+        try
+        {
+            return (double) FormulaCompiler.HANDLES[function].invokeExact(x, y);
+        }
+        catch (Throwable ex)
+        {
+            throw new IllegalStateException("Cannot evaluate " + FormulaCompiler.FUNCTIONS.get(function), ex);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Compiled '" + formula + "', " + code.length + " words of code";
+    }
+}
@@ -176,6 +176,31 @@ public class Formula implements Node
         return tree.eval();
     }
 
+    /** Compile the formula
+     *
+     *  <p>The compiled formula evaluates faster than the tree
+     *  and without allocating memory, but has its own copy
+     *  of the variables:
+     *  Values are set via slot indices of the {@link CompiledFormula},
+     *  which match the order of {@link #getVariables()}.
+     *
+     *  @return {@link CompiledFormula}
+     *  @throws IllegalArgumentException if the formula contains nodes that cannot be compiled
+     */
+    public CompiledFormula compile()
+    {
+        final FormulaCompiler compiler = new FormulaCompiler(this, variables);
+        tree.compile(compiler);
+        return compiler.compile();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void compile(final FormulaCompiler compiler)
+    {
+        tree.compile(compiler);
+    }
+
     /** {@inheritDoc} */
     @Override
     public boolean hasSubnode(final Node node)
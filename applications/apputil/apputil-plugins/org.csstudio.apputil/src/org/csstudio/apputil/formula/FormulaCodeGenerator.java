@@ -0,0 +1,392 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Generates Java byte code for the program of a {@link FormulaCompiler}
+ *
+ *  <p>The program of the compiler is already a sequence of
+ *  stack operations, so each of its instructions translates into
+ *  a few JVM instructions of an {@link CompiledFormula.Evaluator}.
+ *  The JIT compiler then turns that into machine code.
+ *
+ *  <p>Class file version 49 is used so that the class can be
+ *  verified without stack map frames.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+class FormulaCodeGenerator
+{
+    /** Count of generated classes, used for unique names */
+    final private static AtomicInteger count = new AtomicInteger();
+
+    /** Class loader for one generated class
+     *
+     *  <p>Using a new loader for each class allows the class
+     *  to be garbage collected together with its formula.
+     */
+    private static class Loader extends ClassLoader
+    {
+        Loader()
+        {
+            super(FormulaCodeGenerator.class.getClassLoader());
+        }
+
+        Class<?> define(final String name, final byte[] code)
+        {
+            return defineClass(name, code, 0, code.length);
+        }
+    }
+
+    // JVM op codes
+    final private static int ICONST_0 = 0x03, DCONST_0 = 0x0e, DCONST_1 = 0x0f, BIPUSH = 0x10, SIPUSH = 0x11,
+                             LDC2_W = 0x14, DLOAD = 0x18, ALOAD_0 = 0x2a, ALOAD_1 = 0x2b, ALOAD_2 = 0x2c,
+                             DALOAD = 0x31, AALOAD = 0x32, DSTORE = 0x39,
+                             DADD = 0x63, DSUB = 0x67, DMUL = 0x6b, DDIV = 0x6f, DCMPL = 0x97, IFEQ = 0x99,
+                             GOTO = 0xa7, DRETURN = 0xaf, RETURN = 0xb1, INVOKESPECIAL = 0xb7,
+                             INVOKESTATIC = 0xb8, INVOKEINTERFACE = 0xb9;
+
+    /** First local variable used for min/max arguments, after 'this', slots, nodes */
+    final private static int FIRST_LOCAL = 3;
+
+    final private static String SUPPORT = FormulaCompiler.class.getName().replace('.', '/');
+    final private static String EVALUATOR = CompiledFormula.Evaluator.class.getName().replace('.', '/');
+    final private static String NODE = Node.class.getName().replace('.', '/');
+
+    // Constant pool
+    final private ByteArrayOutputStream pool_buf = new ByteArrayOutputStream();
+    final private DataOutputStream pool = new DataOutputStream(pool_buf);
+    final private Map<String, Integer> pool_entries = new HashMap<>();
+    private int pool_size = 1;
+
+    final private int[] program;
+    final private double[] constants;
+    final private int max_depth;
+
+    /** @param program Program of the {@link FormulaCompiler}
+     *  @param constants Constants used by the program
+     *  @param max_depth Maximum stack depth of the program
+     */
+    FormulaCodeGenerator(final int[] program, final double[] constants, final int max_depth)
+    {
+        this.program = program;
+        this.constants = constants;
+        this.max_depth = max_depth;
+    }
+
+    /** @return {@link CompiledFormula.Evaluator} for the program
+     *  @throws Exception on error, for example when the program is too large
+     */
+    CompiledFormula.Evaluator generate() throws Exception
+    {
+        final String name = FormulaCodeGenerator.class.getPackage().getName() + ".GeneratedFormula" + count.incrementAndGet();
+        final byte[] code = createClass(name.replace('.', '/'));
+        final Class<?> clazz = new Loader().define(name, code);
+        return (CompiledFormula.Evaluator) clazz.getDeclaredConstructor().newInstance();
+    }
+
+    private int addPoolEntry(final String key, final int tag, final int slots, final byte[] data) throws Exception
+    {
+        final Integer index = pool_entries.get(key);
+        if (index != null)
+            return index;
+        pool.writeByte(tag);
+        pool.write(data);
+        final int result = pool_size;
+        pool_entries.put(key, result);
+        pool_size += slots;
+        return result;
+    }
+
+    private int utf8(final String text) throws Exception
+    {
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        new DataOutputStream(buf).writeUTF(text);
+        return addPoolEntry("U" + text, 1, 1, buf.toByteArray());
+    }
+
+    private static byte[] u2(final int... values)
+    {
+        final byte[] data = new byte[2*values.length];
+        for (int i=0; i<values.length; ++i)
+        {
+            data[2*i] = (byte) (values[i] >> 8);
+            data[2*i+1] = (byte) values[i];
+        }
+        return data;
+    }
+
+    private int classRef(final String name) throws Exception
+    {
+        return addPoolEntry("C" + name, 7, 1, u2(utf8(name)));
+    }
+
+    private int methodRef(final String owner, final String name, final String type, final boolean is_interface) throws Exception
+    {
+        final int clazz = classRef(owner);
+        final int name_and_type = addPoolEntry("N" + name + type, 12, 1, u2(utf8(name), utf8(type)));
+        return addPoolEntry((is_interface ? "I" : "M") + owner + "." + name + type, is_interface ? 11 : 10, 1, u2(clazz, name_and_type));
+    }
+
+    private int doubleConstant(final double value) throws Exception
+    {
+        final long bits = Double.doubleToRawLongBits(value);
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        new DataOutputStream(buf).writeLong(bits);
+        return addPoolEntry("D" + bits, 6, 2, buf.toByteArray());
+    }
+
+    private static void writeIndex(final DataOutputStream out, final int index) throws Exception
+    {
+        if (index <= 5)
+            out.writeByte(ICONST_0 + index);
+        else if (index <= Byte.MAX_VALUE)
+        {
+            out.writeByte(BIPUSH);
+            out.writeByte(index);
+        }
+        else
+        {
+            out.writeByte(SIPUSH);
+            out.writeShort(index);
+        }
+    }
+
+    /** Translate program into byte code
+     *  @param out Where to write the code
+     *  @param offsets Offsets of program instructions in byte code, updated
+     *  @param resolve Resolve jumps? Otherwise only determine offsets
+     *  @return Number of locals
+     */
+    private int translate(final DataOutputStream out, final int[] offsets, final boolean resolve) throws Exception
+    {
+        int locals = FIRST_LOCAL;
+        int pc = 0;
+        while (pc < program.length)
+        {
+            offsets[pc] = out.size();
+            final int op = program[pc++];
+            switch (op)
+            {
+            case FormulaCompiler.OP_CONSTANT:
+            {
+                final double value = constants[program[pc++]];
+                if (Double.doubleToRawLongBits(value) == 0L)
+                    out.writeByte(DCONST_0);
+                else if (value == 1.0)
+                    out.writeByte(DCONST_1);
+                else
+                {
+                    out.writeByte(LDC2_W);
+                    out.writeShort(doubleConstant(value));
+                }
+                break;
+            }
+            case FormulaCompiler.OP_VARIABLE:
+                out.writeByte(ALOAD_1);
+                writeIndex(out, program[pc++]);
+                out.writeByte(DALOAD);
+                break;
+            case FormulaCompiler.OP_ADD:
+                out.writeByte(DADD);
+                break;
+            case FormulaCompiler.OP_SUB:
+                out.writeByte(DSUB);
+                break;
+            case FormulaCompiler.OP_MUL:
+                out.writeByte(DMUL);
+                break;
+            case FormulaCompiler.OP_DIV:
+                out.writeByte(DDIV);
+                break;
+            case FormulaCompiler.OP_PWR:
+                invokeStatic(out, "java/lang/Math", "pow", "(DD)D");
+                break;
+            case FormulaCompiler.OP_AND:
+                invokeStatic(out, SUPPORT, "and", "(DD)D");
+                break;
+            case FormulaCompiler.OP_OR:
+                invokeStatic(out, SUPPORT, "or", "(DD)D");
+                break;
+            case FormulaCompiler.OP_NOT:
+                invokeStatic(out, SUPPORT, "not", "(D)D");
+                break;
+            case FormulaCompiler.OP_EQUAL:
+                invokeStatic(out, SUPPORT, "equal", "(DD)D");
+                break;
+            case FormulaCompiler.OP_NOT_EQUAL:
+                invokeStatic(out, SUPPORT, "notEqual", "(DD)D");
+                break;
+            case FormulaCompiler.OP_LESS_THAN:
+                invokeStatic(out, SUPPORT, "lessThan", "(DD)D");
+                break;
+            case FormulaCompiler.OP_LESS_EQUAL:
+                invokeStatic(out, SUPPORT, "lessEqual", "(DD)D");
+                break;
+            case FormulaCompiler.OP_GREATER_THAN:
+                invokeStatic(out, SUPPORT, "greaterThan", "(DD)D");
+                break;
+            case FormulaCompiler.OP_GREATER_EQUAL:
+                invokeStatic(out, SUPPORT, "greaterEqual", "(DD)D");
+                break;
+            case FormulaCompiler.OP_RND:
+                invokeStatic(out, SUPPORT, "rnd", "(D)D");
+                break;
+            case FormulaCompiler.OP_JUMP_IF_ZERO:
+            {
+                final int target = program[pc++];
+                out.writeByte(DCONST_0);
+                out.writeByte(DCMPL);
+                final int branch = out.size();
+                out.writeByte(IFEQ);
+                out.writeShort(resolve ? offsets[target] - branch : 0);
+                break;
+            }
+            case FormulaCompiler.OP_JUMP:
+            {
+                final int target = program[pc++];
+                final int branch = out.size();
+                out.writeByte(GOTO);
+                out.writeShort(resolve ? offsets[target] - branch : 0);
+                break;
+            }
+            case FormulaCompiler.OP_MIN:
+            case FormulaCompiler.OP_MAX:
+            {   // Move arguments into locals, then combine first to last
+                final int n = program[pc++];
+                locals = Math.max(locals, FIRST_LOCAL + 2*n);
+                if (locals > 255)
+                    throw new Exception("Too many arguments");
+                for (int i=n-1; i>=0; --i)
+                {
+                    out.writeByte(DSTORE);
+                    out.writeByte(FIRST_LOCAL + 2*i);
+                }
+                out.writeByte(DLOAD);
+                out.writeByte(FIRST_LOCAL);
+                for (int i=1; i<n; ++i)
+                {
+                    out.writeByte(DLOAD);
+                    out.writeByte(FIRST_LOCAL + 2*i);
+                    invokeStatic(out, SUPPORT, op == FormulaCompiler.OP_MIN ? "min" : "max", "(DD)D");
+                }
+                break;
+            }
+            case FormulaCompiler.OP_FUNCTION:
+            {
+                final int function = program[pc++];
+                final String name = FormulaCompiler.FUNCTIONS.get(function);
+                final String type = function >= FormulaCompiler.TWO_ARG_FUNCTIONS ? "(DD)D" : "(D)D";
+                if (name.equals("round"))
+                    invokeStatic(out, SUPPORT, name, type);
+                else
+                    invokeStatic(out, "java/lang/Math", name, type);
+                break;
+            }
+            case FormulaCompiler.OP_NODE:
+                out.writeByte(ALOAD_2);
+                writeIndex(out, program[pc++]);
+                out.writeByte(AALOAD);
+                out.writeByte(INVOKEINTERFACE);
+                out.writeShort(methodRef(NODE, "eval", "()D", true));
+                out.writeByte(1);
+                out.writeByte(0);
+                break;
+            default:
+                throw new Exception("Unknown op code " + op);
+            }
+        }
+        // Jumps at the end of the program target the return
+        offsets[pc] = out.size();
+        out.writeByte(DRETURN);
+        return locals;
+    }
+
+    private void invokeStatic(final DataOutputStream out, final String owner, final String name, final String type) throws Exception
+    {
+        out.writeByte(INVOKESTATIC);
+        out.writeShort(methodRef(owner, name, type, false));
+    }
+
+    private byte[] createClass(final String name) throws Exception
+    {
+        // First pass determines offsets of jump targets
+        final int[] offsets = new int[program.length + 1];
+        translate(new DataOutputStream(new ByteArrayOutputStream()), offsets, false);
+        final ByteArrayOutputStream eval_buf = new ByteArrayOutputStream();
+        final int locals = translate(new DataOutputStream(eval_buf), offsets, true);
+        final byte[] eval = eval_buf.toByteArray();
+        if (eval.length > Short.MAX_VALUE)
+            throw new Exception("Formula too large");
+
+        final int this_class = classRef(name);
+        final int super_class = classRef("java/lang/Object");
+        final int evaluator = classRef(EVALUATOR);
+        final int object_init = methodRef("java/lang/Object", "<init>", "()V", false);
+        final int init_name = utf8("<init>");
+        final int init_type = utf8("()V");
+        final int eval_name = utf8("eval");
+        final int eval_type = utf8("([D[L" + NODE + ";)D");
+        final int code_attr = utf8("Code");
+
+        final List<byte[]> methods = new ArrayList<>();
+        methods.add(method(init_name, init_type, code_attr, 1, 1,
+                           new byte[] { (byte) ALOAD_0, (byte) INVOKESPECIAL, (byte) (object_init >> 8), (byte) object_init, (byte) RETURN }));
+        methods.add(method(eval_name, eval_type, code_attr, 2*max_depth + 4, locals, eval));
+
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(buf);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);  // Minor version
+        out.writeShort(49); // Major version: Java 5
+        out.writeShort(pool_size);
+        pool.flush();
+        out.write(pool_buf.toByteArray());
+        out.writeShort(0x0001 | 0x0010 | 0x0020); // public final super
+        out.writeShort(this_class);
+        out.writeShort(super_class);
+        out.writeShort(1);
+        out.writeShort(evaluator);
+        out.writeShort(0); // Fields
+        out.writeShort(methods.size());
+        for (byte[] method : methods)
+            out.write(method);
+        out.writeShort(0); // Attributes
+        out.flush();
+        return buf.toByteArray();
+    }
+
+    private static byte[] method(final int name, final int type, final int code_attr,
+                                 final int max_stack, final int max_locals, final byte[] code) throws Exception
+    {
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(buf);
+        out.writeShort(0x0001); // public
+        out.writeShort(name);
+        out.writeShort(type);
+        out.writeShort(1); // Attributes: Code
+        out.writeShort(code_attr);
+        out.writeInt(12 + code.length);
+        out.writeShort(max_stack);
+        out.writeShort(max_locals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0); // Exception table
+        out.writeShort(0); // Attributes
+        out.flush();
+        return buf.toByteArray();
+    }
+}
@@ -0,0 +1,480 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.formula;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/** Compiles the {@link Node} tree of a {@link Formula} into a {@link CompiledFormula}
+ *
+ *  <p>Each node adds the instructions that leave its value
+ *  on the stack of the program, see {@link Node#compile(FormulaCompiler)}.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class FormulaCompiler
+{
+    // Op codes
+    final static int OP_ADD = 0,
+                     OP_SUB = 1,
+                     OP_MUL = 2,
+                     OP_DIV = 3,
+                     OP_PWR = 4,
+                     OP_AND = 5,
+                     OP_OR = 6,
+                     OP_NOT = 7,
+                     OP_EQUAL = 8,
+                     OP_NOT_EQUAL = 9,
+                     OP_LESS_THAN = 10,
+                     OP_LESS_EQUAL = 11,
+                     OP_GREATER_THAN = 12,
+                     OP_GREATER_EQUAL = 13,
+                     OP_RND = 14,
+                     OP_CONSTANT = 20,
+                     OP_VARIABLE = 21,
+                     OP_JUMP = 22,
+                     OP_JUMP_IF_ZERO = 23,
+                     OP_MIN = 24,
+                     OP_MAX = 25,
+                     OP_FUNCTION = 26,
+                     OP_NODE = 27;
+
+    /** Operations on values on the stack */
+    public enum Operation
+    {
+        ADD(OP_ADD, 2), SUB(OP_SUB, 2), MUL(OP_MUL, 2), DIV(OP_DIV, 2), PWR(OP_PWR, 2),
+        AND(OP_AND, 2), OR(OP_OR, 2), NOT(OP_NOT, 1),
+        EQUAL(OP_EQUAL, 2), NOT_EQUAL(OP_NOT_EQUAL, 2),
+        LESS_THAN(OP_LESS_THAN, 2), LESS_EQUAL(OP_LESS_EQUAL, 2),
+        GREATER_THAN(OP_GREATER_THAN, 2), GREATER_EQUAL(OP_GREATER_EQUAL, 2),
+        RND(OP_RND, 1);
+
+        /** Op code */
+        final int code;
+
+        /** Number of values taken from the stack */
+        final int args;
+
+        private Operation(final int code, final int args)
+        {
+            this.code = code;
+            this.args = args;
+        }
+    }
+
+    /** Math functions, names as used in {@link Formula} and java.lang.Math.
+     *
+     *  <p>All java.lang.Math functions that take one or two
+     *  <code>double</code> arguments and return a <code>double</code>,
+     *  plus <code>round</code>.
+     *  Functions with one argument are listed first.
+     */
+    final static List<String> FUNCTIONS;
+
+    /** Functions from this index on take two arguments */
+    final static int TWO_ARG_FUNCTIONS;
+
+    /** Handles for the {@link #FUNCTIONS}, type (D)D respectively (DD)D */
+    final static MethodHandle[] HANDLES;
+
+    static
+    {
+        final List<Method> one = new ArrayList<>(), two = new ArrayList<>();
+        for (Method method : Math.class.getMethods())
+        {
+            if (! Modifier.isStatic(method.getModifiers()))
+                continue;
+            if (method.getReturnType() != double.class  &&  ! method.getName().equals("round"))
+                continue;
+            final Class<?>[] params = method.getParameterTypes();
+            if (! Arrays.stream(params).allMatch(type -> type == double.class))
+                continue;
+            if (params.length == 1)
+                one.add(method);
+            else if (params.length == 2)
+                two.add(method);
+        }
+        final Comparator<Method> by_name = Comparator.comparing(Method::getName);
+        one.sort(by_name);
+        two.sort(by_name);
+        final List<Method> methods = new ArrayList<>(one);
+        methods.addAll(two);
+
+        final List<String> names = new ArrayList<>();
+        HANDLES = new MethodHandle[methods.size()];
+        try
+        {
+            final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            for (int i=0; i<HANDLES.length; ++i)
+            {
+                Method method = methods.get(i);
+                names.add(method.getName());
+                // Math.round returns long, use the double version
+                if (method.getReturnType() != double.class)
+                    method = FormulaCompiler.class.getMethod(method.getName(), double.class);
+                HANDLES[i] = lookup.unreflect(method);
+            }
+        }
+        catch (Exception ex)
+        {
+            throw new ExceptionInInitializerError(ex);
+        }
+        FUNCTIONS = Collections.unmodifiableList(names);
+        TWO_ARG_FUNCTIONS = one.size();
+    }
+
+    final private Formula formula;
+    final private List<VariableNode> variables;
+    private int[] code = new int[32];
+    private int size = 0;
+    final private List<Double> constants = new ArrayList<>();
+    final private List<Node> nodes = new ArrayList<>();
+    private int depth = 0, max_depth = 0;
+
+    /** @param formula Formula to compile
+     *  @param variables Variables of the formula, their index becomes the slot index
+     */
+    FormulaCompiler(final Formula formula, final List<VariableNode> variables)
+    {
+        this.formula = formula;
+        this.variables = variables;
+    }
+
+    private void emit(final int value)
+    {
+        if (size >= code.length)
+            code = Arrays.copyOf(code, code.length * 2);
+        code[size++] = value;
+    }
+
+    private void push(final int count)
+    {
+        depth += count;
+        max_depth = Math.max(max_depth, depth);
+    }
+
+    /** @param value Constant to push onto the stack */
+    public void addConstant(final double value)
+    {
+        emit(OP_CONSTANT);
+        emit(constants.size());
+        constants.add(value);
+        push(1);
+    }
+
+    /** @param function Name of java.lang.Math function
+     *  @param args Number of arguments
+     *  @return Index into {@link #FUNCTIONS}, -1 if not supported
+     */
+    private static int getFunctionIndex(final String function, final int args)
+    {
+        final int start, end;
+        if (args == 1)
+        {
+            start = 0;
+            end = TWO_ARG_FUNCTIONS;
+        }
+        else if (args == 2)
+        {
+            start = TWO_ARG_FUNCTIONS;
+            end = FUNCTIONS.size();
+        }
+        else
+            return -1;
+        for (int i=start; i<end; ++i)
+            if (FUNCTIONS.get(i).equals(function))
+                return i;
+        return -1;
+    }
+
+    /** @param variable Variable to push onto the stack.
+     *                  Variables that are not inputs of the formula,
+     *                  like the predefined 'PI', are treated as constants.
+     */
+    public void addVariable(final VariableNode variable)
+    {
+        final int index = variables == null ? -1 : variables.indexOf(variable);
+        if (index < 0)
+            addConstant(variable.getValue());
+        else
+        {
+            emit(OP_VARIABLE);
+            emit(index);
+            push(1);
+        }
+    }
+
+    /** @param operation Operation to apply to the values on the stack */
+    public void addOperation(final Operation operation)
+    {
+        emit(operation.code);
+        push(1 - operation.args);
+    }
+
+    /** @param function Name of java.lang.Math function
+     *  @param args Number of arguments
+     *  @return <code>true</code> if function is supported by {@link #addFunction(String, int)}
+     */
+    public boolean hasFunction(final String function, final int args)
+    {
+        return getFunctionIndex(function, args) >= 0;
+    }
+
+    /** @param function Name of java.lang.Math function
+     *  @param args Number of arguments on the stack
+     *  @throws IllegalArgumentException if function is not supported
+     */
+    public void addFunction(final String function, final int args)
+    {
+        final int index = getFunctionIndex(function, args);
+        if (index < 0)
+            throw new IllegalArgumentException("Cannot compile " + function + " with " + args + " arguments");
+        emit(OP_FUNCTION);
+        emit(index);
+        push(1 - args);
+    }
+
+    /** @param args Number of values on the stack, replaced by their minimum */
+    public void addMin(final int args)
+    {
+        emit(OP_MIN);
+        emit(args);
+        push(1 - args);
+    }
+
+    /** @param args Number of values on the stack, replaced by their maximum */
+    public void addMax(final int args)
+    {
+        emit(OP_MAX);
+        emit(args);
+        push(1 - args);
+    }
+
+    /** Add node that cannot be compiled.
+     *  The program will call its {@link Node#eval()}
+     *
+     *  <p>The node reads the values of the formula's {@link VariableNode}s,
+     *  while the compiled formula keeps its own copy of the variables.
+     *  Nodes that use variables can thus not be added.
+     *
+     *  @param node Node to evaluate
+     *  @throws IllegalArgumentException if node uses a variable
+     */
+    public void addNode(final Node node)
+    {
+        if (variables != null)
+            for (VariableNode variable : variables)
+                if (node == variable  ||  node.hasSubnode(variable)  ||  node.hasSubnode(variable.getName()))
+                    throw new IllegalArgumentException("Cannot compile " + node + ", it uses variable " + variable.getName());
+        emit(OP_NODE);
+        emit(nodes.size());
+        nodes.add(node);
+        push(1);
+    }
+
+    /** Add jump that's taken if the value on the stack is zero
+     *  @return Jump, to be passed to {@link #setJumpTarget(int)}
+     */
+    public int addJumpIfZero()
+    {
+        emit(OP_JUMP_IF_ZERO);
+        emit(-1);
+        push(-1);
+        return size - 1;
+    }
+
+    /** Add jump that's always taken
+     *
+     *  <p>The value computed before the jump is left
+     *  on the stack for the jump target, while the code
+     *  that follows the jump is only reached via another jump.
+     *
+     *  @return Jump, to be passed to {@link #setJumpTarget(int)}
+     */
+    public int addJump()
+    {
+        emit(OP_JUMP);
+        emit(-1);
+        push(-1);
+        return size - 1;
+    }
+
+    /** @param jump Jump to point to the next instruction that will be added */
+    public void setJumpTarget(final int jump)
+    {
+        code[jump] = size;
+    }
+
+    /** @return Compiled formula */
+    CompiledFormula compile()
+    {
+        if (depth != 1)
+            throw new IllegalStateException("Compiled " + formula + " leaves " + depth + " values on stack");
+        final double[] values = new double[constants.size()];
+        for (int i=0; i<values.length; ++i)
+            values[i] = constants.get(i);
+        final String[] names;
+        final double[] slots;
+        if (variables == null)
+        {
+            names = new String[0];
+            slots = new double[0];
+        }
+        else
+        {
+            names = new String[variables.size()];
+            slots = new double[names.length];
+            for (int i=0; i<names.length; ++i)
+            {
+                names[i] = variables.get(i).getName();
+                slots[i] = variables.get(i).getValue();
+            }
+        }
+        final int[] program = Arrays.copyOf(code, size);
+        CompiledFormula.Evaluator evaluator;
+        try
+        {
+            evaluator = new FormulaCodeGenerator(program, values, max_depth).generate();
+        }
+        catch (Throwable ex)
+        {
+            Logger.getLogger(getClass().getName())
+                  .log(Level.WARNING, "Cannot generate code for " + formula + ", using interpreter", ex);
+            evaluator = null;
+        }
+        return new CompiledFormula(formula.getFormula(), program, values,
+                                   nodes.toArray(new Node[nodes.size()]), names, slots, max_depth, evaluator);
+    }
+
+    // Operations used by the generated code.
+    // Public since the generated class is in a different class loader.
+
+    /** @param a Value
+     *  @param b Value
+     *  @return 1 if both are non-zero, else 0
+     */
+    public static double and(final double a, final double b)
+    {
+        return (a != 0.0  &&  b != 0.0) ? 1.0 : 0.0;
+    }
+
+    /** @param a Value
+     *  @param b Value
+     *  @return 1 if either is non-zero, else 0
+     */
+    public static double or(final double a, final double b)
+    {
+        return (a != 0.0  ||  b != 0.0) ? 1.0 : 0.0;
+    }
+
+    /** @param a Value
+     *  @return 1 if value is zero, else 0
+     */
+    public static double not(final double a)
+    {
+        return (a != 0) ? 0.0 : 1.0;
+    }
+
+    /** @param a Value
+     *  @param b Value
+     *  @return 1 if a == b, else 0
+     */
+    public static double equal(final double a, final double b)
+    {
+        return (a == b) ? 1.0 : 0.0;
+    }
+
+    /** @param a Value
+     *  @param b Value
+     *  @return 1 if a != b, else 0
+     */
+    public static double notEqual(final double a, final double b)
+    {
+        return (a != b) ? 1.0 : 0.0;
+    }
+
+    /** @param a Value
+     *  @param b Value
+     *  @return 1 if a < b, else 0
+     */
+    public static double lessThan(final double a, final double b)
+    {
+        return (a < b) ? 1.0 : 0.0;
+    }
+
+    /** @param a Value
+     *  @param b Value
+     *  @return 1 if a <= b, else 0
+     */
+    public static double lessEqual(final double a, final double b)
+    {
+        return (a <= b) ? 1.0 : 0.0;
+    }
+
+    /** @param a Value
+     *  @param b Value
+     *  @return 1 if a > b, else 0
+     */
+    public static double greaterThan(final double a, final double b)
+    {
+        return (a > b) ? 1.0 : 0.0;
+    }
+
+    /** @param a Value
+     *  @param b Value
+     *  @return 1 if a >= b, else 0
+     */
+    public static double greaterEqual(final double a, final double b)
+    {
+        return (a >= b) ? 1.0 : 0.0;
+    }
+
+    /** @param a Value
+     *  @return Random number between 0 and a
+     */
+    public static double rnd(final double a)
+    {
+        return a*Math.random();
+    }
+
+    /** @param result Minimum so far
+     *  @param value Next value
+     *  @return Updated minimum
+     */
+    public static double min(final double result, final double value)
+    {
+        return value < result ? value : result;
+    }
+
+    /** @param result Maximum so far
+     *  @param value Next value
+     *  @return Updated maximum
+     */
+    public static double max(final double result, final double value)
+    {
+        return value > result ? value : result;
+    }
+
+    /** @param a Value
+     *  @return Value rounded to closest integer
+     */
+    public static double round(final double a)
+    {
+        return Math.round(a);
+    }
+}
@@ -27,4 +27,19 @@ public interface Node
      *  @return <code>true</code> if given node name was found under this one.
      */
     public boolean hasSubnode(String name);
+
+    /** Add instructions that compute the value of this node
+     *  to a compiled formula.
+     *
+     *  <p>By default, the compiled formula calls {@link #eval()},
+     *  which is only possible for nodes that don't use any variables.
+     *  Nodes should override this to add their operations.
+     *
+     *  @param compiler {@link FormulaCompiler}
+     *  @throws IllegalArgumentException if node cannot be compiled
+     */
+    default public void compile(final FormulaCompiler compiler)
+    {
+        compiler.addNode(this);
+    }
 }
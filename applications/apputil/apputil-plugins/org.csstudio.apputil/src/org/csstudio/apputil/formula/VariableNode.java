@@ -70,6 +70,13 @@ public class VariableNode implements Node
         return this.name.equals(name);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void compile(final FormulaCompiler compiler)
+    {
+        compiler.addVariable(this);
+    }
+
     @Override
     public String toString()
     {
@@ -7,6 +7,7 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import org.csstudio.apputil.formula.FormulaCompiler;
 import org.csstudio.apputil.formula.Node;
 
 /** Abstract base for binary nodes.
@@ -37,4 +38,16 @@ abstract class AbstractBinaryNode implements Node
     {
         return left.hasSubnode(name) || right.hasSubnode(name);
     }
+
+    /** @return Operation for compiled formula */
+    abstract FormulaCompiler.Operation getOperation();
+
+    /** {@inheritDoc} */
+    @Override
+    public void compile(final FormulaCompiler compiler)
+    {
+        left.compile(compiler);
+        right.compile(compiler);
+        compiler.addOperation(getOperation());
+    }
 }
@@ -7,6 +7,7 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import org.csstudio.apputil.formula.FormulaCompiler;
 import org.csstudio.apputil.formula.Node;
 
 /** Abstract base for unary nodes.
@@ -34,4 +35,15 @@ abstract class AbstractUnaryNode implements Node
     {
         return n.hasSubnode(name);
     }
+
+    /** @return Operation for compiled formula */
+    abstract FormulaCompiler.Operation getOperation();
+
+    /** {@inheritDoc} */
+    @Override
+    public void compile(final FormulaCompiler compiler)
+    {
+        n.compile(compiler);
+        compiler.addOperation(getOperation());
+    }
 }
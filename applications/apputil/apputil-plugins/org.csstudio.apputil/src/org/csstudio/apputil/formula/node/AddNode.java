@@ -7,6 +7,7 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import org.csstudio.apputil.formula.FormulaCompiler;
 import org.csstudio.apputil.formula.Node;
 
 /** One computational node.
@@ -27,6 +28,12 @@ public class AddNode extends AbstractBinaryNode
         return a + b;
     }
 
+    @Override
+    FormulaCompiler.Operation getOperation()
+    {
+        return FormulaCompiler.Operation.ADD;
+    }
+
     @SuppressWarnings("nls")
     @Override
     public String toString()
@@ -7,6 +7,7 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import org.csstudio.apputil.formula.FormulaCompiler;
 import org.csstudio.apputil.formula.Node;
 
 /** One computational node.
@@ -41,6 +42,13 @@ public class ConstantNode implements Node
         return false;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void compile(final FormulaCompiler compiler)
+    {
+        compiler.addConstant(value);
+    }
+
     @Override
     public String toString()
     {
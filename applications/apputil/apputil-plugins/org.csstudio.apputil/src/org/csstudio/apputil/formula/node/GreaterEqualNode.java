@@ -7,6 +7,7 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import org.csstudio.apputil.formula.FormulaCompiler;
 import org.csstudio.apputil.formula.Node;
 
 /** One computational node.
@@ -27,6 +28,12 @@ public class GreaterEqualNode extends AbstractBinaryNode
         return (a >= b) ? 1.0 : 0.0;
     }
 
+    @Override
+    FormulaCompiler.Operation getOperation()
+    {
+        return FormulaCompiler.Operation.GREATER_EQUAL;
+    }
+
     @SuppressWarnings("nls")
     @Override
     public String toString()
@@ -7,6 +7,7 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import org.csstudio.apputil.formula.FormulaCompiler;
 import org.csstudio.apputil.formula.Node;
 
 /** One computational node.
@@ -48,6 +49,19 @@ public class IfNode implements Node
                no.hasSubnode(name);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void compile(final FormulaCompiler compiler)
+    {
+        cond.compile(compiler);
+        final int if_no = compiler.addJumpIfZero();
+        yes.compile(compiler);
+        final int done = compiler.addJump();
+        compiler.setJumpTarget(if_no);
+        no.compile(compiler);
+        compiler.setJumpTarget(done);
+    }
+
     @SuppressWarnings("nls")
     @Override
     public String toString()
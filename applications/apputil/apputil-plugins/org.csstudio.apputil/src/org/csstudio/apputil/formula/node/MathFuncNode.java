@@ -9,6 +9,7 @@ package org.csstudio.apputil.formula.node;
 
 import java.lang.reflect.Method;
 
+import org.csstudio.apputil.formula.FormulaCompiler;
 import org.csstudio.apputil.formula.Node;
 
 /** Node for evaluating any of the java.lang.Math.* functions
@@ -50,8 +51,9 @@ public class MathFuncNode implements Node
         try
         {
             Object result = method.invoke(null, arglist );
-            if (result instanceof Double)
-                return ((Double) result).doubleValue();
+            // Most return double, but round() returns long
+            if (result instanceof Number)
+                return ((Number) result).doubleValue();
         }
         catch (Exception e)
         {
@@ -80,6 +82,21 @@ public class MathFuncNode implements Node
         return false;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void compile(final FormulaCompiler compiler)
+    {
+        if (! compiler.hasFunction(function, args.length))
+        {   // Function without double arguments or result.
+            // Fails if this node uses variables.
+            compiler.addNode(this);
+            return;
+        }
+        for (Node arg : args)
+            arg.compile(compiler);
+        compiler.addFunction(function, args.length);
+    }
+
     @Override
     @SuppressWarnings("nls")
     public String toString()
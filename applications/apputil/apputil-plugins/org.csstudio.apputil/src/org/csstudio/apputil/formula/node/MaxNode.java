@@ -7,6 +7,7 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import org.csstudio.apputil.formula.FormulaCompiler;
 import org.csstudio.apputil.formula.Node;
 
 /** One computational node.
@@ -54,6 +55,15 @@ public class MaxNode implements Node
         return false;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void compile(final FormulaCompiler compiler)
+    {
+        for (Node arg : args)
+            arg.compile(compiler);
+        compiler.addMax(args.length);
+    }
+
     @SuppressWarnings("nls")
     @Override
     public String toString()
@@ -7,6 +7,7 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import org.csstudio.apputil.formula.FormulaCompiler;
 import org.csstudio.apputil.formula.Node;
 
 /** One computational node.
@@ -26,6 +27,12 @@ public class NotNode extends AbstractUnaryNode
         return (a != 0) ? 0.0 : 1.0;
     }
 
+    @Override
+    FormulaCompiler.Operation getOperation()
+    {
+        return FormulaCompiler.Operation.NOT;
+    }
+
     @SuppressWarnings("nls")
     @Override
     public String toString()
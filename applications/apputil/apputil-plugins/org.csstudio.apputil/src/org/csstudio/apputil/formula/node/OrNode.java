@@ -7,6 +7,7 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import org.csstudio.apputil.formula.FormulaCompiler;
 import org.csstudio.apputil.formula.Node;
 
 /** One computational node.
@@ -25,6 +26,12 @@ public class OrNode extends AbstractBinaryNode
         return (left.eval() != 0.0   ||   right.eval() != 0.0) ? 1.0 : 0.0;
     }
 
+    @Override
+    FormulaCompiler.Operation getOperation()
+    {
+        return FormulaCompiler.Operation.OR;
+    }
+
     @SuppressWarnings("nls")
     @Override
     public String toString()
@@ -7,6 +7,7 @@
  ******************************************************************************/
 package org.csstudio.apputil.formula.node;
 
+import org.csstudio.apputil.formula.FormulaCompiler;
 import org.csstudio.apputil.formula.Node;
 
 /** One computational node.
@@ -26,6 +27,12 @@ public class RndNode extends AbstractUnaryNode
         return a*Math.random();
     }
 
+    @Override
+    FormulaCompiler.Operation getOperation()
+    {
+        return FormulaCompiler.Operation.RND;
+    }
+
     @SuppressWarnings("nls")
     @Override
     public String toString()
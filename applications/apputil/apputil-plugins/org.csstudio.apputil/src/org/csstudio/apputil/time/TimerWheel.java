@@ -0,0 +1,364 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.apputil.time;
+
+import java.util.List;
+
+/** Hashed timer wheel
+ *
+ *  <p>Time is divided into ticks, and ticks into revolutions
+ *  of the wheel.
+ *  Each timer due within the current revolution is kept in the slot
+ *  for its due tick, in a doubly linked list.
+ *  Timers due in a later revolution are kept in a separate list
+ *  and moved into their slot when the wheel enters their revolution.
+ *  A bit mask of the occupied slots allows locating
+ *  the next due slot without visiting empty slots.
+ *
+ *  <p>A {@link Timer} can be re-scheduled,
+ *  so owners that repeatedly schedule the same item
+ *  allocate its timer once.
+ *  Scheduling and cancelling a timer are O(1).
+ *  Extracting due timers only visits the occupied slots
+ *  of the ticks that passed since the last call.
+ *  Timers due in later revolutions are visited
+ *  once per revolution.
+ *
+ *  <p>Times are in milliseconds from any non-negative origin,
+ *  for example system millis.
+ *
+ *  <p>Not thread-safe.
+ *
+ *  @param <T> Type of scheduled items
+ *  @author agent
+ */
+public class TimerWheel<T>
+{
+    /** Handle for a scheduled item
+     *
+     *  <p>May be scheduled again once it expired or was cancelled,
+     *  but only on the same wheel.
+     */
+    public static class Timer<T>
+    {
+        final private T item;
+        private long due_time = -1;
+        private long due_tick = -1;
+        private Timer<T> prev = null, next = null;
+        private int slot = -1;
+
+        /** @param item Item to schedule */
+        public Timer(final T item)
+        {
+            this.item = item;
+        }
+
+        /** @return Scheduled item */
+        public T getItem()
+        {
+            return item;
+        }
+
+        /** @return Due time in millis of the last schedule */
+        public long getDueTime()
+        {
+            return due_time;
+        }
+
+        /** @return <code>true</code> while scheduled */
+        public boolean isScheduled()
+        {
+            return slot >= 0;
+        }
+    }
+
+    /** Duration of one tick in millis */
+    final private long tick_millis;
+
+    /** Slots, each holding the head of a linked list.
+     *  The last element holds the timers due in later revolutions.
+     */
+    final private Timer<T>[] slots;
+
+    /** Mask to compute slot from tick */
+    final private int mask;
+
+    /** Index of the list for timers due in later revolutions */
+    final private int later;
+
+    /** Bit for each slot that holds timers */
+    final private long[] occupied;
+
+    /** Tick up to which timers have been extracted */
+    private long current_tick;
+
+    /** Number of scheduled timers */
+    private int size = 0;
+
+    /** Earliest due time in the list of later timers,
+     *  <code>Long.MAX_VALUE</code> when empty, -1 when it needs to be computed
+     */
+    private long later_due = Long.MAX_VALUE;
+
+    /** Create timer wheel
+     *  @param tick_millis Duration of one tick in millis
+     *  @param slot_count Number of slots, will be rounded up to a power of 2
+     *  @param now Current time in millis
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(final long tick_millis, final int slot_count, final long now)
+    {
+        if (tick_millis <= 0)
+            throw new IllegalArgumentException("Tick must be positive"); //$NON-NLS-1$
+        this.tick_millis = tick_millis;
+        int count = 1;
+        while (count < slot_count)
+            count <<= 1;
+        slots = new Timer[count + 1];
+        mask = count - 1;
+        later = count;
+        occupied = new long[(count + 63) / 64];
+        current_tick = now / tick_millis;
+    }
+
+    /** @return Number of scheduled timers */
+    public int size()
+    {
+        return size;
+    }
+
+    /** Schedule an item
+     *
+     *  <p>Allocates a new {@link Timer}.
+     *  To re-schedule the same item, keep its timer
+     *  and use {@link #schedule(Timer, long)}.
+     *
+     *  @param item Item to schedule
+     *  @param due_time Due time in millis
+     *  @return Timer that can be used to cancel
+     */
+    public Timer<T> schedule(final T item, final long due_time)
+    {
+        return schedule(new Timer<>(item), due_time);
+    }
+
+    /** Schedule a timer.
+     *  If the timer is already scheduled, it is moved to the new due time.
+     *  @param timer Timer of this wheel
+     *  @param due_time Due time in millis
+     *  @return The timer
+     */
+    public Timer<T> schedule(final Timer<T> timer, final long due_time)
+    {
+        if (timer.isScheduled())
+            cancel(timer);
+        timer.due_time = due_time;
+        timer.due_tick = due_time / tick_millis;
+        insert(timer);
+        ++size;
+        return timer;
+    }
+
+    /** Cancel a timer
+     *  @param timer Timer to cancel
+     *  @return <code>true</code> if timer was scheduled
+     */
+    public boolean cancel(final Timer<T> timer)
+    {
+        if (! timer.isScheduled())
+            return false;
+        if (timer.slot == later  &&  timer.due_time == later_due)
+            later_due = -1;
+        unlink(timer);
+        --size;
+        return true;
+    }
+
+    /** Remove all timers */
+    public void clear()
+    {
+        for (int i=0; i<slots.length; ++i)
+        {
+            Timer<T> timer = slots[i];
+            while (timer != null)
+            {
+                final Timer<T> next = timer.next;
+                timer.slot = -1;
+                timer.prev = timer.next = null;
+                timer = next;
+            }
+            slots[i] = null;
+        }
+        for (int i=0; i<occupied.length; ++i)
+            occupied[i] = 0;
+        size = 0;
+        later_due = Long.MAX_VALUE;
+    }
+
+    /** Add timer to its slot or the list of later timers
+     *  @param timer Timer that's not linked
+     */
+    private void insert(final Timer<T> timer)
+    {
+        final int slot;
+        if (timer.due_tick > (current_tick | mask))
+        {
+            slot = later;
+            if (later_due >= 0  &&  timer.due_time < later_due)
+                later_due = timer.due_time;
+        }
+        else
+        {   // Timers that are already due go into the current slot
+            slot = (int) (Math.max(timer.due_tick, current_tick) & mask);
+            occupied[slot >>> 6] |= 1L << slot;
+        }
+        timer.slot = slot;
+        timer.next = slots[slot];
+        if (timer.next != null)
+            timer.next.prev = timer;
+        slots[slot] = timer;
+    }
+
+    private void unlink(final Timer<T> timer)
+    {
+        if (timer.prev == null)
+        {
+            slots[timer.slot] = timer.next;
+            if (timer.next == null  &&  timer.slot != later)
+                occupied[timer.slot >>> 6] &= ~(1L << timer.slot);
+        }
+        else
+            timer.prev.next = timer.next;
+        if (timer.next != null)
+            timer.next.prev = timer.prev;
+        timer.prev = timer.next = null;
+        timer.slot = -1;
+    }
+
+    /** @param from Slot index
+     *  @return First occupied slot at or after <code>from</code>, -1 if none
+     */
+    private int nextOccupied(final int from)
+    {
+        if (from > mask)
+            return -1;
+        int word = from >>> 6;
+        long bits = occupied[word] & (-1L << from);
+        while (bits == 0)
+        {
+            if (++word >= occupied.length)
+                return -1;
+            bits = occupied[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /** @return Earliest due time of the later timers, <code>Long.MAX_VALUE</code> if none */
+    private long getLaterDueTime()
+    {
+        if (later_due < 0)
+        {
+            later_due = Long.MAX_VALUE;
+            for (Timer<T> timer = slots[later];  timer != null;  timer = timer.next)
+                later_due = Math.min(later_due, timer.due_time);
+        }
+        return later_due;
+    }
+
+    /** Move later timers that are due in the current revolution into their slot */
+    private void enterRevolution()
+    {
+        if (getLaterDueTime() / tick_millis > (current_tick | mask))
+            return;
+        later_due = Long.MAX_VALUE;
+        Timer<T> timer = slots[later];
+        while (timer != null)
+        {
+            final Timer<T> next = timer.next;
+            if (timer.due_tick <= (current_tick | mask))
+            {
+                unlink(timer);
+                insert(timer);
+            }
+            else
+                later_due = Math.min(later_due, timer.due_time);
+            timer = next;
+        }
+    }
+
+    /** Extract due items from slots of the current revolution
+     *  @param last_tick Last tick to check, within current revolution
+     *  @param now Current time in millis
+     *  @param due List to which due items are added
+     *  @return Number of items added
+     */
+    private int expireSlots(final long last_tick, final long now, final List<T> due)
+    {
+        final int last = (int) (last_tick & mask);
+        int count = 0;
+        for (int slot = nextOccupied((int) (current_tick & mask));
+             slot >= 0  &&  slot <= last;
+             slot = nextOccupied(slot + 1))
+        {
+            Timer<T> timer = slots[slot];
+            while (timer != null)
+            {
+                final Timer<T> next = timer.next;
+                if (timer.due_time <= now)
+                {
+                    unlink(timer);
+                    --size;
+                    due.add(timer.item);
+                    ++count;
+                }
+                timer = next;
+            }
+        }
+        return count;
+    }
+
+    /** Extract due items
+     *  @param now Current time in millis
+     *  @param due List to which items with due time &le; <code>now</code> are added
+     *  @return Number of items added
+     */
+    public int expire(final long now, final List<T> due)
+    {
+        final long now_tick = now / tick_millis;
+        int count = 0;
+        while (true)
+        {
+            final long revolution_end = current_tick | mask;
+            count += expireSlots(Math.min(now_tick, revolution_end), now, due);
+            if (now_tick <= revolution_end)
+                break;
+            // All slots have been emptied.
+            // Advance to the next revolution that holds timers or 'now'
+            final long next_tick = Math.min(now_tick, getLaterDueTime() / tick_millis);
+            current_tick = Math.max(revolution_end + 1, next_tick & ~(long) mask);
+            enterRevolution();
+        }
+        // Remain on the current tick, it may hold items due later within the tick
+        if (now_tick > current_tick)
+            current_tick = now_tick;
+        return count;
+    }
+
+    /** @return Next due time in millis, <code>Long.MAX_VALUE</code> if nothing scheduled */
+    public long getNextDueTime()
+    {
+        final int slot = nextOccupied((int) (current_tick & mask));
+        if (slot < 0)
+            return getLaterDueTime();
+        // Timers in a slot share the due tick, except for overdue timers
+        long result = Long.MAX_VALUE;
+        for (Timer<T> timer = slots[slot];  timer != null;  timer = timer.next)
+            result = Math.min(result, timer.due_time);
+        return result;
+    }
+}
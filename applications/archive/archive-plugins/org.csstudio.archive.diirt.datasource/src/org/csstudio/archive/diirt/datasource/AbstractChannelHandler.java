@@ -21,6 +21,8 @@ import java.util.logging.Logger;
 import org.csstudio.archive.reader.ArchiveReader;
 import org.csstudio.archive.reader.ArchiveRepository;
 import org.csstudio.archive.reader.UnknownChannelException;
+import org.csstudio.archive.reader.ValueBlock;
+import org.csstudio.archive.reader.ValueBlockIterator;
 import org.csstudio.archive.reader.ValueIterator;
 import org.diirt.datasource.MultiplexedChannelHandler;
 import org.diirt.datasource.ValueCache;
@@ -116,24 +118,40 @@ public abstract class AbstractChannelHandler extends MultiplexedChannelHandler<B
         boolean channelFound = false;
         for (ArchiveSource as : sources) {
             ArchiveReader archive = ArchiveRepository.getInstance().getArchiveReader(as.url);
-            ValueIterator iterator;
+            ValueBlockIterator blocks;
             try {
-                iterator = archive.getRawValues(as.key, strippedName, time, time);
+                blocks = archive.getRawBlocks(as.key, strippedName, time, time, ValueBlock.DEFAULT_SIZE);
             } catch (UnknownChannelException e) {
                 continue;
             }
             channelFound = true;
-            VType temp = null;
             VType value = null;
             Instant t = null;
-            while (iterator.hasNext()) {
-                // find the first value that has a timestamp greater than start
-                temp = iterator.next();
-                if (((Time) temp).getTimestamp().compareTo(time) > 0) {
-                    break;
+            try {
+                // scan the time stamp columns, only the last matching sample of a block is turned into a VType
+                while (blocks.hasNext()) {
+                    ValueBlock block = blocks.next();
+                    long[] seconds = block.getSeconds();
+                    int[] nanos = block.getNanos();
+                    int last = -1;
+                    for (int i = 0; i < block.size(); i++) {
+                        // find the first value that has a timestamp greater than start
+                        if (seconds[i] > time.getEpochSecond()
+                            || (seconds[i] == time.getEpochSecond() && nanos[i] > time.getNano())) {
+                            break;
+                        }
+                        last = i;
+                    }
+                    if (last >= 0) {
+                        value = block.toVType(last);
+                        t = block.getTime(last);
+                    }
+                    if (last < block.size() - 1) {
+                        break;
+                    }
                 }
-                value = temp;
-                t = ((Time) temp).getTimestamp();
+            } finally {
+                blocks.close();
             }
             // value is the last value with a timestamp smaller than the requested time
             if (value != null) {
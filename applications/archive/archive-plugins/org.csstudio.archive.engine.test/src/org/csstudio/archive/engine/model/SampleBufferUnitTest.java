@@ -8,9 +8,22 @@
 package org.csstudio.archive.engine.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.csstudio.archive.vtype.ArchiveVNumber;
+import org.csstudio.archive.vtype.ArchiveVString;
+import org.csstudio.archive.vtype.MetaDataHelper;
 import org.csstudio.archive.vtype.VTypeHelper;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.Display;
 import org.diirt.vtype.VType;
+import org.diirt.vtype.ValueFactory;
 import org.junit.Test;
 
 /** JUnit test of the {@link SampleBuffer}
@@ -53,6 +66,67 @@ public class SampleBufferUnitTest
         assertEquals(1.0, VTypeHelper.toDouble(value), 0.01);
     }
 
+    /** Scalar 'double' samples are restored from primitive slots */
+    @Test
+    public void testPrimitiveSlots()
+    {
+        final Instant time = Instant.ofEpochSecond(1234567890L, 123456789);
+        buffer.add(new ArchiveVNumber(time, AlarmSeverity.MAJOR, "HIHI", TestHelper.display, 3.14));
+        final VType value = buffer.remove();
+        assertEquals(time, VTypeHelper.getTimestamp(value));
+        assertEquals(AlarmSeverity.MAJOR, VTypeHelper.getSeverity(value));
+        assertEquals("HIHI", VTypeHelper.getMessage(value));
+        assertEquals(3.14, VTypeHelper.toDouble(value), 0.0);
+        assertTrue(MetaDataHelper.equals(TestHelper.display, value));
+        assertNull(buffer.remove());
+    }
+
+    /** Other samples are kept as objects, in order with primitive samples */
+    @Test
+    public void testObjectSlots()
+    {
+        final VType text = new ArchiveVString(Instant.now(), AlarmSeverity.NONE, "OK", "Text");
+        final VType integer = new ArchiveVNumber(Instant.now(), AlarmSeverity.NONE, "OK", TestHelper.display, 42);
+        buffer.add(TestHelper.newValue(1));
+        buffer.add(text);
+        buffer.add(integer);
+        buffer.add(TestHelper.newValue(2));
+        assertEquals(1.0, VTypeHelper.toDouble(buffer.remove()), 0.01);
+        assertSame(text, buffer.remove());
+        assertSame(integer, buffer.remove());
+        assertEquals(2.0, VTypeHelper.toDouble(buffer.remove()), 0.01);
+    }
+
+    /** Remove samples in bulk */
+    @Test
+    public void testDrain()
+    {
+        for (int i=0; i<buffer.getCapacity() + 5; ++i)
+            buffer.add(TestHelper.newValue(i));
+        assertEquals(5, buffer.getBufferStats().getOverruns());
+
+        final List<VType> samples = new ArrayList<>();
+        assertEquals(4, buffer.drainTo(samples, 4));
+        assertEquals(6, buffer.getQueueSize());
+        assertEquals(buffer.getCapacity() - 4, buffer.drainTo(samples, 100));
+        assertEquals(0, buffer.drainTo(samples, 100));
+        assertEquals(buffer.getCapacity(), samples.size());
+        // Oldest 5 samples were dropped by overrun
+        for (int i=0; i<samples.size(); ++i)
+            assertEquals(i + 5.0, VTypeHelper.toDouble(samples.get(i)), 0.01);
+    }
+
+    /** Check that changed meta data is kept per sample */
+    @Test
+    public void testMetaDataChange()
+    {
+        final Display other = ValueFactory.newDisplay(0.0, 1.0, 2.0, "Ham", TestHelper.display.getFormat(), 8.0, 9.0, 10.0, 0.0, 10.0);
+        buffer.add(TestHelper.newValue(1));
+        buffer.add(new ArchiveVNumber(Instant.now(), AlarmSeverity.NONE, "OK", other, 2.0));
+        assertEquals("Eggs", ((Display) buffer.remove()).getUnits());
+        assertEquals("Ham", ((Display) buffer.remove()).getUnits());
+    }
+
     final private static long TEST_RUNS = 1000L;
 
     class FillThread extends Thread
@@ -101,4 +175,38 @@ public class SampleBufferUnitTest
             Thread.sleep(50);
         }
     }
+
+    /** Remove while the producer overruns the buffer:
+     *  Samples must arrive in order, and every sample
+     *  is either removed or counted as overrun.
+     */
+    @Test(timeout=30000)
+    public void testOverrunThreads() throws Exception
+    {
+        final long count = 1000000;
+        final Thread fill = new Thread(() ->
+        {
+            for (long i=1; i<=count; ++i)
+                buffer.add(TestHelper.newValue(i));
+        });
+        fill.start();
+
+        final List<VType> samples = new ArrayList<>();
+        long removed = 0;
+        double last = 0;
+        while (fill.isAlive()  ||  buffer.getQueueSize() > 0)
+        {
+            buffer.drainTo(samples, 3);
+            for (VType sample : samples)
+            {
+                final double value = VTypeHelper.toDouble(sample);
+                assertTrue(value > last);
+                last = value;
+            }
+            removed += samples.size();
+            samples.clear();
+        }
+        fill.join();
+        assertEquals(count, removed + buffer.getBufferStats().getOverruns());
+    }
 }
@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.csstudio.archive.engine.model.SpillJournal.SpilledSample;
+import org.csstudio.archive.vtype.ArchiveVEnum;
+import org.csstudio.archive.vtype.ArchiveVNumberArray;
+import org.csstudio.archive.vtype.ArchiveVString;
+import org.csstudio.archive.vtype.VTypeHelper;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.Display;
+import org.diirt.vtype.VEnum;
+import org.diirt.vtype.VNumberArray;
+import org.diirt.vtype.VString;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/** JUnit test of the {@link SpillJournal}
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class SpillJournalUnitTest
+{
+    private File directory;
+
+    @Before
+    public void setup() throws Exception
+    {
+        directory = Files.createTempDirectory("spill").toFile();
+    }
+
+    @After
+    public void cleanup()
+    {
+        for (File file : directory.listFiles())
+            file.delete();
+        directory.delete();
+    }
+
+    /** Samples of various types survive the journal */
+    @Test
+    public void testTypes() throws Exception
+    {
+        final SpillJournal journal = new SpillJournal(directory, 1024*1024, 64*1024);
+        assertTrue(journal.append("a", null, TestHelper.newValue(3.14)));
+        final Instant now = Instant.now();
+        assertTrue(journal.append("b", "short", new ArchiveVString(now, AlarmSeverity.MINOR, "LOW", "Text")));
+        assertTrue(journal.append("c", null, new ArchiveVEnum(now, AlarmSeverity.NONE, "OK", Arrays.asList("Off", "On"), 1)));
+        assertTrue(journal.append("d", null, new ArchiveVNumberArray(now, AlarmSeverity.NONE, "OK", TestHelper.display, 1.0, 2.0, 3.0)));
+        assertEquals(4, journal.getPendingCount());
+
+        final List<SpilledSample> samples = journal.read(10);
+        assertEquals(4, samples.size());
+        SpilledSample sample = samples.get(0);
+        assertEquals("a", sample.getChannelName());
+        assertNull(sample.getRetention());
+        assertEquals(3.14, VTypeHelper.toDouble(sample.getSample()), 0.0);
+        assertEquals("Eggs", ((Display) sample.getSample()).getUnits());
+
+        sample = samples.get(1);
+        assertEquals("short", sample.getRetention());
+        assertEquals("Text", ((VString) sample.getSample()).getValue());
+        assertEquals(AlarmSeverity.MINOR, VTypeHelper.getSeverity(sample.getSample()));
+        assertEquals("LOW", VTypeHelper.getMessage(sample.getSample()));
+        assertEquals(now, VTypeHelper.getTimestamp(sample.getSample()));
+
+        assertEquals("On", ((VEnum) samples.get(2).getSample()).getValue());
+        assertEquals(3, ((VNumberArray) samples.get(3).getSample()).getData().size());
+
+        journal.commit();
+        assertEquals(0, journal.getPendingCount());
+        assertTrue(journal.read(10).isEmpty());
+    }
+
+    /** Rollback, recovery after restart */
+    @Test
+    public void testRecovery() throws Exception
+    {
+        SpillJournal journal = new SpillJournal(directory, 1024*1024, 4*1024);
+        for (int i=0; i<100; ++i)
+            assertTrue(journal.append("x", null, TestHelper.newValue(i)));
+        // Several segments
+        assertTrue(journal.getDiskUsage() > 4*1024);
+
+        // Read, but don't commit
+        assertEquals(10, journal.read(10).size());
+        journal.rollback();
+        List<SpilledSample> samples = journal.read(10);
+        assertEquals(0.0, VTypeHelper.toDouble(samples.get(0).getSample()), 0.0);
+        journal.commit();
+        assertEquals(90, journal.getPendingCount());
+
+        // Read without commit, then 'crash'
+        assertEquals(50, journal.read(50).size());
+        journal.close();
+
+        // Recover those samples that were not committed
+        journal = new SpillJournal(directory, 1024*1024, 4*1024);
+        assertEquals(90, journal.getPendingCount());
+        samples = journal.read(1000);
+        assertEquals(90, samples.size());
+        for (int i=0; i<samples.size(); ++i)
+            assertEquals(i + 10.0, VTypeHelper.toDouble(samples.get(i).getSample()), 0.0);
+        journal.commit();
+        assertEquals(0, journal.getPendingCount());
+        journal.close();
+
+        // Completed segments were deleted
+        assertTrue(directory.listFiles().length <= 1);
+    }
+
+    /** Several threads append, each thread's samples stay in order */
+    @Test
+    public void testConcurrentAppend() throws Exception
+    {
+        final SpillJournal journal = new SpillJournal(directory, 16*1024*1024, 64*1024);
+        final int threads = 4, count = 2000;
+        final List<Thread> appenders = new ArrayList<>();
+        for (int t=0; t<threads; ++t)
+        {
+            final String name = "pv" + t;
+            appenders.add(new Thread(() ->
+            {
+                for (int i=0; i<count; ++i)
+                    assertTrue(journal.append(name, null, TestHelper.newValue(i)));
+            }));
+        }
+        for (Thread thread : appenders)
+            thread.start();
+        for (Thread thread : appenders)
+            thread.join();
+        assertEquals(threads * count, journal.getPendingCount());
+
+        final int[] next = new int[threads];
+        List<SpilledSample> samples;
+        int total = 0;
+        while (! (samples = journal.read(1000)).isEmpty())
+        {
+            for (SpilledSample sample : samples)
+            {
+                final int t = Integer.parseInt(sample.getChannelName().substring(2));
+                assertEquals(next[t]++, VTypeHelper.toDouble(sample.getSample()), 0.0);
+            }
+            total += samples.size();
+            journal.commit();
+        }
+        assertEquals(threads * count, total);
+
+        // Journal files can be removed
+        journal.delete();
+        assertFalse(directory.exists());
+        directory.mkdirs();
+    }
+
+    /** Disk usage is limited */
+    @Test
+    public void testLimit() throws Exception
+    {
+        final SpillJournal journal = new SpillJournal(directory, 8*1024, 4*1024);
+        int added = 0;
+        while (journal.append("x", null, TestHelper.newValue(added)))
+            ++added;
+        assertTrue(added > 0);
+        assertEquals(1, journal.getDroppedCount());
+        assertEquals(8*1024, journal.getDiskUsage());
+        assertFalse(journal.append("x", null, TestHelper.newValue(-1)));
+
+        // After replay, there's room again
+        assertEquals(added, journal.read(added).size());
+        journal.commit();
+        assertTrue(journal.append("x", null, TestHelper.newValue(-1)));
+    }
+}
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/** JUnit test of the {@link WriteController}
+ *  @author agent
+ */
+public class WriteControllerUnitTest
+{
+    /** Fixed configuration ignores buffer state */
+    @Test
+    public void testFixed()
+    {
+        final WriteController control = new WriteController(30.0, 500, 0.0);
+        control.update(1.0, 100, 2.0);
+        assertEquals(30.0, control.getPeriod(), 0.01);
+        assertEquals(500, control.getBatchSize());
+    }
+
+    /** Speed up on overruns and full buffers, back off when idle */
+    @Test
+    public void testAdaptive()
+    {
+        final WriteController control = new WriteController(30.0, 500, 60.0);
+        control.update(0.2, 0, 1.0);
+        assertEquals(30.0, control.getPeriod(), 0.01);
+
+        // Overruns
+        control.update(0.2, 10, 1.0);
+        assertEquals(15.0, control.getPeriod(), 0.01);
+        assertEquals(1000, control.getBatchSize());
+        System.out.println(control);
+
+        // Full buffers
+        control.update(0.8, 10, 1.0);
+        assertEquals(7.5, control.getPeriod(), 0.01);
+        assertEquals(2000, control.getBatchSize());
+        System.out.println(control);
+
+        // Can't get faster than minimum, batches don't grow forever
+        for (int i=0; i<20; ++i)
+            control.update(1.0, 10, 1.0);
+        assertEquals(WriteController.MIN_ADAPTIVE_PERIOD, control.getPeriod(), 0.01);
+        assertEquals(8*500, control.getBatchSize());
+        System.out.println(control);
+
+        // Idle: Back to configured values
+        for (int i=0; i<20; ++i)
+            control.update(0.0, 10, 1.0);
+        assertEquals(30.0, control.getPeriod(), 0.01);
+        assertEquals(500, control.getBatchSize());
+        System.out.println(control);
+    }
+
+    /** Period limited by latency */
+    @Test
+    public void testLatency()
+    {
+        final WriteController control = new WriteController(30.0, 500, 10.0);
+        control.update(0.2, 0, 2.0);
+        assertEquals(8.0, control.getPeriod(), 0.01);
+        assertTrue(control.getDecision().contains("latency"));
+        System.out.println(control);
+    }
+}
@@ -11,6 +11,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 import org.csstudio.apputil.time.BenchmarkTimer;
 import org.junit.Test;
 
@@ -198,4 +203,61 @@ public class ScannerUnitTest
 
         System.out.format("Idle: %.2f %%\n", scanner.getIdlePercentage());
     }
+
+    /** A slow item only delays the scans of its own chunk */
+    @Test
+    public void testSlowChunk() throws Exception
+    {
+        final CountDownLatch release = new CountDownLatch(1);
+        final ScanList list = new ScanList(fast_period);
+        list.add(() ->
+        {
+            try
+            {
+                release.await();
+            }
+            catch (InterruptedException ex)
+            {
+                // Ignore
+            }
+        });
+        final ScanItem[] others = new ScanItem[2 * ScanList.CHUNK_SIZE];
+        for (int i=0; i<others.length; ++i)
+        {
+            others[i] = new ScanItem("Item" + i)
+            {
+                @Override
+                public void run()
+                {
+                    synchronized (this)
+                    {
+                        ++scans;
+                    }
+                }
+            };
+            list.add(others[i]);
+        }
+
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        for (int scan=1; scan<=3; ++scan)
+        {
+            list.scanItems(executor, null);
+            Thread.sleep(200);
+        }
+        // First chunk is stuck in its first scan, the others were scanned each time
+        assertEquals(2, list.getSkippedScans());
+        assertEquals(0, others[0].scans);
+        assertEquals(3, others[ScanList.CHUNK_SIZE].scans);
+        assertEquals(3, others[others.length - 1].scans);
+
+        // Once the slow item completes, its chunk is scanned again
+        release.countDown();
+        Thread.sleep(200);
+        assertEquals(1, others[0].scans);
+        list.scanItems(executor, null);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(2, others[0].scans);
+        assertEquals(2, list.getSkippedScans());
+    }
 }
@@ -44,8 +44,17 @@ public class Messages
     final public static String HTTP_QueueMax = "Queue Max.";
     final public static String HTTP_QueueCapacity = "Capacity";
     final public static String HTTP_QueueOverruns = "Overruns";
+    final public static String HTTP_QueueFill = "Queue Fill";
+    final public static String HTTP_OverrunRate = "Overrun Rate";
     final public static String HTTP_ReceivedValues = "Received Values";
+    final public static String HTTP_ScanLateness = "Scan Lateness";
+    final public static String HTTP_ScanLists = "Scan Lists";
+    final public static String HTTP_ScanPeriod = "Scan Period";
+    final public static String HTTP_ScanSkipped = "Skipped Chunk Scans";
+    final public static String HTTP_ScanThreads = "Scan Threads";
     final public static String HTTP_StartTime = "Start Time";
+    final public static String HTTP_SpillDropped = "Spill Dropped";
+    final public static String HTTP_SpillPending = "Spilled Samples";
     final public static String HTTP_State = "State";
     final public static String HTTP_Status = "Status";
     final public static String HTTP_Total = "Total";
@@ -57,4 +66,8 @@ public class Messages
     final public static String HTTP_WriteError = "Write Error";
     final public static String HTTP_WritePeriod = "Write Period";
     final public static String HTTP_WriteState = "Write State";
+    final public static String HTTP_WriteDecision = "Write Decision";
+    final public static String HTTP_WriteLatency = "Max. Write Latency";
+    final public static String HTTP_Writer = "Writer";
+    final public static String HTTP_Writers = "Write Threads";
 }
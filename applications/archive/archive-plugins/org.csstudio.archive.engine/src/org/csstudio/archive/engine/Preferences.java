@@ -49,6 +49,60 @@ public class Preferences
         return prefs.getInt(Activator.ID, "batch_size", batch_size, null);
     }
 
+    public static double getMaxWriteLatency()
+    {
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        final double max_write_latency = 0.0;
+        if (prefs == null)
+            return max_write_latency;
+        return prefs.getDouble(Activator.ID, "max_write_latency", max_write_latency, null);
+    }
+
+    public static int getWriteThreads()
+    {
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        final int write_threads = 1;
+        if (prefs == null)
+            return write_threads;
+        return prefs.getInt(Activator.ID, "write_threads", write_threads, null);
+    }
+
+    public static int getScanThreads()
+    {
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        final int scan_threads = 2;
+        if (prefs == null)
+            return scan_threads;
+        return prefs.getInt(Activator.ID, "scan_threads", scan_threads, null);
+    }
+
+    public static String getSpillDirectory()
+    {
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        final String spill_directory = "";
+        if (prefs == null)
+            return spill_directory;
+        return prefs.getString(Activator.ID, "spill_directory", spill_directory, null).trim();
+    }
+
+    public static int getSpillSizeMB()
+    {
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        final int spill_size = 1024;
+        if (prefs == null)
+            return spill_size;
+        return prefs.getInt(Activator.ID, "spill_size", spill_size, null);
+    }
+
+    public static double getSpillReplayRate()
+    {
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        final double spill_replay_rate = 10000.0;
+        if (prefs == null)
+            return spill_replay_rate;
+        return prefs.getDouble(Activator.ID, "spill_replay_rate", spill_replay_rate, null);
+    }
+
     public static double getBufferReserve()
     {
         final IPreferencesService prefs = Platform.getPreferencesService();
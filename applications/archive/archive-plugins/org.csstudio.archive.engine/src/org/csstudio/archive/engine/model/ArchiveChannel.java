@@ -486,8 +486,9 @@ abstract public class ArchiveChannel extends PVListenerAdapter
             }
             // else ...
             last_archived_value = value;
+            // Add while holding the lock: Buffer allows only one producer at a time
+            buffer.add(value);
         }
-        buffer.add(value);
         if (SampleBuffer.isInErrorState())
             need_write_error_sample = true;
         return true;
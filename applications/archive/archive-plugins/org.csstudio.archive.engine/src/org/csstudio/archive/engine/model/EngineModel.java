@@ -7,11 +7,14 @@
  ******************************************************************************/
 package org.csstudio.archive.engine.model;
 
+import java.io.File;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.logging.Level;
 
 import org.csstudio.archive.config.ArchiveConfig;
 import org.csstudio.archive.config.ChannelConfig;
@@ -40,8 +43,19 @@ public class EngineModel
     /** Name of this model */
     private String name = "Archive Engine";  //$NON-NLS-1$
 
-    /** Thread that writes to the <code>archive</code> */
-    final private WriteThread writer;
+    /** Threads that write to the <code>archive</code>,
+     *  each handling a subset of the channels.
+     *  <p>
+     *  Created in <code>start()</code>, replaced (not modified) to allow
+     *  access by HTTPD without locking.
+     */
+    private volatile List<WriteThread> writers = Collections.emptyList();
+
+    /** Journals for samples that overflow while the writers have errors, one per write thread.
+     *  Empty when spilling is disabled.
+     *  Replaced (not modified) like <code>writers</code>.
+     */
+    private volatile List<SpillJournal> spill_journals = Collections.emptyList();
 
     /** All the channels.
      *  <p>
@@ -62,7 +76,7 @@ public class EngineModel
     final List<ArchiveGroup> groups = new ArrayList<ArchiveGroup>();
 
     /** Scanner for scanned channels */
-    final Scanner scanner = new Scanner();
+    final Scanner scanner = new Scanner(Scanner.DEFAULT_IDLE_DELAY, Preferences.getScanThreads());
 
     /** Thread that runs the scanner */
     final ScanThread scan_thread = new ScanThread(scanner);
@@ -97,6 +111,27 @@ public class EngineModel
     /** Write batch size */
     final private static int batch_size = Preferences.getBatchSize();
 
+    /** Maximum latency from sample arrival to commit, 0 for fixed write period */
+    final private static double max_write_latency = Preferences.getMaxWriteLatency();
+
+    /** Directory for spill journals, empty if disabled */
+    final private static String spill_directory = Preferences.getSpillDirectory();
+
+    /** Maximum disk usage of all spill journals in bytes */
+    final private static long spill_size = Preferences.getSpillSizeMB() * 1024L * 1024L;
+
+    /** Size of each spill journal file in bytes */
+    final private static int SPILL_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /** Prefix for the spill journal sub-directory of each write thread */
+    final private static String SPILL_SHARD_PREFIX = "writer"; //$NON-NLS-1$
+
+    /** Maximum number of spilled samples to replay per second */
+    final private static double spill_replay_rate = Preferences.getSpillReplayRate();
+
+    /** Number of write threads */
+    final private static int write_threads = Preferences.getWriteThreads();
+
     /** Buffer reserve (N times what's ideally needed) */
     final private static double buffer_reserve = Preferences.getBufferReserve();
 
@@ -106,7 +141,6 @@ public class EngineModel
     /** Construct model that writes to archive */
     public EngineModel()
     {
-        writer = new WriteThread();
     }
 
     /** @return Name (description) */
@@ -133,6 +167,18 @@ public class EngineModel
         return batch_size;
     }
 
+    /** @return Maximum latency from sample arrival to commit in seconds, 0 for fixed write period */
+    public double getMaxWriteLatency()
+    {
+        return max_write_latency;
+    }
+
+    /** @return Write threads of the running model */
+    public List<WriteThread> getWriteThreads()
+    {
+        return writers;
+    }
+
     /** @return Current model state */
     public State getState()
     {
@@ -299,7 +345,6 @@ public class EngineModel
             channels.add(channel);
             channel_by_name.put(channel.getName(), channel);
         }
-        writer.addChannel(channel);
 
         // Connect new or old channel to group
         channel.addGroup(group);
@@ -313,7 +358,7 @@ public class EngineModel
     {
         start_time = Instant.now();
         state = State.RUNNING;
-        writer.start(write_period, batch_size);
+        startWriters();
         for (ArchiveGroup group : groups)
         {
             group.start();
@@ -326,22 +371,136 @@ public class EngineModel
         scan_thread.start();
     }
 
-    /** @return Timestamp of end of last write run */
+    /** @return Journals for samples that overflow while the writers have errors, empty if disabled */
+    public List<SpillJournal> getSpillJournals()
+    {
+        return spill_journals;
+    }
+
+    /** Create write threads, distribute channels, start writing */
+    @SuppressWarnings("nls")
+    private void startWriters() throws Exception
+    {
+        final List<ArchiveChannel> all;
+        synchronized (this)
+        {
+            all = new ArrayList<ArchiveChannel>(channels);
+        }
+        final int N = Math.max(1, Math.min(write_threads, all.size()));
+        final List<WriteThread> shards = new ArrayList<WriteThread>(N);
+        if (N == 1)
+            shards.add(new WriteThread());
+        else
+            for (int i=0; i<N; ++i)
+                shards.add(new WriteThread("WriteThread " + (i+1)));
+        for (int i=0; i<all.size(); ++i)
+            shards.get(i % N).addChannel(all.get(i));
+        if (! spill_directory.isEmpty())
+            startSpillJournals(shards);
+        writers = Collections.unmodifiableList(shards);
+        for (WriteThread writer : shards)
+            writer.start(write_period, batch_size, max_write_latency);
+    }
+
+    /** Create one spill journal per write thread.
+     *  <p>
+     *  Each write thread spills and replays the samples of its own channels.
+     *  Samples recovered from a previous run with a different number
+     *  of write threads are moved to the journal of the thread
+     *  that now handles their channel.
+     *  @param shards Write threads
+     *  @throws Exception on error
+     */
+    @SuppressWarnings("nls")
+    private void startSpillJournals(final List<WriteThread> shards) throws Exception
+    {
+        final File directory = new File(spill_directory);
+        final long shard_size = spill_size / shards.size();
+        final int segment_size = (int) Math.min(SPILL_SEGMENT_SIZE, shard_size);
+        final Map<String, WriteThread> owners = new HashMap<>();
+        final List<SpillJournal> journals = new ArrayList<>(shards.size());
+        final List<File> used = new ArrayList<>(shards.size());
+        for (int i=0; i<shards.size(); ++i)
+        {
+            final WriteThread shard = shards.get(i);
+            for (String name : shard.getChannelNames())
+                owners.put(name, shard);
+            final File shard_directory = new File(directory, SPILL_SHARD_PREFIX + (i+1));
+            used.add(shard_directory);
+            journals.add(new SpillJournal(shard_directory, shard_size, segment_size));
+        }
+        final Map<String, WriteThread> routes = Collections.unmodifiableMap(owners);
+        for (int i=0; i<shards.size(); ++i)
+            shards.get(i).setSpillJournal(journals.get(i), spill_replay_rate, routes);
+
+        // Journal files of write threads that no longer exist,
+        // or from a single journal directly in the spill directory
+        final List<File> orphans = new ArrayList<>();
+        orphans.add(directory);
+        final File[] files = directory.listFiles((dir, name) -> name.startsWith(SPILL_SHARD_PREFIX));
+        if (files != null)
+            for (File file : files)
+                if (file.isDirectory()  &&  ! used.contains(file))
+                    orphans.add(file);
+        for (File orphan : orphans)
+        {
+            final SpillJournal journal = new SpillJournal(orphan, spill_size, segment_size);
+            if (journal.getPendingCount() <= 0)
+                continue;
+            long moved = 0, dropped = 0;
+            List<SpillJournal.SpilledSample> samples;
+            while (! (samples = journal.read(batch_size)).isEmpty())
+            {
+                for (SpillJournal.SpilledSample sample : samples)
+                {
+                    final WriteThread owner = owners.get(sample.getChannelName());
+                    if (owner != null  &&
+                        owner.getSpillJournal().append(sample.getChannelName(), sample.getRetention(), sample.getSample()))
+                        ++moved;
+                    else
+                        ++dropped;
+                }
+                journal.commit();
+            }
+            // Moved samples must be on disk before the orphaned files are removed
+            for (SpillJournal shard_journal : journals)
+                shard_journal.close();
+            journal.delete();
+            Activator.getLogger().log(Level.INFO, "Moved {0} spilled samples from {1}, dropped {2}",
+                                      new Object[] { moved, orphan, dropped });
+        }
+        spill_journals = Collections.unmodifiableList(journals);
+    }
+
+    /** @return Timestamp of end of last write run, most recent of all write threads */
     public Instant getLastWriteTime()
     {
-        return writer.getLastWriteTime();
+        Instant last = null;
+        for (WriteThread writer : writers)
+        {
+            final Instant time = writer.getLastWriteTime();
+            if (time != null  &&  (last == null  ||  time.isAfter(last)))
+                last = time;
+        }
+        return last;
     }
 
-    /** @return Average number of values per write run */
+    /** @return Average number of values per write run, total of all write threads */
     public double getWriteCount()
     {
-        return writer.getWriteCount();
+        double count = 0;
+        for (WriteThread writer : writers)
+            count += writer.getWriteCount();
+        return count;
     }
 
-    /** @return  Average duration of write run in seconds */
+    /** @return  Average duration of write run in seconds, longest of all write threads */
     public double getWriteDuration()
     {
-        return writer.getWriteDuration();
+        double duration = 0;
+        for (WriteThread writer : writers)
+            duration = Math.max(duration, writer.getWriteDuration());
+        return duration;
     }
 
     /** @see Scanner#getIdlePercentage() */
@@ -350,6 +509,12 @@ public class EngineModel
         return scanner.getIdlePercentage();
     }
 
+    /** @return Scanner for scanned channels */
+    public Scanner getScanner()
+    {
+        return scanner;
+    }
+
     /** Ask the model to stop.
      *  Merely updates the model state.
      *  @see #getState()
@@ -374,7 +539,8 @@ public class EngineModel
     /** Reset engine statistics */
     public void reset()
     {
-        writer.reset();
+        for (WriteThread writer : writers)
+            writer.reset();
         scanner.reset();
         synchronized (this)
         {
@@ -399,7 +565,25 @@ public class EngineModel
             group.stop();
         // Flush all values out
         Activator.getLogger().info("Stopping writer");
-        writer.shutdown();
+        Exception error = null;
+        for (WriteThread writer : writers)
+        {
+            try
+            {
+                writer.shutdown();
+            }
+            catch (Exception ex)
+            {   // Still stop remaining writers, then report first error
+                if (error == null)
+                    error = ex;
+            }
+        }
+        writers = Collections.emptyList();
+        for (SpillJournal journal : spill_journals)
+            journal.close();
+        spill_journals = Collections.emptyList();
+        if (error != null)
+            throw error;
         // Update state
         state = State.IDLE;
         start_time = null;
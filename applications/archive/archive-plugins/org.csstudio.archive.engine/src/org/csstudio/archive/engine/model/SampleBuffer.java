@@ -7,17 +7,48 @@
  ******************************************************************************/
 package org.csstudio.archive.engine.model;
 
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
-import org.csstudio.apputil.ringbuffer.RingBuffer;
 import org.csstudio.archive.engine.ThrottledLogger;
+import org.csstudio.archive.vtype.ArchiveVNumber;
+import org.csstudio.archive.vtype.MetaDataHelper;
+import org.csstudio.archive.vtype.VTypeHelper;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.Display;
+import org.diirt.vtype.VNumber;
 import org.diirt.vtype.VType;
+import org.diirt.vtype.ValueFactory;
 
 /** Buffer for the samples of one channel.
  *  <p>
- *  Assumes that one thread adds samples, while a different
+ *  Assumes that one thread at a time adds samples, while a different
  *  thread removes them.
+ *  The {@link ArchiveChannel} serializes calls to {@link #add(VType)}.
  *  When the queue size is reached, older samples get dropped.
+ *  <p>
+ *  The buffer is a lock-free single-producer/single-consumer ring.
+ *  The producer publishes new samples by advancing the write index,
+ *  the consumer claims samples by advancing the read index.
+ *  On overrun, the producer drops the oldest sample by also
+ *  advancing the read index, which is why the consumer claims
+ *  samples via compare-and-set and retries when it lost a sample
+ *  to an overrun.
+ *  <p>
+ *  Scalar numeric samples with a 'double' value are stored in
+ *  parallel primitive arrays for time stamp, severity, status and value,
+ *  sharing one {@link Display} instance as long as the meta data
+ *  does not change.
+ *  All other samples (arrays, strings, enums, ...) are kept as objects.
+ *  <p>
+ *  While the write threads are in error state, samples that would be
+ *  dropped on overrun are moved to the optional {@link SpillJournal}
+ *  of the write thread that handles this buffer.
  *
  *  @author Kay Kasemir
  */
@@ -34,8 +65,41 @@ public class SampleBuffer
      */
     final private String retention;
 
-    /** The actual samples in a thread-save queue. */
-    final private RingBuffer<VType> samples;
+    /** Maximum number of samples in buffer */
+    final private int capacity;
+
+    /** Index of the next sample to remove.
+     *  Advanced by the consumer, and by the producer on overrun.
+     */
+    final private AtomicLong read_index = new AtomicLong();
+
+    /** Index of the next sample to add.
+     *  Only advanced by the producer.
+     */
+    final private AtomicLong write_index = new AtomicLong();
+
+    /** Samples that are kept as objects, <code>null</code> for primitive slots */
+    final private VType[] objects;
+
+    /** Meta data of primitive slots.
+     *  Slot content is published to the consumer via the write index.
+     */
+    final private Display[] displays;
+
+    /** Time stamps of primitive slots, epoch nanoseconds */
+    final private long[] stamps;
+
+    /** Severity ordinals of primitive slots */
+    final private byte[] severities;
+
+    /** Status codes of primitive slots, see {@link #getStatusCode(String)} */
+    final private short[] stati;
+
+    /** Values of primitive slots */
+    final private double[] values;
+
+    /** Meta data of the most recent primitive sample, only used by producer */
+    private Display display = null;
 
     /** Statistics */
     final private BufferStats stats = new BufferStats();
@@ -47,10 +111,25 @@ public class SampleBuffer
     final private static ThrottledLogger overrun_msg =
         new ThrottledLogger(Level.WARNING, "log_overrun"); //$NON-NLS-1$
 
-    /** Is the buffer in an error state because of RDB write errors?
+    /** Number of write threads in error state because of RDB write errors.
+     *  The buffer is in error state while any write thread has errors.
      *  Note that this is global for all buffers, not per instance!
      */
-    private static volatile boolean error = false;
+    final private static AtomicInteger errors = new AtomicInteger();
+
+    /** Journal for samples that would otherwise be dropped while in error state, or <code>null</code> */
+    private volatile SpillJournal spill_journal = null;
+
+    /** Severities by ordinal */
+    final private static AlarmSeverity[] SEVERITIES = AlarmSeverity.values();
+
+    /** Codes for alarm status strings, shared by all buffers */
+    final private static ConcurrentHashMap<String, Short> status_codes = new ConcurrentHashMap<>();
+
+    /** Alarm status strings by code.
+     *  SYNC: Replaced (not modified) while holding lock on <code>status_codes</code>
+     */
+    private static volatile String[] status_names = new String[0];
 
     /** Create sample buffer of given capacity
      * @deprecated Use {@link #SampleBuffer(String,String,int)} instead*/
@@ -65,7 +144,13 @@ public class SampleBuffer
     {
         this.channel_name = channel_name;
         this.retention = retention;
-        samples = new RingBuffer<VType>(capacity);
+        this.capacity = capacity;
+        objects = new VType[capacity];
+        displays = new Display[capacity];
+        stamps = new long[capacity];
+        severities = new byte[capacity];
+        stati = new short[capacity];
+        values = new double[capacity];
     }
 
     /** @return channel name of this buffer */
@@ -83,61 +168,222 @@ public class SampleBuffer
     /** @return Queue capacity, i.e. maximum queue size. */
     public int getCapacity()
     {
-        synchronized (samples)
-        {
-            return samples.getCapacity();
-        }
+        return capacity;
     }
 
     /** @return Current queue size, i.e. number of samples in the queue. */
     public int getQueueSize()
     {
-        synchronized (samples)
-        {
-            return samples.size();
-        }
+        // Snapshot without lock, may be outdated as soon as it's returned
+        final long read = read_index.get();
+        final long size = write_index.get() - read;
+        if (size < 0)
+            return 0;
+        return (int) Math.min(size, capacity);
     }
 
     /** @return <code>true</code> if currently experiencing write errors */
     public static boolean isInErrorState()
     {
-        return error;
+        return errors.get() > 0;
     }
 
-    /** Set the error state. */
+    /** Update the error state.
+     *  <p>
+     *  Each write thread must only call this when
+     *  its own error state changes.
+     *  @param error <code>true</code> when a write thread enters error state,
+     *               <code>false</code> when it recovers
+     */
     static void setErrorState(final boolean error)
     {
-        SampleBuffer.error = error;
+        if (error)
+            errors.incrementAndGet();
+        else
+            errors.decrementAndGet();
+    }
+
+    /** @param journal Journal for samples that overflow while in error state, or <code>null</code> */
+    void setSpillJournal(final SpillJournal journal)
+    {
+        spill_journal = journal;
     }
 
-    /** Add a sample to the queue, maybe dropping older samples */
+    /** Add a sample to the queue, maybe dropping older samples
+     *  <p>
+     *  Not synchronized: Only one thread at a time may add samples.
+     *  Channels that add e.g. 'disconnected' or 'off' samples from
+     *  another thread must serialize the calls.
+     */
     @SuppressWarnings("nls")
     void add(final VType value)
     {
-        synchronized (samples)
-        {
-            if (samples.isFull())
-            {   // Note start of overruns, then drop older sample
+        final long write = write_index.get();
+        final long read = read_index.get();
+        if (write - read >= capacity)
+        {   // Note start of overruns, then drop older sample.
+            // If the consumer removed it in the meantime, there is no overrun.
+            // While the writer has errors, spill the older sample.
+            final SpillJournal journal = spill_journal;
+            final VType oldest = (journal != null  &&  isInErrorState()) ? get(read) : null;
+            if (read_index.compareAndSet(read, read + 1)  &&
+                (oldest == null  ||  ! journal.append(channel_name, retention, oldest)))
+            {
                 if (start_of_overruns == null)
                     start_of_overruns = Integer.valueOf(stats.getOverruns());
                 stats.addOverrun();
             }
-            else if (start_of_overruns != null)
-            {   // Ending a string of overruns. Maybe log it.
-                final int overruns = stats.getOverruns() - start_of_overruns;
-                overrun_msg.log(channel_name + ": " + overruns + " overruns");
-                start_of_overruns = null;
-            }
-            samples.add(value);
         }
+        else if (start_of_overruns != null)
+        {   // Ending a string of overruns. Maybe log it.
+            final int overruns = stats.getOverruns() - start_of_overruns;
+            overrun_msg.log(channel_name + ": " + overruns + " overruns");
+            start_of_overruns = null;
+        }
+
+        final int slot = (int) (write % capacity);
+        if (isPrimitive(value))
+        {
+            final Instant time = VTypeHelper.getTimestamp(value);
+            objects[slot] = null;
+            displays[slot] = getDisplay((Display) value);
+            stamps[slot] = time.getEpochSecond() * 1000000000L + time.getNano();
+            severities[slot] = (byte) VTypeHelper.getSeverity(value).ordinal();
+            stati[slot] = getStatusCode(VTypeHelper.getMessage(value));
+            values[slot] = ((VNumber) value).getValue().doubleValue();
+        }
+        else
+            objects[slot] = value;
+        // Publish the sample to the consumer
+        write_index.lazySet(write + 1);
+    }
+
+    /** @param value Sample
+     *  @return <code>true</code> if sample can be kept in primitive slot
+     */
+    private static boolean isPrimitive(final VType value)
+    {
+        return value instanceof VNumber  &&
+               ((VNumber) value).getValue() instanceof Double;
+    }
+
+    /** @param sample_display Meta data of a new sample
+     *  @return Shared copy of that meta data
+     */
+    private Display getDisplay(final Display sample_display)
+    {
+        if (display == null  ||  ! MetaDataHelper.equals(display, sample_display))
+            display = ValueFactory.newDisplay(sample_display.getLowerDisplayLimit(),
+                    sample_display.getLowerAlarmLimit(),
+                    sample_display.getLowerWarningLimit(),
+                    sample_display.getUnits(),
+                    sample_display.getFormat(),
+                    sample_display.getUpperWarningLimit(),
+                    sample_display.getUpperAlarmLimit(),
+                    sample_display.getUpperDisplayLimit(),
+                    sample_display.getLowerCtrlLimit(),
+                    sample_display.getUpperCtrlLimit());
+        return display;
+    }
+
+    /** @param status Alarm status string
+     *  @return Code for that status
+     */
+    private static short getStatusCode(final String status)
+    {
+        final Short code = status_codes.get(status);
+        if (code != null)
+            return code;
+        synchronized (status_codes)
+        {
+            final Short existing = status_codes.get(status);
+            if (existing != null)
+                return existing;
+            final String[] names = status_names;
+            if (names.length >= Short.MAX_VALUE)
+                throw new IllegalStateException("Too many alarm status strings"); //$NON-NLS-1$
+            final String[] extended = Arrays.copyOf(names, names.length + 1);
+            extended[names.length] = status;
+            // Publish name before code
+            status_names = extended;
+            status_codes.put(status, (short) names.length);
+            return (short) names.length;
+        }
+    }
+
+    /** @param code Status code
+     *  @return Alarm status string
+     */
+    private static String getStatus(final short code)
+    {
+        final String[] names = status_names;
+        // Code from a slot that was overwritten while being read
+        // could be unknown; sample will be ignored anyway
+        if (code < 0  ||  code >= names.length)
+            return ""; //$NON-NLS-1$
+        return names[code];
+    }
+
+    /** Read sample from slot.
+     *  <p>
+     *  Caller must afterwards confirm that the slot was not
+     *  overwritten by the producer while it was read.
+     *  @param index Read index of sample
+     *  @return Sample
+     */
+    private VType get(final long index)
+    {
+        final int slot = (int) (index % capacity);
+        final VType object = objects[slot];
+        if (object != null)
+            return object;
+        final long nanos = stamps[slot];
+        final Instant time = Instant.ofEpochSecond(Math.floorDiv(nanos, 1000000000L),
+                                                   Math.floorMod(nanos, 1000000000L));
+        return new ArchiveVNumber(time,
+                SEVERITIES[severities[slot] & 0xFF],
+                getStatus(stati[slot]),
+                displays[slot],
+                values[slot]);
     }
 
     /** @return latest sample in queue or <code>null</code> if empty */
     VType remove()
     {
-        synchronized (samples)
+        while (true)
+        {
+            final long read = read_index.get();
+            if (read >= write_index.get())
+                return null;
+            final VType sample = get(read);
+            if (read_index.compareAndSet(read, read + 1))
+                return sample;
+            // else: Producer dropped that sample on overrun, try next one
+        }
+    }
+
+    /** Remove samples in bulk
+     *  <p>
+     *  Claims all samples with one update of the read index.
+     *  @param samples List to which removed samples are appended, oldest first
+     *  @param max_count Maximum number of samples to remove
+     *  @return Number of samples that were removed
+     */
+    int drainTo(final List<? super VType> samples, final int max_count)
+    {
+        final int start = samples.size();
+        while (true)
         {
-            return samples.remove();
+            final long read = read_index.get();
+            final int count = (int) Math.min(write_index.get() - read, max_count);
+            if (count <= 0)
+                return 0;
+            for (int i=0; i<count; ++i)
+                samples.add(get(read + i));
+            if (read_index.compareAndSet(read, read + count))
+                return count;
+            // Producer dropped the oldest sample(s) on overrun, try again
+            samples.subList(start, samples.size()).clear();
         }
     }
 
@@ -0,0 +1,683 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.text.NumberFormat;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+import org.csstudio.archive.engine.Activator;
+import org.csstudio.archive.vtype.ArchiveVEnum;
+import org.csstudio.archive.vtype.ArchiveVNumber;
+import org.csstudio.archive.vtype.ArchiveVNumberArray;
+import org.csstudio.archive.vtype.ArchiveVString;
+import org.csstudio.archive.vtype.VTypeHelper;
+import org.diirt.util.array.ListNumber;
+import org.diirt.util.text.NumberFormats;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.Display;
+import org.diirt.vtype.VEnum;
+import org.diirt.vtype.VNumber;
+import org.diirt.vtype.VNumberArray;
+import org.diirt.vtype.VString;
+import org.diirt.vtype.VType;
+import org.diirt.vtype.ValueFactory;
+
+/** Append-only journal for samples that overflow the {@link SampleBuffer}s
+ *  while the write threads cannot reach the archive.
+ *  <p>
+ *  Samples are appended to memory-mapped segment files.
+ *  Each record is
+ *  <pre>
+ *  int length, int CRC32, byte[length] payload
+ *  </pre>
+ *  where a length of 0 marks the end of data in a segment.
+ *  The header of each segment holds the position of the first sample
+ *  that has not been replayed, which is updated on {@link #commit()}.
+ *  Segments that have been replayed completely are deleted.
+ *  <p>
+ *  When opening an existing journal directory, for example after
+ *  an engine crash, all segments are scanned and remaining samples
+ *  are again available for replay. Samples that were replayed
+ *  but not yet committed when the engine crashed will be replayed again.
+ *  <p>
+ *  Total disk usage is limited. When the limit is reached,
+ *  new samples are dropped.
+ *  <p>
+ *  Samples are encoded by the calling thread before taking the lock,
+ *  which is only held to copy the record into the segment.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class SpillJournal
+{
+    /** Sample that was read from the journal */
+    public static class SpilledSample
+    {
+        final private String channel_name;
+        final private String retention;
+        final private VType sample;
+
+        SpilledSample(final String channel_name, final String retention, final VType sample)
+        {
+            this.channel_name = channel_name;
+            this.retention = retention;
+            this.sample = sample;
+        }
+
+        /** @return Channel name */
+        public String getChannelName()
+        {
+            return channel_name;
+        }
+
+        /** @return Data retention policy, may be <code>null</code> */
+        public String getRetention()
+        {
+            return retention;
+        }
+
+        /** @return Sample */
+        public VType getSample()
+        {
+            return sample;
+        }
+    }
+
+    /** One memory-mapped file of the journal */
+    private static class Segment
+    {
+        final File file;
+        final MappedByteBuffer buffer;
+        /** Position of first sample that was not replayed, as committed */
+        int read_position;
+        /** Position for next sample */
+        int write_position;
+
+        Segment(final File file, final MappedByteBuffer buffer)
+        {
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+
+    final private static int MAGIC = 0x53504C4A; // 'SPLJ'
+    final private static int VERSION = 1;
+    final private static int HEADER_SIZE = 16;
+    final private static int READ_POSITION_OFFSET = 8;
+    final private static int RECORD_HEADER_SIZE = 8;
+
+    final private static String PREFIX = "spill-";
+    final private static String SUFFIX = ".dat";
+
+    final private static byte TYPE_DOUBLE = 1;
+    final private static byte TYPE_LONG = 2;
+    final private static byte TYPE_ENUM = 3;
+    final private static byte TYPE_STRING = 4;
+    final private static byte TYPE_ARRAY = 5;
+
+    final private static AlarmSeverity[] SEVERITIES = AlarmSeverity.values();
+
+    /** Directory for the segment files */
+    final private File directory;
+
+    /** Size of each segment file */
+    final private int segment_size;
+
+    /** Maximum number of segment files */
+    final private int max_segments;
+
+    /** Segments, oldest first.
+     *  SYNC: All access synchronized on <code>this</code>
+     */
+    final private LinkedList<Segment> segments = new LinkedList<>();
+
+    /** Sequence number for the next segment file */
+    private long next_sequence = 0;
+
+    /** Segment and position of next sample to replay */
+    private Segment read_segment;
+    private int read_position;
+
+    /** Number of samples read since last commit */
+    private int uncommitted = 0;
+
+    /** Number of samples that have not been committed as replayed */
+    private long pending = 0;
+
+    /** Number of samples dropped because journal was full */
+    private long dropped = 0;
+
+    /** Buffer and checksum for encoding samples, one per appending thread */
+    private static class Encoder
+    {
+        ByteBuffer encoded = ByteBuffer.allocate(1024);
+        final CRC32 crc = new CRC32();
+    }
+
+    final private static ThreadLocal<Encoder> encoders = ThreadLocal.withInitial(Encoder::new);
+
+    /** Checksum for reading records.
+     *  SYNC: Used while holding lock on <code>this</code>
+     */
+    final private CRC32 crc = new CRC32();
+
+    /** Open journal, recovering samples from existing segment files
+     *  @param directory Directory for segment files, will be created if necessary
+     *  @param max_size Maximum total size of the segment files in bytes
+     *  @param segment_size Size of each segment file in bytes
+     *  @throws Exception on error
+     */
+    public SpillJournal(final File directory, final long max_size, final int segment_size) throws Exception
+    {
+        if (segment_size <= HEADER_SIZE + RECORD_HEADER_SIZE)
+            throw new IllegalArgumentException("Segment size " + segment_size + " too small");
+        this.directory = directory;
+        this.segment_size = segment_size;
+        this.max_segments = (int) Math.max(1, max_size / segment_size);
+        if (! directory.isDirectory()  &&  ! directory.mkdirs())
+            throw new IOException("Cannot create spill directory " + directory);
+        recover();
+    }
+
+    /** Recover segments from disk */
+    private synchronized void recover() throws Exception
+    {
+        final File[] files = directory.listFiles((dir, name) -> name.startsWith(PREFIX)  &&  name.endsWith(SUFFIX));
+        if (files == null)
+            throw new IOException("Cannot list spill directory " + directory);
+        // Zero-padded sequence number in name, so files sort by age
+        Arrays.sort(files);
+        for (File file : files)
+        {
+            final long sequence = Long.parseLong(file.getName().substring(PREFIX.length(),
+                                                 file.getName().length() - SUFFIX.length()));
+            next_sequence = Math.max(next_sequence, sequence + 1);
+            final Segment segment = new Segment(file, map(file));
+            if (segment.buffer.getInt(0) != MAGIC  ||  segment.buffer.getInt(4) != VERSION)
+            {
+                Activator.getLogger().log(Level.WARNING, "Ignoring invalid spill file {0}", file);
+                continue;
+            }
+            segment.read_position = segment.buffer.getInt(READ_POSITION_OFFSET);
+            // Locate end of valid records
+            int position = HEADER_SIZE;
+            int count = 0;
+            while (true)
+            {
+                final int length = checkRecord(segment.buffer, position);
+                if (length <= 0)
+                    break;
+                if (position >= segment.read_position)
+                    ++count;
+                position += RECORD_HEADER_SIZE + length;
+            }
+            segment.write_position = position;
+            if (count <= 0)
+            {
+                delete(segment);
+                continue;
+            }
+            segments.add(segment);
+            pending += count;
+        }
+        if (pending > 0)
+            Activator.getLogger().log(Level.INFO, "Recovered {0} samples from spill journal {1}",
+                                      new Object[] { pending, directory });
+        rewind();
+    }
+
+    /** @param file Segment file
+     *  @return Memory-mapped buffer for the file
+     *  @throws IOException on error
+     */
+    private MappedByteBuffer map(final File file) throws IOException
+    {
+        try
+        (
+            final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+            final FileChannel channel = raf.getChannel();
+        )
+        {   // Mapping remains valid after channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segment_size);
+        }
+    }
+
+    /** @param buffer Segment buffer
+     *  @param position Position of a record
+     *  @return Length of a valid record at that position, 0 for end of data
+     */
+    private int checkRecord(final ByteBuffer buffer, final int position)
+    {
+        if (position + RECORD_HEADER_SIZE > segment_size)
+            return 0;
+        final int length = buffer.getInt(position);
+        if (length <= 0  ||  position + RECORD_HEADER_SIZE + length > segment_size)
+            return 0;
+        final ByteBuffer payload = buffer.duplicate();
+        payload.position(position + RECORD_HEADER_SIZE);
+        payload.limit(position + RECORD_HEADER_SIZE + length);
+        crc.reset();
+        crc.update(payload);
+        if ((int) crc.getValue() != buffer.getInt(position + 4))
+            return 0;
+        return length;
+    }
+
+    /** @param segment Segment to delete */
+    private void delete(final Segment segment)
+    {
+        if (! segment.file.delete())
+            Activator.getLogger().log(Level.WARNING, "Cannot delete spill file {0}", segment.file);
+    }
+
+    /** @return Number of samples in journal that have not been replayed */
+    public synchronized long getPendingCount()
+    {
+        return pending;
+    }
+
+    /** @return Number of samples that were dropped because the journal was full */
+    public synchronized long getDroppedCount()
+    {
+        return dropped;
+    }
+
+    /** @return Disk space used by the journal in bytes */
+    public synchronized long getDiskUsage()
+    {
+        return (long) segments.size() * segment_size;
+    }
+
+    /** Append sample to journal
+     *  @param channel_name Channel name
+     *  @param retention Data retention policy, may be <code>null</code>
+     *  @param sample Sample to add
+     *  @return <code>true</code> if sample was added, <code>false</code> if journal is full
+     */
+    public boolean append(final String channel_name, final String retention, final VType sample)
+    {
+        // Encode and compute checksum without holding the lock
+        final Encoder encoder = encoders.get();
+        try
+        {
+            encode(encoder, channel_name, retention, sample);
+        }
+        catch (Exception ex)
+        {
+            Activator.getLogger().log(Level.WARNING, "Cannot spill sample of " + channel_name, ex);
+            drop();
+            return false;
+        }
+        final ByteBuffer encoded = encoder.encoded;
+        final int length = encoded.position();
+        final int size = RECORD_HEADER_SIZE + length;
+        if (HEADER_SIZE + size > segment_size)
+        {
+            Activator.getLogger().log(Level.WARNING, "Sample of {0} exceeds spill segment size", channel_name);
+            drop();
+            return false;
+        }
+        encoded.flip();
+        encoder.crc.reset();
+        encoder.crc.update(encoded.duplicate());
+        final int checksum = (int) encoder.crc.getValue();
+
+        Segment completed = null;
+        synchronized (this)
+        {
+            Segment segment = segments.peekLast();
+            if (segment == null  ||  segment.write_position + size > segment_size)
+            {
+                if (segments.size() >= max_segments)
+                {
+                    ++dropped;
+                    return false;
+                }
+                completed = segment;
+                try
+                {
+                    segment = createSegment();
+                }
+                catch (Exception ex)
+                {
+                    Activator.getLogger().log(Level.WARNING, "Cannot create spill file", ex);
+                    ++dropped;
+                    return false;
+                }
+            }
+            // Write payload, then CRC, finally the length that makes the record valid
+            final int position = segment.write_position;
+            final ByteBuffer target = segment.buffer.duplicate();
+            target.position(position + RECORD_HEADER_SIZE);
+            target.put(encoded);
+            segment.buffer.putInt(position + 4, checksum);
+            segment.buffer.putInt(position, length);
+            segment.write_position += size;
+            ++pending;
+            if (read_segment == null)
+                rewind();
+        }
+        // Previous segment is complete, make sure it's on disk
+        if (completed != null)
+            completed.buffer.force();
+        return true;
+    }
+
+    /** Count a dropped sample */
+    private synchronized void drop()
+    {
+        ++dropped;
+    }
+
+    /** @return New, empty segment that's been added to the list
+     *  @throws IOException on error
+     */
+    private Segment createSegment() throws IOException
+    {
+        final File file = new File(directory, String.format("%s%016d%s", PREFIX, next_sequence++, SUFFIX));
+        final Segment segment = new Segment(file, map(file));
+        segment.buffer.putInt(0, MAGIC);
+        segment.buffer.putInt(4, VERSION);
+        segment.buffer.putInt(READ_POSITION_OFFSET, HEADER_SIZE);
+        segment.read_position = segment.write_position = HEADER_SIZE;
+        segments.add(segment);
+        return segment;
+    }
+
+    /** Read samples for replay
+     *  <p>
+     *  Samples remain in the journal until {@link #commit()}.
+     *  @param max_count Maximum number of samples to read
+     *  @return Samples, sorted by time stamp
+     */
+    public synchronized List<SpilledSample> read(final int max_count)
+    {
+        final List<SpilledSample> result = new ArrayList<>();
+        while (read_segment != null  &&  result.size() < max_count)
+        {
+            if (read_position >= read_segment.write_position)
+            {   // Move to next segment, unless this is the segment still being written
+                final int index = segments.indexOf(read_segment);
+                if (index < 0  ||  index >= segments.size() - 1)
+                    break;
+                read_segment = segments.get(index + 1);
+                read_position = read_segment.read_position;
+                continue;
+            }
+            final int length = read_segment.buffer.getInt(read_position);
+            final ByteBuffer payload = read_segment.buffer.duplicate();
+            payload.position(read_position + RECORD_HEADER_SIZE);
+            payload.limit(read_position + RECORD_HEADER_SIZE + length);
+            read_position += RECORD_HEADER_SIZE + length;
+            ++uncommitted;
+            try
+            {
+                result.add(decode(payload));
+            }
+            catch (Exception ex)
+            {
+                Activator.getLogger().log(Level.WARNING, "Cannot decode spilled sample", ex);
+            }
+        }
+        // Stable sort: Samples of each channel already are in time order
+        result.sort((a, b) -> VTypeHelper.getTimestamp(a.sample).compareTo(VTypeHelper.getTimestamp(b.sample)));
+        return result;
+    }
+
+    /** Mark samples returned by {@link #read(int)} as replayed */
+    public synchronized void commit()
+    {
+        if (read_segment == null)
+            return;
+        // Delete segments that were completely replayed
+        while (segments.peekFirst() != read_segment)
+            delete(segments.removeFirst());
+        read_segment.read_position = read_position;
+        read_segment.buffer.putInt(READ_POSITION_OFFSET, read_position);
+        read_segment.buffer.force();
+        pending -= uncommitted;
+        uncommitted = 0;
+        if (read_position >= read_segment.write_position  &&  segments.size() > 1)
+        {   // This segment is also done, and no longer written
+            delete(segments.removeFirst());
+            rewind();
+        }
+    }
+
+    /** Forget samples returned by {@link #read(int)}, so they will be read again */
+    public synchronized void rollback()
+    {
+        uncommitted = 0;
+        rewind();
+    }
+
+    /** Reset read position to the oldest segment's committed position */
+    private void rewind()
+    {
+        read_segment = segments.peekFirst();
+        read_position = read_segment == null ? 0 : read_segment.read_position;
+    }
+
+    /** Flush segments to disk */
+    public synchronized void close()
+    {
+        for (Segment segment : segments)
+            segment.buffer.force();
+    }
+
+    /** Delete all segment files and, if then empty, the directory.
+     *  <p>
+     *  Used once all samples of a journal have been moved elsewhere.
+     *  The journal must no longer be used afterwards.
+     */
+    public synchronized void delete()
+    {
+        for (Segment segment : segments)
+            delete(segment);
+        segments.clear();
+        rewind();
+        pending = uncommitted = 0;
+        // Fails if directory holds other files, which is fine
+        directory.delete();
+    }
+
+    /** Encode sample into the encoder's buffer */
+    private static void encode(final Encoder encoder, final String channel_name, final String retention, final VType sample) throws Exception
+    {
+        while (true)
+        {
+            final ByteBuffer encoded = encoder.encoded;
+            encoded.clear();
+            try
+            {
+                putString(encoded, channel_name);
+                putString(encoded, retention == null ? "" : retention);
+                encodeSample(encoded, sample);
+                return;
+            }
+            catch (BufferOverflowException ex)
+            {
+                encoder.encoded = ByteBuffer.allocate(encoded.capacity() * 2);
+            }
+        }
+    }
+
+    private static void encodeSample(final ByteBuffer encoded, final VType sample)
+    {
+        final Instant time = VTypeHelper.getTimestamp(sample);
+        if (sample instanceof VNumber)
+        {
+            final Number number = ((VNumber) sample).getValue();
+            if (number instanceof Double  ||  number instanceof Float)
+            {
+                encodeHeader(encoded, TYPE_DOUBLE, time, sample);
+                encodeDisplay(encoded, (Display) sample);
+                encoded.putDouble(number.doubleValue());
+            }
+            else
+            {
+                encodeHeader(encoded, TYPE_LONG, time, sample);
+                encodeDisplay(encoded, (Display) sample);
+                encoded.putLong(number.longValue());
+            }
+        }
+        else if (sample instanceof VNumberArray)
+        {
+            encodeHeader(encoded, TYPE_ARRAY, time, sample);
+            encodeDisplay(encoded, (Display) sample);
+            final ListNumber data = ((VNumberArray) sample).getData();
+            final int N = data.size();
+            encoded.putInt(N);
+            for (int i=0; i<N; ++i)
+                encoded.putDouble(data.getDouble(i));
+        }
+        else if (sample instanceof VEnum)
+        {
+            encodeHeader(encoded, TYPE_ENUM, time, sample);
+            final VEnum value = (VEnum) sample;
+            final List<String> labels = value.getLabels();
+            encoded.putInt(labels.size());
+            for (String label : labels)
+                putString(encoded, label);
+            encoded.putInt(value.getIndex());
+        }
+        else
+        {
+            encodeHeader(encoded, TYPE_STRING, time, sample);
+            putString(encoded, sample instanceof VString ? ((VString) sample).getValue() : sample.toString());
+        }
+    }
+
+    private static void encodeHeader(final ByteBuffer encoded, final byte type, final Instant time, final VType sample)
+    {
+        encoded.put(type);
+        encoded.putLong(time.getEpochSecond());
+        encoded.putInt(time.getNano());
+        encoded.put((byte) VTypeHelper.getSeverity(sample).ordinal());
+        putString(encoded, VTypeHelper.getMessage(sample));
+    }
+
+    private static void encodeDisplay(final ByteBuffer encoded, final Display display)
+    {
+        encoded.putDouble(toDouble(display.getLowerDisplayLimit()));
+        encoded.putDouble(toDouble(display.getLowerAlarmLimit()));
+        encoded.putDouble(toDouble(display.getLowerWarningLimit()));
+        encoded.putDouble(toDouble(display.getUpperWarningLimit()));
+        encoded.putDouble(toDouble(display.getUpperAlarmLimit()));
+        encoded.putDouble(toDouble(display.getUpperDisplayLimit()));
+        encoded.putDouble(toDouble(display.getLowerCtrlLimit()));
+        encoded.putDouble(toDouble(display.getUpperCtrlLimit()));
+        putString(encoded, display.getUnits() == null ? "" : display.getUnits());
+        final NumberFormat format = display.getFormat();
+        encoded.putInt(format == null ? -1 : format.getMaximumFractionDigits());
+    }
+
+    private static double toDouble(final Double value)
+    {
+        return value == null ? Double.NaN : value.doubleValue();
+    }
+
+    private static void putString(final ByteBuffer encoded, final String text)
+    {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        encoded.putInt(bytes.length);
+        encoded.put(bytes);
+    }
+
+    private static String getString(final ByteBuffer buffer)
+    {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** @param buffer Buffer positioned on payload of a record
+     *  @return {@link SpilledSample}
+     *  @throws BufferUnderflowException on error
+     */
+    private static SpilledSample decode(final ByteBuffer buffer) throws BufferUnderflowException
+    {
+        final String channel_name = getString(buffer);
+        final String retention = getString(buffer);
+        final byte type = buffer.get();
+        final Instant time = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+        final AlarmSeverity severity = SEVERITIES[buffer.get()];
+        final String status = getString(buffer);
+        final VType sample;
+        switch (type)
+        {
+        case TYPE_DOUBLE:
+            sample = new ArchiveVNumber(time, severity, status, decodeDisplay(buffer), buffer.getDouble());
+            break;
+        case TYPE_LONG:
+            sample = new ArchiveVNumber(time, severity, status, decodeDisplay(buffer), buffer.getLong());
+            break;
+        case TYPE_ARRAY:
+        {
+            final Display display = decodeDisplay(buffer);
+            final double[] data = new double[buffer.getInt()];
+            for (int i=0; i<data.length; ++i)
+                data[i] = buffer.getDouble();
+            sample = new ArchiveVNumberArray(time, severity, status, display, data);
+            break;
+        }
+        case TYPE_ENUM:
+        {
+            final int N = buffer.getInt();
+            final List<String> labels = new ArrayList<>(N);
+            for (int i=0; i<N; ++i)
+                labels.add(getString(buffer));
+            sample = new ArchiveVEnum(time, severity, status, labels, buffer.getInt());
+            break;
+        }
+        default:
+            sample = new ArchiveVString(time, severity, status, getString(buffer));
+        }
+        return new SpilledSample(channel_name, retention.isEmpty() ? null : retention, sample);
+    }
+
+    private static Display decodeDisplay(final ByteBuffer buffer)
+    {
+        final double lower_disp = buffer.getDouble();
+        final double lower_alarm = buffer.getDouble();
+        final double lower_warn = buffer.getDouble();
+        final double upper_warn = buffer.getDouble();
+        final double upper_alarm = buffer.getDouble();
+        final double upper_disp = buffer.getDouble();
+        final double lower_ctrl = buffer.getDouble();
+        final double upper_ctrl = buffer.getDouble();
+        final String units = getString(buffer);
+        final int precision = buffer.getInt();
+        return ValueFactory.newDisplay(lower_disp, lower_alarm, lower_warn, units,
+                precision < 0 ? null : NumberFormats.format(precision),
+                upper_warn, upper_alarm, upper_disp, lower_ctrl, upper_ctrl);
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return String.format("Spill journal %s: %d samples pending, %d dropped, %d segments",
+                             directory, pending, dropped, segments.size());
+    }
+}
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.model;
+
+/** Controller for the write period and batch size of a {@link WriteThread}
+ *  <p>
+ *  With a fixed configuration, the write thread simply uses the
+ *  configured period and batch size.
+ *  <p>
+ *  In adaptive mode, the period is shortened and the batches are enlarged
+ *  when the sample buffers fill up or overrun,
+ *  and when the time from sample arrival to commit would exceed
+ *  the maximum latency.
+ *  When the buffers are almost empty, the period and batch size
+ *  back off towards the configured values.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class WriteController
+{
+    /** Minimum write period in adaptive mode [seconds] */
+    final public static double MIN_ADAPTIVE_PERIOD = 1.0;
+
+    /** Buffer fill level above which writes speed up */
+    final private static double HIGH_FILL = 0.5;
+
+    /** Buffer fill level below which writes back off */
+    final private static double LOW_FILL = 0.1;
+
+    /** Maximum batch size as multiple of configured batch size */
+    final private static int MAX_BATCH_FACTOR = 8;
+
+    /** Configured, i.e. longest write period [seconds] */
+    final private double max_period;
+
+    /** Configured, i.e. smallest batch size */
+    final private int min_batch_size;
+
+    /** Maximum latency from sample arrival to commit [seconds], 0 for fixed period */
+    final private double max_latency;
+
+    /** Current period [seconds] */
+    private volatile double period;
+
+    /** Current batch size */
+    private volatile int batch_size;
+
+    /** Most recent buffer fill level 0..1 */
+    private volatile double fill = 0.0;
+
+    /** Most recent overrun rate [overruns/second] */
+    private volatile double overrun_rate = 0.0;
+
+    /** Description of the most recent decision */
+    private volatile String decision;
+
+    /** Overrun count at last update, or -1 */
+    private long last_overruns = -1;
+
+    /** Create controller
+     *  @param write_period Configured write period [seconds]
+     *  @param batch_size Configured batch size
+     *  @param max_latency Maximum latency from sample arrival to commit [seconds], 0 for fixed period
+     */
+    public WriteController(final double write_period, final int batch_size, final double max_latency)
+    {
+        this.max_period = write_period;
+        this.min_batch_size = batch_size;
+        this.max_latency = max_latency;
+        period = write_period;
+        this.batch_size = batch_size;
+        decision = isAdaptive() ? "Configured" : "Fixed";
+    }
+
+    /** @return <code>true</code> if period and batch size are adapted */
+    public boolean isAdaptive()
+    {
+        return max_latency > 0;
+    }
+
+    /** @return Maximum latency from sample arrival to commit [seconds], 0 for fixed period */
+    public double getMaxLatency()
+    {
+        return max_latency;
+    }
+
+    /** @return Current write period [seconds] */
+    public double getPeriod()
+    {
+        return period;
+    }
+
+    /** @return Current batch size */
+    public int getBatchSize()
+    {
+        return batch_size;
+    }
+
+    /** @return Most recent buffer fill level 0..1 */
+    public double getFill()
+    {
+        return fill;
+    }
+
+    /** @return Most recent overrun rate [overruns/second] */
+    public double getOverrunRate()
+    {
+        return overrun_rate;
+    }
+
+    /** @return Description of the most recent decision */
+    public String getDecision()
+    {
+        return decision;
+    }
+
+    /** Update period and batch size after a write run
+     *  @param fill Largest fill level 0..1 of the sample buffers before the write
+     *  @param overruns Total overrun count of the sample buffers
+     *  @param duration Duration of the write run [seconds]
+     */
+    public void update(final double fill, final long overruns, final double duration)
+    {
+        this.fill = fill;
+        // Overruns since last update. Negative after buffer stats were reset
+        final long new_overruns = last_overruns < 0 ? 0 : Math.max(0, overruns - last_overruns);
+        last_overruns = overruns;
+        overrun_rate = new_overruns / period;
+
+        if (! isAdaptive())
+            return;
+
+        double new_period = period;
+        int new_batch_size = batch_size;
+        final String reason;
+        if (new_overruns > 0  ||  fill >= HIGH_FILL)
+        {   // Speed up
+            new_period = period / 2;
+            new_batch_size = batch_size * 2;
+            if (new_overruns > 0)
+                reason = String.format("%d overruns", new_overruns);
+            else
+                reason = String.format("Buffers %.0f%% full", fill * 100.0);
+        }
+        else if (fill < LOW_FILL)
+        {   // Back off
+            new_period = period * 1.5;
+            new_batch_size = batch_size / 2;
+            reason = String.format("Buffers %.0f%% full, backing off", fill * 100.0);
+        }
+        else
+            reason = String.format("Buffers %.0f%% full", fill * 100.0);
+
+        // Samples may wait for one period, then the write itself
+        String limit = "";
+        if (new_period + duration > max_latency)
+        {
+            new_period = max_latency - duration;
+            limit = String.format(", limited by %.1f sec latency", max_latency);
+        }
+        if (new_period < MIN_ADAPTIVE_PERIOD)
+            new_period = MIN_ADAPTIVE_PERIOD;
+        if (new_period > max_period)
+            new_period = max_period;
+        new_batch_size = Math.max(min_batch_size, Math.min(new_batch_size, MAX_BATCH_FACTOR * min_batch_size));
+
+        period = new_period;
+        batch_size = new_batch_size;
+        decision = reason + limit;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%.1f sec, %d samples per batch: %s", period, batch_size, decision);
+    }
+}
@@ -9,6 +9,10 @@ package org.csstudio.archive.engine.model;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 
 import org.csstudio.apputil.time.BenchmarkTimer;
@@ -22,11 +26,16 @@ import org.diirt.vtype.VType;
 /** Thread that writes values from multiple <code>SampleBuffer</code>s
  *  to an <code>RDBArchiveServer</code>.
  *  <p>
+ *  The engine may use several write threads, each handling
+ *  a subset ('shard') of the sample buffers with its own
+ *  {@link ArchiveWriter}, so that one slow write does not
+ *  delay all channels.
+ *  <p>
  *  When there are write errors, it sets the sample buffer error state
  *  and tries to reconnect to the database and write again until successful.
  *  Since the Oracle batch mechanism doesn't tell us what exactly failed
  *  in a batch, all the samples that were part of the batch might
- *  be lost.
+ *  be lost, unless they can be moved to the {@link SpillJournal}.
  *  The channels that add samples to the sample buffer supposedly notice
  *  the error condition and add a special indicator once we recover.
  *
@@ -37,6 +46,9 @@ public class WriteThread implements Runnable
     /** Minimum write period [seconds] */
     private static final double MIN_WRITE_PERIOD = 5.0;
 
+    /** Name of this thread */
+    final private String name;
+
     /** Server to which this thread writes. */
     private ArchiveWriter writer;
 
@@ -44,6 +56,27 @@ public class WriteThread implements Runnable
     final private ArrayList<SampleBuffer> buffers =
         new ArrayList<SampleBuffer>();
 
+    /** Write channels for the <code>buffers</code>, obtained from the current <code>writer</code>.
+     *  Elements are <code>null</code> until the channel is first needed.
+     */
+    final private ArrayList<WriteChannel> channels =
+        new ArrayList<WriteChannel>();
+
+    /** Index into <code>buffers</code> by channel name */
+    final private Map<String, Integer> buffer_index = new HashMap<>();
+
+    /** Journal for spilled samples of this thread's buffers, or <code>null</code> */
+    private SpillJournal journal = null;
+
+    /** Maximum number of spilled samples to replay per second */
+    private double replay_rate;
+
+    /** Write thread for each channel name, used to route replayed samples */
+    private Map<String, WriteThread> owners = Collections.emptyMap();
+
+    /** Is this thread in error state? */
+    private volatile boolean error_state = false;
+
     /** Flag that tells the write thread to run or quit. */
     private boolean do_run;
 
@@ -52,11 +85,14 @@ public class WriteThread implements Runnable
      */
     private Object wait_block = new Object();
 
-    /** Delay between write runs. */
-    private long millisec_delay = 5000;
+    /** Delay between write runs and number of values to place into one batch */
+    private volatile WriteController controller = new WriteController(MIN_WRITE_PERIOD, 500, 0);
+
+    /** Largest fill level of the buffers in last write run */
+    private double fill;
 
-    /** Number of values to place into one batch */
-    private int batch_size = 500;
+    /** Total overrun count of the buffers in last write run */
+    private long overruns;
 
     /** Time of end of last write run */
     private Instant last_write_stamp = null;
@@ -67,9 +103,40 @@ public class WriteThread implements Runnable
     /** Average duration of write run */
     private Average write_time = new Average();
 
+    /** Samples added to the writer since the last flush,
+     *  kept to spill them when the flush fails
+     */
+    final private ArrayList<VType> samples = new ArrayList<VType>();
+
+    /** Buffers from which <code>samples</code> were removed */
+    final private ArrayList<SampleBuffer> sample_buffers = new ArrayList<SampleBuffer>();
+
+    /** Index of the first sample in <code>samples</code> for each of the <code>sample_buffers</code> */
+    final private ArrayList<Integer> sample_starts = new ArrayList<Integer>();
+
     /** Thread the executes this.run() */
     private Thread thread;
 
+    /** Create write thread */
+    public WriteThread()
+    {
+        this("WriteThread"); //$NON-NLS-1$
+    }
+
+    /** Create write thread
+     *  @param name Name of the thread
+     */
+    public WriteThread(final String name)
+    {
+        this.name = name;
+    }
+
+    /** @return Name of the thread */
+    public String getName()
+    {
+        return name;
+    }
+
     /** Add a channel's buffer that this thread reads */
     public void addChannel(final ArchiveChannel channel)
     {
@@ -79,15 +146,71 @@ public class WriteThread implements Runnable
     /** Add a sample buffer that this thread reads */
     void addSampleBuffer(final SampleBuffer buffer)
     {
+        buffer_index.put(buffer.getChannelName(), buffers.size());
         buffers.add(buffer);
+        channels.add(null);
+    }
+
+    /** @return Channel names of the sample buffers that this thread writes */
+    List<String> getChannelNames()
+    {
+        final List<String> names = new ArrayList<>(buffers.size());
+        for (SampleBuffer buffer : buffers)
+            names.add(buffer.getChannelName());
+        return names;
+    }
+
+    /** Have this thread spill samples of its buffers to a journal, and replay them
+     *  <p>
+     *  Each write thread must use its own journal.
+     *  Replayed samples of channels that belong to another write thread,
+     *  for example after the configuration changed, are moved
+     *  to the journal of that thread.
+     *
+     *  @param journal {@link SpillJournal}
+     *  @param replay_rate Maximum number of spilled samples to replay per second
+     *  @param owners Write thread for each channel name
+     */
+    void setSpillJournal(final SpillJournal journal, final double replay_rate,
+                         final Map<String, WriteThread> owners)
+    {
+        this.journal = journal;
+        this.replay_rate = replay_rate;
+        this.owners = owners;
+        for (SampleBuffer buffer : buffers)
+            buffer.setSpillJournal(journal);
+    }
+
+    /** @return Journal for spilled samples of this thread's buffers, or <code>null</code> */
+    SpillJournal getSpillJournal()
+    {
+        return journal;
+    }
+
+    /** @return Number of sample buffers that this thread writes */
+    public int getBufferCount()
+    {
+        return buffers.size();
     }
 
     /** Start the write thread.
      *  @param write_period Period between writes in seconds
      *  @param batch_size Number of values to batch
      */
+    public void start(final double write_period, final int batch_size)
+    {
+        start(write_period, batch_size, 0.0);
+    }
+
+    /** Start the write thread.
+     *  @param write_period Period between writes in seconds
+     *  @param batch_size Number of values to batch
+     *  @param max_latency Maximum latency from sample arrival to commit in seconds.
+     *                     When &gt; 0, period and batch size adapt to the buffer fill level.
+     *  @see WriteController
+     */
     @SuppressWarnings("nls")
-    public void start(double write_period, int batch_size)
+    public void start(double write_period, final int batch_size, final double max_latency)
     {
         if (write_period < MIN_WRITE_PERIOD)
         {
@@ -95,9 +218,8 @@ public class WriteThread implements Runnable
                 new Object[] { write_period, MIN_WRITE_PERIOD });
             write_period = MIN_WRITE_PERIOD;
         }
-        millisec_delay = (int)(1000.0 * write_period);
-        this.batch_size = batch_size;
-        thread = new Thread(this, "WriteThread");
+        controller = new WriteController(write_period, batch_size, max_latency);
+        thread = new Thread(this, name);
         thread.start();
     }
 
@@ -136,6 +258,18 @@ public class WriteThread implements Runnable
         return write_time.get();
     }
 
+    /** @return Controller for write period and batch size */
+    public WriteController getController()
+    {
+        return controller;
+    }
+
+    /** @return <code>true</code> if this thread currently experiences write errors */
+    public boolean isInErrorState()
+    {
+        return error_state;
+    }
+
     /** 'Main loop' of the write thread.
      *  <p>
      *  Writes all values out, then waits.
@@ -153,7 +287,7 @@ public class WriteThread implements Runnable
     @SuppressWarnings("nls")
     public void run()
     {
-        Activator.getLogger().info("WriteThread starts");
+        Activator.getLogger().info(name + " starts");
         final BenchmarkTimer timer = new BenchmarkTimer();
         boolean write_error = false;
         do_run = true;
@@ -162,39 +296,45 @@ public class WriteThread implements Runnable
             long delay;
             try
             {
-                // If there was an error before...
-                if (write_error)
-                {   // .. try to reconnect
+                // Connect, or reconnect if there was an error before.
+                if (writer == null  ||  write_error)
+                {   // Close the previous writer only once the new one is connected,
+                    // so information that writers share, like a channel cache, is kept
+                    final ArchiveWriter new_writer = ArchiveWriterFactory.getArchiveWriter();
                     if (writer != null)
-                    {
                         writer.close();
-                        writer = null;
-                    }
+                    writer = new_writer;
+                    // Channels need to be obtained from new writer
+                    Collections.fill(channels, null);
                     // If we get here, all is OK so far ...
                     write_error = false;
-                    // .. and we continue to write.
+                    // Look up all channels at once instead of one by one in write()
+                    writer.preload(getChannelNames());
                 }
-                if (writer == null)
-                    writer = ArchiveWriterFactory.getArchiveWriter();
                 timer.start();
                 // In case of a network problem, we can hang in here
                 // for a long time...
-                final long written = write();
+                final long written = write() + replay();
                 timer.stop();
                 last_write_stamp = Instant.now();
                 write_count.update(written);
                 write_time.update(timer.getSeconds());
+                controller.update(fill, overruns, timer.getSeconds());
                 // How much of the scheduled delay is left after write()?
-                delay = millisec_delay - timer.getMilliseconds();
+                delay = getDelay() - timer.getMilliseconds();
             }
             catch (Exception ex)
             {   // Error in write() or the preceding reconnect()...
                 Activator.getLogger().log(Level.WARNING, "Error, will try to reconnect", ex);
                 // Use max. delay
-                delay = millisec_delay;
+                delay = getDelay();
                 write_error = true;
             }
-            SampleBuffer.setErrorState(write_error);
+            if (write_error != error_state)
+            {
+                error_state = write_error;
+                SampleBuffer.setErrorState(write_error);
+            }
             // See if there's any time left to wait,
             // or if we already used all that time in the last 'write'
             if (delay > 0)
@@ -212,7 +352,7 @@ public class WriteThread implements Runnable
                 }
             }
         }
-        Activator.getLogger().info("WriteThread exists");
+        Activator.getLogger().info(name + " exits");
     }
 
     /** Stop the write thread, performing a final write. */
@@ -235,43 +375,197 @@ public class WriteThread implements Runnable
                 writer.close();
                 writer = null;
             }
+            if (error_state)
+            {
+                error_state = false;
+                SampleBuffer.setErrorState(false);
+            }
         }
     }
 
+    /** Replay spilled samples, limited to the replay rate
+     *  so that catching up does not delay writing current samples.
+     *  <p>
+     *  Each batch read from the journal is committed in the journal
+     *  only after it has been committed to the archive.
+     *  @return number of samples written
+     */
+    @SuppressWarnings("nls")
+    private long replay() throws Exception
+    {
+        if (journal == null)
+            return 0;
+        final int batch_size = controller.getBatchSize();
+        long remaining = (long) (replay_rate * controller.getPeriod());
+        long count = 0;
+        final List<SpillJournal.SpilledSample> foreign = new ArrayList<>();
+        while (remaining > 0)
+        {
+            final List<SpillJournal.SpilledSample> spilled = journal.read((int) Math.min(batch_size, remaining));
+            if (spilled.isEmpty())
+                break;
+            remaining -= spilled.size();
+            foreign.clear();
+            int written = 0, dropped = 0;
+            try
+            {
+                for (SpillJournal.SpilledSample sample : spilled)
+                {
+                    final WriteThread owner = owners.get(sample.getChannelName());
+                    if (owner == this)
+                    {
+                        writer.addSample(getChannel(buffer_index.get(sample.getChannelName())),
+                                         sample.getSample());
+                        ++written;
+                    }
+                    else if (owner != null)
+                        foreign.add(sample);
+                    else // Channel was removed from configuration since sample was spilled
+                        ++dropped;
+                }
+                writer.flush();
+            }
+            catch (Exception ex)
+            {   // Read the batch again after reconnect
+                journal.rollback();
+                throw ex;
+            }
+            // Samples of other threads' channels move to their journal
+            for (SpillJournal.SpilledSample sample : foreign)
+            {
+                final SpillJournal target = owners.get(sample.getChannelName()).getSpillJournal();
+                if (! target.append(sample.getChannelName(), sample.getRetention(), sample.getSample()))
+                    ++dropped;
+            }
+            journal.commit();
+            if (dropped > 0)
+                Activator.getLogger().log(Level.WARNING,
+                    name + " dropped {0} spilled samples of unknown channels or full journals", dropped);
+            count += written;
+        }
+        return count;
+    }
+
+    /** @param index Index of a buffer
+     *  @return Write channel for that buffer
+     *  @throws Exception on error
+     */
+    private WriteChannel getChannel(final int index) throws Exception
+    {
+        WriteChannel channel = channels.get(index);
+        if (channel == null)
+        {
+            final SampleBuffer buffer = buffers.get(index);
+            channel = writer.getChannel(buffer.getChannelName(),
+                                        buffer.getArchiveDataRetention());
+            channels.set(index, channel);
+        }
+        return channel;
+    }
+
+    /** @return Delay between write runs in milliseconds */
+    private long getDelay()
+    {
+        return (long) (1000.0 * controller.getPeriod());
+    }
+
     /** Write right now until all sample buffers are empty
+     *  <p>
+     *  When writing fails, samples of the failed batch are
+     *  moved to the spill journal, if there is one.
      *  @return number of samples written
      */
     private long write() throws Exception
     {
+        try
+        {
+            return writeBuffers();
+        }
+        catch (Exception ex)
+        {
+            spillBatch();
+            throw ex;
+        }
+    }
+
+    /** Write right now until all sample buffers are empty
+     *  @return number of samples written
+     */
+    private long writeBuffers() throws Exception
+    {
+        final int batch_size = controller.getBatchSize();
         int total_count = 0;
         int count = 0;
-        for (SampleBuffer buffer : buffers)
+        fill = 0.0;
+        overruns = 0;
+        final int N = buffers.size();
+        for (int i=0; i<N; ++i)
         {
+            final SampleBuffer buffer = buffers.get(i);
             // Update max buffer length etc. before we start to remove samples
             buffer.updateStats();
+            fill = Math.max(fill, buffer.getQueueSize() / (double) buffer.getCapacity());
+            overruns += buffer.getBufferStats().getOverruns();
             // Write samples for one channel
-            final String name = buffer.getChannelName();
-            final String retention = buffer.getArchiveDataRetention();
-            final WriteChannel channel = writer.getChannel(name, retention);
-            VType sample = buffer.remove();
-            while (sample != null)
-            {   // Write one value
-                writer.addSample(channel, sample);
+            final WriteChannel channel = getChannel(i);
+            // Remove samples in bulk, at most one batch at a time
+            int removed;
+            while ((removed = buffer.drainTo(samples, batch_size)) > 0)
+            {
+                final int start = samples.size() - removed;
+                sample_buffers.add(buffer);
+                sample_starts.add(start);
+                for (int s=start; s<samples.size(); ++s)
+                    writer.addSample(channel, samples.get(s));
                 // Note: count across different sample buffers!
-                ++count;
+                count += removed;
                 if (count > batch_size)
                 {
                     total_count += count;
                     count = 0;
                     writer.flush();
+                    clearBatch();
                 }
-                // next
-                sample = buffer.remove();
             }
         }
         // Flush remaining samples (less than batch_size)
         writer.flush();
+        clearBatch();
         total_count += count;
         return total_count;
     }
+
+    /** Forget samples of the batch that has been flushed */
+    private void clearBatch()
+    {
+        samples.clear();
+        sample_buffers.clear();
+        sample_starts.clear();
+    }
+
+    /** Move samples of a batch that failed to write to the spill journal */
+    @SuppressWarnings("nls")
+    private void spillBatch()
+    {
+        if (journal != null)
+        {
+            int spilled = 0;
+            final int N = sample_buffers.size();
+            for (int i=0; i<N; ++i)
+            {
+                final SampleBuffer buffer = sample_buffers.get(i);
+                final int end = i < N-1 ? sample_starts.get(i+1) : samples.size();
+                for (int s=sample_starts.get(i); s<end; ++s)
+                {
+                    if (journal.append(buffer.getChannelName(), buffer.getArchiveDataRetention(), samples.get(s)))
+                        ++spilled;
+                    else
+                        buffer.getBufferStats().addOverrun();
+                }
+            }
+            if (spilled > 0)
+                Activator.getLogger().log(Level.INFO, name + " spilled {0} samples of failed batch", spilled);
+        }
+        clearBatch();
+    }
 }
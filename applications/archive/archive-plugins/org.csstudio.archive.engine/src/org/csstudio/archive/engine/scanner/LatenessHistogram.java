@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.engine.scanner;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** Histogram of scan lateness
+ *
+ *  <p>Counts how late scans started relative to their due time,
+ *  in buckets of roughly logarithmic width.
+ *  Thread-safe.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class LatenessHistogram
+{
+    /** Upper limits of the buckets in millis. Last bucket is open-ended */
+    final private static long[] LIMITS = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000 };
+
+    /** Counts per bucket */
+    final private AtomicLongArray counts = new AtomicLongArray(LIMITS.length + 1);
+
+    /** @param lateness Lateness in millis */
+    public void record(final long lateness)
+    {
+        int i = 0;
+        while (i < LIMITS.length  &&  lateness >= LIMITS[i])
+            ++i;
+        counts.incrementAndGet(i);
+    }
+
+    /** @return Number of buckets */
+    public int getBucketCount()
+    {
+        return counts.length();
+    }
+
+    /** @param bucket Bucket index
+     *  @return Label of the bucket, like "&lt;5 ms"
+     */
+    public String getLabel(final int bucket)
+    {
+        if (bucket < LIMITS.length)
+            return "<" + LIMITS[bucket] + " ms";
+        return ">=" + LIMITS[LIMITS.length-1] + " ms";
+    }
+
+    /** @param bucket Bucket index
+     *  @return Count in that bucket
+     */
+    public long getCount(final int bucket)
+    {
+        return counts.get(bucket);
+    }
+
+    /** @return Total count */
+    public long getTotal()
+    {
+        long total = 0;
+        for (int i=0; i<counts.length(); ++i)
+            total += counts.get(i);
+        return total;
+    }
+
+    /** @param fraction Fraction 0..1
+     *  @return Upper limit in millis of the bucket that contains that fraction of the counts,
+     *          -1 when there are no counts or for the open-ended bucket
+     */
+    public long getPercentile(final double fraction)
+    {
+        final long total = getTotal();
+        if (total <= 0)
+            return -1;
+        final long threshold = (long) Math.ceil(total * fraction);
+        long sum = 0;
+        for (int i=0; i<LIMITS.length; ++i)
+        {
+            sum += counts.get(i);
+            if (sum >= threshold)
+                return LIMITS[i];
+        }
+        return -1;
+    }
+
+    /** Reset counts */
+    public void reset()
+    {
+        for (int i=0; i<counts.length(); ++i)
+            counts.set(i, 0);
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder buf = new StringBuilder();
+        for (int i=0; i<counts.length(); ++i)
+        {
+            final long count = counts.get(i);
+            if (count <= 0)
+                continue;
+            if (buf.length() > 0)
+                buf.append(", ");
+            buf.append(getLabel(i)).append(": ").append(count);
+        }
+        return buf.length() > 0 ? buf.toString() : "-";
+    }
+}
@@ -8,26 +8,56 @@
 package org.csstudio.archive.engine.scanner;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
+import org.csstudio.apputil.time.TimerWheel;
 import org.csstudio.archive.engine.Activator;
 
 /** A Scan list scans a list of channels at a given rate.
  *  <p>
  *  Only the {@link Scanner} is supposed to modify and scan
  *  the scan list, so many methods are package-scoped.
+ *  <p>
+ *  When scanned via an executor, the items are split into chunks
+ *  that are scanned in parallel, so a slow item only delays
+ *  the other items in its chunk.
+ *  If the previous scan of a chunk has not completed when the list is due again,
+ *  the scan of that chunk is skipped while the other chunks are scanned on time.
  *  @author Kay Kasemir
  */
 @SuppressWarnings("nls")
 public class ScanList implements Scheduleable
 {
+    /** Number of items scanned by one task of the executor */
+    final static int CHUNK_SIZE = 200;
+
     /** Scan period in seconds */
     final private long scan_period_millis;
 
     /** Items to scan */
     final private ArrayList<Runnable> items = new ArrayList<Runnable>();
 
-    private long next_due_time = System.currentTimeMillis();
+    /** Copy of items used for scanning, <code>null</code> after items changed */
+    private volatile Runnable[] snapshot = null;
+
+    private volatile long next_due_time = System.currentTimeMillis();
+
+    /** Timer of this list in the {@link Scanner}, re-used for each scan */
+    final TimerWheel.Timer<ScanList> timer = new TimerWheel.Timer<>(this);
+
+    /** For each chunk: Is its last scan still running? */
+    private AtomicBoolean[] running = new AtomicBoolean[0];
+
+    /** Number of skipped chunk scans */
+    final private AtomicLong skipped = new AtomicLong();
+
+    /** Lateness of scans relative to their due time */
+    final private LatenessHistogram lateness = new LatenessHistogram();
 
     /** Construct scan list.
      *  @param scan_period Scan period in seconds
@@ -65,6 +95,7 @@ public class ScanList implements Scheduleable
     void add(final Runnable item)
     {
         items.add(item);
+        snapshot = null;
     }
 
     /** Remove an item from the scan list.
@@ -72,7 +103,10 @@ public class ScanList implements Scheduleable
      */
     boolean remove(final Runnable item)
     {
-        return items.remove(item);
+        if (! items.remove(item))
+            return false;
+        snapshot = null;
+        return true;
     }
 
     /** @return Number of items on scan list */
@@ -87,28 +121,122 @@ public class ScanList implements Scheduleable
         return items.get(index);
     }
 
+    /** @return Number of chunk scans that were skipped because the previous scan of the chunk was still running */
+    public long getSkippedScans()
+    {
+        return skipped.get();
+    }
+
+    /** @return Histogram of scan lateness */
+    public LatenessHistogram getLateness()
+    {
+        return lateness;
+    }
+
+    /** Reset statistics */
+    void reset()
+    {
+        skipped.set(0);
+        lateness.reset();
+    }
+
     /** Scan all items on this scan list.
      *  Doesn't care if they're due or not,
      *  that's up to the code that invokes this.
      */
     void scanItems()
     {
+        scanItems(null, null);
+    }
+
+    /** Scan all items on this scan list.
+     *  Doesn't care if they're due or not,
+     *  that's up to the code that invokes this.
+     *  @param executor Executor for chunks of items, <code>null</code> to scan in calling thread
+     *  @param busy_nanos Accumulator for the time spent scanning, may be <code>null</code>
+     */
+    void scanItems(final Executor executor, final AtomicLong busy_nanos)
+    {
+        final long due = next_due_time;
         final long start = System.currentTimeMillis();
-        // Scan all items
-        for (Runnable item : items)
+        // Determine next due time relative to the due time,
+        // so the scans don't drift.
+        // When we fell behind by more than a period, continue from now.
+        next_due_time = due + scan_period_millis;
+        if (next_due_time <= start)
+            next_due_time = start + scan_period_millis;
+
+        Runnable[] scan = snapshot;
+        if (scan == null)
+        {
+            scan = items.toArray(new Runnable[items.size()]);
+            snapshot = scan;
+        }
+
+        if (executor == null)
+        {
+            scanChunk(scan, 0, scan.length, due, busy_nanos);
+            return;
+        }
+        final int chunks = (scan.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (running.length < chunks)
+        {
+            final int old = running.length;
+            running = Arrays.copyOf(running, chunks);
+            for (int i=old; i<chunks; ++i)
+                running[i] = new AtomicBoolean();
+        }
+        for (int i=0; i<chunks; ++i)
+        {
+            final AtomicBoolean busy = running[i];
+            if (! busy.compareAndSet(false, true))
+            {   // Only this chunk is still busy with the previous scan
+                skipped.incrementAndGet();
+                continue;
+            }
+            final Runnable[] chunk_items = scan;
+            final int first = i * CHUNK_SIZE;
+            final int end = Math.min(first + CHUNK_SIZE, scan.length);
+            try
+            {
+                executor.execute(() ->
+                {
+                    try
+                    {
+                        scanChunk(chunk_items, first, end, due, busy_nanos);
+                    }
+                    finally
+                    {
+                        busy.set(false);
+                    }
+                });
+            }
+            catch (RejectedExecutionException ex)
+            {   // Executor is shutting down
+                busy.set(false);
+            }
+        }
+    }
+
+    /** Scan a range of items */
+    private void scanChunk(final Runnable[] scan, final int first, final int end,
+                           final long due, final AtomicLong busy_nanos)
+    {
+        final long start = System.nanoTime();
+        lateness.record(System.currentTimeMillis() - due);
+        for (int i=first; i<end; ++i)
         {
             try
             {
-                item.run();
+                scan[i].run();
             }
             catch (Throwable ex)
             {
                 Activator.getLogger().log(Level.SEVERE, toString() + " scan error", ex);
             }
         }
-        // Determine next due time relative to start,
-        // swallowing the time used to scan the items.
-        next_due_time = start + scan_period_millis;
+        if (busy_nanos != null)
+            busy_nanos.addAndGet(System.nanoTime() - start);
     }
 
     @Override
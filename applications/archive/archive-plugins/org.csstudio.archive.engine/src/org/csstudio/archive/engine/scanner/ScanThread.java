@@ -56,6 +56,7 @@ public class ScanThread implements Runnable
         {
             scanner.scanOnce();
         }
+        scanner.shutdown();
         Activator.getLogger().info("Scan Thread ends");
     }
 
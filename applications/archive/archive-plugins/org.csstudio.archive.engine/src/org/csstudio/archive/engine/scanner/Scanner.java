@@ -8,8 +8,16 @@
 package org.csstudio.archive.engine.scanner;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
+import org.csstudio.apputil.time.TimerWheel;
 import org.csstudio.archive.engine.Activator;
 import org.csstudio.util.stats.Average;
 
@@ -17,6 +25,11 @@ import org.csstudio.util.stats.Average;
  *  <p>
  *  Places runnable items on scan lists,
  *  determines how long to wait to the scan next.
+ *  <p>
+ *  Scan lists are scheduled in a {@link TimerWheel},
+ *  so locating the due lists does not depend on the number of lists.
+ *  The items of due lists are either scanned by the thread that calls
+ *  {@link #scanOnce()}, or by a pool of scan threads.
  *  @author Kay Kasemir
  */
 public class Scanner implements Scheduleable
@@ -25,11 +38,23 @@ public class Scanner implements Scheduleable
     final private static double GRANULARITY = 0.1;
 
     /** Default idle delay */
-    final private static long DEFAULT_IDLE_DELAY = 500;
+    final public static long DEFAULT_IDLE_DELAY = 500;
+
+    /** Tick of the timer wheel in millis */
+    final private static long TICK_MILLIS = 10;
+
+    /** Slots of the timer wheel, covering about 40 seconds */
+    final private static int WHEEL_SLOTS = 4096;
+
+    /** Period for updating the idle percentage in nanoseconds */
+    final private static long IDLE_UPDATE_NANOS = 1000000000L;
 
     /** Time to wait in system millis when nothing to do */
     final private long idle_delay;
 
+    /** Number of scan threads, 0 to scan in the thread that calls <code>scanOnce</code> */
+    final private int threads;
+
     /** All the single-period scan lists.
      *  <p>
      *  Note that we don't keep empty lists around,
@@ -37,18 +62,43 @@ public class Scanner implements Scheduleable
      */
     final private ArrayList<ScanList> lists = new ArrayList<ScanList>();
 
-    /** Next due time in system millis */
-    private long next_due_time;
+    /** Scan list for each item */
+    final private HashMap<Runnable, ScanList> item_lists = new HashMap<Runnable, ScanList>();
+
+    /** Scheduled scan lists */
+    final private TimerWheel<ScanList> wheel = new TimerWheel<ScanList>(TICK_MILLIS, WHEEL_SLOTS, System.currentTimeMillis());
+
+    /** Scan lists that are due, re-used in scanDueScanLists */
+    final private ArrayList<ScanList> due = new ArrayList<ScanList>();
+
+    /** Pool of scan threads, created when needed */
+    private ExecutorService executor = null;
+
+    /** Time spent scanning items */
+    final private AtomicLong busy_nanos = new AtomicLong();
+
+    /** Start and busy time of current idle percentage update period */
+    private long idle_start = System.nanoTime(), idle_busy = 0;
 
     /** Average idle time in percent. */
     final private Average idle_percentage = new Average();
 
     /** Construct scanner
      *  @param idle_delay Time to wait in system millis when nothing to do
+     *  @param threads Number of scan threads, 0 to scan in the thread that calls <code>scanOnce</code>
      */
-    public Scanner(final long idle_delay)
+    public Scanner(final long idle_delay, final int threads)
     {
         this.idle_delay = idle_delay;
+        this.threads = Math.max(0, threads);
+    }
+
+    /** Construct scanner that scans in the thread that calls <code>scanOnce</code>
+     *  @param idle_delay Time to wait in system millis when nothing to do
+     */
+    public Scanner(final long idle_delay)
+    {
+        this(idle_delay, 0);
     }
 
     /** Construct scanner with default idle delay */
@@ -61,7 +111,7 @@ public class Scanner implements Scheduleable
      *  @param item Item to scan
      *  @param period Scan period in seconds
      */
-    public void add(final Runnable item, final double period)
+    public synchronized void add(final Runnable item, final double period)
     {
         // Avoid duplicates by removing what might be there
         remove(item);
@@ -84,86 +134,147 @@ public class Scanner implements Scheduleable
         }
         // Add item to list
         the_list.add(item);
-        computeDueTime();
+        item_lists.put(item, the_list);
+        if (! the_list.timer.isScheduled())
+            wheel.schedule(the_list.timer, the_list.getNextDueTime());
     }
 
     /** Remove an item from the scanner */
-    public void remove(final Runnable item)
+    public synchronized void remove(final Runnable item)
     {
-        // Brute-force remove from all lists,
-        // stopping as soon as item was found
-        for (ScanList list : lists)
-            if (list.remove(item))
-            {
-                // If this leaves an empty list, remove it.
-                if (! list.isDueAtAll())
-                    lists.remove(list);
-                return;
-            }
+        final ScanList list = item_lists.remove(item);
+        if (list == null  ||  ! list.remove(item))
+            return;
+        // If this leaves an empty list, remove it.
+        if (! list.isDueAtAll())
+        {
+            lists.remove(list);
+            wheel.cancel(list.timer);
+        }
     }
 
     /** Remove all items from this scanner */
-    public void clear()
+    public synchronized void clear()
     {
         lists.clear();
+        item_lists.clear();
+        wheel.clear();
     }
 
     /** @return Number of scan lists. */
-    public long size()
+    public synchronized long size()
     {
         return lists.size();
     }
 
     /** @return One of the scan lists. */
-    public ScanList get(final int index)
+    public synchronized ScanList get(final int index)
     {
         return lists.get(index);
     }
 
+    /** @return Copy of the scan lists */
+    public synchronized List<ScanList> getScanLists()
+    {
+        return new ArrayList<ScanList>(lists);
+    }
+
+    /** @return Number of scan threads, 0 when scanning in the thread that calls <code>scanOnce</code> */
+    public int getThreadCount()
+    {
+        return threads;
+    }
+
     /** {@inheritDoc} */
     @Override
-    public boolean isDueAtAll()
+    public synchronized boolean isDueAtAll()
     {
         return lists.size() > 0;
     }
 
     /** {@inheritDoc} */
     @Override
-    public long getNextDueTime()
+    public synchronized long getNextDueTime()
     {
         if (lists.size() == 0)
             throw new Error("Scanner never due"); //$NON-NLS-1$
-        return next_due_time;
+        return wheel.getNextDueTime();
+    }
+
+    /** @return Delay in millis until next scan, <code>Long.MAX_VALUE</code> if never due */
+    private synchronized long getDelay()
+    {
+        if (lists.size() == 0)
+            return Long.MAX_VALUE;
+        return wheel.getNextDueTime() - System.currentTimeMillis();
     }
 
     /** Scan all the scan lists which are currently due */
-    void scanDueScanLists()
+    synchronized void scanDueScanLists()
     {
         final long now = System.currentTimeMillis();
-        next_due_time = Long.MAX_VALUE;
-        for (ScanList list : lists)
-        {   // Scan (run) what's due now, and update the next due time
-            if (list.getNextDueTime() <= now)
-                list.scanItems();
-            // Update the next due time - which could change in run()
-            if (list.getNextDueTime() < next_due_time)
-                next_due_time = list.getNextDueTime();
+        wheel.expire(now, due);
+        final ExecutorService executor = getExecutor();
+        for (ScanList list : due)
+        {   // Scan (run) what's due now, and re-schedule for the next due time
+            list.scanItems(executor, busy_nanos);
+            wheel.schedule(list.timer, list.getNextDueTime());
         }
+        due.clear();
     }
 
-    /** Compute the next due time */
-    private void computeDueTime()
+    /** @return Pool of scan threads or <code>null</code> */
+    @SuppressWarnings("nls")
+    private ExecutorService getExecutor()
     {
-        next_due_time = Long.MAX_VALUE;
-        for (ScanList list : lists)
-            next_due_time = Math.min(list.getNextDueTime(), next_due_time);
+        if (threads <= 0)
+            return null;
+        if (executor == null)
+        {
+            final AtomicInteger count = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(threads, runnable ->
+            {
+                final Thread thread = new Thread(runnable, "ScanWorker " + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /** Stop the pool of scan threads.
+     *  A new pool will be created when scanning again.
+     */
+    public void shutdown()
+    {
+        final ExecutorService pool;
+        synchronized (this)
+        {
+            pool = executor;
+            executor = null;
+        }
+        if (pool == null)
+            return;
+        pool.shutdown();
+        try
+        {
+            if (! pool.awaitTermination(5, TimeUnit.SECONDS))
+                Activator.getLogger().log(Level.WARNING, "Scan threads did not stop"); //$NON-NLS-1$
+        }
+        catch (InterruptedException ex)
+        {
+            Activator.getLogger().log(Level.WARNING, "Scanner shutdown interrupted", ex); //$NON-NLS-1$
+        }
     }
 
     /** Average idle time in percent.
      *  <p>
      *  100 means: Nothing to do, always waiting.<br>
-     *   50 means: using about half the allocated time for the scan<br>
+     *   50 means: using about half the available scan time<br>
      *    0 means: Busy all the time, actually missing scans<br>
+     *  <p>
+     *  Based on the time spent scanning items
+     *  relative to the elapsed time and the number of scan threads.
      */
     public double getIdlePercentage()
     {
@@ -171,9 +282,25 @@ public class Scanner implements Scheduleable
     }
 
     /** Reset statistics */
-    public void reset()
+    public synchronized void reset()
     {
         idle_percentage.reset();
+        for (ScanList list : lists)
+            list.reset();
+    }
+
+    /** Update idle percentage once per update period */
+    private void updateIdlePercentage()
+    {
+        final long now = System.nanoTime();
+        final long elapsed = now - idle_start;
+        if (elapsed < IDLE_UPDATE_NANOS)
+            return;
+        final long busy = busy_nanos.get();
+        final double idle = 100.0 * (1.0 - (busy - idle_busy) / ((double) elapsed * Math.max(1, threads)));
+        idle_percentage.update(Math.max(0.0, Math.min(100.0, idle)));
+        idle_start = now;
+        idle_busy = busy;
     }
 
     /** Perform one scan: Wait for the next scan, perform it. */
@@ -181,34 +308,23 @@ public class Scanner implements Scheduleable
     {
         try
         {
-            if (isDueAtAll())
+            final long delay = getDelay();
+            if (delay > idle_delay)
+            {   // Nothing due within idle time, maybe nothing to do ever
+                Thread.sleep(idle_delay);
+            }
+            else
             {
-                final long delay = getNextDueTime() - System.currentTimeMillis();
-                if (delay > idle_delay)
-                {   // Nothing due within idle time
-                    idle_percentage.update(100.0);
-                    Thread.sleep(idle_delay);
-                    return;
-                }
                 if (delay > 0)
-                {   // Need to wait a little, then run scan
-                    idle_percentage.update(delay*100.0/idle_delay);
+                    // Need to wait a little, then run scan
                     Thread.sleep(delay);
-                    scanDueScanLists();
-                    return;
-                }
-                // High noon
-                idle_percentage.update(0.0);
                 scanDueScanLists();
-                return;
             }
-            // Nothing to do, ever. Just wait.
-            idle_percentage.update(100.0);
-            Thread.sleep(idle_delay);
         }
         catch (InterruptedException ex)
         {
             Activator.getLogger().log(Level.WARNING, "Scanner interrupted", ex); //$NON-NLS-1$
         }
+        updateIdlePercentage();
     }
 }
@@ -9,6 +9,7 @@ package org.csstudio.archive.engine.server.html;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -17,6 +18,11 @@ import org.csstudio.apputil.time.PeriodFormat;
 import org.csstudio.archive.engine.Messages;
 import org.csstudio.archive.engine.model.EngineModel;
 import org.csstudio.archive.engine.model.SampleBuffer;
+import org.csstudio.archive.engine.model.SpillJournal;
+import org.csstudio.archive.engine.model.WriteController;
+import org.csstudio.archive.engine.model.WriteThread;
+import org.csstudio.archive.engine.scanner.ScanList;
+import org.csstudio.archive.engine.scanner.Scanner;
 import org.csstudio.archive.engine.server.AbstractMainResponse;
 import org.csstudio.archive.vtype.TimestampHelper;
 import org.diirt.util.time.TimeDuration;
@@ -96,6 +102,13 @@ public class HTMLMainResponse extends AbstractMainResponse
             Messages.HTTP_WritePeriod,
             model.getWritePeriod() + " sec"
         });
+        html.tableLine(new String[]
+        {
+            Messages.HTTP_WriteLatency,
+            model.getMaxWriteLatency() > 0
+            ? model.getMaxWriteLatency() + " sec"
+            : "-"
+        });
 
         // Currently in 'Write Error' state?
         html.tableLine(new String[]
@@ -106,6 +119,30 @@ public class HTMLMainResponse extends AbstractMainResponse
              : "OK")
         });
 
+        final List<SpillJournal> journals = model.getSpillJournals();
+        if (! journals.isEmpty())
+        {
+            long pending = 0, dropped = 0, disk = 0;
+            for (SpillJournal journal : journals)
+            {
+                pending += journal.getPendingCount();
+                dropped += journal.getDroppedCount();
+                disk += journal.getDiskUsage();
+            }
+            html.tableLine(new String[]
+            {
+                Messages.HTTP_SpillPending,
+                String.format("%d samples, %.1f MB on disk", pending, disk / MB)
+            });
+            html.tableLine(new String[]
+            {
+                Messages.HTTP_SpillDropped,
+                dropped > 0
+                ? HTMLWriter.makeRedText(dropped + " samples")
+                : "0 samples"
+            });
+        }
+
         final Instant last_write_time = model.getLastWriteTime();
         html.tableLine(new String[]
         {
@@ -129,6 +166,11 @@ public class HTMLMainResponse extends AbstractMainResponse
             Messages.HTTP_Idletime,
             String.format("%.1f %%", model.getIdlePercentage())
         });
+        html.tableLine(new String[]
+        {
+            Messages.HTTP_ScanThreads,
+            Integer.toString(model.getScanner().getThreadCount())
+        });
 
         final Runtime runtime = Runtime.getRuntime();
         final double used_mem = runtime.totalMemory() / MB;
@@ -144,6 +186,65 @@ public class HTMLMainResponse extends AbstractMainResponse
 
         html.closeTable();
 
+        html.h2(Messages.HTTP_Writers);
+        html.openTable(1, new String[]
+        {
+            Messages.HTTP_Writer,
+            Messages.HTTP_ChannelCount,
+            Messages.HTTP_WriteState,
+            Messages.HTTP_LastWriteTime,
+            Messages.HTTP_WriteCount,
+            Messages.HTTP_WriteDuration,
+            Messages.HTTP_WritePeriod,
+            Messages.HTTP_BatchSize,
+            Messages.HTTP_WriteDecision,
+        });
+        for (WriteThread writer : model.getWriteThreads())
+        {
+            final Instant last = writer.getLastWriteTime();
+            final WriteController controller = writer.getController();
+            html.tableLine(new String[]
+            {
+                writer.getName(),
+                Integer.toString(writer.getBufferCount()),
+                (writer.isInErrorState()
+                 ? HTMLWriter.makeRedText(Messages.HTTP_WriteError)
+                 : "OK"),
+                (last == null
+                 ? Messages.HTTP_Never
+                 : TimestampHelper.format(last)),
+                (int)writer.getWriteCount() + " samples",
+                String.format("%.1f sec", writer.getWriteDuration()),
+                String.format("%.1f sec", controller.getPeriod()),
+                controller.getBatchSize() + " samples",
+                controller.getDecision()
+            });
+        }
+        html.closeTable();
+
+        final Scanner scanner = model.getScanner();
+        html.h2(Messages.HTTP_ScanLists);
+        html.openTable(1, new String[]
+        {
+            Messages.HTTP_ScanPeriod,
+            Messages.HTTP_ChannelCount,
+            Messages.HTTP_ScanSkipped,
+            Messages.HTTP_ScanLateness,
+        });
+        for (ScanList list : scanner.getScanLists())
+        {
+            html.tableLine(new String[]
+            {
+                list.getPeriod() + " sec",
+                Integer.toString(list.size()),
+                (list.getSkippedScans() > 0
+                 ? HTMLWriter.makeRedText(Long.toString(list.getSkippedScans()))
+                 : "0"),
+                list.getLateness().toString()
+            });
+        }
+        html.closeTable();
+
         html.close();
     }
 }
@@ -9,6 +9,7 @@ package org.csstudio.archive.engine.server.json;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -17,6 +18,12 @@ import org.csstudio.apputil.time.PeriodFormat;
 import org.csstudio.archive.engine.Messages;
 import org.csstudio.archive.engine.model.EngineModel;
 import org.csstudio.archive.engine.model.SampleBuffer;
+import org.csstudio.archive.engine.model.SpillJournal;
+import org.csstudio.archive.engine.model.WriteController;
+import org.csstudio.archive.engine.model.WriteThread;
+import org.csstudio.archive.engine.scanner.LatenessHistogram;
+import org.csstudio.archive.engine.scanner.ScanList;
+import org.csstudio.archive.engine.scanner.Scanner;
 import org.csstudio.archive.engine.server.AbstractMainResponse;
 import org.csstudio.archive.vtype.TimestampHelper;
 import org.diirt.util.time.TimeDuration;
@@ -63,11 +70,25 @@ public class JSONMainResponse extends AbstractMainResponse
 
         json.writeObjectEntry(Messages.HTTP_BatchSize, model.getBatchSize());
         json.writeObjectEntry(Messages.HTTP_WritePeriod, model.getWritePeriod());
+        json.writeObjectEntry(Messages.HTTP_WriteLatency, model.getMaxWriteLatency());
 
         json.writeObjectEntry(Messages.HTTP_WriteState, SampleBuffer.isInErrorState()?
                                                         Messages.HTTP_WriteError
                                                         : "OK");
 
+        final List<SpillJournal> journals = model.getSpillJournals();
+        if (! journals.isEmpty())
+        {
+            long pending = 0, dropped = 0;
+            for (SpillJournal journal : journals)
+            {
+                pending += journal.getPendingCount();
+                dropped += journal.getDroppedCount();
+            }
+            json.writeObjectEntry(Messages.HTTP_SpillPending, pending);
+            json.writeObjectEntry(Messages.HTTP_SpillDropped, dropped);
+        }
+
         final Instant last_write_time = model.getLastWriteTime();
         json.writeObjectEntry(Messages.HTTP_LastWriteTime, last_write_time == null?
                                                            Messages.HTTP_Never
@@ -76,8 +97,51 @@ public class JSONMainResponse extends AbstractMainResponse
         json.writeObjectEntry(Messages.HTTP_WriteCount, model.getWriteCount());
         json.writeObjectEntry(Messages.HTTP_WriteDuration, model.getWriteDuration());
 
+        final JSONList writers = new JSONList();
+        for (WriteThread writer : model.getWriteThreads())
+        {
+            final JSONObject JSONwriter = new JSONObject();
+            JSONwriter.writeObjectEntry(Messages.HTTP_Writer, writer.getName());
+            JSONwriter.writeObjectEntry(Messages.HTTP_ChannelCount, writer.getBufferCount());
+            JSONwriter.writeObjectEntry(Messages.HTTP_WriteState, writer.isInErrorState()?
+                                                                  Messages.HTTP_WriteError
+                                                                  : "OK");
+            final Instant last = writer.getLastWriteTime();
+            JSONwriter.writeObjectEntry(Messages.HTTP_LastWriteTime, last == null?
+                                                                     Messages.HTTP_Never
+                                                                     : TimestampHelper.format(last));
+            JSONwriter.writeObjectEntry(Messages.HTTP_WriteCount, writer.getWriteCount());
+            JSONwriter.writeObjectEntry(Messages.HTTP_WriteDuration, writer.getWriteDuration());
+            final WriteController controller = writer.getController();
+            JSONwriter.writeObjectEntry(Messages.HTTP_WritePeriod, controller.getPeriod());
+            JSONwriter.writeObjectEntry(Messages.HTTP_BatchSize, controller.getBatchSize());
+            JSONwriter.writeObjectEntry(Messages.HTTP_QueueFill, controller.getFill());
+            JSONwriter.writeObjectEntry(Messages.HTTP_OverrunRate, controller.getOverrunRate());
+            JSONwriter.writeObjectEntry(Messages.HTTP_WriteDecision, controller.getDecision());
+            writers.addObjectToList(JSONwriter);
+        }
+        json.writeObjectEntry(Messages.HTTP_Writers, writers);
+
         json.writeObjectEntry(Messages.HTTP_Idletime, model.getIdlePercentage());
 
+        final Scanner scanner = model.getScanner();
+        json.writeObjectEntry(Messages.HTTP_ScanThreads, scanner.getThreadCount());
+        final JSONList scan_lists = new JSONList();
+        for (ScanList list : scanner.getScanLists())
+        {
+            final JSONObject JSONlist = new JSONObject();
+            JSONlist.writeObjectEntry(Messages.HTTP_ScanPeriod, list.getPeriod());
+            JSONlist.writeObjectEntry(Messages.HTTP_ChannelCount, list.size());
+            JSONlist.writeObjectEntry(Messages.HTTP_ScanSkipped, list.getSkippedScans());
+            final LatenessHistogram lateness = list.getLateness();
+            final JSONObject histogram = new JSONObject();
+            for (int i=0; i<lateness.getBucketCount(); ++i)
+                histogram.writeObjectEntry(lateness.getLabel(i), lateness.getCount(i));
+            JSONlist.writeObjectEntry(Messages.HTTP_ScanLateness, histogram);
+            scan_lists.addObjectToList(JSONlist);
+        }
+        json.writeObjectEntry(Messages.HTTP_ScanLists, scan_lists);
+
         final Runtime runtime = Runtime.getRuntime();
         final double used_mem = runtime.totalMemory() / MB;
         final double max_mem = runtime.maxMemory() / MB;
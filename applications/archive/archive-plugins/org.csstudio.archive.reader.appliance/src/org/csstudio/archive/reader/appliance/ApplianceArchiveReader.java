@@ -17,6 +17,7 @@ import org.csstudio.apputil.text.RegExHelper;
 import org.csstudio.archive.reader.ArchiveInfo;
 import org.csstudio.archive.reader.ArchiveReader;
 import org.csstudio.archive.reader.UnknownChannelException;
+import org.csstudio.archive.reader.ValueBlockIterator;
 import org.csstudio.archive.reader.ValueIterator;
 import org.csstudio.archive.vtype.TimestampHelper;
 import org.epics.archiverappliance.retrieval.client.DataRetrieval;
@@ -151,6 +152,14 @@ public class ApplianceArchiveReader implements ArchiveReader, IteratorListener {
         }
     }
 
+    /* (non-Javadoc)
+     * @see org.csstudio.archive.reader.ArchiveReader#getRawBlocks(int, java.lang.String, java.time.Instant, java.time.Instant, int)
+     */
+    @Override
+    public ValueBlockIterator getRawBlocks(int key, String name, Instant start, Instant end, int blockSize) throws UnknownChannelException, Exception {
+        return new ApplianceBlockIterator(getRawValues(key, name, start, end), blockSize);
+    }
+
     /* (non-Javadoc)
      * @see org.csstudio.archive.reader.ArchiveReader#getOptimizedValues(int, java.lang.String, org.diirt.util.time.Timestamp, org.diirt.util.time.Timestamp, int)
      */
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.reader.appliance;
+
+import org.csstudio.archive.reader.ValueBlock;
+import org.csstudio.archive.reader.ValueBlockIterator;
+
+/**
+ *
+ * <code>ApplianceBlockIterator</code> reads the samples of an {@link ApplianceValueIterator}
+ * in blocks. Scalar numeric samples are decoded directly into the columns of a re-used
+ * block, without creating a VType for each sample.
+ *
+ * @author agent
+ *
+ */
+public class ApplianceBlockIterator implements ValueBlockIterator {
+
+    private final ApplianceValueIterator values;
+    private final ValueBlock block;
+
+    /**
+     * Constructs a new block iterator.
+     *
+     * @param values the iterator that provides the samples
+     * @param blockSize maximum number of samples in a block
+     */
+    public ApplianceBlockIterator(ApplianceValueIterator values, int blockSize) {
+        this.values = values;
+        this.block = new ValueBlock(blockSize);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.csstudio.archive.reader.ValueBlockIterator#hasNext()
+     */
+    @Override
+    public boolean hasNext() {
+        return values.hasNext();
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.csstudio.archive.reader.ValueBlockIterator#next()
+     */
+    @Override
+    public ValueBlock next() throws Exception {
+        values.readBlock(block);
+        return block;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.csstudio.archive.reader.ValueBlockIterator#close()
+     */
+    @Override
+    public void close() {
+        values.close();
+    }
+}
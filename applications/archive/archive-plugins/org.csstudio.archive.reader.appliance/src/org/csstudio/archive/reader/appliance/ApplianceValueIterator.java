@@ -7,6 +7,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import org.csstudio.archive.reader.ValueBlock;
 import org.csstudio.archive.reader.ValueIterator;
 import org.csstudio.archive.vtype.ArchiveVEnum;
 import org.csstudio.archive.vtype.ArchiveVNumber;
@@ -56,6 +57,17 @@ public abstract class ApplianceValueIterator implements ValueIterator {
 
     private static Object lock = new Object();
 
+    /** Status strings for the common status values */
+    private static final String[] STATUS = new String[32];
+    static {
+        for (int i = 0; i < STATUS.length; i++) {
+            STATUS[i] = String.valueOf(i);
+        }
+    }
+
+    /** Display used for all samples of a block */
+    private Display block_display;
+
     /**
      * Constructs a new ApplianceValueIterator.
      *
@@ -130,6 +142,47 @@ public abstract class ApplianceValueIterator implements ValueIterator {
         return extractData(message);
     }
 
+    /**
+     * Reads the next samples into the given block. Scalar numeric samples are
+     * added to the columns of the block without creating a VType.
+     *
+     * @param block the block which is cleared and then filled
+     * @throws Exception if the data could not be read
+     */
+    void readBlock(ValueBlock block) throws Exception {
+        block.clear();
+        if (!hasNext()) {
+            return;
+        }
+        PayloadType type = mainStream.getPayLoadInfo().getType();
+        boolean scalar = type == PayloadType.SCALAR_BYTE ||
+                type == PayloadType.SCALAR_DOUBLE ||
+                type == PayloadType.SCALAR_FLOAT ||
+                type == PayloadType.SCALAR_INT ||
+                type == PayloadType.SCALAR_SHORT;
+        if (scalar && block_display == null) {
+            block_display = display == null ? getDisplay(mainStream.getPayLoadInfo()) : display;
+        }
+        while (!block.isFull() && hasNext()) {
+            EpicsMessage message;
+            synchronized (this) {
+                if (closed)
+                    return;
+                message = mainIterator.next();
+            }
+            if (scalar) {
+                java.sql.Timestamp stamp = message.getTimestamp();
+                block.add(Math.floorDiv(stamp.getTime(), 1000L), stamp.getNanos(),
+                        message.getNumberValue(),
+                        getSeverity(message.getSeverity()),
+                        getStatus(message.getStatus()),
+                        block_display);
+            } else {
+                block.add(extractData(message));
+            }
+        }
+    }
+
     /**
      * Extracts the data from the given epics message based on the payload type.
      *
@@ -300,6 +353,20 @@ public abstract class ApplianceValueIterator implements ValueIterator {
     }
 
 
+    /**
+     * Determines the status text for the given numerical representation.
+     *
+     * @param status numerical representation of the status
+     *
+     * @return status text
+     */
+    protected static String getStatus(int status) {
+        if (status >= 0 && status < STATUS.length) {
+            return STATUS[status];
+        }
+        return String.valueOf(status);
+    }
+
     /**
      * Determines alarm severity from the given numerical representation.
      *
@@ -88,6 +88,11 @@ public class RawChunkReader extends AbstractInfluxDBValueLookup
         return decoder.decodeSampleValue();
     }
 
+    /** @return Decoder for samples */
+    protected AbstractInfluxDBValueDecoder getDecoder() {
+        return decoder;
+    }
+
     private boolean poll_next_sample_series() throws Exception
     {
         Series next_series = next_sample_series.poll();
@@ -15,6 +15,7 @@ import java.util.logging.Level;
 
 import org.csstudio.archive.influxdb.InfluxDBUtil;
 import org.csstudio.archive.influxdb.MetaTypes.MetaObject;
+import org.csstudio.archive.reader.ValueBlock;
 import org.csstudio.archive.reader.influxdb.raw.AbstractInfluxDBValueDecoder;
 import org.csstudio.archive.reader.influxdb.raw.AbstractInfluxDBValueLookup;
 import org.csstudio.archive.vtype.ArchiveVEnum;
@@ -141,6 +142,75 @@ public class ArchiveDecoder extends AbstractInfluxDBValueDecoder
 
     }
 
+    /** Decode sample into block
+     *
+     *  <p>Scalar numeric and enumerated samples are added to the
+     *  columns of the block without creating a {@link VType}.
+     *
+     *  @param block Block to which the sample is added
+     *  @return <code>false</code> if sample is to be ignored
+     *  @throws Exception on error
+     */
+    public boolean decodeSampleValue(final ValueBlock block) throws Exception
+    {
+        final MetaObject meta = vals.getMeta();
+        final Object val;
+        switch (meta.storeas)
+        {
+        case ARCHIVE_DOUBLE:
+        case ARCHIVE_DOUBLE_ARRAY:
+            // Only handle plain scalars, arrays and prefix-type samples via VType
+            val = vals.hasValue("double.0") ? vals.getValue("double.0") : null;
+            if (val == null  ||  (vals.hasValue("double.1")  &&  vals.getValue("double.1") != null))
+                return addValue(block);
+            ignore_prefix_samples = true;
+            break;
+        case ARCHIVE_LONG:
+        case ARCHIVE_ENUM:
+            val = getSingleValue("long.0", "average_");
+            if (val == null)
+                return addValue(block);
+            if (val == IGNORE_SAMPLE)
+                return false;
+            break;
+        default:
+            return addValue(block);
+        }
+
+        final Instant time = InfluxDBUtil.fromInfluxDBTimeFormat(vals.getValue("time"));
+        String status = vals.hasValue("status") ? (String) vals.getValue("status") : "";
+        if (status == null)
+            status = "";
+        final String severity_string = vals.hasValue("severity") ? (String) vals.getValue("severity") : "NONE";
+        final AlarmSeverity severity = filterSeverity(severity_string != null ? severity_string : "NONE", status);
+
+        switch (meta.storeas)
+        {
+        case ARCHIVE_ENUM:
+            block.addEnum(time.getEpochSecond(), time.getNano(), fieldToLong(val).intValue(),
+                          severity, status, (List<String>)meta.object);
+            break;
+        case ARCHIVE_LONG:
+            block.add(time.getEpochSecond(), time.getNano(), fieldToLong(val),
+                      severity, status, Display.class.cast(meta.object));
+            break;
+        default:
+            block.add(time.getEpochSecond(), time.getNano(),
+                      status.equals(NOT_A_NUMBER_STATUS) ? Double.NaN : fieldToDouble(val),
+                      severity, status, Display.class.cast(meta.object));
+        }
+        return true;
+    }
+
+    private boolean addValue(final ValueBlock block) throws Exception
+    {
+        final VType value = decodeSampleValue();
+        if (value == null)
+            return false;
+        block.add(value);
+        return true;
+    }
+
     protected final Double fieldToDouble(Object val) throws Exception
     {
         Double dbl;
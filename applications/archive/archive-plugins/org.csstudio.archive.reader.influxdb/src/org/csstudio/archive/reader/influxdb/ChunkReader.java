@@ -19,6 +19,7 @@ import java.util.logging.Level;
 import org.csstudio.archive.influxdb.InfluxDBResults;
 import org.csstudio.archive.influxdb.MetaTypes;
 import org.csstudio.archive.influxdb.MetaTypes.MetaObject;
+import org.csstudio.archive.reader.ValueBlock;
 import org.csstudio.archive.reader.influxdb.raw.AbstractInfluxDBValueDecoder;
 import org.csstudio.archive.reader.influxdb.raw.Activator;
 import org.csstudio.archive.reader.influxdb.raw.RawChunkReader;
@@ -67,6 +68,30 @@ public class ChunkReader extends RawChunkReader
         return result;
     }
 
+    /** Decode sample into block, skipping samples that are ignored
+     *  @param block Block to which the sample is added
+     *  @return <code>true</code> if a sample was added, <code>false</code> at end of samples
+     *  @throws Exception on error
+     */
+    public boolean decodeSampleValue(final ValueBlock block) throws Exception
+    {
+        final AbstractInfluxDBValueDecoder decoder = getDecoder();
+        if (! (decoder instanceof ArchiveDecoder))
+        {
+            final VType value = decodeSampleValue();
+            if (value == null)
+                return false;
+            block.add(value);
+            return true;
+        }
+        do
+        {
+            if (((ArchiveDecoder) decoder).decodeSampleValue(block))
+                return true;
+        } while (step());
+        return false;
+    }
+
     private void step_next_metadata() throws Exception
     {
         next_meta = next_metadata.poll();
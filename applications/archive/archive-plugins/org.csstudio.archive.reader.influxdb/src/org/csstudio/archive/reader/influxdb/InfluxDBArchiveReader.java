@@ -24,6 +24,7 @@ import org.csstudio.archive.influxdb.InfluxDBUtil.ConnectionInfo;
 import org.csstudio.archive.reader.ArchiveInfo;
 import org.csstudio.archive.reader.ArchiveReader;
 import org.csstudio.archive.reader.UnknownChannelException;
+import org.csstudio.archive.reader.ValueBlockIterator;
 import org.csstudio.archive.reader.ValueIterator;
 import org.csstudio.archive.reader.influxdb.raw.ConnectionCache;
 import org.influxdb.InfluxDB;
@@ -228,6 +229,14 @@ public class InfluxDBArchiveReader implements ArchiveReader
         return new SampleIterator(this, channel_name, start, end);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public ValueBlockIterator getRawBlocks(final int key, final String name,
+            final Instant start, final Instant end, final int block_size) throws UnknownChannelException, Exception
+    {
+        return new SampleBlockIterator(new SampleIterator(this, name, start, end), block_size);
+    }
+
     /** {@inheritDoc} */
     @Override
     public ValueIterator getOptimizedValues(final int key, final String name,
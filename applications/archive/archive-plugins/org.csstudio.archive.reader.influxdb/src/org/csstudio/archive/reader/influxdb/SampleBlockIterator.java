@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.reader.influxdb;
+
+import org.csstudio.archive.reader.ValueBlock;
+import org.csstudio.archive.reader.ValueBlockIterator;
+
+/** Block Iterator for raw samples.
+ *
+ *  <p>Decodes scalar samples from the query results
+ *  directly into the columns of a re-used block.
+ *
+ *  @author agent
+ */
+public class SampleBlockIterator implements ValueBlockIterator
+{
+    final private SampleIterator samples;
+    final private ValueBlock block;
+
+    /** @param samples Raw samples
+     *  @param block_size Maximum number of samples per block
+     */
+    public SampleBlockIterator(final SampleIterator samples, final int block_size)
+    {
+        this.samples = samples;
+        block = new ValueBlock(block_size);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasNext()
+    {
+        return samples.hasNext();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ValueBlock next() throws Exception
+    {
+        samples.readBlock(block);
+        return block;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close()
+    {
+        samples.close();
+    }
+}
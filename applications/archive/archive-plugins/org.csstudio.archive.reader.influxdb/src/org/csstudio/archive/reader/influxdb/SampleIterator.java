@@ -13,6 +13,7 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.function.Consumer;
 
 import org.csstudio.archive.influxdb.InfluxDBResults;
+import org.csstudio.archive.reader.ValueBlock;
 import org.csstudio.archive.reader.influxdb.raw.AbstractInfluxDBValueIterator;
 import org.csstudio.archive.reader.influxdb.raw.Preferences;
 import org.diirt.vtype.VType;
@@ -137,6 +138,32 @@ public class SampleIterator extends AbstractInfluxDBValueIterator
         return result;
     }
 
+    /** Read samples into block
+     *  @param block Block that will be cleared and then filled
+     *  @throws Exception on error
+     */
+    void readBlock(final ValueBlock block) throws Exception
+    {
+        block.clear();
+        if (next_value == null)
+            return;
+        block.add(next_value);
+        next_value = null;
+        while (!block.isFull())
+        {
+            if (! (samples.step()  &&  samples.decodeSampleValue(block)))
+            {
+                close();
+                return;
+            }
+        }
+        // Block is full. Fetch next sample to know if there are more
+        if (samples.step())
+            next_value = samples.decodeSampleValue();
+        if (next_value == null)
+            close();
+    }
+
     /** Release all database resources.
      *  OK to call more than once.
      */
@@ -17,6 +17,7 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.csstudio.archive.reader.ValueBlock;
 import org.csstudio.archive.reader.ValueIterator;
 import org.csstudio.archive.vtype.ArchiveVEnum;
 import org.csstudio.archive.vtype.ArchiveVNumber;
@@ -221,6 +222,73 @@ abstract public class AbstractRDBValueIterator  implements ValueIterator
         return new ArchiveVString(time, severity, status, txt);
     }
 
+    /** Extract value from SQL result into block
+     *
+     *  <p>Scalar numeric and enumerated samples are added to the
+     *  columns of the block without creating a {@link VType}.
+     *
+     *  @param result ResultSet that must contain contain time, severity, ..., value
+     *  @param block Block to which the sample is added
+     *  @throws Exception on error, including cancellation
+     */
+    protected void decodeSampleTableValue(final ResultSet result, final ValueBlock block) throws Exception
+    {
+        if (mayBeArray(result))
+        {
+            block.add(decodeSampleTableValue(result, true));
+            return;
+        }
+
+        final java.sql.Timestamp stamp = result.getTimestamp(1);
+        if (!reader.isOracle())
+            stamp.setNanos(result.getInt(7));
+        final long secs = Math.floorDiv(stamp.getTime(), 1000L);
+        final int nano = stamp.getNanos();
+
+        final String status = reader.getStatus(result.getInt(3));
+        final AlarmSeverity severity = filterSeverity(reader.getSeverity(result.getInt(2)), status);
+
+        final double dbl0 = result.getDouble(5);
+        if (! result.wasNull())
+        {
+            if (labels != null)
+                block.addEnum(secs, nano, (int) dbl0, severity, status, labels);
+            else
+                block.add(secs, nano, dbl0, severity, status, display);
+            return;
+        }
+
+        final int num = result.getInt(4);
+        if (! result.wasNull())
+        {
+            if (labels != null)
+                block.addEnum(secs, nano, num, severity, status, labels);
+            else
+                block.add(secs, nano, num, severity, status, display);
+            return;
+        }
+
+        block.add(new ArchiveVString(Instant.ofEpochSecond(secs, nano), severity, status, result.getString(6)));
+    }
+
+    /** @param result ResultSet for the sample table
+     *  @return <code>true</code> if the current sample could be an array
+     *  @throws Exception on error
+     */
+    private boolean mayBeArray(final ResultSet result) throws Exception
+    {
+        // Enumerated samples are never handled as arrays
+        if (labels != null)
+            return false;
+        if (reader.useArrayBlob())
+        {
+            final String datatype = result.getString(reader.isOracle() ? 7 : 8);
+            return datatype != null  &&  !" ".equals(datatype)  &&  !result.wasNull();
+        }
+        // Without BLOB, need to check the array_val table until a scalar sample was found
+        return is_an_array;
+    }
+
     /** @param severity Original severity
      *  @param status Status text
      *  @return If the status indicates that there is no actual value,
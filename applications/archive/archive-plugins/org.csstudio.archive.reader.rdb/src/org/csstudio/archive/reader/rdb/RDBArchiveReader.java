@@ -22,6 +22,7 @@ import org.csstudio.archive.rdb.RDBArchivePreferences;
 import org.csstudio.archive.reader.ArchiveInfo;
 import org.csstudio.archive.reader.ArchiveReader;
 import org.csstudio.archive.reader.UnknownChannelException;
+import org.csstudio.archive.reader.ValueBlockIterator;
 import org.csstudio.archive.reader.ValueIterator;
 import org.csstudio.archive.vtype.TimestampHelper;
 import org.csstudio.platform.utility.rdb.RDBUtil.Dialect;
@@ -376,6 +377,15 @@ public class RDBArchiveReader implements ArchiveReader
         return new RawSampleIterator(this, channel_id, start, end, concurrency);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public ValueBlockIterator getRawBlocks(final int key, final String name,
+            final Instant start, final Instant end, final int block_size) throws UnknownChannelException, Exception
+    {
+        final int channel_id = getChannelID(name);
+        return new RawBlockIterator(new RawSampleIterator(this, channel_id, start, end, concurrency), block_size);
+    }
+
     /** {@inheritDoc} */
     @Override
     public ValueIterator getOptimizedValues(final int key, final String name,
@@ -12,6 +12,7 @@ import java.sql.ResultSet;
 import java.sql.Timestamp;
 import java.time.Instant;
 
+import org.csstudio.archive.reader.ValueBlock;
 import org.csstudio.archive.vtype.TimestampHelper;
 import org.csstudio.platform.utility.rdb.RDBUtil.Dialect;
 import org.diirt.vtype.VType;
@@ -199,6 +200,43 @@ public class RawSampleIterator extends AbstractRDBValueIterator
         return result;
     }
 
+    /** Read samples into block
+     *  @param block Block that will be cleared and then filled
+     *  @throws Exception on error
+     */
+    void readBlock(final ValueBlock block) throws Exception
+    {
+        block.clear();
+        if (value == null)
+            return;
+        block.add(value);
+        value = null;
+        try
+        {
+            while (!block.isFull())
+            {
+                if (! result_set.next())
+                {
+                    close();
+                    return;
+                }
+                decodeSampleTableValue(result_set, block);
+            }
+            // Block is full. Fetch next sample to know if there are more
+            if (result_set.next())
+                value = decodeSampleTableValue(result_set, true);
+            else
+                close();
+        }
+        catch (Exception ex)
+        {
+            close();
+            if (! RDBArchiveReader.isCancellation(ex))
+                throw ex;
+            // Else: Not a real error; return what was read so far
+        }
+    }
+
     /** Release all database resources.
      *  OK to call more than once.
      */
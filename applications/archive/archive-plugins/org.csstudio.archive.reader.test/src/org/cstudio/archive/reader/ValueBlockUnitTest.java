@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.cstudio.archive.reader;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.csstudio.archive.reader.BlockValueIterator;
+import org.csstudio.archive.reader.ValueBlock;
+import org.csstudio.archive.reader.ValueIterator;
+import org.csstudio.archive.reader.ValueIteratorBlockAdapter;
+import org.csstudio.archive.vtype.ArchiveVEnum;
+import org.csstudio.archive.vtype.ArchiveVNumber;
+import org.csstudio.archive.vtype.ArchiveVString;
+import org.csstudio.archive.vtype.VTypeHelper;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.Display;
+import org.diirt.vtype.VEnum;
+import org.diirt.vtype.VNumber;
+import org.diirt.vtype.VString;
+import org.diirt.vtype.VType;
+import org.diirt.vtype.ValueFactory;
+import org.junit.Test;
+
+/** JUnit test of the {@link ValueBlock} and its adapters
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class ValueBlockUnitTest
+{
+    final private Display display = ValueFactory.displayNone();
+
+    @Test
+    public void testColumns() throws Exception
+    {
+        final ValueBlock block = new ValueBlock(3);
+        block.add(10, 500, 3.14, AlarmSeverity.MINOR, "LOW", display);
+        block.add(new ArchiveVString(Instant.ofEpochSecond(11, 0), AlarmSeverity.NONE, "OK", "Hello"));
+        block.add(new ArchiveVNumber(Instant.ofEpochSecond(12, 0), AlarmSeverity.NONE, "OK", display, 42.0));
+        assertThat(block.isFull(), equalTo(true));
+
+        assertThat(block.getDisplay(), equalTo(display));
+        assertThat(block.getSeconds()[0], equalTo(10L));
+        assertThat(block.getNanos()[0], equalTo(500));
+        assertThat(block.getValue(0), equalTo(3.14));
+        assertThat(block.getSeverity(0), equalTo(AlarmSeverity.MINOR));
+        assertThat(block.getStatus(0), equalTo("LOW"));
+        assertThat(block.getObject(0), nullValue());
+
+        // String is kept as VType
+        assertThat(block.getObject(1), instanceOf(VString.class));
+        assertThat(block.getTime(1), equalTo(Instant.ofEpochSecond(11, 0)));
+
+        // Number with same display and kind is decomposed
+        assertThat(block.getObject(2), nullValue());
+        assertThat(block.getValue(2), equalTo(42.0));
+
+        final VType value = block.toVType(0);
+        assertThat(value, instanceOf(VNumber.class));
+        assertThat(VTypeHelper.getTimestamp(value), equalTo(Instant.ofEpochSecond(10, 500)));
+
+        block.clear();
+        assertThat(block.isEmpty(), equalTo(true));
+        assertThat(block.getDisplay(), nullValue());
+    }
+
+    @Test
+    public void testKinds() throws Exception
+    {
+        final ValueBlock block = new ValueBlock(5);
+        final long big = (1L << 60) + 1;
+        block.add(10, 0, big, AlarmSeverity.NONE, "OK", display);
+        block.add(11, 0, 42, AlarmSeverity.NONE, "OK", display);
+        block.add(new ArchiveVNumber(Instant.ofEpochSecond(12, 0), AlarmSeverity.NONE, "OK", display, Long.valueOf(7)));
+        assertThat(block.getKind(), equalTo(ValueBlock.Kind.LONG));
+        assertThat(block.getLongs()[0], equalTo(big));
+
+        // Long samples keep their exact value and type
+        assertThat(((VNumber) block.toVType(0)).getValue(), equalTo((Number) Long.valueOf(big)));
+        assertThat(((VNumber) block.toVType(2)).getValue(), equalTo((Number) Long.valueOf(7)));
+        // Integer in a block of longs is kept as VType
+        assertThat(block.getObject(1), instanceOf(VNumber.class));
+        assertThat(((VNumber) block.toVType(1)).getValue(), equalTo((Number) Integer.valueOf(42)));
+
+        block.clear();
+        assertThat(block.getKind(), nullValue());
+        block.add(10, 0, Float.valueOf(1.5f), AlarmSeverity.NONE, "OK", display);
+        assertThat(((VNumber) block.toVType(0)).getValue(), equalTo((Number) Float.valueOf(1.5f)));
+        assertThat(block.getLongs(), nullValue());
+
+        block.clear();
+        final List<String> labels = Arrays.asList("Off", "On");
+        block.addEnum(10, 0, 1, AlarmSeverity.NONE, "OK", labels);
+        block.add(new ArchiveVEnum(Instant.ofEpochSecond(11, 0), AlarmSeverity.NONE, "OK", labels, 0));
+        assertThat(block.getKind(), equalTo(ValueBlock.Kind.ENUM));
+        assertThat(block.getObject(1), nullValue());
+        assertThat(((VEnum) block.toVType(0)).getValue(), equalTo("On"));
+        assertThat(((VEnum) block.toVType(1)).getIndex(), equalTo(0));
+    }
+
+    @Test
+    public void testAdapters() throws Exception
+    {
+        final VType[] data = new VType[25];
+        for (int i=0; i<data.length; ++i)
+            if (i == 7)
+                data[i] = new ArchiveVString(Instant.ofEpochSecond(1000 + i, 0), AlarmSeverity.NONE, "OK", "Text");
+            else
+                data[i] = new ArchiveVNumber(Instant.ofEpochSecond(1000 + i, 0), AlarmSeverity.NONE, "OK", display, i);
+
+        // Values into blocks of 10, then back into values
+        final DemoDataIterator raw = new DemoDataIterator(data);
+        final ValueIterator values = new BlockValueIterator(new ValueIteratorBlockAdapter(raw, 10));
+        final List<VType> result = new ArrayList<>();
+        while (values.hasNext())
+            result.add(values.next());
+        values.close();
+        assertThat(raw.isOpen(), equalTo(false));
+
+        assertThat(result.size(), equalTo(data.length));
+        for (int i=0; i<data.length; ++i)
+        {
+            assertThat(VTypeHelper.getTimestamp(result.get(i)), equalTo(Instant.ofEpochSecond(1000 + i, 0)));
+            if (i == 7)
+                assertThat(result.get(i), equalTo(data[i]));
+            else
+                assertThat(((VNumber) result.get(i)).getValue(), equalTo((Number) Integer.valueOf(i)));
+        }
+    }
+}
@@ -140,6 +140,29 @@ public interface ArchiveReader extends Closeable
     public ValueIterator getRawValues(int key, String name,
             Instant start, Instant end) throws UnknownChannelException, Exception;
 
+    /** Read original, raw samples from the archive in blocks
+     *  <p>
+     *  Avoids the creation of a {@link org.diirt.vtype.VType} for each sample
+     *  where the implementation supports this.
+     *  The default implementation reads the samples from
+     *  <code>getRawValues</code>.
+     *  {@link BlockValueIterator} turns the result into a {@link ValueIterator}.
+     *
+     *  @param key Key of the archive to use for retrieval.
+     *  @param name Channel name
+     *  @param start Start time
+     *  @param end End time
+     *  @param block_size Maximum number of samples per block
+     *  @return ValueBlockIterator for the 'raw' samples in the archive
+     *  @throws UnknownChannelException when channel is not known
+     *  @throws Exception on error
+     */
+    default ValueBlockIterator getRawBlocks(int key, String name,
+            Instant start, Instant end, int block_size) throws UnknownChannelException, Exception
+    {
+        return new ValueIteratorBlockAdapter(getRawValues(key, name, start, end), block_size);
+    }
+
     /** Read optimized samples from the archive.
      *  <p>
      *  The exact behavior is up to the implementation.
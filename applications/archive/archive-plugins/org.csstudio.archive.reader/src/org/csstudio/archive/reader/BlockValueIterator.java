@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.reader;
+
+import org.diirt.vtype.VType;
+
+/** {@link ValueIterator} for a {@link ValueBlockIterator}
+ *
+ *  <p>Allows existing code that expects a {@link ValueIterator}
+ *  to read from a {@link ValueBlockIterator}.
+ *
+ *  @author agent
+ */
+public class BlockValueIterator implements ValueIterator
+{
+    final private ValueBlockIterator blocks;
+
+    /** Current block or <code>null</code> */
+    private ValueBlock block = null;
+
+    /** Index of next sample in <code>block</code> */
+    private int index = 0;
+
+    /** @param blocks Iterator for blocks of samples
+     *  @throws Exception on error in archive access
+     */
+    public BlockValueIterator(final ValueBlockIterator blocks) throws Exception
+    {
+        this.blocks = blocks;
+        nextBlock();
+    }
+
+    private void nextBlock() throws Exception
+    {
+        index = 0;
+        block = null;
+        while (blocks.hasNext())
+        {
+            block = blocks.next();
+            if (! block.isEmpty())
+                return;
+        }
+        block = null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasNext()
+    {
+        return block != null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public VType next() throws Exception
+    {
+        if (block == null)
+            throw new IllegalStateException();
+        final VType result = block.toVType(index++);
+        if (index >= block.size())
+            nextBlock();
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close()
+    {
+        block = null;
+        blocks.close();
+    }
+}
@@ -0,0 +1,496 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.reader;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.csstudio.archive.vtype.ArchiveVDisplayType;
+import org.csstudio.archive.vtype.ArchiveVEnum;
+import org.csstudio.archive.vtype.ArchiveVNumber;
+import org.diirt.vtype.Alarm;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.Display;
+import org.diirt.vtype.Time;
+import org.diirt.vtype.VEnum;
+import org.diirt.vtype.VNumber;
+import org.diirt.vtype.VType;
+
+/** Block of samples in columns of primitive arrays
+ *
+ *  <p>Scalar numeric and enumerated samples are kept as
+ *  time stamp (epoch seconds, nanoseconds), <code>double</code> value,
+ *  severity and status.
+ *  All such samples in a block share the same {@link Kind} of value
+ *  and the same {@link Display} or, for enumerated samples, the same labels.
+ *  The {@link Kind} allows {@link #toVType(int)} to return
+ *  the original type of number.
+ *
+ *  <p>Other samples (arrays, strings, statistics, samples
+ *  with different meta data or type) are kept as {@link VType} in
+ *  {@link #getObject(int)}, while their time stamp, severity and
+ *  status are also available in the columns.
+ *
+ *  <p>Not thread-safe.
+ *  A {@link ValueBlockIterator} may re-use the same block,
+ *  so the content is only valid until the iterator is called again.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class ValueBlock
+{
+    /** Type of the values kept in the columns */
+    public enum Kind
+    {
+        /** {@link Double} */
+        DOUBLE,
+        /** {@link Float} */
+        FLOAT,
+        /** {@link Long}, kept exact in {@link ValueBlock#getLongs()} */
+        LONG,
+        /** {@link Integer} */
+        INTEGER,
+        /** {@link Short} */
+        SHORT,
+        /** {@link Byte} */
+        BYTE,
+        /** Enumeration index */
+        ENUM;
+
+        /** @param number Number
+         *  @return Kind of the number, <code>null</code> if it cannot be kept in the columns
+         */
+        public static Kind of(final Number number)
+        {
+            if (number instanceof Double)
+                return DOUBLE;
+            if (number instanceof Float)
+                return FLOAT;
+            if (number instanceof Long)
+                return LONG;
+            if (number instanceof Integer)
+                return INTEGER;
+            if (number instanceof Short)
+                return SHORT;
+            if (number instanceof Byte)
+                return BYTE;
+            return null;
+        }
+
+        /** @param value Value as double
+         *  @param exact Exact value for {@link #LONG}
+         *  @return Number of this kind
+         */
+        Number toNumber(final double value, final long exact)
+        {
+            switch (this)
+            {
+            case FLOAT:
+                return Float.valueOf((float) value);
+            case LONG:
+                return Long.valueOf(exact);
+            case INTEGER:
+            case ENUM:
+                return Integer.valueOf((int) value);
+            case SHORT:
+                return Short.valueOf((short) value);
+            case BYTE:
+                return Byte.valueOf((byte) value);
+            default:
+                return Double.valueOf(value);
+            }
+        }
+    }
+
+    /** Suggested number of samples in a block */
+    final public static int DEFAULT_SIZE = 1000;
+
+    final private static AlarmSeverity[] SEVERITIES = AlarmSeverity.values();
+
+    final private long[] seconds;
+    final private int[] nanos;
+    final private double[] values;
+    final private byte[] severities;
+    final private String[] status;
+
+    /** Exact values of {@link Kind#LONG} samples, allocated when needed */
+    private long[] longs = null;
+
+    /** Samples that are not kept in the columns, allocated when needed */
+    private VType[] objects = null;
+
+    /** Kind of the values in the columns, <code>null</code> while undetermined */
+    private Kind kind = null;
+
+    /** Meta data of the numeric samples */
+    private Display display = null;
+
+    /** Labels of the enumerated samples */
+    private List<String> labels = null;
+
+    private int size = 0;
+
+    /** @param capacity Maximum number of samples in block */
+    public ValueBlock(final int capacity)
+    {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity " + capacity);
+        seconds = new long[capacity];
+        nanos = new int[capacity];
+        values = new double[capacity];
+        severities = new byte[capacity];
+        status = new String[capacity];
+    }
+
+    /** @return Maximum number of samples in block */
+    public int getCapacity()
+    {
+        return values.length;
+    }
+
+    /** @return Number of samples in block */
+    public int size()
+    {
+        return size;
+    }
+
+    /** @return <code>true</code> if block holds no samples */
+    public boolean isEmpty()
+    {
+        return size <= 0;
+    }
+
+    /** @return <code>true</code> if no more samples can be added */
+    public boolean isFull()
+    {
+        return size >= values.length;
+    }
+
+    /** Remove all samples and meta data */
+    public void clear()
+    {
+        if (objects != null)
+            for (int i=0; i<size; ++i)
+                objects[i] = null;
+        for (int i=0; i<size; ++i)
+            status[i] = null;
+        size = 0;
+        kind = null;
+        display = null;
+        labels = null;
+    }
+
+    /** @return Kind of the values in the columns, <code>null</code> if none were added */
+    public Kind getKind()
+    {
+        return kind;
+    }
+
+    /** @return Display info of the numeric samples, may be <code>null</code> */
+    public Display getDisplay()
+    {
+        return display;
+    }
+
+    /** @return Labels of enumerated samples, <code>null</code> for numeric samples */
+    public List<String> getLabels()
+    {
+        return labels;
+    }
+
+    /** Add scalar {@link Double} sample
+     *
+     *  <p>If the display info or kind differs from the one used by
+     *  preceding samples in this block, the sample is kept as {@link VType}.
+     *
+     *  @param secs Epoch seconds of time stamp
+     *  @param nano Nanoseconds of time stamp
+     *  @param value Value
+     *  @param severity Severity
+     *  @param stat Status
+     *  @param display Display info
+     *  @throws IndexOutOfBoundsException when block is full
+     */
+    public void add(final long secs, final int nano, final double value,
+                    final AlarmSeverity severity, final String stat, final Display display)
+    {
+        if (fits(Kind.DOUBLE, display, null))
+            addColumns(secs, nano, value, 0, severity, stat);
+        else
+            addObject(secs, nano, severity, stat,
+                      new ArchiveVNumber(Instant.ofEpochSecond(secs, nano), severity, stat, display, value));
+    }
+
+    /** Add scalar {@link Long} sample
+     *  @param secs Epoch seconds of time stamp
+     *  @param nano Nanoseconds of time stamp
+     *  @param value Value
+     *  @param severity Severity
+     *  @param stat Status
+     *  @param display Display info
+     *  @throws IndexOutOfBoundsException when block is full
+     *  @see #add(long, int, double, AlarmSeverity, String, Display)
+     */
+    public void add(final long secs, final int nano, final long value,
+                    final AlarmSeverity severity, final String stat, final Display display)
+    {
+        if (fits(Kind.LONG, display, null))
+            addColumns(secs, nano, value, value, severity, stat);
+        else
+            addObject(secs, nano, severity, stat,
+                      new ArchiveVNumber(Instant.ofEpochSecond(secs, nano), severity, stat, display, value));
+    }
+
+    /** Add scalar {@link Integer} sample
+     *  @param secs Epoch seconds of time stamp
+     *  @param nano Nanoseconds of time stamp
+     *  @param value Value
+     *  @param severity Severity
+     *  @param stat Status
+     *  @param display Display info
+     *  @throws IndexOutOfBoundsException when block is full
+     *  @see #add(long, int, double, AlarmSeverity, String, Display)
+     */
+    public void add(final long secs, final int nano, final int value,
+                    final AlarmSeverity severity, final String stat, final Display display)
+    {
+        if (fits(Kind.INTEGER, display, null))
+            addColumns(secs, nano, value, 0, severity, stat);
+        else
+            addObject(secs, nano, severity, stat,
+                      new ArchiveVNumber(Instant.ofEpochSecond(secs, nano), severity, stat, display, value));
+    }
+
+    /** Add scalar sample of any type of number
+     *
+     *  <p>Numbers that do not have a {@link Kind} are kept as {@link VType}.
+     *
+     *  @param secs Epoch seconds of time stamp
+     *  @param nano Nanoseconds of time stamp
+     *  @param value Value
+     *  @param severity Severity
+     *  @param stat Status
+     *  @param display Display info
+     *  @throws IndexOutOfBoundsException when block is full
+     *  @see #add(long, int, double, AlarmSeverity, String, Display)
+     */
+    public void add(final long secs, final int nano, final Number value,
+                    final AlarmSeverity severity, final String stat, final Display display)
+    {
+        final Kind number_kind = Kind.of(value);
+        if (number_kind != null  &&  fits(number_kind, display, null))
+            addColumns(secs, nano, value.doubleValue(), value.longValue(), severity, stat);
+        else
+            addObject(secs, nano, severity, stat,
+                      new ArchiveVNumber(Instant.ofEpochSecond(secs, nano), severity, stat, display, value));
+    }
+
+    /** Add enumerated sample
+     *
+     *  <p>If the labels differ from the ones used by
+     *  preceding samples in this block, the sample is kept as {@link VType}.
+     *
+     *  @param secs Epoch seconds of time stamp
+     *  @param nano Nanoseconds of time stamp
+     *  @param index Enumeration index
+     *  @param severity Severity
+     *  @param stat Status
+     *  @param labels Enumeration labels
+     *  @throws IndexOutOfBoundsException when block is full
+     */
+    public void addEnum(final long secs, final int nano, final int index,
+                        final AlarmSeverity severity, final String stat, final List<String> labels)
+    {
+        if (fits(Kind.ENUM, null, labels))
+            addColumns(secs, nano, index, 0, severity, stat);
+        else
+            addObject(secs, nano, severity, stat,
+                      new ArchiveVEnum(Instant.ofEpochSecond(secs, nano), severity, stat, labels, index));
+    }
+
+    /** Add any sample
+     *
+     *  <p>Scalar numbers and enumerations are decomposed into
+     *  the columns, other values are kept as {@link VType}.
+     *
+     *  @param value Sample with {@link Time} and {@link Alarm}
+     *  @throws IndexOutOfBoundsException when block is full
+     */
+    public void add(final VType value)
+    {
+        final Time time = (Time) value;
+        final Instant stamp = time.getTimestamp();
+        final Alarm alarm = (Alarm) value;
+        if (value instanceof VNumber)
+        {
+            final Display meta = value instanceof ArchiveVDisplayType
+                               ? ((ArchiveVDisplayType) value).getDisplay()
+                               : (Display) value;
+            final Number number = ((VNumber) value).getValue();
+            final Kind number_kind = Kind.of(number);
+            if (number_kind != null  &&  fits(number_kind, meta, null))
+            {
+                addColumns(stamp.getEpochSecond(), stamp.getNano(), number.doubleValue(), number.longValue(),
+                           alarm.getAlarmSeverity(), alarm.getAlarmName());
+                return;
+            }
+        }
+        else if (value instanceof VEnum)
+        {
+            final VEnum enumerated = (VEnum) value;
+            if (fits(Kind.ENUM, null, enumerated.getLabels()))
+            {
+                addColumns(stamp.getEpochSecond(), stamp.getNano(), enumerated.getIndex(), 0,
+                           alarm.getAlarmSeverity(), alarm.getAlarmName());
+                return;
+            }
+        }
+        addObject(stamp.getEpochSecond(), stamp.getNano(), alarm.getAlarmSeverity(), alarm.getAlarmName(), value);
+    }
+
+    /** Check if sample can be kept in the columns.
+     *  The first sample determines the kind and meta data of the block.
+     *  @param kind Kind of the sample
+     *  @param display Display info of the sample
+     *  @param labels Labels of the sample
+     *  @return <code>true</code> if the sample matches the block
+     */
+    private boolean fits(final Kind kind, final Display display, final List<String> labels)
+    {
+        if (this.kind == null)
+        {
+            this.kind = kind;
+            this.display = display;
+            this.labels = labels;
+            return true;
+        }
+        return this.kind == kind  &&  this.display == display  &&  this.labels == labels;
+    }
+
+    private void addColumns(final long secs, final int nano, final double value, final long exact,
+                            final AlarmSeverity severity, final String stat)
+    {
+        if (size >= values.length)
+            throw new IndexOutOfBoundsException("Block is full");
+        seconds[size] = secs;
+        nanos[size] = nano;
+        values[size] = value;
+        if (kind == Kind.LONG)
+        {
+            if (longs == null)
+                longs = new long[values.length];
+            longs[size] = exact;
+        }
+        severities[size] = (byte) severity.ordinal();
+        status[size] = stat;
+        ++size;
+    }
+
+    private void addObject(final long secs, final int nano,
+                           final AlarmSeverity severity, final String stat, final VType value)
+    {
+        if (objects == null)
+            objects = new VType[values.length];
+        final int index = size;
+        addColumns(secs, nano, Double.NaN, 0, severity, stat);
+        objects[index] = value;
+    }
+
+    /** @return Epoch seconds of the time stamps, valid for index 0 .. size()-1 */
+    public long[] getSeconds()
+    {
+        return seconds;
+    }
+
+    /** @return Nanoseconds of the time stamps, valid for index 0 .. size()-1 */
+    public int[] getNanos()
+    {
+        return nanos;
+    }
+
+    /** @return Values, valid for index 0 .. size()-1.
+     *          Enumeration index for enumerated samples,
+     *          <code>NaN</code> where {@link #getObject(int)} holds the sample.
+     */
+    public double[] getValues()
+    {
+        return values;
+    }
+
+    /** @return Exact values of {@link Kind#LONG} samples, valid for index 0 .. size()-1,
+     *          <code>null</code> for other kinds
+     */
+    public long[] getLongs()
+    {
+        return kind == Kind.LONG ? longs : null;
+    }
+
+    /** @param index Sample index
+     *  @return Time stamp
+     */
+    public Instant getTime(final int index)
+    {
+        return Instant.ofEpochSecond(seconds[index], nanos[index]);
+    }
+
+    /** @param index Sample index
+     *  @return Value
+     */
+    public double getValue(final int index)
+    {
+        return values[index];
+    }
+
+    /** @param index Sample index
+     *  @return Severity
+     */
+    public AlarmSeverity getSeverity(final int index)
+    {
+        return SEVERITIES[severities[index]];
+    }
+
+    /** @param index Sample index
+     *  @return Status
+     */
+    public String getStatus(final int index)
+    {
+        return status[index];
+    }
+
+    /** @param index Sample index
+     *  @return Sample that is not kept in the columns, or <code>null</code>
+     */
+    public VType getObject(final int index)
+    {
+        if (objects == null)
+            return null;
+        return objects[index];
+    }
+
+    /** @param index Sample index
+     *  @return Sample as {@link VType}
+     */
+    public VType toVType(final int index)
+    {
+        final VType object = getObject(index);
+        if (object != null)
+            return object;
+        final Instant time = getTime(index);
+        if (kind == Kind.ENUM)
+            return new ArchiveVEnum(time, getSeverity(index), status[index], labels, (int) values[index]);
+        return new ArchiveVNumber(time, getSeverity(index), status[index], display,
+                                  kind.toNumber(values[index], kind == Kind.LONG ? longs[index] : 0));
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ValueBlock with " + size + " of " + values.length + " samples";
+    }
+}
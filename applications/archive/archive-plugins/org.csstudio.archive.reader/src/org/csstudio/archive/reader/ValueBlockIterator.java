@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.reader;
+
+/** Iterator over blocks of samples.
+ *
+ *  <p>Like the {@link ValueIterator}, but returns samples
+ *  in {@link ValueBlock}s of primitive arrays.
+ *  The iterator may re-use the same block,
+ *  so its content is only valid until <code>next()</code>
+ *  is called again.
+ *
+ *  @author agent
+ */
+public interface ValueBlockIterator
+{
+    /** @return <tt>true</tt> if there is another block */
+    public boolean hasNext();
+
+    /** @return Next block of samples, not empty
+     *  @exception Exception on error in archive access
+     */
+    public ValueBlock next() throws Exception;
+
+    /** Must be called to release resources */
+    public void close();
+}
@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.reader;
+
+/** {@link ValueBlockIterator} for a {@link ValueIterator}
+ *
+ *  <p>Used by readers that do not support blocks natively.
+ *
+ *  @author agent
+ */
+public class ValueIteratorBlockAdapter implements ValueBlockIterator
+{
+    final private ValueIterator values;
+    final private ValueBlock block;
+
+    /** @param values Iterator for samples
+     *  @param block_size Number of samples per block
+     */
+    public ValueIteratorBlockAdapter(final ValueIterator values, final int block_size)
+    {
+        this.values = values;
+        block = new ValueBlock(block_size);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean hasNext()
+    {
+        return values.hasNext();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public ValueBlock next() throws Exception
+    {
+        block.clear();
+        while (!block.isFull()  &&  values.hasNext())
+            block.add(values.next());
+        return block;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close()
+    {
+        values.close();
+    }
+}
@@ -29,6 +29,12 @@ public class ArchiveVDisplayType extends ArchiveVType implements Display
         this.display = display;
     }
 
+    /** @return Display meta data shared by samples, may be <code>null</code> */
+    public Display getDisplay()
+    {
+        return display;
+    }
+
     @Override
     public Double getLowerDisplayLimit()
     {
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.rdb;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Process-wide cache of {@link RDBWriteChannel}s
+ *
+ *  <p>Channel IDs and the meta data last written to the RDB
+ *  remain known while any {@link RDBArchiveWriter} for the same RDB is open,
+ *  so a writer that reconnects after a write error can replace its
+ *  previous writer without reading all channels again.
+ *  There is one cache per RDB URL, user and schema.
+ *  When the last writer that uses a cache is closed, for example when
+ *  the engine stops or restarts with a new configuration,
+ *  the cache is discarded.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class ChannelCache
+{
+    /** Caches by URL, user, schema.
+     *  SYNC: Access synchronized on <code>caches</code>
+     */
+    final private static Map<String, ChannelCache> caches = new HashMap<>();
+
+    /** Key of this cache in <code>caches</code> */
+    final private String key;
+
+    /** Number of writers that use this cache.
+     *  SYNC: Access synchronized on <code>caches</code>
+     */
+    private int users = 0;
+
+    /** Channels by name */
+    final private ConcurrentHashMap<String, RDBWriteChannel> channels = new ConcurrentHashMap<>();
+
+    /** Obtain cache, which must be released when no longer used
+     *  @param url RDB URL
+     *  @param user .. user name
+     *  @param schema Schema/table prefix. May be empty
+     *  @return Cache for that RDB
+     *  @see #release()
+     */
+    public static ChannelCache acquire(final String url, final String user, final String schema)
+    {
+        synchronized (caches)
+        {
+            final ChannelCache cache = caches.computeIfAbsent(url + "|" + user + "|" + schema, ChannelCache::new);
+            ++cache.users;
+            return cache;
+        }
+    }
+
+    private ChannelCache(final String key)
+    {
+        // Use acquire()
+        this.key = key;
+    }
+
+    /** Release cache obtained via {@link #acquire(String, String, String)}.
+     *  When the last user releases the cache, it is cleared and removed.
+     */
+    public void release()
+    {
+        synchronized (caches)
+        {
+            if (--users > 0)
+                return;
+            caches.remove(key);
+            channels.clear();
+        }
+    }
+
+    /** @param name Channel name
+     *  @return Channel or <code>null</code> if not cached
+     */
+    public RDBWriteChannel get(final String name)
+    {
+        return channels.get(name);
+    }
+
+    /** @param channel Channel to add
+     *  @return Cached channel, which might be a previously added one with the same name
+     */
+    public RDBWriteChannel add(final RDBWriteChannel channel)
+    {
+        final RDBWriteChannel previous = channels.putIfAbsent(channel.getName(), channel);
+        return previous == null ? channel : previous;
+    }
+
+    /** @return Number of cached channels */
+    public int size()
+    {
+        return channels.size();
+    }
+
+    /** Remove all channels */
+    public void clear()
+    {
+        channels.clear();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ChannelCache with " + channels.size() + " channels";
+    }
+}
@@ -9,6 +9,7 @@ package org.csstudio.archive.writer.rdb;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 
@@ -52,6 +53,25 @@ public class EnumMetaDataHelper
         }
     }
 
+    /** @param states Enumeration labels
+     *  @return Labels as written to the RDB by <code>insert</code>,
+     *          for comparison with meta data read from the RDB
+     */
+    @SuppressWarnings("nls")
+    public static List<String> getWrittenForm(final List<String> states)
+    {
+        final List<String> written = new ArrayList<>(states.size());
+        for (int i=0; i<states.size(); ++i)
+        {
+            final String state = states.get(i);
+            if (state == null  ||  state.length() < 1)
+                written.add("<" + i + ">");
+            else
+                written.add(state);
+        }
+        return written;
+    }
+
     /** Insert meta data for channel into archive
      *  @param rdb RDBUtil
      *  @param sql SQL statements
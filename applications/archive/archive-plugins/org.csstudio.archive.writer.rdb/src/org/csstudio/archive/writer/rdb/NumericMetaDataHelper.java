@@ -71,11 +71,7 @@ public class NumericMetaDataHelper
             setDoubleOrNull(insert, 5, meta.getUpperWarningLimit());
             setDoubleOrNull(insert, 6, meta.getLowerAlarmLimit());
             setDoubleOrNull(insert, 7, meta.getUpperAlarmLimit());
-            final NumberFormat format = meta.getFormat();
-            if (format == null)
-                insert.setInt(8, 0);
-            else
-                insert.setInt(8, format.getMinimumFractionDigits());
+            insert.setInt(8, getPrecision(meta));
             // Oracle schema has NOT NULL units...
             String units = meta.getUnits();
             if (units == null  ||  units.length() < 1)
@@ -89,6 +85,51 @@ public class NumericMetaDataHelper
         }
     }
 
+    /** @param meta Meta data
+     *  @return Precision as written to the RDB
+     */
+    private static int getPrecision(final Display meta)
+    {
+        final NumberFormat format = meta.getFormat();
+        if (format == null)
+            return 0;
+        return format.getMinimumFractionDigits();
+    }
+
+    /** @param meta Meta data
+     *  @return Representation of what <code>insert</code> writes to the RDB,
+     *          for comparison with meta data read from the RDB
+     */
+    public static String getWrittenForm(final Display meta)
+    {
+        return getWrittenForm(meta.getLowerDisplayLimit(), meta.getUpperDisplayLimit(),
+                              meta.getLowerWarningLimit(), meta.getUpperWarningLimit(),
+                              meta.getLowerAlarmLimit(), meta.getUpperAlarmLimit(),
+                              getPrecision(meta), meta.getUnits());
+    }
+
+    /** @return Representation of meta data as written to the RDB */
+    @SuppressWarnings("nls")
+    public static String getWrittenForm(final Double low_disp, final Double high_disp,
+            final Double low_warn, final Double high_warn,
+            final Double low_alarm, final Double high_alarm,
+            final int precision, final String units)
+    {
+        final StringBuilder buf = new StringBuilder();
+        for (Double number : new Double[] { low_disp, high_disp, low_warn, high_warn, low_alarm, high_alarm })
+        {
+            if (number == null  ||  number.isInfinite()  ||  number.isNaN())
+                buf.append("null");
+            else
+                buf.append(number.doubleValue());
+            buf.append(' ');
+        }
+        buf.append(precision).append(' ');
+        if (units != null)
+            buf.append(units.trim());
+        return buf.toString();
+    }
+
     /** Some dialects like MySQL cannot handle NaN or +-Inf.
      *  Set those numbers as Null in the statement.
      *  @param statement
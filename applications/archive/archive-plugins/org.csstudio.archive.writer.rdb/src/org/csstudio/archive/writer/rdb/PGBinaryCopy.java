@@ -0,0 +1,495 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.rdb;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.diirt.util.array.ListNumber;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+/** Rows for one table, encoded in the PostgreSQL binary COPY format
+ *
+ *  <p>Values are written straight into a byte buffer,
+ *  using the binary representation of each column's type
+ *  as determined from the database meta data.
+ *  Columns must be added in the order listed in the constructor.
+ *
+ *  <p>The start of each row is remembered, so that any range of rows
+ *  can be submitted via COPY.
+ *  This allows locating the rows that cause a COPY to fail.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class PGBinaryCopy
+{
+    /** Binary COPY file header: Signature, flags, header extension length */
+    final private static byte[] HEADER =
+    {
+        'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0,
+        0, 0, 0, 0,
+        0, 0, 0, 0
+    };
+
+    /** Binary COPY file trailer: Field count -1 */
+    final private static byte[] TRAILER = { (byte) 0xFF, (byte) 0xFF };
+
+    /** Seconds from 1970-01-01 to the PostgreSQL epoch 2000-01-01 */
+    final private static long PG_EPOCH_SECS = 946684800L;
+
+    /** Binary representations of column types */
+    private enum Type
+    {
+        INT2, INT4, INT8, FLOAT4, FLOAT8, TIMESTAMP, TIMESTAMPTZ, TEXT, BYTEA
+    }
+
+    /** Column types by PostgreSQL type name */
+    final private static Map<String, Type> types = new HashMap<>();
+    static
+    {
+        types.put("int2", Type.INT2);
+        types.put("int4", Type.INT4);
+        types.put("serial", Type.INT4);
+        types.put("int8", Type.INT8);
+        types.put("bigserial", Type.INT8);
+        types.put("float4", Type.FLOAT4);
+        types.put("float8", Type.FLOAT8);
+        types.put("timestamp", Type.TIMESTAMP);
+        types.put("timestamptz", Type.TIMESTAMPTZ);
+        types.put("varchar", Type.TEXT);
+        types.put("bpchar", Type.TEXT);
+        types.put("text", Type.TEXT);
+        types.put("bytea", Type.BYTEA);
+    }
+
+    /** Time zone used for columns of type TIMESTAMP without time zone */
+    final private ZoneRules zone = ZoneId.systemDefault().getRules();
+
+    final private String table;
+
+    final private String copy_sql;
+
+    final private String[] column_names;
+
+    final private Type[] column_types;
+
+    /** Encoded rows */
+    private byte[] buffer = new byte[64 * 1024];
+
+    /** Bytes used in buffer */
+    private int size = 0;
+
+    /** Start of each row in buffer */
+    private int[] row_start = new int[1024];
+
+    /** Number of complete rows */
+    private int rows = 0;
+
+    /** Index of next column in current row, -1 when not inside a row */
+    private int column = -1;
+
+    /** Initialize
+     *  @param connection PostgreSQL connection
+     *  @param table Table name, may include schema prefix "schema.table"
+     *  @param columns Columns for which values will be provided
+     *  @throws SQLException on error, including unknown columns or unsupported column types
+     */
+    public PGBinaryCopy(final Connection connection, final String table, final String... columns) throws SQLException
+    {
+        this.table = table;
+        final int sep = table.indexOf('.');
+        final String schema = sep > 0 ? table.substring(0, sep) : null;
+        final String name = sep > 0 ? table.substring(sep+1) : table;
+
+        final Map<String, String> type_names = new HashMap<>();
+        final ResultSet result = connection.getMetaData().getColumns(connection.getCatalog(), schema, name, null);
+        try
+        {
+            while (result.next())
+                type_names.put(result.getString("COLUMN_NAME"), result.getString("TYPE_NAME"));
+        }
+        finally
+        {
+            result.close();
+        }
+
+        column_names = columns.clone();
+        column_types = new Type[columns.length];
+        for (int i=0; i<columns.length; ++i)
+        {
+            final String type_name = type_names.get(columns[i]);
+            if (type_name == null)
+                throw new SQLException("Unable to find column " + columns[i] + " in table " + table);
+            column_types[i] = types.get(type_name);
+            if (column_types[i] == null)
+                throw new SQLException("Column " + columns[i] + " in table " + table +
+                                       " has type " + type_name + ", not supported by binary COPY");
+        }
+        copy_sql = "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN WITH BINARY";
+    }
+
+    /** @return Table name */
+    public String getTable()
+    {
+        return table;
+    }
+
+    /** @return Number of complete rows */
+    public int getRowCount()
+    {
+        return rows;
+    }
+
+    /** @return Number of bytes used by encoded rows */
+    public int getByteCount()
+    {
+        return size;
+    }
+
+    /** Check if an integer column can hold a value
+     *  @param column Column name
+     *  @param value Value
+     *  @return <code>false</code> if {@link #addLong(long)} would fail because
+     *          the value exceeds the range of the column's integer type
+     */
+    public boolean canHold(final String column, final long value)
+    {
+        for (int i=0; i<column_names.length; ++i)
+            if (column_names[i].equals(column))
+            {
+                switch (column_types[i])
+                {
+                case INT2:
+                    return value >= Short.MIN_VALUE  &&  value <= Short.MAX_VALUE;
+                case INT4:
+                    return value >= Integer.MIN_VALUE  &&  value <= Integer.MAX_VALUE;
+                default:
+                    return true;
+                }
+            }
+        return true;
+    }
+
+    /** Start a new row */
+    public void startRow()
+    {
+        if (rows >= row_start.length)
+            row_start = Arrays.copyOf(row_start, rows * 2);
+        row_start[rows] = size;
+        column = 0;
+        ensure(2);
+        putShort(column_types.length);
+    }
+
+    /** Complete the current row
+     *  @throws SQLException if not all columns were provided
+     */
+    public void endRow() throws SQLException
+    {
+        if (column != column_types.length)
+        {
+            cancelRow();
+            throw new SQLException(table + " row has " + column_types.length + " columns, got " + column);
+        }
+        column = -1;
+        ++rows;
+    }
+
+    /** Discard the current row */
+    public void cancelRow()
+    {
+        if (column >= 0)
+            size = row_start[rows];
+        column = -1;
+    }
+
+    /** Remove all rows */
+    public void clear()
+    {
+        size = 0;
+        rows = 0;
+        column = -1;
+    }
+
+    /** @return Type of next column */
+    private Type nextColumn() throws SQLException
+    {
+        if (column < 0  ||  column >= column_types.length)
+        {
+            final int received = column;
+            cancelRow();
+            throw new SQLException(table + " has " + column_types.length + " columns, cannot add column " + received);
+        }
+        return column_types[column++];
+    }
+
+    /** Add NULL */
+    public void addNull() throws SQLException
+    {
+        nextColumn();
+        ensure(4);
+        putInt(-1);
+    }
+
+    /** Add integer value
+     *  @param value Value
+     *  @throws SQLException if the column type can't hold the value
+     */
+    public void addLong(final long value) throws SQLException
+    {
+        final Type type = nextColumn();
+        switch (type)
+        {
+        case INT2:
+            checkRange(value, Short.MIN_VALUE, Short.MAX_VALUE);
+            ensure(6);
+            putInt(2);
+            putShort((int) value);
+            break;
+        case INT4:
+            checkRange(value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            ensure(8);
+            putInt(4);
+            putInt((int) value);
+            break;
+        case INT8:
+            ensure(12);
+            putInt(8);
+            putLong(value);
+            break;
+        case FLOAT4:
+        case FLOAT8:
+            --column;
+            addDouble(value);
+            break;
+        default:
+            cancelRow();
+            throw new SQLException("Cannot write integer to " + type + " column of " + table);
+        }
+    }
+
+    /** Add floating point value
+     *  @param value Value
+     *  @throws SQLException if the column type can't hold the value
+     */
+    public void addDouble(final double value) throws SQLException
+    {
+        final Type type = nextColumn();
+        switch (type)
+        {
+        case FLOAT4:
+            ensure(8);
+            putInt(4);
+            putInt(Float.floatToIntBits((float) value));
+            break;
+        case FLOAT8:
+            ensure(12);
+            putInt(8);
+            putLong(Double.doubleToLongBits(value));
+            break;
+        default:
+            cancelRow();
+            throw new SQLException("Cannot write double to " + type + " column of " + table);
+        }
+    }
+
+    /** Add time stamp
+     *
+     *  <p>Columns of type TIMESTAMP without time zone receive the local time,
+     *  as it would be written via JDBC.
+     *  The binary format is limited to microseconds.
+     *
+     *  @param epoch_seconds Seconds since 1970-01-01 UTC
+     *  @param nanos Nanoseconds within the second
+     *  @throws SQLException if the column is not a time stamp
+     */
+    public void addTimestamp(final long epoch_seconds, final int nanos) throws SQLException
+    {
+        final Type type = nextColumn();
+        long secs = epoch_seconds - PG_EPOCH_SECS;
+        if (type == Type.TIMESTAMP)
+        {
+            if (zone.isFixedOffset())
+                secs += zone.getOffset(Instant.EPOCH).getTotalSeconds();
+            else
+                secs += zone.getOffset(Instant.ofEpochSecond(epoch_seconds)).getTotalSeconds();
+        }
+        else if (type != Type.TIMESTAMPTZ)
+        {
+            cancelRow();
+            throw new SQLException("Cannot write time stamp to " + type + " column of " + table);
+        }
+        ensure(12);
+        putInt(8);
+        putLong(secs * 1000000L + nanos / 1000);
+    }
+
+    /** Add text
+     *  @param text Text, <code>null</code> for NULL
+     *  @throws SQLException if the column is not a text column
+     */
+    public void addString(final String text) throws SQLException
+    {
+        if (text == null)
+        {
+            addNull();
+            return;
+        }
+        final Type type = nextColumn();
+        if (type != Type.TEXT)
+        {
+            cancelRow();
+            throw new SQLException("Cannot write text to " + type + " column of " + table);
+        }
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        ensure(4 + bytes.length);
+        putInt(bytes.length);
+        putBytes(bytes);
+    }
+
+    /** Add binary data
+     *  @param data Data, <code>null</code> for NULL
+     *  @throws SQLException if the column is not a BYTEA column
+     */
+    public void addBytes(final byte[] data) throws SQLException
+    {
+        if (data == null)
+        {
+            addNull();
+            return;
+        }
+        final Type type = nextColumn();
+        if (type != Type.BYTEA)
+        {
+            cancelRow();
+            throw new SQLException("Cannot write bytes to " + type + " column of " + table);
+        }
+        ensure(4 + data.length);
+        putInt(data.length);
+        putBytes(data);
+    }
+
+    /** Add array of doubles as BYTEA,
+     *  encoded like a <code>DataOutputStream</code> would:
+     *  Element count, then the elements.
+     *  @param data Array elements
+     *  @throws SQLException if the column is not a BYTEA column
+     */
+    public void addDoubleArrayBlob(final ListNumber data) throws SQLException
+    {
+        final Type type = nextColumn();
+        if (type != Type.BYTEA)
+        {
+            cancelRow();
+            throw new SQLException("Cannot write array to " + type + " column of " + table);
+        }
+        final int count = data.size();
+        final int len = 4 + 8*count;
+        ensure(4 + len);
+        putInt(len);
+        putInt(count);
+        for (int i=0; i<count; ++i)
+            putLong(Double.doubleToLongBits(data.getDouble(i)));
+    }
+
+    /** Submit all rows via COPY
+     *  @param connection PostgreSQL connection
+     *  @return Number of rows written
+     *  @throws SQLException on error. Rows remain in buffer.
+     */
+    public long copy(final Connection connection) throws SQLException
+    {
+        return copy(connection, 0, rows);
+    }
+
+    /** Submit a range of rows via COPY
+     *  @param connection PostgreSQL connection
+     *  @param first Index of first row to write
+     *  @param count Number of rows to write
+     *  @return Number of rows written
+     *  @throws SQLException on error. Rows remain in buffer.
+     */
+    public long copy(final Connection connection, final int first, final int count) throws SQLException
+    {
+        if (count <= 0)
+            return 0;
+        final int start = row_start[first];
+        final int end = first + count < rows ? row_start[first + count] : size;
+        final CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(copy_sql);
+        try
+        {
+            copy.writeToCopy(HEADER, 0, HEADER.length);
+            copy.writeToCopy(buffer, start, end - start);
+            copy.writeToCopy(TRAILER, 0, TRAILER.length);
+            return copy.endCopy();
+        }
+        finally
+        {
+            if (copy.isActive())
+                copy.cancelCopy();
+        }
+    }
+
+    private void checkRange(final long value, final long min, final long max) throws SQLException
+    {
+        if (value < min  ||  value > max)
+        {
+            cancelRow();
+            throw new SQLException("Value " + value + " exceeds range of column " + column + " of " + table);
+        }
+    }
+
+    /** Ensure that buffer has room for additional bytes */
+    private void ensure(final int bytes)
+    {
+        if (size + bytes > buffer.length)
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + bytes));
+    }
+
+    private void putShort(final int value)
+    {
+        buffer[size++] = (byte) (value >>> 8);
+        buffer[size++] = (byte) value;
+    }
+
+    private void putInt(final int value)
+    {
+        buffer[size++] = (byte) (value >>> 24);
+        buffer[size++] = (byte) (value >>> 16);
+        buffer[size++] = (byte) (value >>> 8);
+        buffer[size++] = (byte) value;
+    }
+
+    private void putLong(final long value)
+    {
+        putInt((int) (value >>> 32));
+        putInt((int) value);
+    }
+
+    private void putBytes(final byte[] bytes)
+    {
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    @Override
+    public String toString()
+    {
+        return table + ": " + rows + " rows, " + size + " bytes";
+    }
+}
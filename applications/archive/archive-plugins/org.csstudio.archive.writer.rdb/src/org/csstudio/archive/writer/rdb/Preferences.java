@@ -22,6 +22,8 @@ public class Preferences
 
     public static final String USE_POSTGRES_COPY = "use_postgres_copy";
 
+    public static final String POSTGRES_COPY_FORMAT = "postgres_copy_format";
+
     /** @return # Name of sample table for writing */
     public static String getWriteSampleTable()
     {
@@ -49,4 +51,21 @@ public class Preferences
             return false;
         return prefs.getBoolean(Activator.ID, USE_POSTGRES_COPY, false, null);
     }
+
+    /** @return true to use binary format for postgres copy, false for CSV */
+    public static boolean isPostgresCopyBinary()
+    {
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        if (prefs == null)
+            return false;
+        return "binary".equalsIgnoreCase(prefs.getString(Activator.ID, POSTGRES_COPY_FORMAT, "csv", null).trim());
+    }
+
+    /** @return Write mode requested by preferences */
+    public static WriteMode getWriteMode()
+    {
+        if (! isUsePostgresCopy())
+            return WriteMode.BATCH;
+        return isPostgresCopyBinary() ? WriteMode.COPY_BINARY : WriteMode.COPY_CSV;
+    }
 }
@@ -13,13 +13,19 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 
 import org.csstudio.archive.rdb.RDBArchivePreferences;
@@ -57,14 +63,17 @@ public class RDBArchiveWriter implements ArchiveWriter
 
     final private boolean use_array_blob;
 
+    /** How samples are submitted */
+    final private WriteMode mode;
+
     /** RDB connection */
     final private RDBUtil rdb;
 
     /** SQL statements */
     final private SQL sql;
 
-    /** Cache of channels by name */
-    final private Map<String, RDBWriteChannel> channels = new HashMap<String, RDBWriteChannel>();
+    /** Cache of channels by name, shared with other writers for the same RDB */
+    final private ChannelCache channels;
 
     /** Severity (ID, name) cache */
     private SeverityCache severities;
@@ -100,6 +109,18 @@ public class RDBArchiveWriter implements ArchiveWriter
     private final List<RDBWriteChannel> batched_channel = new ArrayList<RDBWriteChannel>();
     private final List<VType> batched_samples = new ArrayList<VType>();
 
+    /** Binary COPY rows for the sample table, one per batched sample */
+    private PGBinaryCopy copy_sample = null;
+
+    /** Binary COPY rows for the array_val table */
+    private PGBinaryCopy copy_array = null;
+
+    /** Index of the first copy_array row for each batched sample.
+     *  The array rows of samples <code>a..b-1</code> are
+     *  rows <code>copy_array_first[a]..copy_array_first[b]-1</code>.
+     */
+    private int[] copy_array_first = new int[1024];
+
     /** Initialize from preferences.
      *  This constructor will be invoked when an {@link ArchiveWriter}
      *  is created via the extension point.
@@ -112,7 +133,7 @@ public class RDBArchiveWriter implements ArchiveWriter
                 RDBArchivePreferences.useArrayBlob());
     }
 
-    /** Initialize
+    /** Initialize, using write mode from preferences
      *  @param url RDB URL
      *  @param user .. user name
      *  @param password .. password
@@ -122,6 +143,21 @@ public class RDBArchiveWriter implements ArchiveWriter
      */
     public RDBArchiveWriter(final String url, final String user, final String password,
             final String schema, boolean use_array_blob) throws Exception
+    {
+        this(url, user, password, schema, use_array_blob, Preferences.getWriteMode());
+    }
+
+    /** Initialize
+     *  @param url RDB URL
+     *  @param user .. user name
+     *  @param password .. password
+     *  @param schema Schema/table prefix, not including ".". May be empty
+     *  @param use_array_blob Use BLOB for array elements?
+     *  @param mode How to submit samples. COPY modes are only used with PostgreSQL
+     *  @throws Exception on error, for example RDB connection error
+     */
+    public RDBArchiveWriter(final String url, final String user, final String password,
+            final String schema, boolean use_array_blob, final WriteMode mode) throws Exception
     {
         this.use_array_blob = use_array_blob;
         rdb = RDBUtil.connect(url, user, password, false);
@@ -129,6 +165,35 @@ public class RDBArchiveWriter implements ArchiveWriter
         severities = new SeverityCache(rdb, sql);
         stati = new StatusCache(rdb, sql);
 
+        WriteMode actual = rdb.getDialect() == Dialect.PostgreSQL ? mode : WriteMode.BATCH;
+        if (actual == WriteMode.COPY_BINARY)
+        {
+            try
+            {
+                final Connection connection = rdb.getConnection();
+                if (use_array_blob)
+                    copy_sample = new PGBinaryCopy(connection, sql.sample_table,
+                        "channel_id", "smpl_time", "nanosecs", "severity_id", "status_id",
+                        "float_val", "num_val", "str_val", "datatype", "array_val");
+                else
+                {
+                    copy_sample = new PGBinaryCopy(connection, sql.sample_table,
+                        "channel_id", "smpl_time", "nanosecs", "severity_id", "status_id",
+                        "float_val", "num_val", "str_val");
+                    copy_array = new PGBinaryCopy(connection, sql.array_val_table,
+                        "channel_id", "smpl_time", "nanosecs", "seq_nbr", "float_val");
+                }
+            }
+            catch (SQLException ex)
+            {
+                Activator.getLogger().log(Level.WARNING, "Cannot use binary COPY, using batched inserts", ex);
+                copy_sample = null;
+                copy_array = null;
+                actual = WriteMode.BATCH;
+            }
+        }
+        this.mode = actual;
+
         // JDBC and RDBUtil default to auto-commit being on.
         //
         // The batched submission of samples, however, requires
@@ -136,6 +201,15 @@ public class RDBArchiveWriter implements ArchiveWriter
         // auto-commit is off, then enables it briefly as needed,
         // and otherwise commits/rolls back.
         rdb.getConnection().setAutoCommit(false);
+
+        // Released in close()
+        channels = ChannelCache.acquire(url, user, schema);
+    }
+
+    /** @return How samples are submitted */
+    public WriteMode getWriteMode()
+    {
+        return mode;
     }
 
     @Override
@@ -155,9 +229,8 @@ public class RDBArchiveWriter implements ArchiveWriter
                 final ResultSet result = statement.executeQuery();
                 if (!result.next())
                     throw new Exception("Unknown channel " + name);
-                channel = new RDBWriteChannel(name, result.getInt(1));
+                channel = channels.add(new RDBWriteChannel(name, result.getInt(1)));
                 result.close();
-                channels.put(name, channel);
             }
             finally
             {
@@ -169,11 +242,120 @@ public class RDBArchiveWriter implements ArchiveWriter
         return channel;
     }
 
+    /** {@inheritDoc}
+     *  RDB implementation reads the IDs and the meta data of all channels
+     *  that are not already cached, using one query per table.
+     *  Errors are logged, leaving the lookup to <code>getChannel()</code>.
+     */
+    @Override
+    public void preload(final Collection<String> names) throws Exception
+    {
+        final Set<String> missing = new HashSet<>();
+        for (String name : names)
+            if (channels.get(name) == null)
+                missing.add(name);
+        if (missing.isEmpty())
+            return;
+
+        final long start = System.nanoTime();
+        final Connection connection = rdb.getConnection();
+        final Map<Integer, RDBWriteChannel> loaded = new HashMap<>();
+        try
+        {
+            // Fetch size allows streaming large tables (PostgreSQL: only without auto-commit)
+            connection.setAutoCommit(false);
+            final Statement statement = connection.createStatement();
+            try
+            {
+                statement.setFetchSize(10000);
+                if (SQL_TIMEOUT_SECS > 0)
+                    statement.setQueryTimeout(SQL_TIMEOUT_SECS);
+                ResultSet result = statement.executeQuery(sql.channel_sel_all);
+                while (result.next())
+                {
+                    final String name = result.getString(2);
+                    if (missing.contains(name))
+                    {
+                        final RDBWriteChannel channel = channels.add(new RDBWriteChannel(name, result.getInt(1)));
+                        loaded.put(channel.getId(), channel);
+                    }
+                }
+                result.close();
+
+                // Meta data as last written, so unchanged meta data is not written again
+                result = statement.executeQuery(sql.numeric_meta_sel_all);
+                while (result.next())
+                {
+                    final RDBWriteChannel channel = loaded.get(result.getInt(1));
+                    if (channel == null)
+                        continue;
+                    channel.setWrittenMetaData(NumericMetaDataHelper.getWrittenForm(
+                        getDoubleOrNull(result, 2), getDoubleOrNull(result, 3),
+                        getDoubleOrNull(result, 4), getDoubleOrNull(result, 5),
+                        getDoubleOrNull(result, 6), getDoubleOrNull(result, 7),
+                        result.getInt(8), result.getString(9)));
+                }
+                result.close();
+
+                result = statement.executeQuery(sql.enum_sel_all);
+                RDBWriteChannel channel = null;
+                List<String> labels = null;
+                while (result.next())
+                {
+                    final RDBWriteChannel next = loaded.get(result.getInt(1));
+                    if (next != channel)
+                    {
+                        if (channel != null)
+                            channel.setWrittenMetaData(labels);
+                        channel = next;
+                        labels = new ArrayList<>();
+                    }
+                    if (channel == null)
+                        continue;
+                    // Ordered by enum_nbr, but there may be gaps
+                    final int nbr = result.getInt(2);
+                    if (nbr < labels.size())
+                        continue;
+                    while (labels.size() < nbr)
+                        labels.add(null);
+                    labels.add(result.getString(3));
+                }
+                if (channel != null)
+                    channel.setWrittenMetaData(labels);
+                result.close();
+            }
+            finally
+            {
+                statement.close();
+                connection.commit();
+            }
+        }
+        catch (Exception ex)
+        {
+            Activator.getLogger().log(Level.WARNING, "Cannot preload channels", ex);
+            connection.rollback();
+        }
+        Activator.getLogger().log(Level.INFO, "Preloaded {0} of {1} channels in {2} seconds",
+            new Object[] { loaded.size(), missing.size(), (System.nanoTime() - start) / 1e9 });
+    }
+
+    /** @return Double or <code>null</code> for SQL NULL */
+    private static Double getDoubleOrNull(final ResultSet result, final int column) throws SQLException
+    {
+        final double number = result.getDouble(column);
+        return result.wasNull() ? null : number;
+    }
+
     @Override
     public void addSample(final WriteChannel channel, final VType sample) throws Exception
     {
         final RDBWriteChannel rdb_channel = (RDBWriteChannel) channel;
         writeMetaData(rdb_channel, sample);
+        if (mode == WriteMode.COPY_BINARY)
+        {   // Tracks batched samples to match rows
+            copySample(rdb_channel, sample);
+            return;
+        }
         batchSample(rdb_channel, sample);
         batched_channel.add(rdb_channel);
         batched_samples.add(sample);
@@ -197,11 +379,17 @@ public class RDBArchiveWriter implements ArchiveWriter
             if (MetaDataHelper.equals(display, channel.getMetadata()))
                 return;
 
-            // Clear enumerated meta data, replace numeric
-            EnumMetaDataHelper.delete(rdb, sql, channel);
-            NumericMetaDataHelper.delete(rdb, sql, channel);
-            NumericMetaDataHelper.insert(rdb, sql, channel, display);
-            rdb.getConnection().commit();
+            // RDB may already hold this meta data, for example after restart
+            final String written = NumericMetaDataHelper.getWrittenForm(display);
+            if (! written.equals(channel.getWrittenMetaData()))
+            {
+                // Clear enumerated meta data, replace numeric
+                EnumMetaDataHelper.delete(rdb, sql, channel);
+                NumericMetaDataHelper.delete(rdb, sql, channel);
+                NumericMetaDataHelper.insert(rdb, sql, channel, display);
+                rdb.getConnection().commit();
+                channel.setWrittenMetaData(written);
+            }
             channel.setMetaData(display);
         }
         else if (sample instanceof VEnum)
@@ -210,11 +398,17 @@ public class RDBArchiveWriter implements ArchiveWriter
             if (MetaDataHelper.equals(labels, channel.getMetadata()))
                 return;
 
-            // Clear numeric meta data, set enumerated in RDB
-            NumericMetaDataHelper.delete(rdb, sql, channel);
-            EnumMetaDataHelper.delete(rdb, sql, channel);
-            EnumMetaDataHelper.insert(rdb, sql, channel, labels);
-            rdb.getConnection().commit();
+            // RDB may already hold these labels, for example after restart
+            final List<String> written = EnumMetaDataHelper.getWrittenForm(labels);
+            if (! written.equals(channel.getWrittenMetaData()))
+            {
+                // Clear numeric meta data, set enumerated in RDB
+                NumericMetaDataHelper.delete(rdb, sql, channel);
+                EnumMetaDataHelper.delete(rdb, sql, channel);
+                EnumMetaDataHelper.insert(rdb, sql, channel, labels);
+                rdb.getConnection().commit();
+                channel.setWrittenMetaData(written);
+            }
             channel.setMetaData(labels);
         }
     }
@@ -233,8 +427,7 @@ public class RDBArchiveWriter implements ArchiveWriter
     private PreparedStatement createInsertPrepareStatement(String sqlQuery)
             throws SQLException, Exception {
         PreparedStatement statement = null;
-        if (rdb.getDialect() == Dialect.PostgreSQL
-                && Preferences.isUsePostgresCopy()) {
+        if (mode == WriteMode.COPY_CSV) {
             statement = new PGCopyPreparedStatement(rdb.getConnection(),
                     sqlQuery);
         } else {
@@ -480,12 +673,211 @@ public class RDBArchiveWriter implements ArchiveWriter
         insert_xx.addBatch();
     }
 
+    /** Add sample to binary COPY rows, and to the batched samples.
+     *  <p>Needs eventual flush()
+     *  @param channel Channel
+     *  @param sample Sample to insert
+     *  @throws Exception on error
+     */
+    private void copySample(final RDBWriteChannel channel, final VType sample) throws Exception
+    {
+        final Instant time = VTypeHelper.getTimestamp(sample);
+        int severity = severities.findOrCreate(VTypeHelper.getSeverity(sample));
+        Status status = stati.findOrCreate(VTypeHelper.getMessage(sample));
+
+        // Severity/status cache may enable auto-commit
+        if (rdb.getConnection().getAutoCommit() == true)
+            rdb.getConnection().setAutoCommit(false);
+
+        // Determine value without creating intermediate objects
+        double dbl = 0.0;
+        long num = 0;
+        String txt = null;
+        ListNumber array = null;
+        boolean is_double;
+        if (sample instanceof VDouble)
+        {
+            dbl = ((VDouble)sample).getValue();
+            is_double = true;
+        }
+        else if (sample instanceof VNumber)
+        {
+            final Number number = ((VNumber)sample).getValue();
+            is_double = number instanceof Double;
+            if (is_double)
+                dbl = number.doubleValue();
+            else
+                num = number.longValue();
+        }
+        else if (sample instanceof VNumberArray)
+        {
+            array = ((VNumberArray)sample).getData();
+            dbl = array.getDouble(0);
+            is_double = true;
+        }
+        else if (sample instanceof VEnum)
+        {
+            num = ((VEnum)sample).getIndex();
+            is_double = false;
+        }
+        else
+        {
+            txt = sample instanceof VString ? ((VString)sample).getValue() : sample.toString();
+            if (txt.length() > MAX_TEXT_SAMPLE_LENGTH)
+            {
+                Activator.getLogger().log(Level.INFO,
+                    "Value of {0} exceeds {1} chars: {2}",
+                    new Object[] { channel.getName(), MAX_TEXT_SAMPLE_LENGTH, txt });
+                txt = txt.substring(0, MAX_TEXT_SAMPLE_LENGTH);
+            }
+            is_double = false;
+        }
+        // Integer that the num_val column can't hold is written as double,
+        // instead of failing the COPY for the whole batch
+        if (! is_double  &&  txt == null  &&  ! copy_sample.canHold("num_val", num))
+        {
+            dbl = num;
+            is_double = true;
+        }
+        // Catch not-a-number, which JDBC (at least Oracle) can't handle,
+        // and handle the same way for COPY
+        if (is_double  &&  Double.isNaN(dbl))
+        {
+            dbl = 0.0;
+            severity = severities.findOrCreate(AlarmSeverity.UNDEFINED);
+            status = stati.findOrCreate(NOT_A_NUMBER_STATUS);
+        }
+
+        copy_sample.startRow();
+        copy_sample.addLong(channel.getId());
+        copy_sample.addTimestamp(time.getEpochSecond(), time.getNano());
+        copy_sample.addLong(time.getNano());
+        copy_sample.addLong(severity);
+        copy_sample.addLong(status.getId());
+        if (is_double)
+            copy_sample.addDouble(dbl);
+        else
+            copy_sample.addNull();
+        if (is_double  ||  txt != null)
+            copy_sample.addNull();
+        else
+            copy_sample.addLong(num);
+        copy_sample.addString(txt);
+        if (use_array_blob)
+        {
+            if (array == null)
+            {
+                copy_sample.addString(" ");
+                copy_sample.addNull();
+            }
+            else
+            {
+                copy_sample.addString("d");
+                copy_sample.addDoubleArrayBlob(array);
+            }
+        }
+        copy_sample.endRow();
+        // Row i of copy_sample is batched sample i
+        final int sample_index = batched_samples.size();
+        batched_channel.add(channel);
+        batched_samples.add(sample);
+        if (sample_index + 1 >= copy_array_first.length)
+            copy_array_first = Arrays.copyOf(copy_array_first, copy_array_first.length * 2);
+        copy_array_first[sample_index] = copy_array == null ? 0 : copy_array.getRowCount();
+
+        // Remaining array elements, NaN patched as for batched inserts
+        if (array != null  &&  copy_array != null)
+        {
+            final int N = array.size();
+            for (int i = 1; i < N; i++)
+            {
+                final double element = array.getDouble(i);
+                copy_array.startRow();
+                copy_array.addLong(channel.getId());
+                copy_array.addTimestamp(time.getEpochSecond(), time.getNano());
+                copy_array.addLong(time.getNano());
+                copy_array.addLong(i);
+                copy_array.addDouble(Double.isNaN(element) ? 0.0 : element);
+                copy_array.endRow();
+            }
+        }
+    }
+
+    /** Submit rows of binary COPY
+     *
+     *  <p>The rows of a range of samples and their array elements
+     *  are written in one transaction.
+     *  When the COPY fails, the samples are split up
+     *  to locate the failing ones, which are then logged and skipped,
+     *  while all remaining samples are written.
+     *
+     *  @param first Index of first batched sample to write
+     *  @param count Number of samples to write
+     *  @return Number of samples that failed
+     *  @throws Exception on connection errors
+     */
+    private int copyRows(final int first, final int count) throws Exception
+    {
+        if (count <= 0)
+            return 0;
+        final Connection connection = rdb.getConnection();
+        try
+        {
+            copy_sample.copy(connection, first, count);
+            if (copy_array != null)
+            {
+                final int array_first = copy_array_first[first];
+                final int array_end = first + count < batched_samples.size()
+                                    ? copy_array_first[first + count]
+                                    : copy_array.getRowCount();
+                copy_array.copy(connection, array_first, array_end - array_first);
+            }
+            connection.commit();
+            return 0;
+        }
+        catch (final SQLException ex)
+        {
+            connection.rollback();
+            // Connection errors, SQL state class 08, affect all rows
+            final String state = ex.getSQLState();
+            if ((state != null  &&  state.startsWith("08"))  ||  connection.isClosed())
+                throw ex;
+            if (count > 1)
+            {
+                final int half = count / 2;
+                return copyRows(first, half) + copyRows(first + half, count - half);
+            }
+            Activator.getLogger().log(Level.WARNING,
+                "Cannot write sample for " + batched_channel.get(first).getName() +
+                " = " + batched_samples.get(first), ex);
+            return 1;
+        }
+    }
+
     /** {@inheritDoc}
      *  RDB implementation completes pending batches
      */
     @Override
     public void flush() throws Exception
     {
+        if (mode == WriteMode.COPY_BINARY)
+        {
+            try
+            {
+                final int failed = copyRows(0, copy_sample.getRowCount());
+                if (failed > 0)
+                    Activator.getLogger().log(Level.WARNING, "Skipped {0} samples that could not be written", failed);
+            }
+            finally
+            {
+                copy_sample.clear();
+                if (copy_array != null)
+                    copy_array.clear();
+                batched_channel.clear();
+                batched_samples.clear();
+            }
+            return;
+        }
         try
         {
             if (batched_double_inserts > 0)
@@ -676,7 +1068,8 @@ public class RDBArchiveWriter implements ArchiveWriter
     @Override
     public void close()
     {
-        channels.clear();
+        // Channels remain cached for other writers
+        channels.release();
         if (severities != null)
         {
             severities.dispose();
@@ -720,6 +1113,8 @@ public class RDBArchiveWriter implements ArchiveWriter
             }
             insert_txt_sample = null;
         }
+        copy_sample = null;
+        copy_array = null;
         rdb.close();
     }
 }
@@ -10,6 +10,11 @@ package org.csstudio.archive.writer.rdb;
 import org.csstudio.archive.writer.WriteChannel;
 
 /** Channel information for channel in RDB
+ *
+ *  <p>Shared by all {@link RDBArchiveWriter}s of the process
+ *  via the {@link ChannelCache}.
+ *  Each channel is written by only one writer at a time.
+ *
  *  @author Kay Kasemir
  */
 @SuppressWarnings("nls")
@@ -17,7 +22,8 @@ public class RDBWriteChannel implements WriteChannel
 {
     final private String name;
     final private int id;
-    private Object meta = null;
+    private volatile Object meta = null;
+    private volatile Object written_meta = null;
 
     /** Initialize
      *  @param name Channel name
@@ -60,4 +66,19 @@ public class RDBWriteChannel implements WriteChannel
     {
         this.meta = meta;
     }
+
+    /** @return Meta data as written to the RDB, or <code>null</code> if not known
+     *  @see NumericMetaDataHelper#getWrittenForm(org.diirt.vtype.Display)
+     *  @see EnumMetaDataHelper#getWrittenForm(java.util.List)
+     */
+    public Object getWrittenMetaData()
+    {
+        return written_meta;
+    }
+
+    /** @param written_meta Meta data as written to the RDB */
+    public void setWrittenMetaData(final Object written_meta)
+    {
+        this.written_meta = written_meta;
+    }
 }
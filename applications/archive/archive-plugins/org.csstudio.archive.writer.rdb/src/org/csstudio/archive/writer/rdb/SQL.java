@@ -20,12 +20,15 @@ public class SQL
 {
     // 'channel' table
     final String channel_sel_by_name;
+    final String channel_sel_all;
 
     // 'enum_metadata' table
+    final public String enum_sel_all;
     final public String enum_delete_by_channel;
     final public String enum_insert_channel_num_val;
 
     // 'num_metadata' table
+    final public String numeric_meta_sel_all;
     final public String numeric_meta_insert;
     final public String numeric_meta_delete_by_channel;
 
@@ -40,6 +43,8 @@ public class SQL
     final public String status_name_column;
 
     // 'sample' table
+    final public String sample_table;
+    final public String array_val_table;
     final public String sample_insert_double_blob;
     final public String sample_insert_double;
     final public String sample_insert_double_array_element;
@@ -57,13 +62,20 @@ public class SQL
         else if (schema.length() > 0)
             schema = schema + ".";
         channel_sel_by_name = "SELECT channel_id FROM " + schema + "channel WHERE name=?";
+        channel_sel_all = "SELECT channel_id, name FROM " + schema + "channel";
 
         // 'enum_metadata' table
+        enum_sel_all = "SELECT channel_id, enum_nbr, enum_val FROM " + schema
+            + "enum_metadata ORDER BY channel_id, enum_nbr";
         enum_delete_by_channel = "DELETE FROM " + schema + "enum_metadata WHERE channel_id=?";
         enum_insert_channel_num_val = "INSERT INTO " + schema
             + "enum_metadata(channel_id,enum_nbr, enum_val) VALUES(?,?,?)";
 
         // 'num_metadata' table
+        numeric_meta_sel_all = "SELECT channel_id, low_disp_rng, high_disp_rng," +
+                " low_warn_lmt, high_warn_lmt," +
+                " low_alarm_lmt, high_alarm_lmt," +
+                " prec, unit FROM " + schema + "num_metadata";
         numeric_meta_insert = "INSERT INTO " + schema + "num_metadata " +
                 "(channel_id, low_disp_rng, high_disp_rng," +
                 " low_warn_lmt, high_warn_lmt," +
@@ -85,6 +97,8 @@ public class SQL
         // 'sample' table
         final String sample = Preferences.getWriteSampleTable();
         Logger.getLogger(getClass().getName()).fine("Writing to table '" + sample + "'");
+        sample_table = schema + sample;
+        array_val_table = schema + "array_val";
         switch (dialect)
         {
         case Oracle:
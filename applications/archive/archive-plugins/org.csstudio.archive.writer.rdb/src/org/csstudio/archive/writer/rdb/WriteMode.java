@@ -0,0 +1,23 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.rdb;
+
+/** How the {@link RDBArchiveWriter} submits samples
+ *  @author agent
+ */
+public enum WriteMode
+{
+    /** Batched JDBC INSERT statements */
+    BATCH,
+
+    /** PostgreSQL COPY, samples formatted as CSV text */
+    COPY_CSV,
+
+    /** PostgreSQL COPY, samples encoded in binary format */
+    COPY_BINARY
+}
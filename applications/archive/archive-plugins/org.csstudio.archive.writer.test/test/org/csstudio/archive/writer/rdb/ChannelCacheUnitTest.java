@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.rdb;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/** JUnit test of the {@link ChannelCache} life cycle
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class ChannelCacheUnitTest
+{
+    @Test
+    public void testRelease()
+    {
+        final ChannelCache cache = ChannelCache.acquire("jdbc:test", "user", "");
+        final ChannelCache other = ChannelCache.acquire("jdbc:test", "user", "");
+        assertThat(other, sameInstance(cache));
+        final ChannelCache schema = ChannelCache.acquire("jdbc:test", "user", "other");
+        assertThat(schema, not(sameInstance(cache)));
+        schema.release();
+
+        cache.add(new RDBWriteChannel("x", 42));
+        // Kept while another writer still uses the cache
+        other.release();
+        assertThat(cache.get("x").getId(), equalTo(42));
+
+        // Discarded when the last writer is closed
+        cache.release();
+        assertThat(cache.get("x"), nullValue());
+        final ChannelCache fresh = ChannelCache.acquire("jdbc:test", "user", "");
+        assertThat(fresh, not(sameInstance(cache)));
+        assertThat(fresh.size(), equalTo(0));
+        fresh.release();
+    }
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.rdb;
+
+import java.time.Instant;
+
+import org.csstudio.apputil.test.TestProperties;
+import org.csstudio.archive.vtype.ArchiveVNumber;
+import org.csstudio.archive.vtype.ArchiveVNumberArray;
+import org.csstudio.archive.writer.WriteChannel;
+import org.diirt.util.text.NumberFormats;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.Display;
+import org.diirt.vtype.VType;
+import org.diirt.vtype.ValueFactory;
+import org.junit.Test;
+
+/** JUnit-based benchmark of the {@link WriteMode}s
+ *
+ *  <p>Writes samples for a fixed time with each mode
+ *  and reports the rows per second.
+ *  Needs a PostgreSQL archive configured in the test properties,
+ *  preferably a local instance so that network latency
+ *  does not dominate the result.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class WriteModeBenchmarkDemo
+{
+    final private static int WARMUP_SECS = 5;
+    final private static int TEST_DURATION_SECS = 30;
+    final private static int FLUSH_COUNT = 1000;
+
+    final private Display display = ValueFactory.newDisplay(0.0, 1.0, 2.0, "a.u.", NumberFormats.format(2), 8.0, 9.0, 10.0, 0.0, 10.0);
+
+    private String url, user, password, schema, name, array_name;
+    private boolean use_blob;
+
+    private boolean configure()
+    {
+        final TestProperties settings = new TestProperties();
+        url = settings.getString("archive_rdb_url");
+        user = settings.getString("archive_rdb_user");
+        password = settings.getString("archive_rdb_password");
+        schema = settings.getString("archive_rdb_schema");
+        name = settings.getString("archive_channel");
+        array_name = settings.getString("archive_array_channel");
+        use_blob = Boolean.parseBoolean(settings.getString("archive_use_blob"));
+        if (url == null  ||  user == null  ||  password == null  ||  name == null)
+        {
+            System.out.println("Skipping benchmark, no archive_rdb_url, user, password");
+            return false;
+        }
+        if (! url.startsWith("jdbc:postgresql"))
+        {
+            System.out.println("Skipping benchmark, COPY requires PostgreSQL");
+            return false;
+        }
+        return true;
+    }
+
+    /** @return Rows per second */
+    private double run(final WriteMode mode, final String channel_name, final boolean array, final int seconds) throws Exception
+    {
+        final RDBArchiveWriter writer = new RDBArchiveWriter(url, user, password, schema, use_blob, mode);
+        try
+        {
+            if (writer.getWriteMode() != mode)
+                throw new Exception("Requested " + mode + ", got " + writer.getWriteMode());
+            final WriteChannel channel = writer.getChannel(channel_name);
+            long count = 0;
+            final long start = System.nanoTime();
+            final long end = start + seconds * 1000000000L;
+            long now;
+            do
+            {
+                final VType sample;
+                if (array)
+                    sample = new ArchiveVNumberArray(Instant.now(), AlarmSeverity.NONE, "OK", display,
+                                                     count, 1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0, 8.0, 9.0);
+                else
+                    sample = new ArchiveVNumber(Instant.now(), AlarmSeverity.NONE, "OK", display, 3.14 + count);
+                writer.addSample(channel, sample);
+                if (++count % FLUSH_COUNT == 0)
+                    writer.flush();
+                now = System.nanoTime();
+            }
+            while (now < end);
+            writer.flush();
+            now = System.nanoTime();
+            return count / ((now - start) / 1e9);
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+    private void benchmark(final String channel_name, final boolean array) throws Exception
+    {
+        System.out.println("Writing " + (array ? "array" : "scalar") + " samples to " + channel_name +
+                           (use_blob ? " (BLOB)" : " (array_val)"));
+        for (WriteMode mode : WriteMode.values())
+        {
+            run(mode, channel_name, array, WARMUP_SECS);
+            final double rate = run(mode, channel_name, array, TEST_DURATION_SECS);
+            System.out.format("%-12s: %10.1f samples/sec\n", mode, rate);
+        }
+    }
+
+    @Test
+    public void benchmarkWriteModes() throws Exception
+    {
+        if (! configure())
+            return;
+        benchmark(name, false);
+        if (array_name != null)
+            benchmark(array_name, true);
+    }
+}
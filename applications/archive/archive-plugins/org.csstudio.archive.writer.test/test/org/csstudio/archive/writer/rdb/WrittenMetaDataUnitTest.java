@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.archive.writer.rdb;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+
+import org.diirt.util.text.NumberFormats;
+import org.diirt.vtype.Display;
+import org.diirt.vtype.ValueFactory;
+import org.junit.Test;
+
+/** JUnit test of the meta data comparison that avoids re-writing meta data
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class WrittenMetaDataUnitTest
+{
+    @Test
+    public void testNumeric()
+    {
+        final Display display = ValueFactory.newDisplay(0.0, 1.0, 2.0, "", NumberFormats.format(2), 8.0, 9.0, 10.0, Double.NaN, Double.NaN);
+        final String written = NumericMetaDataHelper.getWrittenForm(display);
+
+        // As read from the RDB: NaN as NULL, units patched to " "
+        final String read = NumericMetaDataHelper.getWrittenForm(0.0, 10.0, 2.0, 8.0, 1.0, 9.0, 2, " ");
+        assertThat(read, equalTo(written));
+
+        final String changed = NumericMetaDataHelper.getWrittenForm(0.0, 10.0, 2.0, 8.0, 1.0, 9.0, 3, " ");
+        assertThat(changed, not(equalTo(written)));
+    }
+
+    @Test
+    public void testEnum()
+    {
+        assertThat(EnumMetaDataHelper.getWrittenForm(Arrays.asList("Off", "", "On")),
+                   equalTo(Arrays.asList("Off", "<1>", "On")));
+    }
+}
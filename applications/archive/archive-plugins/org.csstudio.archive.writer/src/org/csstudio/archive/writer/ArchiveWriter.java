@@ -7,6 +7,8 @@
  ******************************************************************************/
 package org.csstudio.archive.writer;
 
+import java.util.Collection;
+
 import org.diirt.vtype.VType;
 
 /** Interface for writing samples to an archive
@@ -29,6 +31,21 @@ public interface ArchiveWriter
         return getChannel(name);
     }
 
+    /** Prepare for writing to several channels.
+     *
+     *  <p>An implementation may look up all the channels at once,
+     *  so that subsequent calls to <code>getChannel()</code>
+     *  can be handled without accessing the data store.
+     *  Default implementation does nothing.
+     *
+     *  @param names Names of channels that will be written
+     *  @throws Exception on error
+     */
+    public default void preload(Collection<String> names) throws Exception
+    {
+        // NOP
+    }
+
     /** Add a sample to the archive.
      *
      *  <p>The underlying implementation might optimize
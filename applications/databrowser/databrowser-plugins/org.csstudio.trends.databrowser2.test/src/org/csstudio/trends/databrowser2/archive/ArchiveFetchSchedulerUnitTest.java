@@ -0,0 +1,270 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.trends.databrowser2.archive;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.csstudio.archive.reader.ArchiveInfo;
+import org.csstudio.archive.reader.ArchiveReader;
+import org.csstudio.archive.reader.UnknownChannelException;
+import org.csstudio.archive.reader.ValueIterator;
+import org.csstudio.archive.vtype.ArchiveVNumber;
+import org.csstudio.trends.databrowser2.model.ArchiveDataSource;
+import org.csstudio.trends.databrowser2.model.RequestType;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.VType;
+import org.diirt.vtype.ValueFactory;
+import org.junit.After;
+import org.junit.Test;
+
+/** JUnit test of the {@link ArchiveFetchScheduler}
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class ArchiveFetchSchedulerUnitTest
+{
+    final private ExecutorService pool = Executors.newCachedThreadPool();
+    final private ArchiveDataSource archive = new ArchiveDataSource("test://archive", 1, "Test");
+    final private Instant start = Instant.ofEpochSecond(1000), end = Instant.ofEpochSecond(2000);
+
+    final private AtomicInteger readers = new AtomicInteger();
+    final private AtomicInteger queries = new AtomicInteger();
+    final private AtomicInteger active = new AtomicInteger();
+    final private AtomicInteger max_active = new AtomicInteger();
+    private volatile long delay_ms = 100;
+
+    /** Reader that returns one sample per request after a delay */
+    private class TestReader implements ArchiveReader
+    {
+        private volatile boolean cancelled = false;
+
+        TestReader()
+        {
+            readers.incrementAndGet();
+        }
+
+        @Override
+        public ValueIterator getRawValues(final int key, final String name, final Instant start, final Instant end)
+                throws UnknownChannelException, Exception
+        {
+            if (name.equals("unknown"))
+                throw new UnknownChannelException(name);
+            queries.incrementAndGet();
+            max_active.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try
+            {
+                final long stop = System.currentTimeMillis() + delay_ms;
+                while (!cancelled  &&  System.currentTimeMillis() < stop)
+                    Thread.sleep(5);
+            }
+            finally
+            {
+                active.decrementAndGet();
+            }
+            final List<VType> values = new ArrayList<>();
+            values.add(new ArchiveVNumber(start, AlarmSeverity.NONE, "", ValueFactory.displayNone(), 3.14));
+            return new ValueIterator()
+            {
+                private int i = 0;
+
+                @Override
+                public boolean hasNext()
+                {
+                    return i < values.size();
+                }
+
+                @Override
+                public VType next() throws Exception
+                {
+                    return values.get(i++);
+                }
+
+                @Override
+                public void close()
+                {
+                    // NOP
+                }
+            };
+        }
+
+        @Override
+        public ValueIterator getOptimizedValues(final int key, final String name, final Instant start, final Instant end,
+                final int count) throws UnknownChannelException, Exception
+        {
+            return getRawValues(key, name, start, end);
+        }
+
+        @Override
+        public void cancel()
+        {
+            cancelled = true;
+        }
+
+        @Override
+        public String getServerName()
+        {
+            return "Test";
+        }
+
+        @Override
+        public String getURL()
+        {
+            return archive.getUrl();
+        }
+
+        @Override
+        public String getDescription()
+        {
+            return "Test";
+        }
+
+        @Override
+        public int getVersion()
+        {
+            return 1;
+        }
+
+        @Override
+        public ArchiveInfo[] getArchiveInfos()
+        {
+            return new ArchiveInfo[0];
+        }
+
+        @Override
+        public String[] getNamesByPattern(final int key, final String glob_pattern) throws Exception
+        {
+            return new String[0];
+        }
+
+        @Override
+        public String[] getNamesByRegExp(final int key, final String reg_exp) throws Exception
+        {
+            return new String[0];
+        }
+
+        @Override
+        public void close()
+        {
+            // NOP
+        }
+    }
+
+    private ArchiveFetchScheduler createScheduler(final int concurrency)
+    {
+        return new ArchiveFetchScheduler(url -> new TestReader(), pool, concurrency);
+    }
+
+    @After
+    public void shutdown()
+    {
+        pool.shutdownNow();
+    }
+
+    @Test(timeout=10000)
+    public void testConcurrencyLimit() throws Exception
+    {
+        final ArchiveFetchScheduler scheduler = createScheduler(2);
+        final List<ArchiveFetchScheduler.Request> requests = new ArrayList<>();
+        for (int i=0; i<6; ++i)
+            requests.add(scheduler.submit(archive, "pv" + i, RequestType.RAW, start, end, 100, false));
+        for (ArchiveFetchScheduler.Request request : requests)
+        {
+            assertThat(request.get().size(), equalTo(1));
+            assertThat(request.getServerName(), equalTo("Test"));
+        }
+        System.out.println("Readers: " + readers.get() + ", max. concurrent queries: " + max_active.get());
+        assertThat(queries.get(), equalTo(6));
+        assertTrue(max_active.get() <= 2);
+        // Readers were re-used for queued requests
+        assertTrue(readers.get() <= 2);
+    }
+
+    @Test(timeout=10000)
+    public void testSharedFetch() throws Exception
+    {
+        final ArchiveFetchScheduler scheduler = createScheduler(2);
+        final ArchiveFetchScheduler.Request first = scheduler.submit(archive, "pv", RequestType.RAW, start, end, 100, false);
+        // Same channel, range within the first request
+        final ArchiveFetchScheduler.Request second = scheduler.submit(archive, "pv", RequestType.RAW,
+                start.plusSeconds(10), end.minusSeconds(10), 100, false);
+        // Optimized request needs its own fetch
+        final ArchiveFetchScheduler.Request third = scheduler.submit(archive, "pv", RequestType.OPTIMIZED, start, end, 100, false);
+
+        // Cancelling one of the requests that share a fetch doesn't affect the other
+        first.cancel();
+        assertThat(second.get().size(), equalTo(1));
+        assertThat(third.get().size(), equalTo(1));
+        assertThat(queries.get(), equalTo(2));
+    }
+
+    @Test(timeout=10000)
+    public void testCancel() throws Exception
+    {
+        delay_ms = 5000;
+        final ArchiveFetchScheduler scheduler = createScheduler(1);
+        final ArchiveFetchScheduler.Request running = scheduler.submit(archive, "pv1", RequestType.RAW, start, end, 100, false);
+        final ArchiveFetchScheduler.Request queued = scheduler.submit(archive, "pv2", RequestType.RAW, start, end, 100, false);
+        Thread.sleep(200);
+
+        // Queued request is removed without ever reaching the reader
+        queued.cancel();
+        try
+        {
+            queued.get();
+            fail("Request was cancelled");
+        }
+        catch (InterruptedException ex)
+        {
+            // Expected
+        }
+        // Running request is cancelled via the reader
+        running.cancel();
+        try
+        {
+            running.get();
+            fail("Request was cancelled");
+        }
+        catch (InterruptedException ex)
+        {
+            // Expected
+        }
+        assertThat(queries.get(), equalTo(1));
+
+        // Scheduler continues with new requests
+        delay_ms = 10;
+        final ArchiveFetchScheduler.Request next = scheduler.submit(archive, "pv3", RequestType.RAW, start, end, 100, false);
+        assertThat(next.get().size(), equalTo(1));
+    }
+
+    @Test(timeout=10000)
+    public void testUnknownChannel() throws Exception
+    {
+        final ArchiveFetchScheduler scheduler = createScheduler(1);
+        final ArchiveFetchScheduler.Request request = scheduler.submit(archive, "unknown", RequestType.RAW, start, end, 100, false);
+        try
+        {
+            request.get();
+            fail("Channel is not known");
+        }
+        catch (Exception ex)
+        {
+            assertThat(ex, instanceOf(UnknownChannelException.class));
+        }
+    }
+}
@@ -0,0 +1,320 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.trends.databrowser2.archive;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.csstudio.archive.reader.ArchiveInfo;
+import org.csstudio.archive.reader.ArchiveReader;
+import org.csstudio.archive.reader.UnknownChannelException;
+import org.csstudio.archive.reader.ValueIterator;
+import org.csstudio.archive.vtype.ArchiveVStatistics;
+import org.diirt.util.text.NumberFormats;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.Display;
+import org.diirt.vtype.Time;
+import org.diirt.vtype.VStatistics;
+import org.diirt.vtype.VType;
+import org.diirt.vtype.ValueFactory;
+import org.junit.Test;
+
+/** JUnit test of the {@link TileCache}
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class TileCacheUnitTest
+{
+    final private static String URL = "test://archive";
+    final private Display display = ValueFactory.newDisplay(0.0, 1.0, 2.0, "a.u.", NumberFormats.format(2), 8.0, 9.0, 10.0, 0.0, 10.0);
+
+    final private AtomicInteger queries = new AtomicInteger();
+    private volatile Instant last_start = null;
+
+    /** Return each sample twice? */
+    private volatile boolean duplicate = false;
+
+    /** Reader that returns a statistics sample every 10 seconds */
+    private class TestReader implements ArchiveReader
+    {
+        @Override
+        public ValueIterator getRawValues(final int key, final String name, final Instant start, final Instant end)
+                throws UnknownChannelException, Exception
+        {
+            throw new Exception("Raw data not supported");
+        }
+
+        @Override
+        public ValueIterator getOptimizedValues(final int key, final String name, final Instant start, final Instant end,
+                final int count) throws UnknownChannelException, Exception
+        {
+            queries.incrementAndGet();
+            last_start = start;
+            final List<VType> values = new ArrayList<>();
+            for (long secs = (start.getEpochSecond() / 10) * 10; secs < end.getEpochSecond(); secs += 10)
+            {
+                values.add(new ArchiveVStatistics(Instant.ofEpochSecond(secs), AlarmSeverity.NONE, "OK", display,
+                                                  secs, secs-1, secs+1, 0.5, 10));
+                if (duplicate)
+                    values.add(values.get(values.size()-1));
+            }
+            return new ValueIterator()
+            {
+                private int i = 0;
+
+                @Override
+                public boolean hasNext()
+                {
+                    return i < values.size();
+                }
+
+                @Override
+                public VType next() throws Exception
+                {
+                    return values.get(i++);
+                }
+
+                @Override
+                public void close()
+                {
+                    // NOP
+                }
+            };
+        }
+
+        @Override
+        public void cancel()
+        {
+            // NOP
+        }
+
+        @Override
+        public String getServerName()
+        {
+            return "Test";
+        }
+
+        @Override
+        public String getURL()
+        {
+            return URL;
+        }
+
+        @Override
+        public String getDescription()
+        {
+            return "Test";
+        }
+
+        @Override
+        public int getVersion()
+        {
+            return 1;
+        }
+
+        @Override
+        public ArchiveInfo[] getArchiveInfos()
+        {
+            return new ArchiveInfo[0];
+        }
+
+        @Override
+        public String[] getNamesByPattern(final int key, final String glob_pattern) throws Exception
+        {
+            return new String[0];
+        }
+
+        @Override
+        public String[] getNamesByRegExp(final int key, final String reg_exp) throws Exception
+        {
+            return new String[0];
+        }
+
+        @Override
+        public void close()
+        {
+            // NOP
+        }
+    }
+
+    private TileCache.Result read(final TileCache cache, final String name, final long start, final long end) throws Exception
+    {
+        return cache.read(new TestReader(), URL, 1, name, Instant.ofEpochSecond(start), Instant.ofEpochSecond(end), 100, () -> false);
+    }
+
+    /** Check that samples are ordered and cover the time range */
+    private void check(final List<VType> samples, final long start, final long end)
+    {
+        Instant last = null;
+        for (VType value : samples)
+        {
+            final Instant time = ((Time) value).getTimestamp();
+            if (last != null)
+                assertTrue("Ordered", time.isAfter(last));
+            last = time;
+            assertThat(((VStatistics) value).getAverage(), equalTo((double) time.getEpochSecond()));
+        }
+        assertTrue(((Time) samples.get(0)).getTimestamp().getEpochSecond() <= start);
+        assertTrue(last.getEpochSecond() >= end - 10);
+    }
+
+    @Test
+    public void testLevels()
+    {
+        final Instant start = Instant.ofEpochSecond(1000);
+        assertThat(TileCache.getLevel(start, start, 100), equalTo(0));
+        // 10 seconds per bin -> 8192 ms bins
+        assertThat(TileCache.getLevel(start, Instant.ofEpochSecond(2000), 100), equalTo(13));
+        assertThat(TileCache.getTileMillis(13), equalTo(256L * 8192));
+    }
+
+    @Test
+    public void testCache() throws Exception
+    {
+        final TileCache cache = new TileCache(10 * 1024 * 1024, null, 0);
+        assertThat(cache.getCached(URL, 1, "pv", Instant.ofEpochSecond(1000), Instant.ofEpochSecond(2000), 100), nullValue());
+
+        TileCache.Result result = read(cache, "pv", 1000, 2000);
+        assertThat(queries.get(), equalTo(1));
+        assertThat(result.getSource(), equalTo("Test"));
+        check(result.getSamples(), 1000, 2000);
+
+        // Same or smaller range on same level is cached
+        result = cache.getCached(URL, 1, "pv", Instant.ofEpochSecond(1000), Instant.ofEpochSecond(2000), 100);
+        assertThat(result, notNullValue());
+        check(result.getSamples(), 1000, 2000);
+        result = read(cache, "pv", 1100, 2000);
+        assertThat(queries.get(), equalTo(1));
+
+        // Panning only fetches the missing tile
+        result = read(cache, "pv", 1500, 2500);
+        assertThat(queries.get(), equalTo(2));
+        assertThat(last_start.toEpochMilli(), equalTo(TileCache.getTileMillis(13)));
+        check(result.getSamples(), 1500, 2500);
+        System.out.println(cache);
+
+        // Different channel is not cached
+        read(cache, "other", 1000, 2000);
+        assertThat(queries.get(), equalTo(3));
+    }
+
+    @Test
+    public void testRecentData() throws Exception
+    {
+        final TileCache cache = new TileCache(10 * 1024 * 1024, null, 0);
+        final long now = Instant.now().getEpochSecond();
+        read(cache, "pv", now - 1000, now);
+        read(cache, "pv", now - 1000, now);
+        // Data for the recent time range could still change, not cached
+        assertThat(queries.get(), equalTo(2));
+    }
+
+    @Test
+    public void testFiles() throws Exception
+    {
+        final File directory = Files.createTempDirectory("tiles").toFile();
+        TileCache cache = new TileCache(10 * 1024 * 1024, directory, 10 * 1024 * 1024);
+        read(cache, "pv", 1000, 2000);
+        assertThat(queries.get(), equalTo(1));
+
+        // New cache, as after restart, reads the tile files
+        cache = new TileCache(10 * 1024 * 1024, directory, 10 * 1024 * 1024);
+        final TileCache.Result result = cache.getCached(URL, 1, "pv", Instant.ofEpochSecond(1000), Instant.ofEpochSecond(2000), 100);
+        assertThat(result, notNullValue());
+        assertThat(result.getSource(), equalTo("Test"));
+        check(result.getSamples(), 1000, 2000);
+        final ArchiveVStatistics sample = (ArchiveVStatistics) result.getSamples().get(0);
+        assertThat(sample.getDisplay().getUnits(), equalTo("a.u."));
+        assertThat(sample.getDisplay().getUpperDisplayLimit(), equalTo(10.0));
+        assertThat(sample.getStdDev(), equalTo(0.5));
+        assertThat(sample.getNSamples(), equalTo(10));
+        assertThat(queries.get(), equalTo(1));
+    }
+
+    @Test
+    public void testEviction() throws Exception
+    {
+        // Room for about one tile
+        final TileCache cache = new TileCache(40 * 1024, null, 0);
+        read(cache, "a", 1000, 2000);
+        read(cache, "b", 1000, 2000);
+        assertThat(cache.size(), equalTo(1));
+        assertTrue(cache.getMemoryUse() <= 40 * 1024);
+        // 'a' was evicted, 'b' is still cached
+        assertThat(cache.getCached(URL, 1, "a", Instant.ofEpochSecond(1000), Instant.ofEpochSecond(2000), 100), nullValue());
+        assertThat(cache.getCached(URL, 1, "b", Instant.ofEpochSecond(1000), Instant.ofEpochSecond(2000), 100), notNullValue());
+    }
+
+    @Test
+    public void testEqualTimestamps() throws Exception
+    {
+        duplicate = true;
+        final TileCache cache = new TileCache(10 * 1024 * 1024, null, 0);
+        read(cache, "pv", 1000, 2000);
+        // Combines cached tile with newly fetched tile
+        final TileCache.Result result = read(cache, "pv", 1500, 2500);
+        assertThat(queries.get(), equalTo(2));
+        final List<VType> samples = result.getSamples();
+        assertThat(samples.size() % 2, equalTo(0));
+        for (int i=0; i<samples.size(); i += 2)
+            assertThat(((Time) samples.get(i+1)).getTimestamp(), equalTo(((Time) samples.get(i)).getTimestamp()));
+        // Samples across the tile boundary are all there, and only once
+        assertThat(((Time) samples.get(samples.size()-1)).getTimestamp().getEpochSecond() -
+                   ((Time) samples.get(0)).getTimestamp().getEpochSecond(),
+                   equalTo(10L * (samples.size()/2 - 1)));
+    }
+
+    @Test
+    public void testFileNames() throws Exception
+    {
+        // Names with the same hash code
+        assertThat("Aa".hashCode(), equalTo("BB".hashCode()));
+        final File directory = Files.createTempDirectory("tiles").toFile();
+        TileCache cache = new TileCache(10 * 1024 * 1024, directory, 10 * 1024 * 1024);
+        read(cache, "Aa", 1000, 2000);
+        read(cache, "BB", 1000, 2000);
+        read(cache, "../*?", 1000, 2000);
+        assertThat(queries.get(), equalTo(3));
+
+        cache = new TileCache(10 * 1024 * 1024, directory, 10 * 1024 * 1024);
+        assertThat(cache.getCached(URL, 1, "Aa", Instant.ofEpochSecond(1000), Instant.ofEpochSecond(2000), 100), notNullValue());
+        assertThat(cache.getCached(URL, 1, "BB", Instant.ofEpochSecond(1000), Instant.ofEpochSecond(2000), 100), notNullValue());
+        assertThat(cache.getCached(URL, 1, "../*?", Instant.ofEpochSecond(1000), Instant.ofEpochSecond(2000), 100), notNullValue());
+    }
+
+    @Test
+    public void testFileEviction() throws Exception
+    {
+        final File directory = Files.createTempDirectory("tiles").toFile();
+        TileCache cache = new TileCache(10 * 1024 * 1024, directory, 10 * 1024 * 1024);
+        read(cache, "a", 1000, 2000);
+        final long tile_bytes = cache.getDiskUse();
+        assertTrue(tile_bytes > 0);
+
+        // Room for about one tile file
+        cache = new TileCache(10 * 1024 * 1024, directory, tile_bytes + tile_bytes/2);
+        read(cache, "b", 1000, 2000);
+        assertThat(cache.getDiskUse(), equalTo(tile_bytes));
+        assertThat(queries.get(), equalTo(2));
+
+        // After restart, 'a' was removed, 'b' is still cached
+        cache = new TileCache(10 * 1024 * 1024, directory, tile_bytes + tile_bytes/2);
+        assertThat(cache.getCached(URL, 1, "a", Instant.ofEpochSecond(1000), Instant.ofEpochSecond(2000), 100), nullValue());
+        assertThat(cache.getCached(URL, 1, "b", Instant.ofEpochSecond(1000), Instant.ofEpochSecond(2000), 100), notNullValue());
+    }
+}
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.trends.databrowser2.model;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.csstudio.archive.vtype.ArchiveVEnum;
+import org.csstudio.archive.vtype.ArchiveVNumber;
+import org.csstudio.archive.vtype.ArchiveVStatistics;
+import org.csstudio.archive.vtype.ArchiveVString;
+import org.diirt.util.text.NumberFormats;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.Display;
+import org.diirt.vtype.VEnum;
+import org.diirt.vtype.VNumber;
+import org.diirt.vtype.VStatistics;
+import org.diirt.vtype.VString;
+import org.diirt.vtype.VType;
+import org.diirt.vtype.ValueFactory;
+import org.junit.Test;
+
+/** JUnit test of the {@link HistoricSamples}
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class HistoricSamplesUnitTest
+{
+    final private Display display = ValueFactory.newDisplay(0.0, 1.0, 2.0, "a.u.", NumberFormats.format(2), 8.0, 9.0, 10.0, 0.0, 10.0);
+
+    /** @return Samples start .. end-1 with value = time + offset */
+    private List<VType> makeSamples(final int start, final int end, final double offset)
+    {
+        final List<VType> values = new ArrayList<>();
+        for (int i=start; i<end; ++i)
+            values.add(new ArchiveVNumber(Instant.ofEpochSecond(i), AlarmSeverity.NONE, "OK", display, i + offset));
+        return values;
+    }
+
+    private void check(final HistoricSamples samples, final int start, final int end, final double offset)
+    {
+        int index = -1;
+        for (int i=0; i<samples.size(); ++i)
+            if (samples.get(i).getPosition().getEpochSecond() == start)
+            {
+                index = i;
+                break;
+            }
+        assertTrue("Sample for " + start, index >= 0);
+        for (int t=start; t<end; ++t)
+        {
+            final PlotSample sample = samples.get(index++);
+            assertThat(sample.getPosition(), equalTo(Instant.ofEpochSecond(t)));
+            assertThat(sample.getValue(), equalTo(t + offset));
+        }
+    }
+
+    @Test
+    public void testMerge()
+    {
+        final HistoricSamples samples = new HistoricSamples(new AtomicInteger(0));
+        // Several chunks
+        final int N = 3*SampleChunk.CHUNK_SIZE + 10;
+        samples.mergeArchivedData("A", makeSamples(1000, 1000+N, 0.0));
+        assertThat(samples.size(), equalTo(N));
+        check(samples, 1000, 1000+N, 0.0);
+
+        // Replace section in the middle, crossing chunk boundaries
+        samples.mergeArchivedData("B", makeSamples(5000, 10000, 0.5));
+        assertThat(samples.size(), equalTo(N));
+        check(samples, 1000, 5000, 0.0);
+        check(samples, 5000, 10000, 0.5);
+        check(samples, 10000, 1000+N, 0.0);
+        assertThat(samples.get(4000).getSource(), equalTo("B"));
+        assertThat(samples.get(3999).getSource(), equalTo("A"));
+
+        // Add before, overlapping the start
+        samples.mergeArchivedData("C", makeSamples(0, 2000, 0.25));
+        assertThat(samples.size(), equalTo(N+1000));
+        check(samples, 0, 2000, 0.25);
+        check(samples, 2000, 5000, 0.0);
+
+        // Add after, not overlapping
+        samples.mergeArchivedData("D", makeSamples(20000, 20010, 0.0));
+        assertThat(samples.size(), equalTo(N+1010));
+        check(samples, 10000, 1000+N, 0.0);
+        check(samples, 20000, 20010, 0.0);
+
+        // Replace everything
+        samples.mergeArchivedData("E", makeSamples(0, 30000, 0.75));
+        assertThat(samples.size(), equalTo(30000));
+        check(samples, 0, 30000, 0.75);
+
+        // Border time hides samples
+        samples.setBorderTime(Optional.of(Instant.ofEpochSecond(100)));
+        assertThat(samples.size(), equalTo(100));
+        assertThat(samples.getRawSize(), equalTo(30000));
+        samples.setBorderTime(Optional.empty());
+        assertThat(samples.size(), equalTo(30000));
+
+        samples.clear();
+        assertThat(samples.size(), equalTo(0));
+        assertThat(samples.getMemoryUse(), equalTo(0L));
+    }
+
+    @Test
+    public void testTypes()
+    {
+        final List<String> labels = Arrays.asList("Off", "On");
+        final List<VType> values = new ArrayList<>();
+        values.add(new ArchiveVNumber(Instant.ofEpochSecond(1), AlarmSeverity.MINOR, "LOW", display, 3));
+        values.add(new ArchiveVStatistics(Instant.ofEpochSecond(2), AlarmSeverity.NONE, "OK", display, 2.0, 1.0, 3.0, 0.5, 10));
+        values.add(new ArchiveVString(Instant.ofEpochSecond(3), AlarmSeverity.NONE, "OK", "Text"));
+        values.add(new ArchiveVEnum(Instant.ofEpochSecond(4), AlarmSeverity.MAJOR, "STATE", labels, 1));
+
+        final HistoricSamples samples = new HistoricSamples(new AtomicInteger(0));
+        samples.mergeArchivedData("Test", values);
+        assertThat(samples.size(), equalTo(4));
+
+        VType value = samples.get(0).getVType();
+        assertThat(value, instanceOf(VNumber.class));
+        assertThat(((VNumber) value).getValue(), equalTo(3));
+        assertThat(((ArchiveVNumber) value).getDisplay(), equalTo(display));
+        assertThat(((ArchiveVNumber) value).getAlarmSeverity(), equalTo(AlarmSeverity.MINOR));
+        assertThat(((ArchiveVNumber) value).getAlarmName(), equalTo("LOW"));
+
+        value = samples.get(1).getVType();
+        assertThat(value, instanceOf(VStatistics.class));
+        assertThat(samples.get(1).getMin(), equalTo(1.0));
+        assertThat(samples.get(1).getMax(), equalTo(3.0));
+        assertThat(samples.get(1).getStdDev(), equalTo(0.5));
+        assertThat(((VStatistics) value).getNSamples(), equalTo(10));
+
+        value = samples.get(2).getVType();
+        assertThat(value, instanceOf(VString.class));
+        assertThat(((VString) value).getValue(), equalTo("Text"));
+
+        // Enum uses different meta data, kept as object
+        value = samples.get(3).getVType();
+        assertThat(value, instanceOf(VEnum.class));
+        assertThat(((VEnum) value).getValue(), equalTo("On"));
+        assertThat(samples.get(3).getValue(), equalTo(1.0));
+    }
+
+    @Test
+    public void testDisplayPerSample()
+    {
+        // Like archive readers, create a new but equal Display for each sample,
+        // and use various number types
+        final int N = 100000;
+        final List<VType> values = new ArrayList<>();
+        for (int i=0; i<N; ++i)
+        {
+            final Display copy = ValueFactory.newDisplay(0.0, 1.0, 2.0, "a.u.", NumberFormats.format(2), 8.0, 9.0, 10.0, 0.0, 10.0);
+            final Number number;
+            switch (i % 3)
+            {
+            case 0:
+                number = Float.valueOf(i % 1000);
+                break;
+            case 1:
+                number = Short.valueOf((short) (i % 1000));
+                break;
+            default:
+                number = Byte.valueOf((byte) (i % 100));
+            }
+            values.add(new ArchiveVNumber(Instant.ofEpochSecond(i), AlarmSeverity.NONE, "OK", copy, number));
+        }
+        final HistoricSamples samples = new HistoricSamples(new AtomicInteger(0));
+        samples.mergeArchivedData("Test", values);
+        assertThat(samples.size(), equalTo(N));
+
+        // Kept in primitive columns, not as objects
+        final long bytes = samples.getMemoryUse();
+        System.out.println(N + " samples with own Display use about " + bytes/N + " bytes per sample");
+        assertTrue(bytes / N < 40);
+
+        VType value = samples.get(3).getVType();
+        assertThat(((VNumber) value).getValue(), equalTo(3.0f));
+        assertTrue(LiveSamples.isSameDisplay(((ArchiveVNumber) value).getDisplay(), display));
+        value = samples.get(4).getVType();
+        assertThat(((VNumber) value).getValue(), equalTo((short) 4));
+        value = samples.get(5).getVType();
+        assertThat(((VNumber) value).getValue(), equalTo((byte) 5));
+    }
+
+    @Test
+    public void testMemory()
+    {
+        final int N = 1000000;
+        final HistoricSamples samples = new HistoricSamples(new AtomicInteger(0));
+        samples.mergeArchivedData("Test", makeSamples(0, N, 0.0));
+        final long bytes = samples.getMemoryUse();
+        System.out.println(N + " samples use about " + bytes/1024 + " kB, " + bytes/N + " bytes per sample");
+        assertTrue(bytes / N < 40);
+    }
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.trends.databrowser2.model;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.csstudio.apputil.ringbuffer.RingBuffer;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.VType;
+import org.diirt.vtype.ValueFactory;
+import org.junit.Test;
+
+/** JUnit-based benchmark of the live sample buffer
+ *
+ *  <p>Fills a 24 hour live window of a PV with 10 Hz updates
+ *  and reports the retained heap as well as garbage collections
+ *  for the original ring buffer of {@link PlotSample}s
+ *  and the primitive columns of the {@link LiveSamples}.
+ *  Run with for example <code>-Xmx2g</code>.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class LiveSamplesBenchmarkDemo
+{
+    /** 24 hours at 10 Hz */
+    final private static int SAMPLES = 24 * 60 * 60 * 10;
+
+    /** Keep buffers reachable while measuring the heap */
+    private Object buffer;
+
+    private static long usedHeap()
+    {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i=0; i<3; ++i)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static long[] gcStats()
+    {
+        long count = 0, millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            count += Math.max(0, gc.getCollectionCount());
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[] { count, millis };
+    }
+
+    /** @param i Sample index
+     *  @return Value as received from PV, i.e. new object for each update
+     */
+    private static VType makeValue(final int i)
+    {
+        return ValueFactory.newVDouble(Math.sin(i / 100.0),
+                                       ValueFactory.newAlarm(AlarmSeverity.NONE, "NONE"),
+                                       ValueFactory.newTime(Instant.ofEpochSecond(1000000 + i/10, (i%10) * 100000000)),
+                                       ValueFactory.displayNone());
+    }
+
+    private void run(final String title, final Object buffer, final Consumer<VType> add)
+    {
+        this.buffer = null;
+        final long heap_before = usedHeap();
+        final long[] gc_before = gcStats();
+        final long start = System.nanoTime();
+        this.buffer = buffer;
+        for (int i=0; i<SAMPLES; ++i)
+            add.accept(makeValue(i));
+        final double ms = (System.nanoTime() - start) / 1e6;
+        final long[] gc_after = gcStats();
+        final long heap = usedHeap() - heap_before;
+        System.out.format("%-25s: %8.1f MB retained, %6.1f bytes/sample, %4d GCs (%5d ms), %8.1f ms to add\n",
+                          title, heap / 1024.0 / 1024.0, heap / (double) SAMPLES,
+                          gc_after[0] - gc_before[0], gc_after[1] - gc_before[1], ms);
+    }
+
+    @Test
+    public void benchmark() throws Exception
+    {
+        for (int repeat=0; repeat<3; ++repeat)
+        {
+            final RingBuffer<PlotSample> original = new RingBuffer<>(SAMPLES);
+            run("RingBuffer<PlotSample>", original, value -> original.add(new PlotSample("Live", value)));
+
+            final LiveSamples live = new LiveSamples(new AtomicInteger(0));
+            live.setCapacity(SAMPLES);
+            run("LiveSamples", live, value -> live.add("Live", value));
+            System.out.println("LiveSamples estimate: " + live.getMemoryUse() / 1024 / 1024 + " MB");
+        }
+        buffer = null;
+    }
+}
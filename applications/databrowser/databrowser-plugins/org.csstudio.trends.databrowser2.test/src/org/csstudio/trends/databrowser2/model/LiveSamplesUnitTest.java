@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.trends.databrowser2.model;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.csstudio.archive.vtype.ArchiveVNumber;
+import org.diirt.util.array.ArrayDouble;
+import org.diirt.util.text.NumberFormats;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.Display;
+import org.diirt.vtype.VNumber;
+import org.diirt.vtype.VNumberArray;
+import org.diirt.vtype.VType;
+import org.diirt.vtype.ValueFactory;
+import org.junit.Test;
+
+/** JUnit test of the {@link LiveSamples}
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class LiveSamplesUnitTest
+{
+    private VType makeValue(final int i)
+    {
+        final Display display = ValueFactory.newDisplay(0.0, 1.0, 2.0, "a.u.", NumberFormats.format(2), 8.0, 9.0, 10.0, 0.0, 10.0);
+        return new ArchiveVNumber(Instant.ofEpochSecond(i, 500), AlarmSeverity.MINOR, "LOW", display, i);
+    }
+
+    private VType makeWaveform()
+    {
+        return ValueFactory.newVDoubleArray(new ArrayDouble(2.0, 2.1), ValueFactory.alarmNone(),
+                                            ValueFactory.timeNow(), ValueFactory.displayNone());
+    }
+
+    @Test
+    public void testRing() throws Exception
+    {
+        final LiveSamples samples = new LiveSamples(new AtomicInteger(0));
+        samples.setCapacity(3000);
+        for (int i=0; i<5000; ++i)
+            samples.add("Live", makeValue(i));
+        // Newest samples remain
+        assertThat(samples.size(), equalTo(3000));
+        for (int i=0; i<3000; ++i)
+        {
+            final PlotSample sample = samples.get(i);
+            assertThat(sample.getPosition(), equalTo(Instant.ofEpochSecond(2000 + i, 500)));
+            assertThat(sample.getValue(), equalTo(2000.0 + i));
+        }
+
+        final VType value = samples.get(0).getVType();
+        assertThat(value, instanceOf(VNumber.class));
+        assertThat(((VNumber) value).getValue(), equalTo(2000));
+        assertThat(((VNumber) value).getAlarmSeverity(), equalTo(AlarmSeverity.MINOR));
+        assertThat(((VNumber) value).getAlarmName(), equalTo("LOW"));
+        assertThat(((VNumber) value).getUnits(), equalTo("a.u."));
+        assertThat(samples.get(0).getSource(), equalTo("Live"));
+
+        // Shrink, keeping newest samples
+        samples.setCapacity(100);
+        assertThat(samples.size(), equalTo(100));
+        assertThat(samples.get(0).getValue(), equalTo(4900.0));
+        samples.add("Live", makeValue(5000));
+        assertThat(samples.size(), equalTo(100));
+        assertThat(samples.get(99).getValue(), equalTo(5000.0));
+
+        samples.clear();
+        assertThat(samples.size(), equalTo(0));
+    }
+
+    @Test
+    public void testMixed() throws Exception
+    {
+        final LiveSamples samples = new LiveSamples(new AtomicInteger(0));
+        samples.setCapacity(10);
+        samples.add("Live", makeValue(1));
+        final VType waveform = makeWaveform();
+        samples.add("Live", waveform);
+        final PlotSample error = new PlotSample("Live", "Disconnected");
+        samples.add(error);
+        assertThat(samples.size(), equalTo(3));
+        assertThat(samples.get(1).getVType(), sameInstance(waveform));
+        assertThat(samples.get(1).getVType(), instanceOf(VNumberArray.class));
+        assertThat(samples.get(2), sameInstance(error));
+
+        // Objects are dropped as the ring buffer wraps
+        for (int i=3; i<20; ++i)
+            samples.add("Live", makeValue(i));
+        assertThat(samples.size(), equalTo(10));
+        assertThat(samples.get(0).getValue(), equalTo(10.0));
+        assertThat(samples.getMemoryUse(), equalTo(10L * LiveSamples.SLOT_BYTES + 10L * 4));
+    }
+
+    @Test
+    public void testWaveformIndex() throws Exception
+    {
+        final AtomicInteger index = new AtomicInteger(0);
+        final LiveSamples samples = new LiveSamples(index);
+        samples.add("Live", makeValue(1));
+        samples.add("Live", makeWaveform());
+        assertThat(samples.get(0).getValue(), equalTo(1.0));
+        assertThat(samples.get(1).getValue(), equalTo(2.0));
+        index.set(1);
+        // Scalar has no element 1
+        assertTrue(Double.isNaN(samples.get(0).getValue()));
+        assertThat(samples.get(1).getValue(), equalTo(2.1));
+    }
+}
@@ -227,6 +227,7 @@ public class Messages extends NLS
     public static String RequestTypeWarning;
     public static String RequestTypeWarningDetail;
     public static String SampleView_Item;
+    public static String SampleView_Memory;
     public static String SampleView_MinMaxValueTT;
     public static String SampleView_NoPlot;
     public static String SampleView_Refresh;
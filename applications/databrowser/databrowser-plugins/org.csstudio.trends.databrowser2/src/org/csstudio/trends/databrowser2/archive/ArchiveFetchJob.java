@@ -15,10 +15,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 import org.csstudio.apputil.time.BenchmarkTimer;
-import org.csstudio.archive.reader.ArchiveReader;
-import org.csstudio.archive.reader.ArchiveRepository;
 import org.csstudio.archive.reader.UnknownChannelException;
-import org.csstudio.archive.reader.ValueIterator;
 import org.csstudio.trends.databrowser2.Activator;
 import org.csstudio.trends.databrowser2.Messages;
 import org.csstudio.trends.databrowser2.model.ArchiveDataSource;
@@ -38,6 +35,7 @@ import org.eclipse.osgi.util.NLS;
  *  Actually spawns another thread so that the 'main' job can
  *  poll the progress monitor for cancellation and ask the secondary
  *  thread to cancel.
+ *  The archive access is performed by the {@link ArchiveFetchScheduler}.
  *  @author Kay Kasemir
  */
 @SuppressWarnings("nls")
@@ -63,18 +61,22 @@ public class ArchiveFetchJob extends Job
      *  Instead of directly accessing the archive, ArchiveFetchJob launches
      *  a WorkerThread for the actual archive access, so that the Job
      *  can then poll the progress monitor for cancellation and if
-     *  necessary interrupt the WorkerThread which might be 'stuck'
-     *  in a long running operation.
+     *  necessary cancel the WorkerThread which might be waiting
+     *  for a long running operation.
+     *
+     *  The WorkerThread submits requests for all archive data sources
+     *  to the {@link ArchiveFetchScheduler}, which limits the number
+     *  of concurrent requests to each data server.
      */
     class WorkerThread implements Runnable
     {
         private String message = "";
         private volatile boolean cancelled = false;
 
-        /** Archive reader that's currently queried.
+        /** Requests for the archive data sources.
          *  Synchronize 'this' on access.
          */
-        private volatile ArchiveReader reader = null;
+        private ArchiveFetchScheduler.Request[] requests = null;
 
         /** @return Message that somehow indicates progress */
         public synchronized String getMessage()
@@ -86,11 +88,9 @@ public class ArchiveFetchJob extends Job
         public synchronized void cancel()
         {
             cancelled = true;
-            synchronized (this)
-            {
-                if (reader != null)
-                    reader.cancel();
-            }
+            if (requests != null)
+                for (ArchiveFetchScheduler.Request request : requests)
+                    request.cancel();
         }
 
         /** {@inheritDoc} */
@@ -107,11 +107,21 @@ public class ArchiveFetchJob extends Job
                 bins = Activator.display_pixel_width * (- bins);
 
             final ArchiveDataSource archives[] = item.getArchiveDataSources();
+            // Submit requests for all data sources, then wait for each one
+            synchronized (this)
+            {
+                if (cancelled)
+                    return;
+                final ArchiveFetchScheduler scheduler = ArchiveFetchScheduler.getInstance();
+                requests = new ArchiveFetchScheduler.Request[archives.length];
+                for (int i=0; i<archives.length; ++i)
+                    requests[i] = scheduler.submit(archives[i], item.getResolvedName(), item.getRequestType(),
+                                                   start, end, bins, concurrency);
+            }
             List<ArchiveDataSource> sourcesWhereChannelDoesntExist = new ArrayList<>();
             for (int i=0; i<archives.length && !cancelled; ++i)
             {
                 final ArchiveDataSource archive = archives[i];
-                final String url = archive.getUrl();
                 // Display "N/total", using '1' for the first sub-archive.
                 synchronized  (this)
                 {
@@ -125,38 +135,15 @@ public class ArchiveFetchJob extends Job
                 }
                 try
                 {
-                    final ArchiveReader the_reader;
-                    synchronized (this)
-                    {
-                        the_reader = reader = ArchiveRepository.getInstance().getArchiveReader(url);
-                    }
-                    the_reader.enableConcurrency(concurrency);
-                    final ValueIterator value_iter;
-                    try
-                    {
-                        if (item.getRequestType() == RequestType.RAW)
-                            value_iter = the_reader.getRawValues(archive.getKey(), item.getResolvedName(),
-                                                                 start, end);
-                        else
-                            value_iter = the_reader.getOptimizedValues(archive.getKey(), item.getResolvedName(),
-                                                                       start, end, bins);
-                    }
-                    catch (UnknownChannelException e)
-                    {
-                        // Do not immediately notify about unknown channels. First search for the data in all archive
-                        // sources and only report this kind of errors at the end
-                        sourcesWhereChannelDoesntExist.add(archives[i]);
-                        continue;
-                    }
-                    // Get samples into array
-                    final List<VType> result = new ArrayList<VType>();
-                    while (value_iter.hasNext())
-                        result.add(value_iter.next());
+                    final List<VType> result = requests[i].get();
                     samples += result.size();
-                    item.mergeArchivedSamples(the_reader.getServerName(), result);
-                    if (cancelled)
-                        break;
-                    value_iter.close();
+                    item.mergeArchivedSamples(requests[i].getServerName(), result);
+                }
+                catch (UnknownChannelException e)
+                {
+                    // Do not immediately notify about unknown channels. First search for the data in all archive
+                    // sources and only report this kind of errors at the end
+                    sourcesWhereChannelDoesntExist.add(archives[i]);
                 }
                 catch (Exception ex)
                 {   // Tell listener unless it's the result of a 'cancel'?
@@ -164,15 +151,6 @@ public class ArchiveFetchJob extends Job
                         listener.archiveFetchFailed(ArchiveFetchJob.this, archive, ex);
                     // Continue with the next data source
                 }
-                finally
-                {
-                    synchronized (this)
-                    {
-                        if (reader != null)
-                            reader.close();
-                        reader = null;
-                    }
-                }
             }
             if (!sourcesWhereChannelDoesntExist.isEmpty() && !cancelled)
             {
@@ -216,7 +194,7 @@ public class ArchiveFetchJob extends Job
      * @param listener the listener notified when the job is complete or an error happens
      * @param enableConcurrency a parameter forwarded to the reader
      *
-     * @see ArchiveReader#enableConcurrency(boolean)
+     * @see org.csstudio.archive.reader.ArchiveReader#enableConcurrency(boolean)
      */
     protected ArchiveFetchJob(PVItem item, final Instant start,
         final Instant end, final ArchiveFetchJobListener listener, boolean enableConcurrency)
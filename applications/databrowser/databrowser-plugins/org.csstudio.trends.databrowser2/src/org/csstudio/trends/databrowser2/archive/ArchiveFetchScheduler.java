@@ -0,0 +1,442 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.trends.databrowser2.archive;
+
+import java.io.File;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+
+import org.csstudio.archive.reader.ArchiveReader;
+import org.csstudio.archive.reader.ArchiveRepository;
+import org.csstudio.archive.reader.ValueIterator;
+import org.csstudio.trends.databrowser2.Activator;
+import org.csstudio.trends.databrowser2.model.ArchiveDataSource;
+import org.csstudio.trends.databrowser2.model.RequestType;
+import org.csstudio.trends.databrowser2.preferences.Preferences;
+import org.diirt.vtype.VType;
+
+/** Scheduler for archive requests
+ *
+ *  <p>Requests are queued per archive server (URL).
+ *  Each server is accessed by at most a limited number of workers.
+ *  A worker keeps its archive reader, and thus its connection,
+ *  while it handles the queued requests for that server one after the other,
+ *  and closes it when the queue is empty.
+ *
+ *  <p>A request for a channel that is already queued or being fetched
+ *  with the same request type and a time range that covers the new request
+ *  shares the existing fetch.
+ *  Cancelling a request only cancels the fetch once no other request
+ *  waits for it.
+ *
+ *  <p>Optimized requests are served from a {@link TileCache}
+ *  when one is configured.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class ArchiveFetchScheduler
+{
+    /** Create an archive reader */
+    @FunctionalInterface
+    public interface ReaderFactory
+    {
+        /** @param url Archive URL
+         *  @return {@link ArchiveReader}
+         *  @throws Exception on error
+         */
+        ArchiveReader create(String url) throws Exception;
+    }
+
+    /** Request for samples, handed to the caller */
+    public static class Request
+    {
+        final private Fetch fetch;
+        private boolean cancelled = false;
+
+        private Request(final Fetch fetch)
+        {
+            this.fetch = fetch;
+        }
+
+        /** Wait for the samples
+         *  @return Samples, may include samples outside of the requested time range
+         *  @throws InterruptedException when request is cancelled
+         *  @throws Exception on error, including {@link org.csstudio.archive.reader.UnknownChannelException}
+         */
+        public List<VType> get() throws Exception
+        {
+            fetch.done.await();
+            if (fetch.cancelled)
+                throw new InterruptedException("Cancelled " + fetch);
+            if (fetch.error != null)
+                throw fetch.error;
+            return fetch.samples;
+        }
+
+        /** @return Name of the archive server, available once the samples were fetched */
+        public String getServerName()
+        {
+            return fetch.server_name;
+        }
+
+        /** Cancel the request */
+        public void cancel()
+        {
+            synchronized (fetch.lane)
+            {
+                if (cancelled)
+                    return;
+                cancelled = true;
+            }
+            fetch.lane.release(fetch);
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Request for " + fetch;
+        }
+    }
+
+    /** Identifies the channel and kind of data, without time range */
+    private static class Key
+    {
+        final int archive_key;
+        final String name;
+        final RequestType type;
+        final int bins;
+
+        Key(final int archive_key, final String name, final RequestType type, final int bins)
+        {
+            this.archive_key = archive_key;
+            this.name = name;
+            this.type = type;
+            this.bins = type == RequestType.RAW ? 0 : bins;
+        }
+
+        @Override
+        public boolean equals(final Object obj)
+        {
+            if (! (obj instanceof Key))
+                return false;
+            final Key other = (Key) obj;
+            return archive_key == other.archive_key  &&
+                   bins == other.bins  &&
+                   type == other.type  &&
+                   name.equals(other.name);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(archive_key, name, type, bins);
+        }
+    }
+
+    /** Fetch of samples, possibly shared by several requests.
+     *  Synchronized on its lane.
+     */
+    private static class Fetch
+    {
+        final Lane lane;
+        final Key key;
+        final Instant start, end;
+        final boolean concurrency;
+        final CountDownLatch done = new CountDownLatch(1);
+
+        /** Requests that wait for this fetch */
+        int requests = 1;
+
+        /** Reader while fetch is active */
+        ArchiveReader reader = null;
+
+        volatile boolean cancelled = false;
+        volatile List<VType> samples = null;
+        volatile Exception error = null;
+        volatile String server_name = null;
+
+        Fetch(final Lane lane, final Key key, final Instant start, final Instant end, final boolean concurrency)
+        {
+            this.lane = lane;
+            this.key = key;
+            this.start = start;
+            this.end = end;
+            this.concurrency = concurrency;
+        }
+
+        boolean covers(final Instant start, final Instant end)
+        {
+            return !this.start.isAfter(start)  &&  !this.end.isBefore(end);
+        }
+
+        @Override
+        public String toString()
+        {
+            return key.name + " (" + key.type + ") from " + lane.url + ", " + start + " - " + end;
+        }
+    }
+
+    /** Queue and workers for one archive server */
+    private class Lane
+    {
+        final String url;
+        final ArrayDeque<Fetch> queue = new ArrayDeque<>();
+        final Map<Key, List<Fetch>> pending = new HashMap<>();
+        int workers = 0;
+
+        Lane(final String url)
+        {
+            this.url = url;
+        }
+
+        /** @return Request for new or existing fetch */
+        Request submit(final Key key, final Instant start, final Instant end, final boolean concurrency)
+        {
+            if (tile_cache != null  &&  key.type == RequestType.OPTIMIZED)
+            {
+                final TileCache.Result cached = tile_cache.getCached(url, key.archive_key, key.name, start, end, key.bins);
+                if (cached != null)
+                {
+                    final Fetch fetch = new Fetch(this, key, start, end, concurrency);
+                    fetch.server_name = cached.getSource();
+                    fetch.samples = cached.getSamples();
+                    fetch.done.countDown();
+                    Activator.getLogger().log(Level.FINE, "Cached tiles for {0}", fetch);
+                    return new Request(fetch);
+                }
+            }
+            final Fetch fetch;
+            synchronized (this)
+            {
+                final List<Fetch> fetches = pending.computeIfAbsent(key, k -> new ArrayList<>());
+                for (Fetch existing : fetches)
+                    if (!existing.cancelled  &&  existing.covers(start, end))
+                    {
+                        ++existing.requests;
+                        Activator.getLogger().log(Level.FINE, "Sharing fetch for {0}", existing);
+                        return new Request(existing);
+                    }
+                fetch = new Fetch(this, key, start, end, concurrency);
+                fetches.add(fetch);
+                queue.add(fetch);
+                if (workers >= max_per_server)
+                    return new Request(fetch);
+                ++workers;
+            }
+            executor.execute(this::work);
+            return new Request(fetch);
+        }
+
+        /** Called when a request no longer waits for the fetch */
+        void release(final Fetch fetch)
+        {
+            final ArchiveReader reader;
+            synchronized (this)
+            {
+                if (--fetch.requests > 0  ||  fetch.done.getCount() <= 0)
+                    return;
+                fetch.cancelled = true;
+                queue.remove(fetch);
+                remove(fetch);
+                reader = fetch.reader;
+            }
+            if (reader != null)
+                reader.cancel();
+            else
+                fetch.done.countDown();
+        }
+
+        private void remove(final Fetch fetch)
+        {
+            final List<Fetch> fetches = pending.get(fetch.key);
+            if (fetches != null)
+            {
+                fetches.remove(fetch);
+                if (fetches.isEmpty())
+                    pending.remove(fetch.key);
+            }
+        }
+
+        /** Worker: Handle queued fetches with one reader */
+        private void work()
+        {
+            ArchiveReader reader = null;
+            try
+            {
+                while (true)
+                {
+                    final Fetch fetch;
+                    synchronized (this)
+                    {
+                        fetch = queue.poll();
+                        if (fetch == null)
+                        {
+                            --workers;
+                            return;
+                        }
+                        if (reader != null)
+                            fetch.reader = reader;
+                    }
+                    try
+                    {
+                        if (reader == null)
+                        {
+                            reader = reader_factory.create(url);
+                            synchronized (this)
+                            {
+                                fetch.reader = reader;
+                            }
+                        }
+                        if (! fetch.cancelled)
+                            read(reader, fetch);
+                    }
+                    catch (Exception ex)
+                    {
+                        fetch.error = ex;
+                    }
+                    finally
+                    {
+                        synchronized (this)
+                        {
+                            fetch.reader = null;
+                            remove(fetch);
+                        }
+                        fetch.done.countDown();
+                    }
+                    // Start over with a fresh reader after cancellation or errors
+                    if (reader != null  &&  (fetch.cancelled  ||  fetch.error != null))
+                    {
+                        reader.close();
+                        reader = null;
+                    }
+                }
+            }
+            finally
+            {
+                if (reader != null)
+                    reader.close();
+            }
+        }
+    }
+
+    private static ArchiveFetchScheduler instance = null;
+
+    final private ReaderFactory reader_factory;
+    final private Executor executor;
+    final private int max_per_server;
+    final private TileCache tile_cache;
+
+    /** Lanes by URL */
+    final private Map<String, Lane> lanes = new HashMap<>();
+
+    /** @return Scheduler for the Data Browser */
+    public static synchronized ArchiveFetchScheduler getInstance()
+    {
+        if (instance == null)
+        {
+            final int cache_mb = Preferences.getTileCacheSize();
+            final String directory = Preferences.getTileCacheDirectory();
+            final TileCache tile_cache = cache_mb > 0
+                ? new TileCache(cache_mb * 1024L * 1024L, directory.isEmpty() ? null : new File(directory),
+                                Preferences.getTileCacheDiskSize() * 1024L * 1024L)
+                : null;
+            instance = new ArchiveFetchScheduler(url -> ArchiveRepository.getInstance().getArchiveReader(url),
+                                                 Activator.getThreadPool(),
+                                                 Preferences.getArchiveFetchConcurrency(),
+                                                 tile_cache);
+        }
+        return instance;
+    }
+
+    /** @param reader_factory Creates archive readers
+     *  @param executor Executor for the workers
+     *  @param max_per_server Maximum number of concurrent fetches per archive server
+     */
+    public ArchiveFetchScheduler(final ReaderFactory reader_factory, final Executor executor, final int max_per_server)
+    {
+        this(reader_factory, executor, max_per_server, null);
+    }
+
+    /** @param reader_factory Creates archive readers
+     *  @param executor Executor for the workers
+     *  @param max_per_server Maximum number of concurrent fetches per archive server
+     *  @param tile_cache Cache for optimized requests, may be <code>null</code>
+     */
+    public ArchiveFetchScheduler(final ReaderFactory reader_factory, final Executor executor, final int max_per_server,
+                                 final TileCache tile_cache)
+    {
+        this.reader_factory = reader_factory;
+        this.executor = executor;
+        this.max_per_server = Math.max(1, max_per_server);
+        this.tile_cache = tile_cache;
+    }
+
+    /** Submit request for samples
+     *  @param archive Archive data source
+     *  @param name Channel name
+     *  @param type Raw or optimized
+     *  @param start Start time
+     *  @param end End time
+     *  @param bins Number of bins for optimized request
+     *  @param concurrency Passed to {@link ArchiveReader#enableConcurrency(boolean)}
+     *  @return {@link Request}
+     */
+    public Request submit(final ArchiveDataSource archive, final String name, final RequestType type,
+                          final Instant start, final Instant end, final int bins, final boolean concurrency)
+    {
+        final Lane lane;
+        synchronized (lanes)
+        {
+            lane = lanes.computeIfAbsent(archive.getUrl(), Lane::new);
+        }
+        return lane.submit(new Key(archive.getKey(), name, type, bins), start, end, concurrency);
+    }
+
+    /** Read samples for a fetch */
+    private void read(final ArchiveReader reader, final Fetch fetch) throws Exception
+    {
+        reader.enableConcurrency(fetch.concurrency);
+        if (tile_cache != null  &&  fetch.key.type == RequestType.OPTIMIZED)
+        {
+            final TileCache.Result result = tile_cache.read(reader, fetch.lane.url, fetch.key.archive_key, fetch.key.name,
+                                                            fetch.start, fetch.end, fetch.key.bins, () -> fetch.cancelled);
+            if (result != null)
+            {
+                fetch.server_name = result.getSource();
+                fetch.samples = result.getSamples();
+                return;
+            }
+        }
+        fetch.server_name = reader.getServerName();
+        final ValueIterator values;
+        if (fetch.key.type == RequestType.RAW)
+            values = reader.getRawValues(fetch.key.archive_key, fetch.key.name, fetch.start, fetch.end);
+        else
+            values = reader.getOptimizedValues(fetch.key.archive_key, fetch.key.name, fetch.start, fetch.end, fetch.key.bins);
+        try
+        {
+            final List<VType> result = new ArrayList<>();
+            while (values.hasNext()  &&  !fetch.cancelled)
+                result.add(values.next());
+            fetch.samples = result;
+        }
+        finally
+        {
+            values.close();
+        }
+    }
+}
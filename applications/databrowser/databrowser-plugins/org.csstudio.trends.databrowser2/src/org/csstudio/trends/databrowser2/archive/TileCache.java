@@ -0,0 +1,427 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.trends.databrowser2.archive;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+
+import org.csstudio.archive.reader.ArchiveReader;
+import org.csstudio.archive.reader.ValueIterator;
+import org.csstudio.trends.databrowser2.Activator;
+import org.diirt.vtype.Time;
+import org.diirt.vtype.VType;
+
+/** Cache of optimized archive data in 'tiles'
+ *
+ *  <p>A tile holds the optimized samples of one channel
+ *  from one archive data source for a fixed time range.
+ *  Tiles are organized in levels of power-of-two resolution:
+ *  Level L uses bins of 2^L milliseconds,
+ *  and a tile on that level covers {@link #TILE_BINS} such bins.
+ *  A request is served from the level with bins just as fine or finer than requested,
+ *  so zooming back out or panning over recently viewed data
+ *  can use tiles that were fetched before.
+ *
+ *  <p>Tiles are kept in memory with LRU eviction once the memory
+ *  limit is reached, and optionally in files, again with LRU eviction
+ *  once their size limit is reached.
+ *  Only tiles that end well in the past are cached,
+ *  since more data might still arrive for recent time ranges.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class TileCache
+{
+    /** Number of bins in a tile */
+    final static int TILE_BINS = 256;
+
+    /** Maximum number of tiles for one request. Larger requests bypass the cache */
+    final private static int MAX_TILES = 64;
+
+    /** Tiles that end within this time before 'now' are not cached */
+    final private static Duration SETTLE_TIME = Duration.ofMinutes(10);
+
+    /** Estimated size of a cached sample */
+    final private static int SAMPLE_BYTES = 150;
+
+    /** Identifies a tile */
+    static class TileKey
+    {
+        final String url;
+        final int archive_key;
+        final String name;
+        final int level;
+        final long index;
+
+        TileKey(final String url, final int archive_key, final String name, final int level, final long index)
+        {
+            this.url = url;
+            this.archive_key = archive_key;
+            this.name = name;
+            this.level = level;
+            this.index = index;
+        }
+
+        @Override
+        public boolean equals(final Object obj)
+        {
+            if (! (obj instanceof TileKey))
+                return false;
+            final TileKey other = (TileKey) obj;
+            return index == other.index  &&
+                   level == other.level  &&
+                   archive_key == other.archive_key  &&
+                   name.equals(other.name)  &&
+                   url.equals(other.url);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(url, archive_key, name, level, index);
+        }
+
+        @Override
+        public String toString()
+        {
+            return name + " from " + url + " (" + archive_key + "), level " + level + ", tile " + index;
+        }
+    }
+
+    /** Samples of a tile */
+    static class Tile
+    {
+        /** Name of the archive server */
+        final String source;
+
+        /** Samples, starting with the last sample before the tile if known */
+        final List<VType> samples;
+
+        Tile(final String source, final List<VType> samples)
+        {
+            this.source = source;
+            this.samples = Collections.unmodifiableList(samples);
+        }
+
+        long getMemoryUse()
+        {
+            return 100 + (long) samples.size() * SAMPLE_BYTES;
+        }
+    }
+
+    /** Samples from the cache */
+    public static class Result
+    {
+        final private String source;
+        final private List<VType> samples;
+
+        Result(final String source, final List<VType> samples)
+        {
+            this.source = source;
+            this.samples = samples;
+        }
+
+        /** @return Name of the archive server */
+        public String getSource()
+        {
+            return source;
+        }
+
+        /** @return Samples, may include samples outside of the requested time range */
+        public List<VType> getSamples()
+        {
+            return samples;
+        }
+    }
+
+    final private long max_bytes;
+
+    /** Tile files, <code>null</code> when only caching in memory */
+    final private TileStore store;
+
+    /** Tiles in access order. SYNC on this */
+    final private LinkedHashMap<TileKey, Tile> tiles = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Memory used by tiles. SYNC on this */
+    private long bytes = 0;
+
+    final private AtomicLong hits = new AtomicLong(), misses = new AtomicLong();
+
+    /** @param max_bytes Memory limit for cached tiles
+     *  @param directory Directory for tile files, <code>null</code> to only cache in memory
+     *  @param max_disk_bytes Limit for the total size of tile files
+     */
+    public TileCache(final long max_bytes, final File directory, final long max_disk_bytes)
+    {
+        this.max_bytes = max_bytes;
+        store = directory == null ? null : new TileStore(directory, max_disk_bytes);
+    }
+
+    /** @param start Start time
+     *  @param end End time
+     *  @param bins Requested number of bins
+     *  @return Level with bins of 2^level milliseconds just as fine or finer than requested
+     */
+    static int getLevel(final Instant start, final Instant end, final int bins)
+    {
+        final long millis = Duration.between(start, end).toMillis() / Math.max(1, bins);
+        if (millis <= 1)
+            return 0;
+        return 63 - Long.numberOfLeadingZeros(millis);
+    }
+
+    /** @param level Level
+     *  @return Duration of a tile on that level in milliseconds
+     */
+    static long getTileMillis(final int level)
+    {
+        return ((long) TILE_BINS) << level;
+    }
+
+    /** Get samples if all tiles are cached
+     *  @param url Archive data source URL
+     *  @param archive_key Key of the sub-archive
+     *  @param name Channel name
+     *  @param start Start time
+     *  @param end End time
+     *  @param bins Number of bins
+     *  @return {@link Result} or <code>null</code> when not all tiles are cached
+     */
+    public Result getCached(final String url, final int archive_key, final String name,
+                            final Instant start, final Instant end, final int bins)
+    {
+        final int level = getLevel(start, end, bins);
+        final long tile_millis = getTileMillis(level);
+        final long first = Math.floorDiv(start.toEpochMilli(), tile_millis);
+        final long last = Math.floorDiv(end.toEpochMilli(), tile_millis);
+        if (last - first >= MAX_TILES)
+            return null;
+        final List<Tile> found = new ArrayList<>();
+        for (long index=first; index<=last; ++index)
+        {
+            final Tile tile = lookup(new TileKey(url, archive_key, name, level, index));
+            if (tile == null)
+                return null;
+            found.add(tile);
+        }
+        hits.addAndGet(found.size());
+        return new Result(found.get(found.size()-1).source, concatenate(found, first * tile_millis, tile_millis));
+    }
+
+    /** Get samples from cached tiles, fetching missing tiles
+     *  @param reader Reader to use for missing tiles
+     *  @param url Archive data source URL
+     *  @param archive_key Key of the sub-archive
+     *  @param name Channel name
+     *  @param start Start time
+     *  @param end End time
+     *  @param bins Number of bins
+     *  @param cancelled Indicates if the request has been cancelled
+     *  @return {@link Result} or <code>null</code> when request needs to bypass the cache
+     *  @throws Exception on error
+     */
+    public Result read(final ArchiveReader reader, final String url, final int archive_key, final String name,
+                       final Instant start, final Instant end, final int bins,
+                       final BooleanSupplier cancelled) throws Exception
+    {
+        final int level = getLevel(start, end, bins);
+        final long tile_millis = getTileMillis(level);
+        final long first = Math.floorDiv(start.toEpochMilli(), tile_millis);
+        final long last = Math.floorDiv(end.toEpochMilli(), tile_millis);
+        if (last - first >= MAX_TILES)
+            return null;
+        final int count = (int) (last - first + 1);
+        final Tile[] found = new Tile[count];
+        for (int i=0; i<count; ++i)
+            found[i] = lookup(new TileKey(url, archive_key, name, level, first + i));
+
+        final long settled = Instant.now().minus(SETTLE_TIME).toEpochMilli();
+        String source = null;
+        int i = 0;
+        while (i < count  &&  !cancelled.getAsBoolean())
+        {
+            if (found[i] != null)
+            {
+                hits.incrementAndGet();
+                source = found[i].source;
+                ++i;
+                continue;
+            }
+            // Fetch run of missing tiles in one request
+            int end_i = i;
+            while (end_i+1 < count  &&  found[end_i+1] == null)
+                ++end_i;
+            final int run = end_i - i + 1;
+            misses.addAndGet(run);
+            source = reader.getServerName();
+            final List<VType> samples = new ArrayList<>();
+            final ValueIterator values = reader.getOptimizedValues(archive_key, name,
+                    Instant.ofEpochMilli((first + i) * tile_millis),
+                    Instant.ofEpochMilli((first + end_i + 1) * tile_millis),
+                    run * TILE_BINS);
+            try
+            {
+                while (values.hasNext()  &&  !cancelled.getAsBoolean())
+                    samples.add(values.next());
+            }
+            finally
+            {
+                values.close();
+            }
+            if (cancelled.getAsBoolean())
+                break;
+
+            // Split samples into tiles
+            int pos = 0;
+            VType previous = null;
+            for (int t=i; t<=end_i; ++t)
+            {
+                final long tile_start = (first + t) * tile_millis;
+                final long tile_end = tile_start + tile_millis;
+                while (pos < samples.size()  &&  getMillis(samples.get(pos)) < tile_start)
+                    previous = samples.get(pos++);
+                final List<VType> tile_samples = new ArrayList<>();
+                if (previous != null)
+                    tile_samples.add(previous);
+                while (pos < samples.size()  &&  getMillis(samples.get(pos)) < tile_end)
+                    tile_samples.add(samples.get(pos++));
+                if (! tile_samples.isEmpty())
+                    previous = tile_samples.get(tile_samples.size()-1);
+                found[t] = new Tile(source, tile_samples);
+                if (tile_end < settled)
+                    store(new TileKey(url, archive_key, name, level, first + t), found[t]);
+            }
+            i = end_i + 1;
+        }
+        if (cancelled.getAsBoolean())
+            return new Result(source, Collections.emptyList());
+        return new Result(source, concatenate(Arrays.asList(found), first * tile_millis, tile_millis));
+    }
+
+    private static long getMillis(final VType value)
+    {
+        if (value instanceof Time)
+            return ((Time) value).getTimestamp().toEpochMilli();
+        return Long.MAX_VALUE;
+    }
+
+    /** @param found Tiles
+     *  @param start Start of the first tile in epoch milliseconds
+     *  @param tile_millis Duration of a tile in milliseconds
+     *  @return Samples of all tiles, skipping the sample before the tile
+     *          that each but the first tile repeats from its predecessor
+     */
+    private static List<VType> concatenate(final List<Tile> found, final long start, final long tile_millis)
+    {
+        int size = 0;
+        for (Tile tile : found)
+            size += tile.samples.size();
+        final List<VType> result = new ArrayList<>(size);
+        long tile_start = start;
+        for (Tile tile : found)
+        {
+            for (VType value : tile.samples)
+                if (result.isEmpty()  ||  getMillis(value) >= tile_start)
+                    result.add(value);
+            tile_start += tile_millis;
+        }
+        return result;
+    }
+
+    /** @param key Tile key
+     *  @return Tile from memory or file, <code>null</code> if not cached
+     */
+    private Tile lookup(final TileKey key)
+    {
+        synchronized (this)
+        {
+            final Tile tile = tiles.get(key);
+            if (tile != null  ||  store == null)
+                return tile;
+        }
+        final Tile tile = store.read(key);
+        if (tile != null)
+            add(key, tile);
+        return tile;
+    }
+
+    /** @param key Tile key
+     *  @param tile Tile to keep in memory and file
+     */
+    private void store(final TileKey key, final Tile tile)
+    {
+        add(key, tile);
+        if (store != null)
+            store.write(key, tile);
+    }
+
+    /** @param key Tile key
+     *  @param tile Tile to keep in memory
+     */
+    private synchronized void add(final TileKey key, final Tile tile)
+    {
+        final Tile previous = tiles.put(key, tile);
+        if (previous != null)
+            bytes -= previous.getMemoryUse();
+        bytes += tile.getMemoryUse();
+        // Evict least recently used tiles
+        final Iterator<Map.Entry<TileKey, Tile>> iter = tiles.entrySet().iterator();
+        while (bytes > max_bytes  &&  iter.hasNext())
+        {
+            final Map.Entry<TileKey, Tile> eldest = iter.next();
+            bytes -= eldest.getValue().getMemoryUse();
+            iter.remove();
+            Activator.getLogger().log(Level.FINE, "Evicted {0}", eldest.getKey());
+        }
+    }
+
+    /** @return Number of tiles in memory */
+    public synchronized int size()
+    {
+        return tiles.size();
+    }
+
+    /** @return Size of tile files in bytes */
+    public long getDiskUse()
+    {
+        return store == null ? 0 : store.getDiskUse();
+    }
+
+    /** @return Estimated memory used by cached tiles in bytes */
+    public synchronized long getMemoryUse()
+    {
+        return bytes;
+    }
+
+    /** Remove all tiles from memory */
+    public synchronized void clear()
+    {
+        tiles.clear();
+        bytes = 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TileCache with " + size() + " tiles, " + getMemoryUse()/1024 + " kB, " +
+               hits.get() + " hits, " + misses.get() + " misses";
+    }
+}
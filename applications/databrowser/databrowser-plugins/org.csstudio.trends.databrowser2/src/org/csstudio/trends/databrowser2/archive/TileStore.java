@@ -0,0 +1,402 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.trends.databrowser2.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.stream.Stream;
+
+import org.csstudio.archive.vtype.ArchiveVDisplayType;
+import org.csstudio.archive.vtype.ArchiveVEnum;
+import org.csstudio.archive.vtype.ArchiveVNumber;
+import org.csstudio.archive.vtype.ArchiveVStatistics;
+import org.csstudio.archive.vtype.ArchiveVString;
+import org.csstudio.trends.databrowser2.Activator;
+import org.csstudio.trends.databrowser2.archive.TileCache.Tile;
+import org.csstudio.trends.databrowser2.archive.TileCache.TileKey;
+import org.diirt.util.text.NumberFormats;
+import org.diirt.vtype.Alarm;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.Display;
+import org.diirt.vtype.Time;
+import org.diirt.vtype.VEnum;
+import org.diirt.vtype.VNumber;
+import org.diirt.vtype.VStatistics;
+import org.diirt.vtype.VString;
+import org.diirt.vtype.VType;
+import org.diirt.vtype.ValueFactory;
+
+/** Files for {@link TileCache}
+ *
+ *  <p>Each channel uses a directory path made from the URL-encoded URL,
+ *  the archive key and the URL-encoded name.
+ *  The files in there are named by level and index of the tile.
+ *  A file starts with URL, key and name to detect clashes
+ *  on file systems that ignore case, followed by the samples.
+ *  Tiles with samples other than scalar numbers, statistics,
+ *  enumerations or strings are not written.
+ *
+ *  <p>The total size of the files is limited.
+ *  Once the limit is reached, the least recently used files are deleted.
+ *  The modification time of the files tracks their use
+ *  across restarts.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+class TileStore
+{
+    final private static int MAGIC = 0x54494C45, VERSION = 1;
+
+    final private static AlarmSeverity[] SEVERITIES = AlarmSeverity.values();
+
+    // Kinds of samples
+    final private static byte NUMBER = 0, STATISTICS = 1, ENUM = 2, STRING = 3;
+
+    /** Flags for meta data */
+    final private static byte SAME_META = 0, NO_META = 1, NEW_META = 2;
+
+    final private static String SUFFIX = ".tile";
+
+    final private File directory;
+
+    final private long max_bytes;
+
+    /** Sizes of tile files in access order. SYNC on this */
+    final private LinkedHashMap<File, Long> files = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Total size of tile files. SYNC on this */
+    private long bytes = 0;
+
+    /** @param directory Directory for tile files
+     *  @param max_bytes Limit for the total size of tile files
+     */
+    TileStore(final File directory, final long max_bytes)
+    {
+        this.directory = directory;
+        this.max_bytes = max_bytes;
+        // Register existing files, least recently used first
+        final List<File> existing = new ArrayList<>();
+        try
+        (
+            final Stream<Path> paths = Files.walk(directory.toPath());
+        )
+        {
+            paths.filter(path -> path.toString().endsWith(SUFFIX))
+                 .forEach(path -> existing.add(path.toFile()));
+        }
+        catch (Exception ex)
+        {
+            Activator.getLogger().log(Level.FINE, "Cannot list " + directory, ex);
+        }
+        existing.sort(Comparator.comparingLong(File::lastModified));
+        synchronized (this)
+        {
+            for (File file : existing)
+                add(file, file.length());
+            evict();
+        }
+    }
+
+    private File getFile(final TileKey key)
+    {
+        final File dir = new File(new File(new File(directory, encode(key.url)),
+                                           Integer.toString(key.archive_key)),
+                                  encode(key.name));
+        return new File(dir, key.level + "_" + key.index + SUFFIX);
+    }
+
+    /** @param text Text
+     *  @return Text encoded as unique, valid file name
+     */
+    static String encode(final String text)
+    {
+        try
+        {
+            // Leaves letters, digits and ".-*_", so also escape '*' and leading '.'
+            final String encoded = URLEncoder.encode(text, "UTF-8").replace("*", "%2A");
+            if (encoded.startsWith("."))
+                return "%2E" + encoded.substring(1);
+            return encoded.isEmpty() ? "%" : encoded;
+        }
+        catch (UnsupportedEncodingException ex)
+        {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /** @param file Tile file that was created or replaced
+     *  @param length Size of the file
+     */
+    private synchronized void add(final File file, final long length)
+    {
+        final Long previous = files.put(file, length);
+        if (previous != null)
+            bytes -= previous;
+        bytes += length;
+    }
+
+    /** Delete least recently used files until below the size limit */
+    private synchronized void evict()
+    {
+        final Iterator<Map.Entry<File, Long>> iter = files.entrySet().iterator();
+        while (bytes > max_bytes  &&  iter.hasNext())
+        {
+            final Map.Entry<File, Long> eldest = iter.next();
+            bytes -= eldest.getValue();
+            iter.remove();
+            final File file = eldest.getKey();
+            if (! file.delete())
+                Activator.getLogger().log(Level.FINE, "Cannot delete {0}", file);
+            // Remove channel, key and URL directory once empty
+            File dir = file.getParentFile();
+            while (dir != null  &&  !dir.equals(directory)  &&  dir.delete())
+                dir = dir.getParentFile();
+        }
+    }
+
+    /** @return Total size of the tile files in bytes */
+    synchronized long getDiskUse()
+    {
+        return bytes;
+    }
+
+    /** @param key Tile key
+     *  @return Tile or <code>null</code> if not found
+     */
+    Tile read(final TileKey key)
+    {
+        final File file = getFile(key);
+        synchronized (this)
+        {
+            // Mark as recently used, or skip file that has been evicted
+            if (files.get(file) == null)
+                return null;
+        }
+        file.setLastModified(System.currentTimeMillis());
+        try
+        (
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        )
+        {
+            if (in.readInt() != MAGIC  ||  in.readInt() != VERSION)
+                throw new IOException("Invalid tile file " + file);
+            if (! (in.readUTF().equals(key.url)  &&  in.readInt() == key.archive_key  &&  in.readUTF().equals(key.name)))
+                return null;
+            final String source = in.readUTF();
+            final int count = in.readInt();
+            final List<VType> samples = new ArrayList<>(count);
+            Display display = null;
+            List<String> labels = null;
+            for (int i=0; i<count; ++i)
+            {
+                final byte kind = in.readByte();
+                final Instant time = Instant.ofEpochSecond(in.readLong(), in.readInt());
+                final AlarmSeverity severity = SEVERITIES[in.readByte()];
+                final String status = in.readUTF();
+                switch (kind)
+                {
+                case NUMBER:
+                    display = readDisplay(in, display);
+                    samples.add(new ArchiveVNumber(time, severity, status, display, in.readDouble()));
+                    break;
+                case STATISTICS:
+                    display = readDisplay(in, display);
+                    samples.add(new ArchiveVStatistics(time, severity, status, display,
+                                                       in.readDouble(), in.readDouble(), in.readDouble(),
+                                                       in.readDouble(), in.readInt()));
+                    break;
+                case ENUM:
+                    if (in.readByte() == NEW_META)
+                    {
+                        final int n = in.readInt();
+                        labels = new ArrayList<>(n);
+                        for (int l=0; l<n; ++l)
+                            labels.add(in.readUTF());
+                    }
+                    samples.add(new ArchiveVEnum(time, severity, status, labels, in.readInt()));
+                    break;
+                case STRING:
+                    samples.add(new ArchiveVString(time, severity, status, in.readUTF()));
+                    break;
+                default:
+                    throw new IOException("Unknown sample type " + kind + " in " + file);
+                }
+            }
+            return new Tile(source, samples);
+        }
+        catch (Exception ex)
+        {
+            Activator.getLogger().log(Level.FINE, "Cannot read " + file, ex);
+            return null;
+        }
+    }
+
+    private static Display readDisplay(final DataInputStream in, final Display previous) throws IOException
+    {
+        final byte meta = in.readByte();
+        if (meta == SAME_META)
+            return previous;
+        if (meta == NO_META)
+            return null;
+        final double lower_display = in.readDouble(), lower_alarm = in.readDouble(), lower_warning = in.readDouble();
+        final String units = in.readUTF();
+        final int precision = in.readInt();
+        final double upper_warning = in.readDouble(), upper_alarm = in.readDouble(), upper_display = in.readDouble();
+        final double lower_ctrl = in.readDouble(), upper_ctrl = in.readDouble();
+        return ValueFactory.newDisplay(lower_display, lower_alarm, lower_warning, units,
+                                       NumberFormats.format(precision),
+                                       upper_warning, upper_alarm, upper_display, lower_ctrl, upper_ctrl);
+    }
+
+    /** @param key Tile key
+     *  @param tile Tile to write
+     */
+    void write(final TileKey key, final Tile tile)
+    {
+        for (VType value : tile.samples)
+            if (! (value instanceof Time  &&  value instanceof Alarm  &&
+                   (value instanceof VNumber  ||  value instanceof VStatistics  ||
+                    value instanceof VEnum  ||  value instanceof VString)))
+                return;
+        final File file = getFile(key);
+        final File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try
+        {
+            file.getParentFile().mkdirs();
+            try
+            (
+                final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            )
+            {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(key.url);
+                out.writeInt(key.archive_key);
+                out.writeUTF(key.name);
+                out.writeUTF(tile.source == null ? "" : tile.source);
+                out.writeInt(tile.samples.size());
+                Display display = null;
+                List<String> labels = null;
+                for (VType value : tile.samples)
+                {
+                    final Instant time = ((Time) value).getTimestamp();
+                    final Alarm alarm = (Alarm) value;
+                    if (value instanceof VStatistics)
+                        out.writeByte(STATISTICS);
+                    else if (value instanceof VNumber)
+                        out.writeByte(NUMBER);
+                    else if (value instanceof VEnum)
+                        out.writeByte(ENUM);
+                    else
+                        out.writeByte(STRING);
+                    out.writeLong(time.getEpochSecond());
+                    out.writeInt(time.getNano());
+                    out.writeByte(alarm.getAlarmSeverity().ordinal());
+                    out.writeUTF(alarm.getAlarmName() == null ? "" : alarm.getAlarmName());
+                    if (value instanceof VStatistics)
+                    {
+                        final VStatistics stats = (VStatistics) value;
+                        display = writeDisplay(out, value, display);
+                        out.writeDouble(stats.getAverage());
+                        out.writeDouble(stats.getMin());
+                        out.writeDouble(stats.getMax());
+                        out.writeDouble(stats.getStdDev());
+                        out.writeInt(stats.getNSamples());
+                    }
+                    else if (value instanceof VNumber)
+                    {
+                        display = writeDisplay(out, value, display);
+                        out.writeDouble(((VNumber) value).getValue().doubleValue());
+                    }
+                    else if (value instanceof VEnum)
+                    {
+                        final VEnum enumerated = (VEnum) value;
+                        if (enumerated.getLabels() == labels)
+                            out.writeByte(SAME_META);
+                        else
+                        {
+                            labels = enumerated.getLabels();
+                            out.writeByte(NEW_META);
+                            out.writeInt(labels.size());
+                            for (String label : labels)
+                                out.writeUTF(label);
+                        }
+                        out.writeInt(enumerated.getIndex());
+                    }
+                    else
+                        out.writeUTF(((VString) value).getValue());
+                }
+            }
+            synchronized (this)
+            {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                add(file, file.length());
+                evict();
+            }
+        }
+        catch (Exception ex)
+        {
+            Activator.getLogger().log(Level.WARNING, "Cannot write " + file, ex);
+            tmp.delete();
+        }
+    }
+
+    private static Display writeDisplay(final DataOutputStream out, final VType value, final Display previous) throws IOException
+    {
+        final Display display = value instanceof ArchiveVDisplayType
+                              ? ((ArchiveVDisplayType) value).getDisplay()
+                              : (value instanceof Display ? (Display) value : null);
+        if (display == previous  &&  previous != null)
+        {
+            out.writeByte(SAME_META);
+            return previous;
+        }
+        if (display == null)
+        {
+            out.writeByte(NO_META);
+            return null;
+        }
+        out.writeByte(NEW_META);
+        out.writeDouble(limit(display.getLowerDisplayLimit()));
+        out.writeDouble(limit(display.getLowerAlarmLimit()));
+        out.writeDouble(limit(display.getLowerWarningLimit()));
+        out.writeUTF(display.getUnits() == null ? "" : display.getUnits());
+        out.writeInt(display.getFormat() == null ? 0 : display.getFormat().getMaximumFractionDigits());
+        out.writeDouble(limit(display.getUpperWarningLimit()));
+        out.writeDouble(limit(display.getUpperAlarmLimit()));
+        out.writeDouble(limit(display.getUpperDisplayLimit()));
+        out.writeDouble(limit(display.getLowerCtrlLimit()));
+        out.writeDouble(limit(display.getUpperCtrlLimit()));
+        return display;
+    }
+
+    private static double limit(final Double value)
+    {
+        return value == null ? Double.NaN : value;
+    }
+}
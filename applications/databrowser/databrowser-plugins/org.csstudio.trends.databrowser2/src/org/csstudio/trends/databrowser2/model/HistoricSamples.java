@@ -8,6 +8,7 @@
 package org.csstudio.trends.databrowser2.model;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -27,6 +28,11 @@ import org.diirt.vtype.VType;
  *  the live data ring buffer rolls around, the 'border' time adjustments
  *  might then uncover historic samples that were previously
  *  hidden below the 'live' time range.
+ *  <p>
+ *  Samples are kept in {@link SampleChunk}s of primitive arrays.
+ *  Merging new archive data replaces the chunks within the time range
+ *  of the new data, so only the chunks at the edges need to be copied.
+ *  {@link PlotSample}s are created on access.
  *
  *  @author Kay Kasemir
  *  @author Takashi Nakamoto changed HistoricSamples to handle waveform index.
@@ -36,12 +42,15 @@ public class HistoricSamples extends PlotSamples
     // No locking in here, all access is via PVSamples
 
     /** "All" historic samples */
-    private PlotSample samples[] = new PlotSample[0];
+    private List<SampleChunk> chunks = new ArrayList<>();
+
+    /** Index of the first sample in each chunk, plus total sample count at the end */
+    private int[] starts = new int[] { 0 };
 
     /** If set, samples beyond this time are hidden from access */
     private Optional<Instant> border_time = Optional.empty();
 
-    /** Subset of samples.length that's below border_time
+    /** Subset of all samples that's below border_time
      *  @see #computeVisibleSize()
      */
     private int visible_size = 0;
@@ -71,13 +80,46 @@ public class HistoricSamples extends PlotSamples
     private void computeVisibleSize()
     {
         if (border_time.isPresent())
+            visible_size = countSamplesBefore(border_time.get(), false);
+        else
+            visible_size = getRawSize();
+    }
+
+    /** @param time Time stamp
+     *  @param inclusive Include samples at the time stamp?
+     *  @return Number of samples before (or at) the time stamp
+     */
+    private int countSamplesBefore(final Instant time, final boolean inclusive)
+    {
+        int low = 0, high = getRawSize();
+        while (low < high)
         {
-            final int last_index = PlotSampleSearch.findSampleLessThan(
-                    samples, border_time.get());
-            visible_size = (last_index < 0)   ?   0   :   last_index + 1;
+            final int mid = (low + high) >>> 1;
+            final int c = findChunk(mid);
+            final int cmp = chunks.get(c).compareTime(mid - starts[c], time);
+            if (cmp < 0  ||  (inclusive  &&  cmp == 0))
+                low = mid + 1;
+            else
+                high = mid;
         }
-        else
-            visible_size = samples.length;
+        return low;
+    }
+
+    /** @param i Sample index 0 .. getRawSize()-1
+     *  @return Index of chunk that holds the sample
+     */
+    private int findChunk(final int i)
+    {
+        int low = 0, high = chunks.size() - 1;
+        while (low < high)
+        {
+            final int mid = (low + high + 1) >>> 1;
+            if (starts[mid] <= i)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+        return low;
     }
 
     /** {@inheritDoc} */
@@ -87,7 +129,7 @@ public class HistoricSamples extends PlotSamples
     {
         if (i >= visible_size)
             throw new IndexOutOfBoundsException("Index " + i + " exceeds visible size " + visible_size);
-        return samples[i];
+        return getRawSample(i);
     }
 
     /** {@inheritDoc} */
@@ -101,7 +143,7 @@ public class HistoricSamples extends PlotSamples
      * @return the number of samples, ignoring the border time
      */
     public int getRawSize() {
-        return samples.length;
+        return starts[chunks.size()];
     }
 
     /**
@@ -111,34 +153,86 @@ public class HistoricSamples extends PlotSamples
      * @return the plot sample
      */
     public PlotSample getRawSample(int i) {
-        return samples[i];
+        final int c = findChunk(i);
+        final SampleChunk chunk = chunks.get(c);
+        return new PlotSample(waveform_index, chunk.getSource(), chunk.getVType(i - starts[c]));
+    }
+
+    /** @return Estimated memory used by the samples in bytes */
+    public long getMemoryUse()
+    {
+        long bytes = 0;
+        for (SampleChunk chunk : chunks)
+            bytes += chunk.getMemoryUse();
+        return bytes;
     }
 
     /** Merge newly received archive data into historic samples
+     *
+     *  <p>Where the time ranges overlap, the new data replaces the old data.
+     *
      *  @param source Info about data source
      *  @param result Samples to add/merge
      */
     public void mergeArchivedData(final String source, final List<VType> result)
     {
         // Anything new at all?
-        if (result.size() <= 0)
-            return;
-        // Turn IValues into PlotSamples
-        final PlotSample new_samples[] = new PlotSample[result.size()];
-        for (int i=0; i<new_samples.length; ++i)
-            new_samples[i] = new PlotSample(waveform_index, source, result.get(i));
-        // Merge with existing samples
-        final PlotSample merged[] = PlotSampleMerger.merge(samples, new_samples);
-        if (merged == samples)
+        final int N = result.size();
+        if (N <= 0)
             return;
-        samples = merged;
+        // Turn VTypes into chunks
+        final List<SampleChunk> added = new ArrayList<>(N / SampleChunk.CHUNK_SIZE + 1);
+        SampleChunk chunk = null;
+        for (int i=0; i<N; ++i)
+        {
+            if (chunk == null  ||  chunk.isFull())
+            {
+                chunk = new SampleChunk(source, Math.min(N - i, SampleChunk.CHUNK_SIZE));
+                added.add(chunk);
+            }
+            chunk.add(result.get(i));
+        }
+        final Instant add_start = added.get(0).getTime(0);
+        final Instant add_end = chunk.getTime(chunk.size()-1);
+
+        // Keep old samples before add_start and after add_end
+        final int keep_before = countSamplesBefore(add_start, false);
+        final int keep_after = countSamplesBefore(add_end, true);
+        final int old_size = getRawSize();
+
+        final List<SampleChunk> merged = new ArrayList<>(chunks.size() + added.size() + 2);
+        int c = 0;
+        while (c < chunks.size()  &&  starts[c+1] <= keep_before)
+            merged.add(chunks.get(c++));
+        if (c < chunks.size()  &&  starts[c] < keep_before)
+            merged.add(new SampleChunk(chunks.get(c), 0, keep_before - starts[c]));
+        merged.addAll(added);
+        if (keep_after < old_size)
+        {
+            c = findChunk(keep_after);
+            final SampleChunk first = chunks.get(c);
+            final int offset = keep_after - starts[c];
+            merged.add(offset > 0 ? new SampleChunk(first, offset, first.size()) : first);
+            merged.addAll(chunks.subList(c+1, chunks.size()));
+        }
+        setChunks(merged);
+    }
+
+    /** @param new_chunks Chunks to use */
+    private void setChunks(final List<SampleChunk> new_chunks)
+    {
+        final int N = new_chunks.size();
+        final int[] new_starts = new int[N + 1];
+        for (int c=0; c<N; ++c)
+            new_starts[c+1] = new_starts[c] + new_chunks.get(c).size();
+        chunks = new_chunks;
+        starts = new_starts;
         computeVisibleSize();
     }
 
     /** Delete all samples */
     public void clear()
     {
-        visible_size = 0;
-        samples = new PlotSample[0];
+        setChunks(new ArrayList<>());
     }
 }
@@ -7,14 +7,35 @@
  ******************************************************************************/
 package org.csstudio.trends.databrowser2.model;
 
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import org.csstudio.apputil.ringbuffer.RingBuffer;
+import org.csstudio.archive.vtype.ArchiveVNumber;
+import org.csstudio.archive.vtype.VTypeHelper;
 import org.csstudio.trends.databrowser2.preferences.Preferences;
+import org.diirt.vtype.Alarm;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.Display;
+import org.diirt.vtype.Time;
+import org.diirt.vtype.VNumber;
+import org.diirt.vtype.VType;
+import org.diirt.vtype.ValueFactory;
 
 /** Ring buffer for 'live' samples.
  *  <p>
  *  New samples are always added to the end of a ring buffer.
+ *  <p>
+ *  Scalar numbers are kept in columns of primitive arrays
+ *  for time stamp, value, severity, status and display meta data,
+ *  where status and display are shared with the previous sample when unchanged.
+ *  Adding such a sample does not allocate any objects.
+ *  {@link #get(int)} returns a short-lived view of the sample
+ *  which only creates a {@link VType} when asked for it.
+ *  Other samples (arrays, strings, enums, ...) are kept as {@link PlotSample}.
+ *  <p>
+ *  The arrays grow as samples are added, up to the capacity.
  *
  *  @author Kay Kasemir
  *  @author Takashi Nakamoto changed LiveSamples to handle waveform index.
@@ -23,8 +44,112 @@ public class LiveSamples extends PlotSamples
 {
     // No locking in here, all access is via PVSamples
 
-    private RingBuffer<PlotSample> samples =
-        new RingBuffer<PlotSample>(Preferences.getLiveSampleBufferSize());
+    /** Estimated size of a {@link PlotSample} with its value and time stamp */
+    final static int SAMPLE_BYTES = 160;
+
+    /** Size of a sample in the primitive columns */
+    final static int SLOT_BYTES = 8 + 4 + 8 + 1 + 1 + 4 + 4 + 4;
+
+    /** Initial number of slots */
+    final private static int INITIAL_SLOTS = 1024;
+
+    final private static AlarmSeverity[] SEVERITIES = AlarmSeverity.values();
+
+    // Kinds of samples
+    final private static byte DOUBLE = 0, LONG = 1, INTEGER = 2, OBJECT = 3;
+
+    /** View of a sample in the primitive columns */
+    private static class LiveSample extends PlotSample
+    {
+        final private AtomicInteger waveform_index;
+        final private long seconds;
+        final private int nanos;
+        final private double value;
+        final private byte kind;
+        final private AlarmSeverity severity;
+        final private String status;
+        final private Display display;
+
+        LiveSample(final AtomicInteger waveform_index, final String source,
+                   final long seconds, final int nanos, final double value, final byte kind,
+                   final AlarmSeverity severity, final String status, final Display display)
+        {
+            super(waveform_index, source, null);
+            this.waveform_index = waveform_index;
+            this.seconds = seconds;
+            this.nanos = nanos;
+            this.value = value;
+            this.kind = kind;
+            this.severity = severity;
+            this.status = status;
+            this.display = display;
+        }
+
+        @Override
+        public VType getVType()
+        {
+            final Instant time = getPosition();
+            final Display meta = display == null ? ValueFactory.displayNone() : display;
+            switch (kind)
+            {
+            case LONG:
+                return new ArchiveVNumber(time, severity, status, meta, (long) value);
+            case INTEGER:
+                return new ArchiveVNumber(time, severity, status, meta, (int) value);
+            default:
+                return new ArchiveVNumber(time, severity, status, meta, value);
+            }
+        }
+
+        @Override
+        public Instant getPosition()
+        {
+            return Instant.ofEpochSecond(seconds, nanos);
+        }
+
+        @Override
+        public double getValue()
+        {
+            // Scalar has no elements beyond index 0
+            return waveform_index.get() == 0 ? value : Double.NaN;
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return toString();
+        }
+
+        @Override
+        public String toString()
+        {
+            return VTypeHelper.toString(getVType());
+        }
+    }
+
+    private int capacity = Preferences.getLiveSampleBufferSize();
+
+    //  Indices of valid entries:
+    //  [start], [start+1], ..., [start+size-1]
+    //  with wrap-around at [capacity-1].
+    //  'start' stays 0 until the buffer is full,
+    //  so the arrays can grow while size < capacity.
+    private int start = 0, size = 0;
+
+    /** Source of samples in the primitive columns */
+    private String source = null;
+
+    private long[] seconds;
+    private int[] nanos;
+    private double[] values;
+    private byte[] kinds;
+    private byte[] severities;
+    private String[] status;
+    private Display[] displays;
+
+    /** Samples kept as objects, allocated when needed */
+    private PlotSample[] objects = null;
+    private int object_count = 0;
 
     /** Waveform index */
     final private AtomicInteger waveform_index;
@@ -32,12 +157,41 @@ public class LiveSamples extends PlotSamples
     LiveSamples(final AtomicInteger waveform_index)
     {
         this.waveform_index = waveform_index;
+        allocate(Math.min(capacity, INITIAL_SLOTS));
+    }
+
+    private void allocate(final int slots)
+    {
+        seconds = new long[slots];
+        nanos = new int[slots];
+        values = new double[slots];
+        kinds = new byte[slots];
+        severities = new byte[slots];
+        status = new String[slots];
+        displays = new Display[slots];
+        objects = null;
+        object_count = 0;
+    }
+
+    /** Grow arrays, only called while start == 0 */
+    private void grow()
+    {
+        final int slots = (int) Math.min(capacity, 2L * seconds.length);
+        seconds = Arrays.copyOf(seconds, slots);
+        nanos = Arrays.copyOf(nanos, slots);
+        values = Arrays.copyOf(values, slots);
+        kinds = Arrays.copyOf(kinds, slots);
+        severities = Arrays.copyOf(severities, slots);
+        status = Arrays.copyOf(status, slots);
+        displays = Arrays.copyOf(displays, slots);
+        if (objects != null)
+            objects = Arrays.copyOf(objects, slots);
     }
 
     /** @return Maximum number of samples in ring buffer */
     public int getCapacity()
     {
-        return samples.getCapacity();
+        return capacity;
     }
 
     /** Set new capacity.
@@ -50,33 +204,194 @@ public class LiveSamples extends PlotSamples
     {
         if (new_capacity < 10)
             new_capacity = 10;
-        samples.setCapacity(new_capacity);
+        try
+        {
+            final int keep = Math.min(size, new_capacity);
+            final int first = size - keep;
+            final long[] old_seconds = seconds;
+            final int[] old_nanos = nanos;
+            final double[] old_values = values;
+            final byte[] old_kinds = kinds, old_severities = severities;
+            final String[] old_status = status;
+            final Display[] old_displays = displays;
+            final PlotSample[] old_objects = objects;
+            final int old_start = start, old_length = seconds.length;
+            allocate(Math.max(keep, Math.min(new_capacity, INITIAL_SLOTS)));
+            for (int i=0; i<keep; ++i)
+            {
+                final int o = (old_start + first + i) % old_length;
+                seconds[i] = old_seconds[o];
+                nanos[i] = old_nanos[o];
+                values[i] = old_values[o];
+                kinds[i] = old_kinds[o];
+                severities[i] = old_severities[o];
+                status[i] = old_status[o];
+                displays[i] = old_displays[o];
+                if (old_kinds[o] == OBJECT)
+                {
+                    if (objects == null)
+                        objects = new PlotSample[seconds.length];
+                    objects[i] = old_objects[o];
+                    ++object_count;
+                }
+            }
+            capacity = new_capacity;
+            start = 0;
+            size = keep;
+        }
+        catch (OutOfMemoryError err)
+        {
+            throw new Exception("Out of memory: " + err.getMessage()); //$NON-NLS-1$
+        }
+    }
+
+    /** @return Index of the next slot to use, dropping the oldest sample when full */
+    private int nextSlot()
+    {
+        if (size >= capacity)
+        {   // Overwrite oldest element
+            final int i = start;
+            if (++start >= capacity)
+                start = 0;
+            if (kinds[i] == OBJECT)
+            {
+                objects[i] = null;
+                --object_count;
+            }
+            return i;
+        }
+        if (size >= seconds.length)
+            grow();
+        return size++;
+    }
+
+    /** @param source Source of the sample
+     *  @param value Sample to add to ring buffer
+     */
+    void add(final String source, final VType value)
+    {
+        if (value instanceof VNumber  &&  value instanceof Time  &&  value instanceof Alarm  &&
+            (this.source == null  ||  this.source.equals(source)))
+        {
+            final Number number = ((VNumber) value).getValue();
+            final byte kind;
+            if (number instanceof Double)
+                kind = DOUBLE;
+            else if (number instanceof Long  &&  Math.abs(number.longValue()) <= (1L << 53))
+                kind = LONG;
+            else if (number instanceof Integer)
+                kind = INTEGER;
+            else
+                kind = OBJECT;
+            if (kind != OBJECT)
+            {
+                this.source = source;
+                final Instant time = ((Time) value).getTimestamp();
+                final Alarm alarm = (Alarm) value;
+                final Display display = value instanceof Display ? (Display) value : null;
+                final int last = size > 0 ? (start + size - 1) % capacity : -1;
+                final int i = nextSlot();
+                seconds[i] = time.getEpochSecond();
+                nanos[i] = time.getNano();
+                values[i] = number.doubleValue();
+                kinds[i] = kind;
+                severities[i] = (byte) alarm.getAlarmSeverity().ordinal();
+                // Share status and meta data with previous sample
+                final String name = alarm.getAlarmName();
+                status[i] = (last >= 0  &&  Objects.equals(status[last], name)) ? status[last] : name;
+                displays[i] = (last >= 0  &&  isSameDisplay(displays[last], display)) ? displays[last] : display;
+                have_new_samples.set(true);
+                return;
+            }
+        }
+        add(new PlotSample(source, value));
     }
 
     /** @param sample Sample to add to ring buffer */
     void add(final PlotSample sample)
     {
         sample.setWaveformIndex(waveform_index);
-        samples.add(sample);
+        final int i = nextSlot();
+        if (objects == null)
+            objects = new PlotSample[seconds.length];
+        final Instant time = sample.getPosition();
+        seconds[i] = time.getEpochSecond();
+        nanos[i] = time.getNano();
+        values[i] = Double.NaN;
+        kinds[i] = OBJECT;
+        status[i] = null;
+        displays[i] = null;
+        objects[i] = sample;
+        ++object_count;
         have_new_samples.set(true);
     }
 
+    /** @param a Display
+     *  @param b Other display
+     *  @return <code>true</code> if both have the same limits, units and format
+     */
+    static boolean isSameDisplay(final Display a, final Display b)
+    {
+        if (a == b)
+            return true;
+        if (a == null  ||  b == null)
+            return false;
+        return Objects.equals(a.getUnits(), b.getUnits())  &&
+               Objects.equals(a.getLowerDisplayLimit(), b.getLowerDisplayLimit())  &&
+               Objects.equals(a.getUpperDisplayLimit(), b.getUpperDisplayLimit())  &&
+               Objects.equals(a.getLowerAlarmLimit(), b.getLowerAlarmLimit())  &&
+               Objects.equals(a.getUpperAlarmLimit(), b.getUpperAlarmLimit())  &&
+               Objects.equals(a.getLowerWarningLimit(), b.getLowerWarningLimit())  &&
+               Objects.equals(a.getUpperWarningLimit(), b.getUpperWarningLimit())  &&
+               Objects.equals(a.getLowerCtrlLimit(), b.getLowerCtrlLimit())  &&
+               Objects.equals(a.getUpperCtrlLimit(), b.getUpperCtrlLimit())  &&
+               (a.getFormat() == b.getFormat()  ||  Objects.equals(a.getFormat(), b.getFormat()));
+    }
+
     @Override
     public int size()
     {
-        return samples.size();
+        return size;
     }
 
     @Override
-    public PlotSample get(final int i)
+    public PlotSample get(int i)
+    {
+        if (i<0 || i >= size)
+            throw new ArrayIndexOutOfBoundsException(i);
+        i = (start + i) % capacity;
+        if (kinds[i] == OBJECT)
+            return objects[i];
+        return new LiveSample(waveform_index, source, seconds[i], nanos[i], values[i], kinds[i],
+                              SEVERITIES[severities[i]], status[i], displays[i]);
+    }
+
+    /** @param i Sample index 0 .. size()-1
+     *  @return Time stamp of sample
+     */
+    Instant getTime(int i)
+    {
+        if (i<0 || i >= size)
+            throw new ArrayIndexOutOfBoundsException(i);
+        i = (start + i) % capacity;
+        return Instant.ofEpochSecond(seconds[i], nanos[i]);
+    }
+
+    /** @return Estimated memory used by the samples in bytes */
+    public long getMemoryUse()
     {
-        return samples.get(i);
+        long bytes = (long) seconds.length * SLOT_BYTES;
+        if (objects != null)
+            bytes += (long) objects.length * 4 + (long) object_count * SAMPLE_BYTES;
+        return bytes;
     }
 
     /** Delete all samples */
     public void clear()
     {
-        samples.clear();
+        allocate(Math.min(capacity, INITIAL_SLOTS));
+        start = size = 0;
+        source = null;
         have_new_samples.set(true);
     }
 }
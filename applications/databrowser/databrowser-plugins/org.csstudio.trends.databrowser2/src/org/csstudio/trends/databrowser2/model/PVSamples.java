@@ -180,7 +180,23 @@ public class PVSamples extends PlotSamples
     {
         if (! ValueUtil.timeOf(value).isTimeValid())
             value = VTypeHelper.transformTimestampToNow(value);
-        addLiveSample(new PlotSample(Messages.LiveData, value));
+        lockForWriting();
+        try
+        {
+            // Skip the initial UNDEFINED/Disconnected sample sent by PVManager
+            if (live.size() == 0  &&
+                VTypeHelper.getSeverity(value) == AlarmSeverity.UNDEFINED)
+                return;
+            final boolean moves_start = live.size() == 0  ||  live.size() >= live.getCapacity();
+            live.add(Messages.LiveData, value);
+            if (moves_start)
+                updateBorderTime();
+        }
+        finally
+        {
+            unlockForWriting();
+        }
+        samplesAddedSinceLastRefresh++;
     }
 
     /** Add another 'live' sample
@@ -196,10 +212,7 @@ public class PVSamples extends PlotSamples
                 VTypeHelper.getSeverity(sample.getVType()) == AlarmSeverity.UNDEFINED)
                 return;
             live.add(sample);
-            // History ends before the start of 'live' samples.
-            // Adding a live sample might have moved the ring buffer,
-            // so need to update whenever live data is extended.
-            history.setBorderTime(Optional.of(live.get(0).getPosition()));
+            updateBorderTime();
         }
         finally
         {
@@ -208,6 +221,30 @@ public class PVSamples extends PlotSamples
         samplesAddedSinceLastRefresh++;
     }
 
+    /** History ends before the start of 'live' samples.
+     *  Adding a live sample might have moved the ring buffer,
+     *  so need to update when live data is extended
+     *  while empty or full.
+     */
+    private void updateBorderTime()
+    {
+        history.setBorderTime(Optional.of(live.getTime(0)));
+    }
+
+    /** @return Estimated memory used by historic and live samples in bytes */
+    public long getMemoryUse()
+    {
+        getLock().lock();
+        try
+        {
+            return history.getMemoryUse() + live.getMemoryUse();
+        }
+        finally
+        {
+            getLock().unlock();
+        }
+    }
+
     /** Delete all samples */
     public void clear()
     {
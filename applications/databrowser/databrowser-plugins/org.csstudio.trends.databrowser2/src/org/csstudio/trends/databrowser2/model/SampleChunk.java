@@ -0,0 +1,348 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.trends.databrowser2.model;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.csstudio.archive.vtype.ArchiveVDisplayType;
+import org.csstudio.archive.vtype.ArchiveVEnum;
+import org.csstudio.archive.vtype.ArchiveVNumber;
+import org.csstudio.archive.vtype.ArchiveVStatistics;
+import org.diirt.vtype.Alarm;
+import org.diirt.vtype.AlarmSeverity;
+import org.diirt.vtype.Display;
+import org.diirt.vtype.Time;
+import org.diirt.vtype.VEnum;
+import org.diirt.vtype.VNumber;
+import org.diirt.vtype.VStatistics;
+import org.diirt.vtype.VType;
+
+/** Chunk of historic samples in columns of primitive arrays
+ *
+ *  <p>Scalar numbers, enumerations and statistics are kept as
+ *  time stamp, value, severity, status and, for statistics,
+ *  minimum, maximum, standard deviation and count.
+ *  All such samples in a chunk share equal {@link Display} information
+ *  respectively enumeration labels.
+ *  Other samples (arrays, strings, samples with different meta data)
+ *  are kept as {@link VType}.
+ *
+ *  <p>All samples in a chunk come from the same source.
+ *  Once filled, a chunk is not modified.
+ *  Merging new samples replaces chunks, copying at most
+ *  the part of a chunk that remains at the edge of the new samples.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+class SampleChunk
+{
+    /** Number of samples in a chunk */
+    final static int CHUNK_SIZE = 4096;
+
+    /** Estimated size of a sample kept as object, including its time stamp */
+    final static int OBJECT_BYTES = 120;
+
+    final private static AlarmSeverity[] SEVERITIES = AlarmSeverity.values();
+
+    // Kinds of samples
+    final private static byte DOUBLE = 0, LONG = 1, INTEGER = 2, ENUM = 3, STATISTICS = 4, OBJECT = 5,
+                              FLOAT = 6, SHORT = 7, BYTE = 8;
+
+    final private String source;
+
+    final private long[] seconds;
+    final private int[] nanos;
+    final private double[] values;
+    final private byte[] kinds;
+    final private byte[] severities;
+    final private String[] status;
+
+    /** Statistics, allocated when needed */
+    private double[] minimums = null, maximums = null, stddevs = null;
+    private int[] counts = null;
+
+    /** Samples kept as objects, allocated when needed */
+    private VType[] objects = null;
+    private int object_count = 0;
+
+    /** Meta data of numeric samples */
+    private Display display = null;
+
+    /** Has the meta data of numeric samples been set? */
+    private boolean have_display = false;
+
+    /** Labels of enumerated samples */
+    private List<String> labels = null;
+
+    private int size = 0;
+
+    /** @param source Source of the samples
+     *  @param capacity Number of samples
+     */
+    SampleChunk(final String source, final int capacity)
+    {
+        this.source = source;
+        seconds = new long[capacity];
+        nanos = new int[capacity];
+        values = new double[capacity];
+        kinds = new byte[capacity];
+        severities = new byte[capacity];
+        status = new String[capacity];
+    }
+
+    /** Create chunk with copy of a section of another chunk
+     *  @param other Other chunk
+     *  @param start Index of first sample to copy
+     *  @param end Index after the last sample to copy
+     */
+    SampleChunk(final SampleChunk other, final int start, final int end)
+    {
+        this(other.source, end - start);
+        size = end - start;
+        System.arraycopy(other.seconds, start, seconds, 0, size);
+        System.arraycopy(other.nanos, start, nanos, 0, size);
+        System.arraycopy(other.values, start, values, 0, size);
+        System.arraycopy(other.kinds, start, kinds, 0, size);
+        System.arraycopy(other.severities, start, severities, 0, size);
+        System.arraycopy(other.status, start, status, 0, size);
+        if (other.minimums != null)
+        {
+            allocateStatistics();
+            System.arraycopy(other.minimums, start, minimums, 0, size);
+            System.arraycopy(other.maximums, start, maximums, 0, size);
+            System.arraycopy(other.stddevs, start, stddevs, 0, size);
+            System.arraycopy(other.counts, start, counts, 0, size);
+        }
+        if (other.objects != null)
+        {
+            objects = new VType[size];
+            for (int i=0; i<size; ++i)
+                if ((objects[i] = other.objects[start + i]) != null)
+                    ++object_count;
+        }
+        display = other.display;
+        have_display = other.have_display;
+        labels = other.labels;
+    }
+
+    private void allocateStatistics()
+    {
+        final int capacity = values.length;
+        minimums = new double[capacity];
+        maximums = new double[capacity];
+        stddevs = new double[capacity];
+        counts = new int[capacity];
+    }
+
+    /** @return Source of the samples */
+    String getSource()
+    {
+        return source;
+    }
+
+    /** @return Number of samples */
+    int size()
+    {
+        return size;
+    }
+
+    /** @return <code>true</code> if no more samples can be added */
+    boolean isFull()
+    {
+        return size >= values.length;
+    }
+
+    /** @param value Sample to add
+     *  @throws IndexOutOfBoundsException when chunk is full
+     */
+    void add(final VType value)
+    {
+        if (size >= values.length)
+            throw new IndexOutOfBoundsException("Chunk is full");
+        final Instant time = value instanceof Time ? ((Time) value).getTimestamp() : Instant.now();
+        seconds[size] = time.getEpochSecond();
+        nanos[size] = time.getNano();
+        if (value instanceof Alarm)
+        {
+            final Alarm alarm = (Alarm) value;
+            severities[size] = (byte) alarm.getAlarmSeverity().ordinal();
+            status[size] = alarm.getAlarmName();
+            if (! addColumns(value))
+                addObject(value);
+        }
+        else
+            addObject(value);
+        ++size;
+    }
+
+    /** @param value Sample with {@link Alarm}
+     *  @return <code>true</code> if value was added to columns
+     */
+    private boolean addColumns(final VType value)
+    {
+        if (value instanceof VNumber)
+        {
+            final Number number = ((VNumber) value).getValue();
+            final byte kind;
+            if (number instanceof Long)
+                kind = LONG;
+            else if (number instanceof Integer)
+                kind = INTEGER;
+            else if (number instanceof Float)
+                kind = FLOAT;
+            else if (number instanceof Short)
+                kind = SHORT;
+            else if (number instanceof Byte)
+                kind = BYTE;
+            else if (number != null)
+                kind = DOUBLE;
+            else
+                return false;
+            if (kind == LONG  &&  Math.abs(number.longValue()) > (1L << 53))
+                return false;
+            if (! useDisplay(value))
+                return false;
+            kinds[size] = kind;
+            values[size] = number.doubleValue();
+            return true;
+        }
+        if (value instanceof VStatistics)
+        {
+            final VStatistics stats = (VStatistics) value;
+            if (! useDisplay(value))
+                return false;
+            if (minimums == null)
+                allocateStatistics();
+            kinds[size] = STATISTICS;
+            values[size] = stats.getAverage();
+            minimums[size] = stats.getMin();
+            maximums[size] = stats.getMax();
+            stddevs[size] = stats.getStdDev();
+            counts[size] = stats.getNSamples();
+            return true;
+        }
+        if (value instanceof VEnum)
+        {
+            final List<String> meta = ((VEnum) value).getLabels();
+            if (have_display)
+                return false;
+            if (labels == null)
+                labels = meta;
+            else if (labels != meta  &&  ! labels.equals(meta))
+                return false;
+            kinds[size] = ENUM;
+            values[size] = ((VEnum) value).getIndex();
+            return true;
+        }
+        return false;
+    }
+
+    /** @param value Numeric value
+     *  @return <code>true</code> if value has the same meta data as chunk
+     */
+    private boolean useDisplay(final VType value)
+    {
+        final Display meta = value instanceof ArchiveVDisplayType
+                           ? ((ArchiveVDisplayType) value).getDisplay()
+                           : (value instanceof Display ? (Display) value : null);
+        if (labels != null)
+            return false;
+        if (! have_display)
+        {
+            display = meta;
+            have_display = true;
+            return true;
+        }
+        // Archive readers may create a new Display for each sample
+        return LiveSamples.isSameDisplay(display, meta);
+    }
+
+    private void addObject(final VType value)
+    {
+        if (objects == null)
+            objects = new VType[values.length];
+        kinds[size] = OBJECT;
+        values[size] = Double.NaN;
+        objects[size] = value;
+        ++object_count;
+    }
+
+    /** @param index Sample index
+     *  @param time Time to compare with
+     *  @return Comparison of sample's time stamp with given time as in {@link Instant#compareTo(Instant)}
+     */
+    int compareTime(final int index, final Instant time)
+    {
+        final int cmp = Long.compare(seconds[index], time.getEpochSecond());
+        if (cmp != 0)
+            return cmp;
+        return nanos[index] - time.getNano();
+    }
+
+    /** @param index Sample index
+     *  @return Time stamp
+     */
+    Instant getTime(final int index)
+    {
+        return Instant.ofEpochSecond(seconds[index], nanos[index]);
+    }
+
+    /** @param index Sample index
+     *  @return Sample as {@link VType}
+     */
+    VType getVType(final int index)
+    {
+        final byte kind = kinds[index];
+        if (kind == OBJECT)
+            return objects[index];
+        final Instant time = getTime(index);
+        final AlarmSeverity severity = SEVERITIES[severities[index]];
+        switch (kind)
+        {
+        case LONG:
+            return new ArchiveVNumber(time, severity, status[index], display, (long) values[index]);
+        case INTEGER:
+            return new ArchiveVNumber(time, severity, status[index], display, (int) values[index]);
+        case FLOAT:
+            return new ArchiveVNumber(time, severity, status[index], display, (float) values[index]);
+        case SHORT:
+            return new ArchiveVNumber(time, severity, status[index], display, (short) values[index]);
+        case BYTE:
+            return new ArchiveVNumber(time, severity, status[index], display, (byte) values[index]);
+        case ENUM:
+            return new ArchiveVEnum(time, severity, status[index], labels, (int) values[index]);
+        case STATISTICS:
+            return new ArchiveVStatistics(time, severity, status[index], display,
+                                          values[index], minimums[index], maximums[index],
+                                          stddevs[index], counts[index]);
+        default:
+            return new ArchiveVNumber(time, severity, status[index], display, values[index]);
+        }
+    }
+
+    /** @return Estimated memory used by this chunk in bytes */
+    long getMemoryUse()
+    {
+        final long capacity = values.length;
+        // seconds, nanos, values, kinds, severities, status references
+        long bytes = capacity * (8 + 4 + 8 + 1 + 1 + 4);
+        if (minimums != null)
+            bytes += capacity * (8 + 8 + 8 + 4);
+        if (objects != null)
+            bytes += capacity * 4 + object_count * OBJECT_BYTES;
+        return bytes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SampleChunk from " + source + " with " + size + " samples";
+    }
+}
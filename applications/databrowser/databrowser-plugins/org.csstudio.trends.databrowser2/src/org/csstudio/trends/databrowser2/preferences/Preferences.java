@@ -54,6 +54,10 @@ public class Preferences
             OPACITY = "opacity",
             TRACE_TYPE = "trace_type",
             ARCHIVE_FETCH_DELAY = "archive_fetch_delay",
+            ARCHIVE_FETCH_CONCURRENCY = "archive_fetch_concurrency",
+            TILE_CACHE_SIZE = "tile_cache_size",
+            TILE_CACHE_DIRECTORY = "tile_cache_directory",
+            TILE_CACHE_DISK_SIZE = "tile_cache_disk_size",
             PLOT_BINS = "plot_bins", URLS = "urls", ARCHIVES = "archives",
             USE_DEFAULT_ARCHIVES = "use_default_archives",
             PROMPT_FOR_ERRORS = "prompt_for_errors",
@@ -161,6 +165,45 @@ public class Preferences
         return delay;
     }
 
+    public static int getArchiveFetchConcurrency()
+    {
+        int concurrency = 2;
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        if (prefs != null)
+            concurrency = prefs.getInt(Activator.PLUGIN_ID, ARCHIVE_FETCH_CONCURRENCY, concurrency, null);
+        return concurrency;
+    }
+
+    /** @return Memory limit of the archive tile cache in MB, 0 to disable */
+    public static int getTileCacheSize()
+    {
+        int size = 64;
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        if (prefs != null)
+            size = prefs.getInt(Activator.PLUGIN_ID, TILE_CACHE_SIZE, size, null);
+        return size;
+    }
+
+    /** @return Directory for archive tile files, empty to only cache in memory */
+    public static String getTileCacheDirectory()
+    {
+        String directory = "";
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        if (prefs != null)
+            directory = prefs.getString(Activator.PLUGIN_ID, TILE_CACHE_DIRECTORY, directory, null).trim();
+        return directory;
+    }
+
+    /** @return Size limit of the archive tile files in MB */
+    public static int getTileCacheDiskSize()
+    {
+        int size = 256;
+        final IPreferencesService prefs = Platform.getPreferencesService();
+        if (prefs != null)
+            size = prefs.getInt(Activator.PLUGIN_ID, TILE_CACHE_DISK_SIZE, size, null);
+        return size;
+    }
+
     public static int getPlotBins()
     {
         final IPreferencesService prefs = Platform.getPreferencesService();
@@ -22,6 +22,8 @@ import org.csstudio.trends.databrowser2.model.Model;
 import org.csstudio.trends.databrowser2.model.ModelItem;
 import org.csstudio.trends.databrowser2.model.ModelListener;
 import org.csstudio.trends.databrowser2.model.ModelListenerAdapter;
+import org.csstudio.trends.databrowser2.model.PVItem;
+import org.csstudio.trends.databrowser2.model.PVSamples;
 import org.csstudio.trends.databrowser2.model.PlotSample;
 import org.csstudio.trends.databrowser2.ui.TableHelper;
 import org.csstudio.ui.util.MinSizeTableColumnLayout;
@@ -73,6 +75,7 @@ public class SampleView extends DataBrowserAwareView
     /** GUI elements */
     private Combo items;
     private TableViewer sample_table;
+    private Label memory;
 
     private VTypeFormat format = DefaultVTypeFormat.get();
 
@@ -133,6 +136,7 @@ public class SampleView extends DataBrowserAwareView
                 if (items.getSelectionIndex() == 0)
                 {
                     sample_table.setInput(null);
+                    updateMemory();
                     return;
                 }
                 final int selected = items.getSelectionIndex() - 1; /// Skip initial "Select item" entry
@@ -142,6 +146,7 @@ public class SampleView extends DataBrowserAwareView
                     if (index == selected)
                     {
                         sample_table.setInput(item);
+                        updateMemory();
                         return;
                     }
                     ++index;
@@ -275,6 +280,10 @@ public class SampleView extends DataBrowserAwareView
         });
         ColumnViewerToolTipSupport.enableFor(sample_table);
 
+        // Sample count and memory use of selected item
+        memory = new Label(parent, 0);
+        memory.setLayoutData(new GridData(SWT.FILL, 0, true, false, layout.numColumns, 1));
+
         // Be ignorant of any change of the current model after this view
         // is disposed.
         parent.addDisposeListener(new DisposeListener()
@@ -315,6 +324,7 @@ public class SampleView extends DataBrowserAwareView
             items.select(0);
             items.setEnabled(false);
             sample_table.setInput(null);
+            updateMemory();
             return;
         }
 
@@ -343,6 +353,7 @@ public class SampleView extends DataBrowserAwareView
                     // Update sample table size. Not locking for size()
                     sample_table.setItemCount(selected_item.getSamples().size());
                     sample_table.refresh();
+                    updateMemory();
                     return;
                 }
             }
@@ -353,6 +364,20 @@ public class SampleView extends DataBrowserAwareView
         items.select(0);
         items.setEnabled(true);
         sample_table.setInput(null);
+        updateMemory();
+    }
+
+    /** Show sample count and memory use of the selected item */
+    private void updateMemory()
+    {
+        final Object input = sample_table.getInput();
+        if (input instanceof PVItem)
+        {
+            final PVSamples samples = ((PVItem) input).getSamples();
+            memory.setText(NLS.bind(Messages.SampleView_Memory, samples.size(), samples.getMemoryUse() / 1024));
+        }
+        else
+            memory.setText("");
     }
 
     /** {@inheritDoc} */
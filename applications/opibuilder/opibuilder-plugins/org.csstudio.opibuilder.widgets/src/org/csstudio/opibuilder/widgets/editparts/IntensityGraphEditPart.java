@@ -79,6 +79,7 @@ public class IntensityGraphEditPart extends AbstractPVWidgetEditPart {
         graph.setCropBottom(model.getCropBottom());
         graph.setInRGBMode(model.isRGBMode());
         graph.setColorDepth(model.getColorDepth());
+        graph.setShrinkMode(model.getShrinkMode());
         graph.setSingleLineProfiling(model.isSingleLineProfiling());
         graph.setROIColor(model.getROIColor().getSWTColor());
         //init X-Axis
@@ -161,6 +162,8 @@ public class IntensityGraphEditPart extends AbstractPVWidgetEditPart {
                 IntensityGraphModel.PROP_COLOR_MAP, !rgbMode);
         getWidgetModel().setPropertyVisible(
                 IntensityGraphModel.PROP_SHOW_RAMP, !rgbMode);
+        getWidgetModel().setPropertyVisible(
+                IntensityGraphModel.PROP_SHRINK_MODE, !rgbMode);
 
     }
 
@@ -404,6 +407,16 @@ public class IntensityGraphEditPart extends AbstractPVWidgetEditPart {
         };
         setPropertyChangeHandler(IntensityGraphModel.PROP_COLOR_DEPTH, handler);
 
+        handler = new IWidgetPropertyChangeHandler() {
+
+            @Override
+            public boolean handleChange(Object oldValue, Object newValue, IFigure figure) {
+                ((IntensityGraphFigure)getFigure()).setShrinkMode(getWidgetModel().getShrinkMode());
+                return false;
+            }
+        };
+        setPropertyChangeHandler(IntensityGraphModel.PROP_SHRINK_MODE, handler);
+
         handler = new IWidgetPropertyChangeHandler() {
 
             @Override
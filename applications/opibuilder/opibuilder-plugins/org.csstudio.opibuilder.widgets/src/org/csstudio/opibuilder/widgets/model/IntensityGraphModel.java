@@ -25,6 +25,7 @@ import org.csstudio.opibuilder.util.UpgradeUtil;
 import org.csstudio.opibuilder.widgets.util.SingleSourceHelper;
 import org.csstudio.swt.widgets.datadefinition.ColorMap;
 import org.csstudio.swt.widgets.datadefinition.ColorMap.PredefinedColorMap;
+import org.csstudio.swt.widgets.datadefinition.ColorMap.ShrinkMode;
 import org.csstudio.swt.widgets.figures.IntensityGraphFigure.ColorDepth;
 import org.csstudio.ui.util.CustomMediaFactory;
 import org.eclipse.swt.graphics.RGB;
@@ -179,6 +180,9 @@ public class IntensityGraphModel extends AbstractPVWidgetModel {
 
     public static final String PROP_COLOR_DEPTH = "color_depth"; //$NON-NLS-1$
 
+    /** How data points are combined when the image is larger than the graph area */
+    public static final String PROP_SHRINK_MODE = "shrink_mode"; //$NON-NLS-1$
+
     public static final String PROP_SINGLE_LINE_PROFILING = "single_line_profiling"; //$NON-NLS-1$
 
     public static final String PROP_ROI_COLOR= "roi_color"; //$NON-NLS-1$
@@ -262,6 +266,9 @@ public class IntensityGraphModel extends AbstractPVWidgetModel {
         addProperty(new ComboProperty(PROP_COLOR_DEPTH, "Color Depth",
                 WidgetPropertyCategory.Behavior, ColorDepth.stringValues(), 0), true);
 
+        addProperty(new ComboProperty(PROP_SHRINK_MODE, "Shrink Mode",
+                WidgetPropertyCategory.Behavior, ShrinkMode.stringValues(), 0), true);
+
         addProperty(new BooleanProperty(PROP_SINGLE_LINE_PROFILING, "Profile on Single Line",
                 WidgetPropertyCategory.Behavior, false),true);
 
@@ -504,6 +511,10 @@ public class IntensityGraphModel extends AbstractPVWidgetModel {
         return ColorDepth.values()[(Integer)getPropertyValue(PROP_COLOR_DEPTH)];
     }
 
+    public ShrinkMode getShrinkMode(){
+        return ShrinkMode.values()[(Integer)getPropertyValue(PROP_SHRINK_MODE)];
+    }
+
     public OPIColor getROIColor(){
         return (OPIColor)getPropertyValue(PROP_ROI_COLOR);
     }
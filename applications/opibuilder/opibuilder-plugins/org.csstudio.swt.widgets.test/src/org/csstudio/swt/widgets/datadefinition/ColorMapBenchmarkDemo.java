@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.swt.widgets.datadefinition;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import org.csstudio.swt.widgets.datadefinition.ColorMap.PredefinedColorMap;
+import org.csstudio.swt.widgets.datadefinition.ColorMap.ShrinkMode;
+import org.eclipse.swt.graphics.ImageData;
+import org.junit.Test;
+
+/** Benchmark of the {@link ColorMap} for detector sized images
+ *
+ *  <p>Compares drawing into the {@link ImageData} with the
+ *  pixel-by-pixel <code>setPixel</code> approach.
+ *  Does not need a display.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class ColorMapBenchmarkDemo
+{
+    private static final int RUNS = 10;
+
+    /** Size of the graph area when shrinking */
+    private static final int SHRUNK = 512;
+
+    private static ShortArrayWrapper createData(final int size)
+    {
+        final short[] data = new short[size*size];
+        for (int y=0; y<size; ++y)
+            for (int x=0; x<size; ++x)
+            {
+                final double r = Math.hypot(x - size/2, y - size/2);
+                data[y*size + x] = (short) (100 + 100*Math.sin(r * 20 * Math.PI / size));
+            }
+        return new ShortArrayWrapper(data);
+    }
+
+    /** Reference: Map each pixel via setPixel */
+    private static ImageData drawReference(final ColorMap map, final IPrimaryArrayWrapper data,
+                                           final int width, final int height,
+                                           final double max, final double min,
+                                           final ImageData image)
+    {
+        final RGBLookup lookup = new RGBLookup(map);
+        final double scale = 255 / (max - min);
+        for (int y=0; y<height; ++y)
+            for (int x=0; x<width; ++x)
+            {
+                final int index = Math.max(0, Math.min(255, (int) ((data.get(y*width + x) - min) * scale)));
+                image.setPixel(x, y, lookup.pixels[index]);
+            }
+        return image;
+    }
+
+    private static class RGBLookup
+    {
+        final int[] pixels = new int[256];
+
+        RGBLookup(final ColorMap map)
+        {
+            for (int i=0; i<256; ++i)
+                pixels[i] = map.getPalette().getPixel(map.getColorsLookupTable()[i]);
+        }
+    }
+
+    private static double getMillis(final Runnable draw)
+    {
+        // Warm up
+        draw.run();
+        final long start = System.nanoTime();
+        for (int i=0; i<RUNS; ++i)
+            draw.run();
+        return (System.nanoTime() - start) / 1e6 / RUNS;
+    }
+
+    @Test
+    public void testSameAsSetPixel() throws Exception
+    {
+        final ColorMap map = new ColorMap(PredefinedColorMap.JET, true, true);
+        final ShortArrayWrapper data = createData(512);
+        final ImageData expected = drawReference(map, data, 512, 512, 200, 0,
+                                                 new ImageData(512, 512, 24, map.getPalette()));
+        final ImageData image = map.drawImage(data, 512, 512, 200, 0, null, false);
+        for (int y=0; y<512; ++y)
+            for (int x=0; x<512; ++x)
+                assertThat(image.getPixel(x, y), equalTo(expected.getPixel(x, y)));
+    }
+
+    @Test
+    public void testMaxKeepsPeak() throws Exception
+    {
+        final ColorMap map = new ColorMap(PredefinedColorMap.GrayScale, true, true);
+        final int size = 2048;
+        final short[] data = new short[size*size];
+        // Single-pixel peaks which nearest neighbor is likely to miss
+        for (int i=1; i<10; ++i)
+            data[(i*size/10 + 1)*size + i*size/10 + 1] = 255;
+        final ImageData image = new ImageData(SHRUNK, SHRUNK, 24, map.getPalette());
+        final int peak = map.getPalette().getPixel(map.getColorsLookupTable()[255]);
+
+        map.drawImage(new ShortArrayWrapper(data), size, 0, 0, size, size, 255, 0, image, true, ShrinkMode.MAX);
+        assertThat(countPixels(image, peak), equalTo(9));
+
+        map.drawImage(new ShortArrayWrapper(data), size, 0, 0, size, size, 255, 0, image, true, ShrinkMode.NEAREST);
+        System.out.println("Nearest neighbor shows " + countPixels(image, peak) + " of 9 peaks");
+    }
+
+    private static int countPixels(final ImageData image, final int pixel)
+    {
+        int count = 0;
+        for (int y=0; y<image.height; ++y)
+            for (int x=0; x<image.width; ++x)
+                if (image.getPixel(x, y) == pixel)
+                    ++count;
+        return count;
+    }
+
+    @Test
+    public void testCroppedRegion() throws Exception
+    {
+        final ColorMap map = new ColorMap(PredefinedColorMap.Hot, true, true);
+        final ShortArrayWrapper data = createData(512);
+        final ImageData full = map.drawImage(data, 512, 512, 200, 0, null, false);
+        final ImageData cropped = map.drawImage(data, 512, 100, 50, 300, 200, 200, 0, null, false, ShrinkMode.NEAREST);
+        assertThat(cropped.width, equalTo(300));
+        assertThat(cropped.height, equalTo(200));
+        for (int y=0; y<200; ++y)
+            for (int x=0; x<300; ++x)
+                assertThat(cropped.getPixel(x, y), equalTo(full.getPixel(100 + x, 50 + y)));
+    }
+
+    @Test
+    public void benchmark() throws Exception
+    {
+        final ColorMap map = new ColorMap(PredefinedColorMap.JET, true, true);
+        System.out.println("Size       setPixel   direct   nearest      max     mean   [ms per frame]");
+        for (int size : new int[] { 512, 2048, 4096 })
+        {
+            final ShortArrayWrapper data = createData(size);
+            final ImageData image = new ImageData(size, size, 24, map.getPalette());
+            final ImageData shrunk = new ImageData(SHRUNK, SHRUNK, 24, map.getPalette());
+
+            final double reference = getMillis(() -> drawReference(map, data, size, size, 200, 0, image));
+            final double direct = getMillis(() -> map.drawImage(data, size, size, 200, 0, image, false));
+            final double nearest = getMillis(() -> map.drawImage(data, size, 0, 0, size, size, 200, 0, shrunk, true, ShrinkMode.NEAREST));
+            final double max = getMillis(() -> map.drawImage(data, size, 0, 0, size, size, 200, 0, shrunk, true, ShrinkMode.MAX));
+            final double mean = getMillis(() -> map.drawImage(data, size, 0, 0, size, size, 200, 0, shrunk, true, ShrinkMode.MEAN));
+            System.out.format("%4dx%-4d %7.1f %8.1f %9.1f %8.1f %8.1f\n",
+                              size, size, reference, direct, nearest, max, mean);
+        }
+    }
+}
@@ -9,6 +9,8 @@ package org.csstudio.swt.widgets.datadefinition;
 
 import java.util.Arrays;
 import java.util.LinkedHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.graphics.PaletteData;
@@ -20,6 +22,37 @@ import org.eclipse.swt.graphics.RGB;
  */
 public class ColorMap {
 
+    /** Images with fewer pixels are drawn on the calling thread */
+    private static final int PARALLEL_THRESHOLD = 256*256;
+
+    /**How the data points that fall onto one pixel are combined
+     * when the image is smaller than the data.
+     */
+    public enum ShrinkMode{
+        NEAREST("Nearest Neighbor"), //Use one data point, fastest
+        MAX("Maximum"), //Largest data point, peaks remain visible
+        MEAN("Mean"); //Average of the data points
+
+        private String description;
+
+        private ShrinkMode(String description){
+            this.description = description;
+        }
+
+        public static String[] stringValues(){
+            String[] sv = new String[values().length];
+            int i = 0;
+            for (ShrinkMode m : values())
+                sv[i++] = m.toString();
+            return sv;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+
     public enum PredefinedColorMap{
         None("None", new double[0], new RGB[0]),
         GrayScale("GrayScale", new double[]{0,1}, new RGB[]{new RGB(0,0,0), new RGB(255,255,255)}),
@@ -191,10 +224,34 @@ public class ColorMap {
      */
     public ImageData drawImage(IPrimaryArrayWrapper dataArray,
             int dataWidth, int dataHeight, double max, double min, ImageData imageData, boolean shrink){
-        if(dataWidth <1 || dataHeight < 1 || dataWidth *dataHeight > dataArray.getSize()|| dataWidth * dataHeight < 0)
+        return drawImage(dataArray, dataWidth, 0, 0, dataWidth, dataHeight,
+                max, min, imageData, shrink, ShrinkMode.NEAREST);
+    }
+
+    /**Calculate the image data from a region of the source data based on the color map.
+     * Pixels of 24 or 32 bit image data are written directly into {@link ImageData#data},
+     * and large images are drawn in bands of rows on the common fork-join pool.
+     * @param dataArray the source data
+     * @param dataWidth number of columns of dataArray.
+     * @param left index of the first column of the region to draw.
+     * @param top index of the first row of the region to draw.
+     * @param width number of columns of the region; This will be the width of image data.
+     * @param height number of rows of the region; This will be the height of image data.
+     * @param max the upper limit of the data in dataArray
+     * @param min the lower limit of the data in dataArray
+     * @param imageData the imageData to be filled. null if a new instance should be created.
+     * @param shrink true if area size of image data is smaller than width*height.
+     * @param shrinkMode how the data points covered by one pixel of a shrunk image are combined.
+     * @return the image data. null if width or height is less than 1 or the region is outside of the data.
+     */
+    public ImageData drawImage(final IPrimaryArrayWrapper dataArray, final int dataWidth,
+            final int left, final int top, final int width, final int height,
+            double max, double min, ImageData imageData, final boolean shrink, final ShrinkMode shrinkMode){
+        if(width <1 || height < 1 || left < 0 || top < 0 || left + width > dataWidth ||
+                (long)(top + height - 1) * dataWidth + left + width > dataArray.getSize())
             return null;
         if(imageData == null)
-            imageData = new ImageData(dataWidth,dataHeight, 24, palette);
+            imageData = new ImageData(width, height, 24, palette);
         if(colorsLookupTable == null)
             getColorsLookupTable();
 
@@ -202,47 +259,152 @@ public class ColorMap {
             min = colorMapMin;
             max = colorMapMax;
         }
-            if(shrink){
-                int height = imageData.height;
-                int width = imageData.width;
-                    // EDIT: added +1 to account for an early rounding problem
-                    int x_ratio = (int)((dataWidth<<16)/width) +1;
-                    int y_ratio = (int)((dataHeight<<16)/height) +1;
-                    //int x_ratio = (int)((w1<<16)/w2) ;
-                    //int y_ratio = (int)((h1<<16)/h2) ;
-                    int x2, y2 ;
-                    for (int i=0;i<height;i++) {
-                        for (int j=0;j<width;j++) {
-                            x2 = ((j*x_ratio)>>16) ;
-                            y2 = ((i*y_ratio)>>16) ;
-                            int index = (int) ((dataArray.get(y2 * dataWidth + x2) - min) / (max - min) * 255);
-                            if (index < 0)
-                                index = 0;
-                            else if (index > 255)
-                                index = 255;
-                            int pixel = pixelLookupTable[index];
-                            imageData.setPixel(j,i,pixel); ;
-                        }
-                    }
+        final ImageData image = imageData;
+        final int imageWidth = shrink ? image.width : width;
+        final int imageHeight = shrink ? image.height : height;
+        // Source columns and rows covered by each pixel of the image
+        final int[] columns = shrink ? getSourceIndices(width, imageWidth, shrinkMode) : null;
+        final int[] rows = shrink ? getSourceIndices(height, imageHeight, shrinkMode) : null;
+        final double offset = min, scale = 255 / (max - min);
+
+        if((long)imageWidth * imageHeight < PARALLEL_THRESHOLD){
+            drawRows(dataArray, dataWidth, left, top, width, columns, rows, shrinkMode,
+                    offset, scale, image, imageWidth, 0, imageHeight);
+            return image;
+        }
+        final int bands = Math.min(imageHeight,
+                4 * ForkJoinPool.getCommonPoolParallelism());
+        IntStream.range(0, bands).parallel().forEach(band ->
+            drawRows(dataArray, dataWidth, left, top, width, columns, rows, shrinkMode,
+                    offset, scale, image, imageWidth,
+                    band * imageHeight / bands, (band+1) * imageHeight / bands));
+        return image;
+    }
+
+    /**Get the source indices for each pixel of a shrunk image in one dimension.
+     * @param size number of data points
+     * @param pixels number of pixels
+     * @param shrinkMode how data points are combined
+     * @return for {@link ShrinkMode#NEAREST}, the index of the data point for each pixel.
+     *  Otherwise the index of the first data point of each pixel, followed by the number of data points
+     *  as the end of the last pixel.
+     */
+    private static int[] getSourceIndices(int size, int pixels, ShrinkMode shrinkMode){
+        if(shrinkMode == ShrinkMode.NEAREST){
+            // 16.16 fixed point ratio as in
+            // http://tech-algorithm.com/articles/nearest-neighbor-image-scaling/
+            // EDIT: added +1 to account for an early rounding problem
+            int ratio = (int)((size<<16)/pixels) +1;
+            int[] indices = new int[pixels];
+            for(int i=0; i<pixels; i++)
+                indices[i] = Math.min((int)(((long)i*ratio)>>16), size-1);
+            return indices;
+        }
+        int[] indices = new int[pixels+1];
+        for(int i=0; i<=pixels; i++)
+            indices[i] = (int)((long)i*size/pixels);
+        return indices;
+    }
 
+    /** @return end index of the data points of pixel i, covering at least one data point
+     *          even when the image is larger than the data
+     */
+    private static int getEndIndex(int[] indices, int i){
+        return Math.max(indices[i]+1, indices[i+1]);
+    }
 
+    /**Draw rows [fromRow, toRow) of the image.
+     * Rows do not share any bytes of the image data, so bands of rows can be drawn concurrently.
+     */
+    private void drawRows(IPrimaryArrayWrapper dataArray, int dataWidth, int left, int top, int width,
+            int[] columns, int[] rows, ShrinkMode shrinkMode, double offset, double scale,
+            ImageData imageData, int imageWidth, int fromRow, int toRow){
+        final int[] pixels = pixelLookupTable;
+        final int depth = imageData.depth;
+        final boolean direct = depth == 24 || depth == 32;
+        final byte[] data = imageData.data;
+        final int bytesPerPixel = depth / 8;
+        // Color table index of each pixel in a shrunk row
+        final int[] line = rows == null ? null : new int[imageWidth];
+        final int[] rowPixels = direct ? null : new int[imageWidth];
+        for(int y=fromRow; y<toRow; y++){
+            int i = y * imageData.bytesPerLine;
+            if(rows == null){
+                // Map and write each data point in one pass
+                final int start = (top + y) * dataWidth + left;
+                for(int x=0; x<width; x++){
+                    int pixel = pixels[toTableIndex(dataArray.get(start + x), offset, scale)];
+                    if(direct)
+                        i = writePixel(data, i, pixel, bytesPerPixel);
+                    else
+                        rowPixels[x] = pixel;
+                }
             }else{
-                for (int y = 0; y < dataHeight; y++) {
-                    for (int x = 0; x < dataWidth; x++) {
-                        // the index of the value in the color table array
-                        int index = (int) ((dataArray.get(y * dataWidth + x) - min) / (max - min) * 255);
-                        if (index < 0)
-                            index = 0;
-                        else if (index > 255)
-                            index = 255;
-                        int pixel = pixelLookupTable[index];
-                        imageData.setPixel(x, y, pixel);
-                    }
+                if(shrinkMode == ShrinkMode.NEAREST)
+                    mapNearest(dataArray, (top + rows[y]) * dataWidth + left, columns, offset, scale, line);
+                else
+                    mapBlock(dataArray, dataWidth, (top + rows[y]) * dataWidth + left, getEndIndex(rows, y) - rows[y],
+                            columns, shrinkMode, offset, scale, line);
+                for(int x=0; x<imageWidth; x++){
+                    if(direct)
+                        i = writePixel(data, i, pixels[line[x]], bytesPerPixel);
+                    else
+                        rowPixels[x] = pixels[line[x]];
                 }
             }
+            if(!direct)
+                imageData.setPixels(0, y, imageWidth, rowPixels, 0);
+        }
+    }
+
+    /**Write pixel in the same byte order as ImageData.setPixel() for 24 and 32 bit depth.
+     * @return index of the next pixel
+     */
+    private static int writePixel(byte[] data, int i, int pixel, int bytesPerPixel){
+        if(bytesPerPixel == 4)
+            data[i++] = (byte)(pixel >> 24);
+        data[i++] = (byte)(pixel >> 16);
+        data[i++] = (byte)(pixel >> 8);
+        data[i++] = (byte)pixel;
+        return i;
+    }
+
+    /** @return index in the color table for a value */
+    private static int toTableIndex(double value, double offset, double scale){
+        int index = (int) ((value - offset) * scale);
+        if (index < 0)
+            return 0;
+        else if (index > 255)
+            return 255;
+        return index;
+    }
 
+    private static void mapNearest(IPrimaryArrayWrapper dataArray, int start, int[] columns,
+            double offset, double scale, int[] line){
+        for(int x=0; x<line.length; x++)
+            line[x] = toTableIndex(dataArray.get(start + columns[x]), offset, scale);
+    }
 
-            return imageData;
+    private static void mapBlock(IPrimaryArrayWrapper dataArray, int dataWidth, int start, int blockRows,
+            int[] columns, ShrinkMode shrinkMode, double offset, double scale, int[] line){
+        final boolean mean = shrinkMode == ShrinkMode.MEAN;
+        for(int x=0; x<line.length; x++){
+            final int end = getEndIndex(columns, x);
+            double result = mean ? 0 : Double.NEGATIVE_INFINITY;
+            for(int r=0; r<blockRows; r++){
+                int row = start + r * dataWidth;
+                for(int c=columns[x]; c<end; c++){
+                    double value = dataArray.get(row + c);
+                    if(mean)
+                        result += value;
+                    else if(value > result)
+                        result = value;
+                }
+            }
+            if(mean)
+                result /= blockRows * (end - columns[x]);
+            line[x] = toTableIndex(result, offset, scale);
+        }
     }
 
     /**Calculate the image data from source data based on the color map.
@@ -17,6 +17,7 @@ import java.util.Map;
 import org.csstudio.swt.widgets.datadefinition.ByteArrayWrapper;
 import org.csstudio.swt.widgets.datadefinition.ColorMap;
 import org.csstudio.swt.widgets.datadefinition.ColorMap.PredefinedColorMap;
+import org.csstudio.swt.widgets.datadefinition.ColorMap.ShrinkMode;
 import org.csstudio.swt.widgets.datadefinition.DoubleArrayWrapper;
 import org.csstudio.swt.widgets.datadefinition.FloatArrayWrapper;
 import org.csstudio.swt.widgets.datadefinition.IPrimaryArrayWrapper;
@@ -115,6 +116,36 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
         public double value;
     }
 
+    /** Region of a data array, accessed without copying the data */
+    private static class CroppedDataArray implements IPrimaryArrayWrapper
+    {
+        private final IPrimaryArrayWrapper data;
+        private final int dataWidth, left, top, width, height;
+
+        public CroppedDataArray(IPrimaryArrayWrapper data, int dataWidth,
+                int left, int top, int width, int height)
+        {
+            this.data = data;
+            this.dataWidth = dataWidth;
+            this.left = left;
+            this.top = top;
+            this.width = width;
+            this.height = height;
+        }
+
+        @Override
+        public double get(int i)
+        {
+            return data.get((top + i / width) * dataWidth + left + i % width);
+        }
+
+        @Override
+        public int getSize()
+        {
+            return width * height;
+        }
+    }
+
     /** Interface for notifications about a 'Pixel'
      *  @see IntensityGraphFigure#addPixelInfoListener
      */
@@ -348,27 +379,21 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
         private synchronized IPrimaryArrayWrapper cropDataArray(int left, int right, int top, int bottom){
             if((left != 0 || right != 0 || top != 0 || bottom != 0) &&
                     (dataWidth - left - right) * (dataHeight - top-bottom) >0){
+                //The color map draws the cropped region straight from the data array,
+                //so profiles and pixel info only need a view of it.
+                if (!inRGBMode)
+                    return new CroppedDataArray(dataArray, dataWidth, left, top,
+                            dataWidth - left - right, dataHeight - top - bottom);
                 int i=0;
-                double[] result = null;
-                if (inRGBMode) {
-                    result = new double[(dataWidth - left - right)
-                            * (dataHeight - top - bottom)*3];
-                    for (int y = top; y < (dataHeight - bottom); y++) {
-                        for (int x = left; x < (dataWidth - right); x++) {
-                            int p=y * dataWidth*3 + x*3;
-                            result[i] = dataArray.get(p);
-                            result[i+1]=dataArray.get(p+1);
-                            result[i+2]=dataArray.get(p+2);
-                            i+=3;
-                        }
-                    }
-                } else {
-                    result = new double[(dataWidth - left - right)
-                            * (dataHeight - top - bottom)];
-                    for (int y = top; y < (dataHeight - bottom); y++) {
-                        for (int x = left; x < (dataWidth - right); x++) {
-                            result[i++] = dataArray.get(y * dataWidth + x);
-                        }
+                final double[] result = new double[(dataWidth - left - right)
+                        * (dataHeight - top - bottom)*3];
+                for (int y = top; y < (dataHeight - bottom); y++) {
+                    for (int x = left; x < (dataWidth - right); x++) {
+                        int p=y * dataWidth*3 + x*3;
+                        result[i] = dataArray.get(p);
+                        result[i+1]=dataArray.get(p+1);
+                        result[i+2]=dataArray.get(p+2);
+                        i+=3;
                     }
                 }
                 return new DoubleArrayWrapper(result);
@@ -474,9 +499,9 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
                                 clientArea.getLocation());
                     }
                 else
-                    imageData = colorMap.drawImage(croppedDataArray,
-                                croppedDataWidth, croppedDataHeight,
-                                max, min, bufferedImageData, shrink);
+                    imageData = colorMap.drawImage(dataArray, dataWidth,
+                                cropLeft, cropTop, croppedDataWidth, croppedDataHeight,
+                                max, min, bufferedImageData, shrink, shrinkMode);
 
                 if(imageData == null)
                     return;
@@ -744,6 +769,8 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
 
     private ColorDepth colorDepth = ColorDepth.BIT8;
 
+    private ShrinkMode shrinkMode = ShrinkMode.NEAREST;
+
     private PaletteData palette = new PaletteData(0xff, 0xff00, 0xff0000);
     private Boolean savedShowRamp;
 
@@ -1591,6 +1618,21 @@ public class IntensityGraphFigure extends Figure implements Introspectable {
         dataDirty = true;
         repaint();
     }
+    /**
+     * @return the shrinkMode
+     */
+    public ShrinkMode getShrinkMode() {
+        return shrinkMode;
+    }
+    /**Set how data points are combined when the image is larger than the graph area.
+     * {@link ShrinkMode#NEAREST} is fastest, {@link ShrinkMode#MAX} keeps peaks visible.
+     * @param shrinkMode the shrinkMode to set
+     */
+    public void setShrinkMode(ShrinkMode shrinkMode) {
+        this.shrinkMode = shrinkMode;
+        dataDirty = true;
+        repaint();
+    }
     /**If it is profiling on single pixel.
      * @return the isSinglePixelProfiling
      */
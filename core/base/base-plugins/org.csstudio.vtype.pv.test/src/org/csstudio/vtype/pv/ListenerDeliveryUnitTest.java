@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.vtype.pv;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.diirt.vtype.VType;
+import org.diirt.vtype.ValueFactory;
+import org.diirt.vtype.ValueUtil;
+import org.junit.After;
+import org.junit.Test;
+
+/** JUnit test of {@link PVListener}s with {@link DeliveryPolicy}
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class ListenerDeliveryUnitTest
+{
+    /** PV where test sends updates */
+    private static class TestPV extends PV
+    {
+        TestPV()
+        {
+            super("test");
+        }
+
+        void update(final int value)
+        {
+            notifyListenersOfValue(ValueFactory.newVDouble((double) value));
+        }
+
+        @Override
+        public void write(final Object new_value) throws Exception
+        {
+            // Ignore
+        }
+    }
+
+    /** Listener that blocks until released, recording received values */
+    private static class BlockingListener extends PVListenerAdapter
+    {
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch disconnected = new CountDownLatch(1);
+        final List<Integer> values = new ArrayList<>();
+
+        @Override
+        public void valueChanged(final PV pv, final VType value)
+        {
+            try
+            {
+                release.await();
+            }
+            catch (InterruptedException ex)
+            {
+                // Ignore
+            }
+            synchronized (values)
+            {
+                values.add((int) ValueUtil.numericValueOf(value).doubleValue());
+            }
+        }
+
+        @Override
+        public void disconnected(final PV pv)
+        {
+            disconnected.countDown();
+        }
+    }
+
+    final private ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+    /** Send 0..99 while listener is blocked, then disconnect
+     *  @param policy {@link DeliveryPolicy} to test
+     *  @return Listener after it received everything
+     */
+    private BlockingListener deliver(final TestPV pv, final DeliveryPolicy policy) throws Exception
+    {
+        final BlockingListener listener = new BlockingListener();
+        pv.addListener(listener, executor, policy, 10);
+
+        // A direct listener is not held up by the blocked one
+        final List<Integer> direct = new ArrayList<>();
+        final PVListener fast = new PVListenerAdapter()
+        {
+            @Override
+            public void valueChanged(final PV pv, final VType value)
+            {
+                direct.add((int) ValueUtil.numericValueOf(value).doubleValue());
+            }
+        };
+        pv.addListener(fast);
+        for (int i=0; i<100; ++i)
+            pv.update(i);
+        assertThat(direct.size(), equalTo(100));
+
+        pv.notifyListenersOfDisconnect();
+        listener.release.countDown();
+        assertTrue(listener.disconnected.await(5, TimeUnit.SECONDS));
+
+        pv.removeListener(fast);
+        pv.removeListener(listener);
+        return listener;
+    }
+
+    @Test(timeout=10000)
+    public void testLatest() throws Exception
+    {
+        final TestPV pv = new TestPV();
+        final BlockingListener listener = deliver(pv, DeliveryPolicy.LATEST);
+        // First value was being delivered when listener blocked,
+        // all others were coalesced into the last one
+        System.out.println("LATEST: " + listener.values);
+        assertThat(listener.values.get(listener.values.size()-1), equalTo(99));
+        assertTrue(listener.values.size() <= 2);
+        assertThat(pv.getCoalescedCount(), equalTo(100L - listener.values.size()));
+        assertThat(pv.getDroppedCount(), equalTo(0L));
+    }
+
+    @Test(timeout=10000)
+    public void testBounded() throws Exception
+    {
+        final TestPV pv = new TestPV();
+        final BlockingListener listener = deliver(pv, DeliveryPolicy.BOUNDED);
+        // Listener receives the last 10 values, plus maybe the first one
+        System.out.println("BOUNDED: " + listener.values);
+        assertThat(listener.values.get(listener.values.size()-1), equalTo(99));
+        assertThat(listener.values.get(listener.values.size()-10), equalTo(90));
+        assertThat(pv.getDroppedCount(), equalTo(100L - listener.values.size()));
+    }
+
+    @Test(timeout=10000)
+    public void testAll() throws Exception
+    {
+        final TestPV pv = new TestPV();
+        final BlockingListener listener = deliver(pv, DeliveryPolicy.ALL);
+        assertThat(listener.values.size(), equalTo(100));
+        for (int i=0; i<100; ++i)
+            assertThat(listener.values.get(i), equalTo(i));
+        // 100 to the direct listener, 100 to the executor listener
+        assertThat(pv.getDeliveredCount(), equalTo(200L));
+    }
+}
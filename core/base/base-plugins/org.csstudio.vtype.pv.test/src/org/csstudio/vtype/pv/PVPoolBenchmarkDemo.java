@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.vtype.pv;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.csstudio.vtype.pv.local.LocalPVFactory;
+import org.csstudio.vtype.pv.sim.SimPVFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Benchmark of {@link PVPool}
+ *
+ *  <p>Many threads obtain and release a large number of PVs,
+ *  similar to a display with many widgets or
+ *  the alarm server starting up.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class PVPoolBenchmarkDemo
+{
+    private static final int PV_COUNT = 100000;
+    private static final int THREADS = 16;
+
+    @Before
+    public void setup()
+    {
+        PVPool.addPVFactory(new SimPVFactory());
+        PVPool.addPVFactory(new LocalPVFactory());
+    }
+
+    /** @param i Index
+     *  @return Name of PV, half of them simulated, half local
+     */
+    private static String getName(final int i)
+    {
+        if (i % 2 == 0)
+            return "sim://ramp(0, " + i + ", 1)";
+        return "loc://x" + i + "(" + i + ")";
+    }
+
+    @Test
+    public void benchmarkThreads() throws Exception
+    {
+        final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        final List<Future<List<PV>>> results = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int t=0; t<THREADS; ++t)
+        {
+            final int thread = t;
+            results.add(pool.submit(() ->
+            {
+                // Each thread requests all PVs, so some are
+                // found in the pool and some are created
+                final List<PV> pvs = new ArrayList<>(PV_COUNT);
+                for (int i=0; i<PV_COUNT; ++i)
+                    pvs.add(PVPool.getPV(getName((i + thread * PV_COUNT / THREADS) % PV_COUNT)));
+                return pvs;
+            }));
+        }
+        final List<PV> pvs = new ArrayList<>();
+        for (Future<List<PV>> result : results)
+            pvs.addAll(result.get());
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.out.format("%d threads obtained %d PVs in %.2f seconds, %.0f PVs/sec\n",
+                          THREADS, pvs.size(), secs, pvs.size() / secs);
+        assertThat(PVPool.getPVReferences().size(), equalTo(PV_COUNT));
+
+        start = System.nanoTime();
+        final List<Future<?>> releases = new ArrayList<>();
+        final int per_thread = pvs.size() / THREADS;
+        for (int t=0; t<THREADS; ++t)
+        {
+            final List<PV> batch = pvs.subList(t*per_thread, (t+1)*per_thread);
+            releases.add(pool.submit(() -> batch.forEach(PVPool::releasePV)));
+        }
+        for (Future<?> release : releases)
+            release.get();
+        secs = (System.nanoTime() - start) / 1e9;
+        System.out.format("%d threads released %d PVs in %.2f seconds, %.0f PVs/sec\n",
+                          THREADS, pvs.size(), secs, pvs.size() / secs);
+        assertThat(PVPool.getPVReferences().size(), equalTo(0));
+        pool.shutdown();
+    }
+
+    @Test
+    public void benchmarkBulk() throws Exception
+    {
+        final List<String> names = new ArrayList<>(PV_COUNT);
+        for (int i=0; i<PV_COUNT; ++i)
+            names.add(getName(i));
+
+        long start = System.nanoTime();
+        final List<PV> pvs = PVPool.getPVs(names);
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.out.format("Bulk request obtained %d PVs in %.2f seconds, %.0f PVs/sec\n",
+                          pvs.size(), secs, pvs.size() / secs);
+        assertThat(pvs.size(), equalTo(PV_COUNT));
+
+        for (PV pv : pvs)
+            PVPool.releasePV(pv);
+        assertThat(PVPool.getPVReferences().size(), equalTo(0));
+    }
+}
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.vtype.pv;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.csstudio.vtype.pv.local.LocalPVFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+/** JUnit test of concurrent {@link PVPool} access
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class PVPoolUnitTest
+{
+    /** Factory for PVs that take a while to create */
+    private static class SlowPVFactory implements PVFactory
+    {
+        final CountDownLatch proceed = new CountDownLatch(1);
+        final AtomicInteger created = new AtomicInteger();
+
+        @Override
+        public String getType()
+        {
+            return "slow";
+        }
+
+        @Override
+        public PV createPV(final String name, final String base_name) throws Exception
+        {
+            if (base_name.startsWith("fail"))
+                throw new Exception("Cannot create " + name);
+            proceed.await();
+            created.incrementAndGet();
+            return new PV(name)
+            {
+                @Override
+                public void write(final Object new_value) throws Exception
+                {
+                    // Ignore
+                }
+            };
+        }
+    }
+
+    final private SlowPVFactory slow = new SlowPVFactory();
+
+    @Before
+    public void setup()
+    {
+        PVPool.addPVFactory(slow);
+        PVPool.addPVFactory(new LocalPVFactory());
+    }
+
+    @Test(timeout=10000)
+    public void testConcurrentCreation() throws Exception
+    {
+        // Several threads request the same PV while it's being created
+        final ExecutorService pool = Executors.newFixedThreadPool(10);
+        final List<Future<PV>> requests = new ArrayList<>();
+        for (int i=0; i<10; ++i)
+            requests.add(pool.submit(() -> PVPool.getPV("slow://a")));
+
+        // Other PVs are not blocked by that
+        final PV other = PVPool.getPV("loc://other");
+        PVPool.releasePV(other);
+
+        slow.proceed.countDown();
+        final PV pv = requests.get(0).get();
+        for (Future<PV> request : requests)
+            assertThat(request.get(), sameInstance(pv));
+        pool.shutdown();
+
+        // Created once, with one reference per request
+        assertThat(slow.created.get(), equalTo(1));
+        assertThat(PVPool.getPVReferences().size(), equalTo(1));
+        assertThat(PVPool.getPVReferences().iterator().next().getReferences(), equalTo(10));
+
+        for (Future<PV> request : requests)
+            PVPool.releasePV(request.get());
+        assertThat(PVPool.getPVReferences().size(), equalTo(0));
+    }
+
+    @Test(timeout=10000)
+    public void testBulk() throws Exception
+    {
+        slow.proceed.countDown();
+        final List<PV> pvs = PVPool.getPVs(Arrays.asList("slow://a", "loc://b", "slow://a", "slow://c"));
+        assertThat(pvs.size(), equalTo(4));
+        assertThat(pvs.get(1).getName(), equalTo("loc://b"));
+        assertThat(pvs.get(0), sameInstance(pvs.get(2)));
+        assertThat(PVPool.getPVReferences().size(), equalTo(3));
+        for (PV pv : pvs)
+            PVPool.releasePV(pv);
+
+        // When one PV fails, none are kept
+        try
+        {
+            PVPool.getPVs(Arrays.asList("slow://a", "slow://fail", "loc://b"));
+            fail("Obtained PV that cannot be created");
+        }
+        catch (Exception ex)
+        {
+            assertThat(ex.getMessage(), equalTo("Cannot create slow://fail"));
+        }
+        assertThat(PVPool.getPVReferences().size(), equalTo(0));
+
+        // Async request reports the same
+        final CompletableFuture<PV> failed = PVPool.getPVAsync("slow://fail");
+        try
+        {
+            failed.get(5, TimeUnit.SECONDS);
+            fail("Obtained PV that cannot be created");
+        }
+        catch (Exception ex)
+        {
+            assertTrue(failed.isCompletedExceptionally());
+        }
+    }
+}
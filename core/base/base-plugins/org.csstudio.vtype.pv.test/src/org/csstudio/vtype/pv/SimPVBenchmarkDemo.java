@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.vtype.pv;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.csstudio.vtype.pv.sim.SimPVFactory;
+import org.csstudio.vtype.pv.sim.SimScheduler;
+import org.csstudio.vtype.pv.sim.SimScheduler.Statistics;
+import org.diirt.vtype.VType;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Benchmark of simulated PVs as a load generator
+ *
+ *  <p>Runs a large number of simulated PVs
+ *  and compares the achieved against the requested update rate.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class SimPVBenchmarkDemo
+{
+    private static final int PV_COUNT = 100000;
+
+    @Before
+    public void setup()
+    {
+        PVPool.addPVFactory(new SimPVFactory());
+    }
+
+    @Test
+    public void benchmark() throws Exception
+    {
+        final LongAdder updates = new LongAdder();
+        final PVListener listener = new PVListenerAdapter()
+        {
+            @Override
+            public void valueChanged(final PV pv, final VType value)
+            {
+                updates.increment();
+            }
+        };
+
+        // Mix of scalar and waveform PVs at 10 Hz and 1 Hz
+        final List<PV> pvs = new ArrayList<>(PV_COUNT);
+        for (int i=0; i<PV_COUNT; ++i)
+        {
+            final String name;
+            switch (i % 4)
+            {
+            case 0:  name = "sim://sine(-10, 10, 100, 0.1) " + i;         break;
+            case 1:  name = "sim://ramp(0, 100, 1, 1) " + i;              break;
+            case 2:  name = "sim://sinewave(1, 10, 100, 1) " + i;         break;
+            default: name = "sim://gaussianwave(1, 100, 100, 0.1) " + i;  break;
+            }
+            final PV pv = PVPool.getPV(name);
+            pv.addListener(listener);
+            pvs.add(pv);
+        }
+
+        List<Statistics> stats = SimScheduler.getStatistics();
+        for (int run=0; run<5; ++run)
+        {
+            Thread.sleep(2000);
+            System.out.format("%d updates received\n", updates.sumThenReset());
+            stats = SimScheduler.getStatistics();
+            for (Statistics stat : stats)
+                System.out.println(stat);
+        }
+
+        assertThat(stats.size(), equalTo(2));
+        for (Statistics stat : stats)
+            assertTrue(stat.toString(), stat.getAchievedRate() > 0.9 * stat.getRequestedRate());
+
+        for (PV pv : pvs)
+        {
+            pv.removeListener(listener);
+            PVPool.releasePV(pv);
+        }
+        assertThat(SimScheduler.getStatistics().size(), equalTo(0));
+    }
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.vtype.pv.pva;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.lang.management.ManagementFactory;
+
+import org.diirt.vtype.VImage;
+import org.epics.pvdata.factory.FieldFactory;
+import org.epics.pvdata.factory.PVDataFactory;
+import org.epics.pvdata.factory.StandardFieldFactory;
+import org.epics.pvdata.pv.FieldCreate;
+import org.epics.pvdata.pv.PVDataCreate;
+import org.epics.pvdata.pv.PVStructure;
+import org.epics.pvdata.pv.PVStructureArray;
+import org.epics.pvdata.pv.PVUByteArray;
+import org.epics.pvdata.pv.PVUShortArray;
+import org.epics.pvdata.pv.PVUnion;
+import org.epics.pvdata.pv.ScalarType;
+import org.epics.pvdata.pv.Structure;
+import org.junit.Test;
+
+/** Benchmark of {@link VImageForNTNDArray}
+ *
+ *  <p>Decodes NTNDArray frames as received from a camera,
+ *  measuring frames per second and memory allocated per frame.
+ *  Each frame is first written into the NTNDArray,
+ *  like pvAccess does when it receives an update.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class NTNDArrayBenchmarkDemo
+{
+    private static final int FRAMES = 200;
+
+    /** @param width Image width
+     *  @param height Image height
+     *  @param ushort Use unsigned short data, otherwise unsigned byte
+     *  @return NTNDArray structure
+     */
+    private static PVStructure createNTNDArray(final int width, final int height, final boolean ushort)
+    {
+        final FieldCreate fields = FieldFactory.getFieldCreate();
+        final PVDataCreate data = PVDataFactory.getPVDataCreate();
+        final Structure dimension = fields.createFieldBuilder()
+                                          .setId("dimension_t")
+                                          .add("size", ScalarType.pvInt)
+                                          .add("offset", ScalarType.pvInt)
+                                          .add("fullSize", ScalarType.pvInt)
+                                          .add("binning", ScalarType.pvInt)
+                                          .add("reverse", ScalarType.pvBoolean)
+                                          .createStructure();
+        final Structure type = fields.createFieldBuilder()
+                                     .setId("epics:nt/NTNDArray:1.0")
+                                     .addNestedUnion("value")
+                                         .addArray("ubyteValue", ScalarType.pvUByte)
+                                         .addArray("ushortValue", ScalarType.pvUShort)
+                                     .endNested()
+                                     .addArray("dimension", dimension)
+                                     .add("timeStamp", StandardFieldFactory.getStandardField().timeStamp())
+                                     .add("alarm", StandardFieldFactory.getStandardField().alarm())
+                                     .createStructure();
+        final PVStructure ntndarray = data.createPVStructure(type);
+
+        final PVStructure[] dims = new PVStructure[] { data.createPVStructure(dimension),
+                                                       data.createPVStructure(dimension) };
+        dims[0].getIntField("size").put(width);
+        dims[1].getIntField("size").put(height);
+        ntndarray.getSubField(PVStructureArray.class, "dimension").put(0, 2, dims, 0);
+
+        final PVUnion value = ntndarray.getUnionField("value");
+        value.select(ushort ? "ushortValue" : "ubyteValue");
+        return ntndarray;
+    }
+
+    /** @return Bytes allocated by current thread */
+    private static long getAllocatedBytes()
+    {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /** @param frame Frame number
+     *  @param ushort Unsigned short data, otherwise unsigned byte
+     *  @return Value of first pixel as read from image data
+     */
+    private static int getPixel(final int frame, final boolean ushort)
+    {
+        // Unsigned data is wrapped in signed ListNumber,
+        // VImageDataType tells users to treat it as unsigned
+        return ushort ? (short) frame : (byte) frame;
+    }
+
+    private void benchmark(final int width, final int height, final boolean ushort) throws Exception
+    {
+        final PVStructure ntndarray = createNTNDArray(width, height, ushort);
+        final PVUnion value = ntndarray.getUnionField("value");
+        final int size = width * height;
+        final byte[] bytes = ushort ? null : new byte[size];
+        final short[] shorts = ushort ? new short[size] : null;
+
+        final long allocated = FrameBufferPool.BYTES.getAllocated() + FrameBufferPool.SHORTS.getAllocated();
+        final long reused = FrameBufferPool.BYTES.getReused() + FrameBufferPool.SHORTS.getReused();
+        final long start_bytes = getAllocatedBytes();
+        final long start = System.nanoTime();
+        VImage previous = null;
+        for (int frame=0; frame<FRAMES; ++frame)
+        {
+            // Receive frame
+            if (ushort)
+            {
+                shorts[0] = (short) frame;
+                ((PVUShortArray) value.get()).put(0, size, shorts, 0);
+            }
+            else
+            {
+                bytes[0] = (byte) frame;
+                ((PVUByteArray) value.get()).put(0, size, bytes, 0);
+            }
+            // Decode
+            final VImage image = new VImageForNTNDArray(ntndarray);
+            assertThat(image.getWidth(), equalTo(width));
+            assertThat(image.getData().getInt(0), equalTo(getPixel(frame, ushort)));
+            // Previous image keeps its data while it is reachable
+            if (previous != null)
+                assertThat(previous.getData().getInt(0), equalTo(getPixel(frame-1, ushort)));
+            previous = image;
+        }
+        final double secs = (System.nanoTime() - start) / 1e9;
+        final long bytes_per_frame = (getAllocatedBytes() - start_bytes) / FRAMES;
+
+        System.out.format("%d x %d %s: %.1f frames/sec, %.1f kB allocated per frame (frame has %d kB), %d buffers allocated, %d reused\n",
+                          width, height, ushort ? "ushort" : "ubyte",
+                          FRAMES / secs, bytes_per_frame / 1024.0, size * (ushort ? 2 : 1) / 1024,
+                          FrameBufferPool.BYTES.getAllocated() + FrameBufferPool.SHORTS.getAllocated() - allocated,
+                          FrameBufferPool.BYTES.getReused() + FrameBufferPool.SHORTS.getReused() - reused);
+    }
+
+    @Test
+    public void benchmark1k() throws Exception
+    {
+        benchmark(1024, 1024, false);
+        benchmark(1024, 1024, true);
+    }
+
+    @Test
+    public void benchmark2k() throws Exception
+    {
+        benchmark(2048, 2048, false);
+        benchmark(2048, 2048, true);
+    }
+}
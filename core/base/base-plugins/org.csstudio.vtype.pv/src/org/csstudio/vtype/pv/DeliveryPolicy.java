@@ -0,0 +1,32 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.vtype.pv;
+
+import java.util.concurrent.Executor;
+
+/** How updates are delivered to a {@link PVListener}
+ *  that was added with an {@link Executor}
+ *
+ *  <p>Disconnect and permission changes are always delivered.
+ *  The policy applies to value updates that arrive
+ *  while the listener is still busy with earlier updates.
+ *
+ *  @see PV#addListener(PVListener, Executor, DeliveryPolicy)
+ *  @author agent
+ */
+public enum DeliveryPolicy
+{
+    /** Only deliver the most recent value, skipping values that were replaced */
+    LATEST,
+
+    /** Queue values up to a limit, dropping the oldest values when the queue is full */
+    BOUNDED,
+
+    /** Deliver all values */
+    ALL
+}
@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.vtype.pv;
+
+import static org.csstudio.vtype.pv.PV.logger;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+
+import org.diirt.vtype.VType;
+
+/** Delivers updates to a {@link PVListener} on an {@link Executor}
+ *
+ *  <p>The thread that notifies the PV only queues the update.
+ *  Queued updates are then passed to the listener
+ *  on the executor, one at a time and in order.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+class ListenerDelivery implements PVListener
+{
+    /** Queued update */
+    private static class Update
+    {
+        /** Value, or <code>null</code> for permission change or disconnect */
+        VType value;
+        /** Permission change, or <code>null</code> for value or disconnect */
+        final Boolean readonly;
+
+        Update(final VType value, final Boolean readonly)
+        {
+            this.value = value;
+            this.readonly = readonly;
+        }
+    }
+
+    final private PV pv;
+    final private PVListener listener;
+    final private Executor executor;
+    final private DeliveryPolicy policy;
+    final private int capacity;
+
+    /** Queued updates. SYNC on this */
+    final private ArrayDeque<Update> updates = new ArrayDeque<>();
+
+    /** Number of value updates in queue. SYNC on this */
+    private int queued_values = 0;
+
+    /** Has delivery been submitted to executor? SYNC on this */
+    private boolean scheduled = false;
+
+    /** Listener has been removed, skip remaining updates */
+    private volatile boolean removed = false;
+
+    /** @param pv PV to which the listener subscribed
+     *  @param listener Listener to call
+     *  @param executor Executor on which to call the listener
+     *  @param policy {@link DeliveryPolicy}
+     *  @param capacity Queue capacity for {@link DeliveryPolicy#BOUNDED}
+     */
+    ListenerDelivery(final PV pv, final PVListener listener, final Executor executor,
+                     final DeliveryPolicy policy, final int capacity)
+    {
+        if (policy == DeliveryPolicy.BOUNDED  &&  capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be positive");
+        this.pv = pv;
+        this.listener = listener;
+        this.executor = executor;
+        this.policy = policy;
+        this.capacity = capacity;
+    }
+
+    /** @return Listener that receives the updates */
+    PVListener getListener()
+    {
+        return listener;
+    }
+
+    /** Stop delivering updates */
+    void remove()
+    {
+        removed = true;
+        synchronized (this)
+        {
+            updates.clear();
+            queued_values = 0;
+        }
+    }
+
+    @Override
+    public void permissionsChanged(final PV pv, final boolean readonly)
+    {
+        queue(new Update(null, readonly));
+    }
+
+    @Override
+    public void valueChanged(final PV pv, final VType value)
+    {
+        synchronized (this)
+        {
+            if (policy == DeliveryPolicy.LATEST)
+            {   // Replace value that has not been delivered
+                final Update last = updates.peekLast();
+                if (last != null  &&  last.value != null)
+                {
+                    last.value = value;
+                    pv.coalesced.increment();
+                    return;
+                }
+            }
+            else if (policy == DeliveryPolicy.BOUNDED  &&  queued_values >= capacity)
+            {   // Drop oldest value
+                final Iterator<Update> iter = updates.iterator();
+                while (iter.hasNext())
+                    if (iter.next().value != null)
+                    {
+                        iter.remove();
+                        --queued_values;
+                        pv.dropped.increment();
+                        break;
+                    }
+            }
+        }
+        queue(new Update(value, null));
+    }
+
+    @Override
+    public void disconnected(final PV pv)
+    {
+        queue(new Update(null, null));
+    }
+
+    private void queue(final Update update)
+    {
+        if (removed)
+            return;
+        synchronized (this)
+        {
+            updates.add(update);
+            if (update.value != null)
+                ++queued_values;
+            if (scheduled)
+                return;
+            scheduled = true;
+        }
+        executor.execute(this::deliver);
+    }
+
+    /** Deliver queued updates, called on executor */
+    private void deliver()
+    {
+        // Deliver what's queued right now, then re-submit
+        // to give other tasks on the executor a chance
+        int count;
+        synchronized (this)
+        {
+            count = updates.size();
+        }
+        while (count-- > 0)
+        {
+            final Update update;
+            synchronized (this)
+            {
+                update = updates.poll();
+                if (update == null)
+                    break;
+                if (update.value != null)
+                    --queued_values;
+            }
+            if (removed)
+                return;
+            try
+            {
+                if (update.value != null)
+                {
+                    listener.valueChanged(pv, update.value);
+                    pv.delivered.increment();
+                }
+                else if (update.readonly != null)
+                    listener.permissionsChanged(pv, update.readonly);
+                else
+                    listener.disconnected(pv);
+            }
+            catch (Throwable ex)
+            {
+                logger.log(Level.WARNING, pv.getName() + " PVListener error", ex);
+            }
+        }
+        synchronized (this)
+        {
+            if (updates.isEmpty())
+            {
+                scheduled = false;
+                return;
+            }
+        }
+        executor.execute(this::deliver);
+    }
+}
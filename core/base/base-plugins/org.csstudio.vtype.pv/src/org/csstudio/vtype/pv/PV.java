@@ -10,7 +10,9 @@ package org.csstudio.vtype.pv;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -40,6 +42,15 @@ abstract public class PV
 
     private volatile VType last_value = null;
 
+    /** Value updates that listeners received */
+    final LongAdder delivered = new LongAdder();
+
+    /** Value updates that were replaced by a newer value before delivery */
+    final LongAdder coalesced = new LongAdder();
+
+    /** Value updates that were dropped because a listener's queue was full */
+    final LongAdder dropped = new LongAdder();
+
     /** Initialize
      *  @param name PV name
      */
@@ -74,9 +85,50 @@ abstract public class PV
         listeners.add(listener);
     }
 
+    /** Request notifications of PV updates on an executor
+     *
+     *  <p>The thread that receives updates from the control system
+     *  only queues them, and the listener is called on the executor.
+     *  A slow listener thus does not delay updates of other PVs or listeners.
+     *  Updates are delivered one at a time and in order.
+     *
+     *  @param listener Listener that will receive value updates
+     *  @param executor Executor on which the listener is called
+     *  @param policy {@link DeliveryPolicy} for values that arrive while the listener is busy
+     *  @see #addListener(PVListener, Executor, DeliveryPolicy, int)
+     *  @see #removeListener(PVListener)
+     */
+    public void addListener(final PVListener listener, final Executor executor, final DeliveryPolicy policy)
+    {
+        addListener(listener, executor, policy, 100);
+    }
+
+    /** Request notifications of PV updates on an executor
+     *
+     *  @param listener Listener that will receive value updates
+     *  @param executor Executor on which the listener is called
+     *  @param policy {@link DeliveryPolicy} for values that arrive while the listener is busy
+     *  @param capacity Maximum number of queued values for {@link DeliveryPolicy#BOUNDED}
+     *  @see #addListener(PVListener, Executor, DeliveryPolicy)
+     *  @see #removeListener(PVListener)
+     */
+    public void addListener(final PVListener listener, final Executor executor, final DeliveryPolicy policy,
+                            final int capacity)
+    {
+        addListener(new ListenerDelivery(this, listener, executor, policy, capacity));
+    }
+
     /** @param listener Listener that will no longer receive value updates */
     public void removeListener(final PVListener listener)
     {
+        for (PVListener existing : listeners)
+            if (existing instanceof ListenerDelivery  &&
+                ((ListenerDelivery) existing).getListener() == listener)
+            {
+                ((ListenerDelivery) existing).remove();
+                listeners.remove(existing);
+                return;
+            }
         listeners.remove(listener);
     }
 
@@ -110,6 +162,29 @@ abstract public class PV
         return CompletableFuture.completedFuture(last_value);
     }
 
+    /** @return Number of value updates that listeners received */
+    public long getDeliveredCount()
+    {
+        return delivered.sum();
+    }
+
+    /** @return Number of value updates that were replaced by a newer value
+     *          before a {@link DeliveryPolicy#LATEST} listener received them,
+     *          or that the PV implementation skipped
+     */
+    public long getCoalescedCount()
+    {
+        return coalesced.sum();
+    }
+
+    /** @return Number of value updates that were dropped
+     *          because a {@link DeliveryPolicy#BOUNDED} listener's queue was full
+     */
+    public long getDroppedCount()
+    {
+        return dropped.sum();
+    }
+
     /** @return <code>true</code> if PV is read-only */
     public boolean isReadonly()
     {
@@ -174,6 +249,14 @@ abstract public class PV
         }
     }
 
+    /** Helper for PV implementation to count a received value
+     *  that was skipped because a newer value was already available
+     */
+    protected void countSkippedValue()
+    {
+        coalesced.increment();
+    }
+
     /** Helper for PV implementation to notify listeners */
     protected void notifyListenersOfValue(final VType value)
     {
@@ -183,6 +266,8 @@ abstract public class PV
             try
             {
                 listener.valueChanged(this, value);
+                if (! (listener instanceof ListenerDelivery))
+                    delivered.increment();
             }
             catch (Throwable ex)
             {
@@ -7,10 +7,17 @@
  ******************************************************************************/
 package org.csstudio.vtype.pv;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.csstudio.vtype.pv.RefCountMap.ReferencedEntry;
 
@@ -36,6 +43,11 @@ import org.csstudio.vtype.pv.RefCountMap.ReferencedEntry;
  *  <p>Note also that "loc://x(3.14)" and "loc://x(14)" will be treated
  *  as different PVs.
  *
+ *  <p>The pool is thread-safe without a global lock.
+ *  While a PV is created, other threads asking for the same name
+ *  wait for that creation to complete,
+ *  but requests for other PVs are not blocked.
+ *
  *  @author Kay Kasemir
  */
 @SuppressWarnings("nls")
@@ -50,17 +62,35 @@ public class PVPool
     final public static String SEPARATOR = "://";
 
     /** Map of PV type prefixes to PV factories */
-    final private static Map<String, PVFactory> factories = new HashMap<>();
+    final private static Map<String, PVFactory> factories = new ConcurrentHashMap<>();
 
     /** Default PV name type prefix */
-    private static String default_type;
+    private static volatile String default_type;
 
-    /** PV Pool
-     *  SYNC on 'pool':
-     *  Otherwise, two threads concurrently looking for a new PV would both add it.
-     */
+    /** PV Pool, using the actual PV name as a key */
     final private static RefCountMap<String, PV> pool = new RefCountMap<>();
 
+    /** PVs that are being created, using the requested PV name as a key.
+     *  Threads that ask for a PV while it's being created
+     *  wait for its future instead of creating it again.
+     */
+    final private static ConcurrentHashMap<String, CompletableFuture<PV>> pending = new ConcurrentHashMap<>();
+
+    /** Count of threads in {@link #creator} */
+    final private static AtomicInteger creator_threads = new AtomicInteger();
+
+    /** Thread pool for {@link #getPVAsync(String)}.
+     *  Bounded, because creating PVs may block on I/O,
+     *  and a large bulk request must not start one thread per PV.
+     */
+    final private static ExecutorService creator =
+        Executors.newFixedThreadPool(Math.max(4, 2*Runtime.getRuntime().availableProcessors()), (Runnable target) ->
+        {
+            final Thread thread = new Thread(target, "PVPool" + creator_threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
     /** Singleton */
     private PVPool()
     {
@@ -121,21 +151,143 @@ public class PVPool
      */
     public static PV getPV(final String name) throws Exception
     {
-        PV pv;
-        synchronized (pool)
+        while (true)
         {   // Try to locate PV in pool
-            pv = pool.get(name);
-            if (pv == null)
+            PV pv = pool.get(name);
+            if (pv != null)
+                return pv;
+
+            // Is another thread already creating the PV?
+            final CompletableFuture<PV> creation = new CompletableFuture<>();
+            final CompletableFuture<PV> other = pending.putIfAbsent(name, creation);
+            if (other != null)
+            {
+                try
+                {
+                    pv = other.get();
+                }
+                catch (ExecutionException ex)
+                {
+                    throw unwrap(ex);
+                }
+                // Add reference to the PV created by other thread.
+                // If it has meanwhile been released, try again.
+                pv = pool.get(pv.getName());
+                if (pv != null)
+                    return pv;
+                continue;
+            }
+
+            // This thread creates the PV
+            try
             {
-                pv = createPV(name);
-                // Actual name may differ from the provided name.
-                // For example, "loc://x(2)", "loc://x" and "loc://x<VDouble>(4)"
-                // will be the same PV "loc://x" in the pool.
-                if (pool.get(pv.getName()) == null) // Increment reference?
-                    pool.put(pv.getName(), pv);     // Add new PV
+                // Check again in case PV was added just before we got here
+                pv = pool.get(name);
+                if (pv == null)
+                {
+                    final PV new_pv = createPV(name);
+                    // Actual name may differ from the provided name.
+                    // For example, "loc://x(2)", "loc://x" and "loc://x<VDouble>(4)"
+                    // will be the same PV "loc://x" in the pool.
+                    pv = pool.putOrGet(new_pv.getName(), new_pv);
+                    if (pv != new_pv)
+                        new_pv.close();
+                }
+                creation.complete(pv);
+                return pv;
+            }
+            catch (Throwable ex)
+            {
+                creation.completeExceptionally(ex);
+                throw ex;
+            }
+            finally
+            {
+                pending.remove(name, creation);
             }
         }
-        return pv;
+    }
+
+    /** Obtain a PV in the background
+     *
+     *  <p>Like {@link #getPV(String)}, but doesn't wait for the PV to be created.
+     *
+     *  @param name PV name, where prefix might be used to determine the type
+     *  @return {@link CompletableFuture} for the {@link PV}
+     *  @see #releasePV(PV)
+     */
+    public static CompletableFuture<PV> getPVAsync(final String name)
+    {
+        final CompletableFuture<PV> result = new CompletableFuture<>();
+        creator.execute(() ->
+        {
+            try
+            {
+                result.complete(getPV(name));
+            }
+            catch (Throwable ex)
+            {
+                result.completeExceptionally(ex);
+            }
+        });
+        return result;
+    }
+
+    /** Obtain several PVs
+     *
+     *  <p>PVs that are not already in the pool are created in parallel.
+     *  If any PV cannot be obtained, all PVs are released
+     *  and the first error is reported.
+     *
+     *  @param names PV names
+     *  @return {@link PV}s, in the order of the names
+     *  @throws Exception on error
+     *  @see #releasePV(PV)
+     */
+    public static List<PV> getPVs(final Collection<String> names) throws Exception
+    {
+        final List<CompletableFuture<PV>> futures = new ArrayList<>(names.size());
+        for (String name : names)
+        {
+            // Avoid thread hand-over for PVs that are already in the pool
+            final PV pv = pool.get(name);
+            futures.add(pv != null ? CompletableFuture.completedFuture(pv) : getPVAsync(name));
+        }
+
+        final List<PV> pvs = new ArrayList<>(futures.size());
+        Exception error = null;
+        for (CompletableFuture<PV> future : futures)
+        {
+            try
+            {
+                pvs.add(future.get());
+            }
+            catch (ExecutionException ex)
+            {
+                if (error == null)
+                    error = unwrap(ex);
+            }
+        }
+        if (error != null)
+        {
+            for (PV pv : pvs)
+                releasePV(pv);
+            throw error;
+        }
+        return pvs;
+    }
+
+    /** @param ex {@link ExecutionException} of a PV creation
+     *  @return Original cause
+     */
+    private static Exception unwrap(final ExecutionException ex)
+    {
+        final Throwable cause = ex.getCause();
+        if (cause instanceof Exception)
+            return (Exception) cause;
+        if (cause instanceof Error)
+            throw (Error) cause;
+        return ex;
     }
 
     /** Create
@@ -177,21 +329,16 @@ public class PVPool
     /** @param pv PV to be released */
     public static void releasePV(final PV pv)
     {
-        final int references;
-        synchronized (pool)
-        {
-            references = pool.release(pv.getName());
-        }
+        final int references = pool.release(pv.getName());
         if (references == 0)
             pv.close();
     }
 
-    /** @return PVs currently in the pool with reference count information */
+    /** @return PVs currently in the pool with reference count information.
+     *          The {@link PV}s provide counters for delivered, coalesced and dropped updates.
+     */
     public static Collection<ReferencedEntry<PV>> getPVReferences()
     {
-        synchronized (pool)
-        {
-            return pool.getEntries();
-        }
+        return pool.getEntries();
     }
 }
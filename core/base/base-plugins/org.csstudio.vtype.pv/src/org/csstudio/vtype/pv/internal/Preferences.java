@@ -27,6 +27,14 @@ public class Preferences
         return service.getString(plugin, setting, default_value, null);
     }
 
+    private static int getInt(final String plugin, final String setting, final int default_value)
+    {
+        final IPreferencesService service = Platform.getPreferencesService();
+        if (service == null)
+            return default_value;
+        return service.getInt(plugin, setting, default_value, null);
+    }
+
     public static String defaultType()
     {
         return getString(PVPlugin.ID, "default_type", JCA_PVFactory.TYPE);
@@ -38,4 +46,10 @@ public class Preferences
         return getString(PVPlugin.ID, "mqtt_broker", MQTT_PVFactory.BROKER_URL);
     }
 
+    /** @return Number of threads for simulated PVs, 0 to use one per CPU core */
+    public static int getSimThreads()
+    {
+        return getInt(PVPlugin.ID, "sim_threads", 0);
+    }
+
 }
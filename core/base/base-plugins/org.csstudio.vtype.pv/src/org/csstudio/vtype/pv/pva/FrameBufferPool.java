@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.vtype.pv.pva;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/** Pool of image frame buffers
+ *
+ *  <p>Buffers are handed out for image data.
+ *  Once the user of a buffer, the image, is no longer reachable,
+ *  the buffer is returned to the pool.
+ *  Anything that still holds the buffer without holding its user
+ *  will see the buffer overwritten by a later frame.
+ *  Keeps only a few buffers per array size,
+ *  enough for the frames of a camera that are
+ *  in flight between network and display.
+ *
+ *  @param <T> Array type
+ *  @author agent
+ */
+class FrameBufferPool<T>
+{
+    /** Maximum number of pooled buffers per size */
+    private static final int MAX_BUFFERS = 4;
+
+    static final FrameBufferPool<byte[]> BYTES = new FrameBufferPool<>(byte[]::new);
+    static final FrameBufferPool<short[]> SHORTS = new FrameBufferPool<>(short[]::new);
+    static final FrameBufferPool<int[]> INTS = new FrameBufferPool<>(int[]::new);
+    static final FrameBufferPool<long[]> LONGS = new FrameBufferPool<>(long[]::new);
+
+    /** Reference to the user of a buffer */
+    private class Tracker extends WeakReference<Object>
+    {
+        final T buffer;
+
+        Tracker(final Object user, final T buffer)
+        {
+            super(user, released);
+            this.buffer = buffer;
+        }
+    }
+
+    final private IntFunction<T> allocator;
+
+    /** Queue of trackers whose user is no longer reachable */
+    final private ReferenceQueue<Object> released = new ReferenceQueue<>();
+
+    /** Active trackers, keeping them reachable until enqueued */
+    final private Set<Tracker> trackers = ConcurrentHashMap.newKeySet();
+
+    /** Free buffers by size */
+    final private ConcurrentHashMap<Integer, ConcurrentLinkedDeque<T>> free = new ConcurrentHashMap<>();
+
+    final private LongAdder allocated = new LongAdder(), reused = new LongAdder();
+
+    private FrameBufferPool(final IntFunction<T> allocator)
+    {
+        this.allocator = allocator;
+    }
+
+    /** @param size Number of array elements
+     *  @return Buffer from pool, or newly allocated. Content is undefined.
+     */
+    T take(final int size)
+    {
+        reclaim();
+        final ConcurrentLinkedDeque<T> buffers = free.get(size);
+        final T buffer = buffers == null ? null : buffers.poll();
+        if (buffer != null)
+        {
+            reused.increment();
+            return buffer;
+        }
+        allocated.increment();
+        return allocator.apply(size);
+    }
+
+    /** Return buffer to pool once the user is no longer reachable
+     *  @param user Object that uses the buffer and keeps it reachable
+     *  @param buffer Buffer
+     */
+    void track(final Object user, final T buffer)
+    {
+        trackers.add(new Tracker(user, buffer));
+    }
+
+    /** Move buffers of users that are gone back into the pool */
+    @SuppressWarnings("unchecked")
+    private void reclaim()
+    {
+        Tracker tracker;
+        while ((tracker = (Tracker) released.poll()) != null)
+        {
+            trackers.remove(tracker);
+            final ConcurrentLinkedDeque<T> buffers =
+                free.computeIfAbsent(Array.getLength(tracker.buffer), size -> new ConcurrentLinkedDeque<>());
+            if (buffers.size() < MAX_BUFFERS)
+                buffers.add(tracker.buffer);
+        }
+    }
+
+    /** @return Number of buffers that had to be allocated */
+    long getAllocated()
+    {
+        return allocated.sum();
+    }
+
+    /** @return Number of buffers that were reused */
+    long getReused()
+    {
+        return reused.sum();
+    }
+}
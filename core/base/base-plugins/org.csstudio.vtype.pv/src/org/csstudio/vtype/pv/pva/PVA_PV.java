@@ -216,22 +216,39 @@ class PVA_PV extends PV implements ChannelRequester, MonitorRequester
         return value;
     }
 
+    /** @param update Received data
+     *  @return <code>true</code> if data is an image
+     */
+    private static boolean isImage(final MonitorElement update)
+    {
+        return update.getPVStructure().getStructure().getID().endsWith("NTNDArray:1.0");
+    }
+
     // MonitorRequester
     @Override
     public void monitorEvent(final Monitor monitor)
     {
-        MonitorElement update;
-        while ((update = monitor.poll()) != null)
+        MonitorElement update = monitor.poll();
+        while (update != null)
         {
-            try
-            {
-                handleValueUpdate(update.getPVStructure());
-            }
-            catch (Exception ex)
+            final MonitorElement next = monitor.poll();
+            // When images arrive faster than they can be handled,
+            // skip to the newest image instead of decoding each one
+            if (next != null  &&  isImage(update))
+                countSkippedValue();
+            else
             {
-                logger.log(Level.WARNING, "Cannot handle update for " + getName(), ex);
+                try
+                {
+                    handleValueUpdate(update.getPVStructure());
+                }
+                catch (Exception ex)
+                {
+                    logger.log(Level.WARNING, "Cannot handle update for " + getName(), ex);
+                }
             }
             monitor.release(update);
+            update = next;
         }
     }
 
@@ -7,6 +7,10 @@
  ******************************************************************************/
 package org.csstudio.vtype.pv.pva;
 
+import java.lang.reflect.Array;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
 import org.diirt.util.array.ArrayByte;
 import org.diirt.util.array.ArrayInt;
 import org.diirt.util.array.ArrayLong;
@@ -15,6 +19,9 @@ import org.diirt.util.array.ListNumber;
 import org.diirt.vtype.VImage;
 import org.diirt.vtype.VImageDataType;
 import org.diirt.vtype.VImageType;
+import org.epics.pvdata.pv.ByteArrayData;
+import org.epics.pvdata.pv.IntArrayData;
+import org.epics.pvdata.pv.LongArrayData;
 import org.epics.pvdata.pv.PVByteArray;
 import org.epics.pvdata.pv.PVField;
 import org.epics.pvdata.pv.PVInt;
@@ -30,9 +37,17 @@ import org.epics.pvdata.pv.PVUIntArray;
 import org.epics.pvdata.pv.PVULongArray;
 import org.epics.pvdata.pv.PVUShortArray;
 import org.epics.pvdata.pv.PVUnion;
+import org.epics.pvdata.pv.ShortArrayData;
 import org.epics.pvdata.pv.StructureArrayData;
 
 /** VImage for a ListNumber
+ *
+ *  <p>Image data is obtained from the NTNDArray without copying when possible,
+ *  using buffers of a {@link FrameBufferPool}.
+ *  The buffer returns to the pool once this image is no longer reachable.
+ *  Users must therefore keep the image while they access its data,
+ *  not just the {@link ListNumber} or the array that it wraps.
+ *
  *  @author Kay Kasemir
  *  @author Amanda Carpenter - handle unsigned VImageDataType, detect VImageType
  */
@@ -150,66 +165,131 @@ class VImageForNTNDArray extends VTypeTimeAlarmBase implements VImage
         }
 
         // Get data and data type
+        final PVScalarArray array = (PVScalarArray) value;
         if (value instanceof PVByteArray)
         {
-            final byte[] values = new byte[size];
-            PVStructureHelper.convert.toByteArray((PVByteArray) value, 0, size, values, 0);
-            data = new ArrayByte(values);
+            final ByteArrayData values = new ByteArrayData();
+            final int count = ((PVByteArray) value).get(0, size, values);
+            data = wrap(this, array, values.data, values.offset, count, size, FrameBufferPool.BYTES,
+                        ((PVByteArray) value)::shareData, buffer -> new ArrayByte(buffer, true));
             data_type = VImageDataType.pvByte;
         }
         else if (value instanceof PVUByteArray)
         {
-            final byte[] values = new byte[size];
-            PVStructureHelper.convert.toByteArray((PVUByteArray) value, 0, size, values, 0);
-            data = new ArrayByte(values);
+            final ByteArrayData values = new ByteArrayData();
+            final int count = ((PVUByteArray) value).get(0, size, values);
+            data = wrap(this, array, values.data, values.offset, count, size, FrameBufferPool.BYTES,
+                        ((PVUByteArray) value)::shareData, buffer -> new ArrayByte(buffer, true));
             data_type = VImageDataType.pvUByte;
         }
         else if (value instanceof PVShortArray)
         {
-            final short[] values = new short[size];
-            PVStructureHelper.convert.toShortArray((PVShortArray) value, 0, size, values, 0);
-            data = new ArrayShort(values);
+            final ShortArrayData values = new ShortArrayData();
+            final int count = ((PVShortArray) value).get(0, size, values);
+            data = wrap(this, array, values.data, values.offset, count, size, FrameBufferPool.SHORTS,
+                        ((PVShortArray) value)::shareData, buffer -> new ArrayShort(buffer, true));
             data_type = VImageDataType.pvShort;
         }
         else if (value instanceof PVUShortArray)
         {
-            final short[] values = new short[size];
-            PVStructureHelper.convert.toShortArray((PVUShortArray) value, 0, size, values, 0);
-            data = new ArrayShort(values);
+            final ShortArrayData values = new ShortArrayData();
+            final int count = ((PVUShortArray) value).get(0, size, values);
+            data = wrap(this, array, values.data, values.offset, count, size, FrameBufferPool.SHORTS,
+                        ((PVUShortArray) value)::shareData, buffer -> new ArrayShort(buffer, true));
             data_type = VImageDataType.pvUShort;
         }
         else if (value instanceof PVIntArray)
         {
-            final int[] values = new int[size];
-            PVStructureHelper.convert.toIntArray((PVIntArray) value, 0, size, values, 0);
-            data = new ArrayInt(values);
+            final IntArrayData values = new IntArrayData();
+            final int count = ((PVIntArray) value).get(0, size, values);
+            data = wrap(this, array, values.data, values.offset, count, size, FrameBufferPool.INTS,
+                        ((PVIntArray) value)::shareData, buffer -> new ArrayInt(buffer, true));
             data_type = VImageDataType.pvInt;
         }
         else if (value instanceof PVUIntArray)
         {
-            final int[] values = new int[size];
-            PVStructureHelper.convert.toIntArray((PVUIntArray) value, 0, size, values, 0);
-            data = new ArrayInt(values);
+            final IntArrayData values = new IntArrayData();
+            final int count = ((PVUIntArray) value).get(0, size, values);
+            data = wrap(this, array, values.data, values.offset, count, size, FrameBufferPool.INTS,
+                        ((PVUIntArray) value)::shareData, buffer -> new ArrayInt(buffer, true));
             data_type = VImageDataType.pvUInt;
         }
         else if (value instanceof PVLongArray)
         {
-            final long[] values = new long[size];
-            PVStructureHelper.convert.toLongArray((PVLongArray) value, 0, size, values, 0);
-            data = new ArrayLong(values);
+            final LongArrayData values = new LongArrayData();
+            final int count = ((PVLongArray) value).get(0, size, values);
+            data = wrap(this, array, values.data, values.offset, count, size, FrameBufferPool.LONGS,
+                        ((PVLongArray) value)::shareData, buffer -> new ArrayLong(buffer, true));
             data_type = VImageDataType.pvLong;
         }
         else if (value instanceof PVULongArray)
         {
-            final long[] values = new long[size];
-            PVStructureHelper.convert.toLongArray((PVULongArray) value, 0, size, values, 0);
-            data = new ArrayLong(values);
+            final LongArrayData values = new LongArrayData();
+            final int count = ((PVULongArray) value).get(0, size, values);
+            data = wrap(this, array, values.data, values.offset, count, size, FrameBufferPool.LONGS,
+                        ((PVULongArray) value)::shareData, buffer -> new ArrayLong(buffer, true));
             data_type = VImageDataType.pvULong;
         }
         else
             throw new Exception("Cannot decode NTNDArray type of value " + value);
     }
 
+    /** Wrap image data
+     *
+     *  <p>When PVData's array holds exactly the image data,
+     *  it is used without copying, and PVData receives a recycled
+     *  buffer into which the next frame can be read.
+     *  Otherwise the data is copied into a recycled buffer.
+     *
+     *  <p>The buffer is tracked by the image, not the {@link ListNumber},
+     *  because users may hold on to the wrapped array via the image.
+     *
+     *  @param image Image that uses the data
+     *  @param value PVData array
+     *  @param array Array obtained from PVData
+     *  @param offset Offset of image data in array
+     *  @param count Number of elements obtained from PVData
+     *  @param size Number of elements in image
+     *  @param pool {@link FrameBufferPool}
+     *  @param share Hands a new array to PVData
+     *  @param wrapper Creates {@link ListNumber} for the image data
+     *  @return {@link ListNumber} for image data
+     */
+    private static <T> ListNumber wrap(final VImage image, final PVScalarArray value, final T array, final int offset,
+                                       final int count, final int size,
+                                       final FrameBufferPool<T> pool, final Consumer<T> share,
+                                       final Function<T, ListNumber> wrapper)
+    {
+        final T buffer;
+        final boolean recycle;
+        if (count < size)
+        {   // Missing data, pad with zeros
+            @SuppressWarnings("unchecked")
+            final T padded = (T) Array.newInstance(array.getClass().getComponentType(), size);
+            buffer = padded;
+            System.arraycopy(array, offset, buffer, 0, count);
+            recycle = false;
+        }
+        else if (offset == 0  &&  Array.getLength(array) == size)
+        {   // Take PVData's array.
+            // If immutable, PVData will not change it, but it
+            // still belongs to PVData and must not be recycled
+            buffer = array;
+            recycle = ! value.isImmutable();
+            if (recycle)
+                share.accept(pool.take(size));
+        }
+        else
+        {
+            buffer = pool.take(size);
+            System.arraycopy(array, offset, buffer, 0, size);
+            recycle = true;
+        }
+        if (recycle)
+            pool.track(image, buffer);
+        return wrapper.apply(buffer);
+    }
+
     @Override
     public int getHeight()
     {
@@ -222,6 +302,12 @@ class VImageForNTNDArray extends VTypeTimeAlarmBase implements VImage
         return width;
     }
 
+    /** {@inheritDoc}
+     *
+     *  <p>The data is only valid while this image is reachable.
+     *  Once the image is released, the buffer that holds the data
+     *  is re-used for another frame.
+     */
     @Override
     public ListNumber getData()
     {
@@ -9,6 +9,7 @@ package org.csstudio.vtype.pv.sim;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.List;
 
 import org.csstudio.vtype.pv.PV;
@@ -20,7 +21,9 @@ import org.csstudio.vtype.pv.PV;
 public class GaussianWavePV extends SimulatedDoubleArrayPV
 {
     private final double period;
+    /** Gaussian shape, repeated twice so that any rotation is one contiguous section */
     private final double[] shape;
+    private final int size;
     private final Instant start = Instant.now();
 
     public static PV forParameters(final String name, List<Double> parameters) throws Exception
@@ -42,12 +45,13 @@ public class GaussianWavePV extends SimulatedDoubleArrayPV
         if (size < 1)
             size = 1;
 
-        shape = new double[size];
+        this.size = size;
+        shape = new double[2*size];
         final double center = size / 2.0;
         for (int i=0; i<size; ++i)
         {
             final double dx = i - center;
-            shape[i] = Math.exp(- dx*dx / std_dev);
+            shape[i] = shape[size+i] = Math.exp(- dx*dx / std_dev);
         }
         start(0.0, 1.0, update_seconds);
     }
@@ -55,17 +59,12 @@ public class GaussianWavePV extends SimulatedDoubleArrayPV
     @Override
     public double[] compute()
     {
-        final double[] value = new double[shape.length];
-
         final Duration dist = Duration.between(start, Instant.now());
         final double t = dist.getSeconds() + dist.getNano()*1e-9;
         final double periods = period > 0 ? t / period : 0.0;
-        final int i0 = (int) ((periods - (int)periods) * value.length);
+        final int i0 = (int) ((periods - (int)periods) * size);
 
         // value[..] = shape[i0 to end] concatenated with shape[0 to i0-1]
-        final int rest = value.length - i0;
-        System.arraycopy(shape, i0, value, 0, rest);
-        System.arraycopy(shape, 0, value, rest, i0);
-        return value;
+        return Arrays.copyOfRange(shape, i0, i0 + size);
     }
 }
@@ -0,0 +1,269 @@
+/*******************************************************************************
+ * Copyright (c) 2026 agent.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ ******************************************************************************/
+package org.csstudio.vtype.pv.sim;
+
+import static org.csstudio.vtype.pv.PV.logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+import org.csstudio.vtype.pv.internal.Preferences;
+
+/** Scheduler for periodic updates of simulated PVs
+ *
+ *  <p>Instead of one timer task per PV, PVs with the same
+ *  update period are grouped, and each group is updated in
+ *  one batch per tick.
+ *  A group is split into shards, one per timer thread,
+ *  which tick with staggered phase so that the load
+ *  is spread over the threads and over the period.
+ *
+ *  <p>Keeps statistics of requested and achieved update rates,
+ *  so that simulated PVs can serve as a trustworthy load generator.
+ *
+ *  @author agent
+ */
+@SuppressWarnings("nls")
+public class SimScheduler
+{
+    /** Statistics for PVs with one update period */
+    public static class Statistics
+    {
+        final private long period_ms;
+        final private int pvs;
+        final private double requested, achieved;
+        final private long late;
+
+        Statistics(final long period_ms, final int pvs, final double requested,
+                   final double achieved, final long late)
+        {
+            this.period_ms = period_ms;
+            this.pvs = pvs;
+            this.requested = requested;
+            this.achieved = achieved;
+            this.late = late;
+        }
+
+        /** @return Update period in milliseconds */
+        public long getPeriodMillis()
+        {
+            return period_ms;
+        }
+
+        /** @return Number of PVs */
+        public int getPVCount()
+        {
+            return pvs;
+        }
+
+        /** @return Requested updates per second */
+        public double getRequestedRate()
+        {
+            return requested;
+        }
+
+        /** @return Updates per second achieved since the previous statistics */
+        public double getAchievedRate()
+        {
+            return achieved;
+        }
+
+        /** @return Number of ticks that started more than half a period late */
+        public long getLateTicks()
+        {
+            return late;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%d PVs at %d ms: %.1f updates/sec requested, %.1f achieved, %d late ticks",
+                                 pvs, period_ms, requested, achieved, late);
+        }
+    }
+
+    /** Part of a group, updated by one timer task */
+    static class Shard implements Runnable
+    {
+        final private long period_ms;
+        final private Set<SimulatedPV> pvs = ConcurrentHashMap.newKeySet();
+        final private LongAdder updates = new LongAdder();
+        final private LongAdder late = new LongAdder();
+
+        /** Start time of last tick, only accessed by timer */
+        private long last_tick = 0;
+
+        /** Timer task, <code>null</code> when shard is empty. SYNC on this */
+        private ScheduledFuture<?> task = null;
+
+        Shard(final long period_ms)
+        {
+            this.period_ms = period_ms;
+        }
+
+        synchronized void add(final SimulatedPV pv, final long initial_delay_ms)
+        {
+            pvs.add(pv);
+            if (task == null)
+                task = timer.scheduleAtFixedRate(this, initial_delay_ms, period_ms, TimeUnit.MILLISECONDS);
+        }
+
+        synchronized boolean remove(final SimulatedPV pv)
+        {
+            final boolean removed = pvs.remove(pv);
+            if (pvs.isEmpty()  &&  task != null)
+            {
+                task.cancel(false);
+                task = null;
+                last_tick = 0;
+            }
+            return removed;
+        }
+
+        @Override
+        public void run()
+        {
+            final long now = System.nanoTime();
+            if (last_tick > 0  &&  now - last_tick > TimeUnit.MILLISECONDS.toNanos(period_ms * 3 / 2))
+                late.increment();
+            last_tick = now;
+
+            int count = 0;
+            for (SimulatedPV pv : pvs)
+            {
+                try
+                {
+                    pv.update();
+                    ++count;
+                }
+                catch (Throwable ex)
+                {
+                    logger.log(Level.WARNING, "Error updating " + pv.getName(), ex);
+                }
+            }
+            updates.add(count);
+        }
+    }
+
+    /** PVs with same update period */
+    private static class Group
+    {
+        final long period_ms;
+        final Shard[] shards;
+        final AtomicInteger next = new AtomicInteger();
+
+        /** Statistics at last call to getStatistics. SYNC on this */
+        long last_updates = 0, last_time = System.nanoTime();
+
+        Group(final long period_ms)
+        {
+            this.period_ms = period_ms;
+            shards = new Shard[threads];
+            for (int i=0; i<threads; ++i)
+                shards[i] = new Shard(period_ms);
+        }
+
+        Shard add(final SimulatedPV pv)
+        {
+            // Assign PVs round-robin, and stagger the shards' phase
+            final int index = Math.floorMod(next.getAndIncrement(), shards.length);
+            shards[index].add(pv, period_ms + period_ms * index / shards.length);
+            return shards[index];
+        }
+
+        synchronized Statistics getStatistics()
+        {
+            int pvs = 0;
+            long updates = 0, late = 0;
+            for (Shard shard : shards)
+            {
+                pvs += shard.pvs.size();
+                updates += shard.updates.sum();
+                late += shard.late.sum();
+            }
+            final long now = System.nanoTime();
+            final double secs = (now - last_time) / 1e9;
+            final double achieved = secs > 0 ? (updates - last_updates) / secs : 0.0;
+            last_updates = updates;
+            last_time = now;
+            return new Statistics(period_ms, pvs, pvs * 1000.0 / period_ms, achieved, late);
+        }
+    }
+
+    /** Number of timer threads */
+    private static final int threads;
+
+    /** Timer for all simulated PVs */
+    private static final ScheduledExecutorService timer;
+
+    /** Groups by update period in ms */
+    private static final ConcurrentHashMap<Long, Group> groups = new ConcurrentHashMap<>();
+
+    static
+    {
+        int count = Preferences.getSimThreads();
+        if (count <= 0)
+            count = Runtime.getRuntime().availableProcessors();
+        threads = count;
+        final AtomicInteger instance = new AtomicInteger();
+        timer = Executors.newScheduledThreadPool(threads, (Runnable target) ->
+        {
+            final Thread thread = new Thread(target, "SimPV" + instance.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** Start periodic updates of a PV
+     *  @param pv PV to update
+     *  @param period_ms Update period in milliseconds
+     *  @return Handle for removing the PV
+     */
+    static Shard add(final SimulatedPV pv, final long period_ms)
+    {
+        return groups.computeIfAbsent(period_ms, Group::new).add(pv);
+    }
+
+    /** Stop periodic updates of a PV
+     *  @param pv PV to stop
+     *  @param shard Handle obtained when adding the PV
+     *  @return <code>true</code> if PV was removed
+     */
+    static boolean remove(final SimulatedPV pv, final Shard shard)
+    {
+        return shard.remove(pv);
+    }
+
+    /** Get statistics
+     *
+     *  <p>The achieved rate is computed since the previous call.
+     *
+     *  @return Statistics for each update period that has PVs
+     */
+    public static List<Statistics> getStatistics()
+    {
+        final List<Statistics> result = new ArrayList<>();
+        for (Group group : groups.values())
+        {
+            final Statistics stats = group.getStatistics();
+            if (stats.getPVCount() > 0)
+                result.add(stats);
+        }
+        result.sort((a, b) -> Long.compare(a.getPeriodMillis(), b.getPeriodMillis()));
+        return result;
+    }
+}
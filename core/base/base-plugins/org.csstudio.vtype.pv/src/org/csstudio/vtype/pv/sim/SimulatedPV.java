@@ -7,10 +7,6 @@
  ******************************************************************************/
 package org.csstudio.vtype.pv.sim;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 import org.csstudio.vtype.pv.PV;
@@ -22,12 +18,8 @@ import org.csstudio.vtype.pv.PV;
 @SuppressWarnings("nls")
 abstract public class SimulatedPV extends PV
 {
-    /** Timer for periodic updates */
-    private final static ScheduledExecutorService executor =
-        Executors.newScheduledThreadPool(1, (Runnable target) -> new Thread(target, "SimPV"));
-
-    /** Task that was submitted for periodic updates */
-    private ScheduledFuture<?> task;
+    /** Scheduler entry for periodic updates */
+    private SimScheduler.Shard task;
 
     /** @param name Full PV name */
     public SimulatedPV(final String name)
@@ -44,7 +36,7 @@ abstract public class SimulatedPV extends PV
     protected void start(final double update_seconds)
     {
         final long milli = Math.round(Math.max(update_seconds, 0.1) * 1000);
-        task = executor.scheduleAtFixedRate(this::update, milli, milli, TimeUnit.MILLISECONDS);
+        task = SimScheduler.add(this, milli);
     }
 
     /** Prohibit write access */
@@ -54,13 +46,13 @@ abstract public class SimulatedPV extends PV
         throw new Exception("Cannot write data of type" + new_value.getClass().getName());
     }
 
-    /** Called by periodic timer */
+    /** Called by periodic timer, {@link SimScheduler} */
     abstract protected void update();
 
     @Override
     protected void close()
     {
-        if (! task.cancel(false))
+        if (task == null  ||  ! SimScheduler.remove(this, task))
             logger.log(Level.WARNING, "Cannot cancel updates for " + getName());
         super.close();
     }
@@ -19,8 +19,9 @@ import org.csstudio.vtype.pv.PV;
 @SuppressWarnings("nls")
 public class SineWavePV extends SimulatedDoubleArrayPV
 {
-    private final double min, range, period, wavelength;
-    private final int size;
+    private final double min, range, period;
+    /** Sine and cosine of the phase for each array element */
+    private final double[] sin_table, cos_table;
     private final Instant start = Instant.now();
 
     public static PV forParameters(final String name, List<Double> parameters) throws Exception
@@ -51,8 +52,17 @@ public class SineWavePV extends SimulatedDoubleArrayPV
         this.min = min;
         this.range =  max - min;
         this.period = period_seconds;
-        this.size = size;
-        this.wavelength = sample_wavelength;
+
+        // value[i] = sin(x0 + phase[i]) = sin(x0) cos(phase[i]) + cos(x0) sin(phase[i]),
+        // so only need to compute sin(x0), cos(x0) for each update
+        sin_table = new double[size];
+        cos_table = new double[size];
+        for (int i=0; i<size; ++i)
+        {
+            final double phase = 2*Math.PI * i / sample_wavelength;
+            sin_table[i] = Math.sin(phase);
+            cos_table[i] = Math.cos(phase);
+        }
         start(min, max, update_seconds);
     }
 
@@ -61,13 +71,14 @@ public class SineWavePV extends SimulatedDoubleArrayPV
     {
         final Duration dist = Duration.between(start, Instant.now());
         final double t = dist.getSeconds() + dist.getNano()*1e-9;
-        final double x0 = period > 0 ? t / period : 0.0;
+        final double x0 = 2*Math.PI * (period > 0 ? t / period : 0.0);
+        final double sin0 = Math.sin(x0), cos0 = Math.cos(x0);
 
-        final double[] value = new double[size];
-        for (int i=0; i<size; ++i)
+        final double[] value = new double[sin_table.length];
+        for (int i=0; i<value.length; ++i)
         {
-            final double x = 2*Math.PI * (x0 + i / wavelength);
-            value[i] = min + (Math.sin(x)+1.0)/2.0 * range;
+            final double sin = sin0 * cos_table[i] + cos0 * sin_table[i];
+            value[i] = min + (sin+1.0)/2.0 * range;
         }
         return value;
     }